@@ -9,6 +9,7 @@ import org.springframework.boot.CommandLineRunner;
 import com.lachguer.accountservice.repository.BankAccountRepository;
 import com.lachguer.accountservice.model.CurrentAccount;
 import com.lachguer.accountservice.model.SavingAccount;
+import java.math.BigDecimal;
 import java.util.Date;
 
 @SpringBootApplication(scanBasePackages = {"com.lachguer.accountservice", "com.aitsaid.commonsecurity"})
@@ -27,17 +28,17 @@ public class AccountServiceApplication {
 	            if (bankAccountRepository.count() == 0) {
 	                CurrentAccount ca = new CurrentAccount();
 	                ca.setRib("RIB-TEST-1");
-	                ca.setBalance(1000.0);
+	                ca.setBalance(new BigDecimal("1000"));
 	                ca.setCreatedAt(new Date());
 	                ca.setIsActive(true);
 	                ca.setUserId(1L);
-	                ca.setOverDraft(200.0);
+	                ca.setOverDraft(new BigDecimal("200"));
 	                ca.setAccountType(com.lachguer.accountservice.enums.AccountType.CURRENT_ACCOUNT);
 	                bankAccountRepository.save(ca);
 
 	                SavingAccount sa = new SavingAccount();
 	                sa.setRib("RIB-TEST-2");
-	                sa.setBalance(5000.0);
+	                sa.setBalance(new BigDecimal("5000"));
 	                sa.setCreatedAt(new Date());
 	                sa.setIsActive(true);
 	                sa.setUserId(2L);
@@ -4,21 +4,24 @@ import com.lachguer.accountservice.dto.UserDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
- * Minimal Feign client for AUTH-SERVICE to validate/ping tokens when needed.
- * This is optional and can be extended based on the real auth API.
+ * Minimal Feign client for AUTH-SERVICE.
+ * Tokens are verified locally by common-security, not through this client.
  */
 @FeignClient(name = "AUTH-SERVICE")
 public interface AuthRestClient {
 
-    /**
-     * Example endpoint to validate a token. Adjust path according to AUTH-SERVICE API.
-     */
-    @GetMapping("/api/auth/validate")
-    Boolean validateToken(@RequestHeader("Authorization") String authorizationHeader);
-
     @GetMapping("/admin/users/{id}")
     UserDTO getUserById(@PathVariable("id") Long id);
+
+    /**
+     * Au plus 500 IDs par appel ; les utilisateurs inconnus sont absents de la réponse.
+     */
+    @GetMapping("/admin/users/batch")
+    List<UserDTO> getUsersByIds(@RequestParam("ids") Collection<Long> ids);
 }
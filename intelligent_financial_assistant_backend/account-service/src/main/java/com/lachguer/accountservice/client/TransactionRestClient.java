@@ -1,20 +1,24 @@
 package com.lachguer.accountservice.client;
 
+import com.lachguer.accountservice.dto.TransactionPageDTO;
 import com.lachguer.accountservice.dto.TransactionRequestDTO;
 import com.lachguer.accountservice.dto.TransactionResponseDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
-@FeignClient(name = "TRANSACTION-SERVICE")
+@FeignClient(name = "transactions-service")
 public interface TransactionRestClient {
 
     @PostMapping("/api/transactions")
     TransactionResponseDTO createTransaction(@RequestBody TransactionRequestDTO request,
                                              @RequestHeader(value = "Authorization", required = false) String authorizationHeader);
 
-    @GetMapping("/api/transactions/account/{accountId}")
-    List<TransactionResponseDTO> getTransactionsByAccount(@PathVariable("accountId") Long accountId,
+    /**
+     * {@code TransactionAdminController#getAccountTransactions} : page bornée, réservée aux admins.
+     */
+    @GetMapping("/admin/transactions/account/{accountId}")
+    TransactionPageDTO getTransactionsByAccount(@PathVariable("accountId") Long accountId,
+                                                          @RequestParam("page") int page,
+                                                          @RequestParam("size") int size,
                                                           @RequestHeader(value = "Authorization", required = false) String authorizationHeader);
 }
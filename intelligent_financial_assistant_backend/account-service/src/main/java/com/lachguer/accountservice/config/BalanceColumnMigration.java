@@ -0,0 +1,70 @@
+package com.lachguer.accountservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Passage des montants de {@code bank_account} en décimal exact et initialisation du verrou optimiste.
+ * <p>
+ * {@code ddl-auto=update} ne modifie pas le type d'une colonne existante : les colonnes
+ * {@code balance} et {@code over_draft} encore en virgule flottante sont converties en
+ * {@code NUMERIC(19,2)}, et la colonne {@code version} ajoutée après coup est initialisée à 0.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class BalanceColumnMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceColumnMigration.class);
+    private static final String TABLE = "bank_account";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BalanceColumnMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        migrate();
+    }
+
+    public void migrate() {
+        for (String column : new String[]{"balance", "over_draft"}) {
+            if (isFloatingPoint(column)) {
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " ALTER COLUMN " + column + " SET DATA TYPE NUMERIC(19,2)");
+                log.info("Converted {}.{} to NUMERIC(19,2)", TABLE, column);
+            }
+        }
+        int initialized = jdbcTemplate.update("UPDATE " + TABLE + " SET version = 0 WHERE version IS NULL");
+        if (initialized > 0) {
+            log.info("Initialized version of {} accounts", initialized);
+        }
+    }
+
+    private boolean isFloatingPoint(String column) {
+        Integer type = jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            Integer found = columnType(metaData, TABLE, column);
+            return found != null ? found : columnType(metaData, TABLE.toUpperCase(), column.toUpperCase());
+        });
+        return type != null && (type == Types.DOUBLE || type == Types.FLOAT || type == Types.REAL);
+    }
+
+    private static Integer columnType(DatabaseMetaData metaData, String table, String column) throws SQLException {
+        try (ResultSet rs = metaData.getColumns(null, null, table, column)) {
+            return rs.next() ? rs.getInt("DATA_TYPE") : null;
+        }
+    }
+}
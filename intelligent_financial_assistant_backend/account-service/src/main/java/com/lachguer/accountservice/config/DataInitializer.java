@@ -7,6 +7,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.boot.CommandLineRunner;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.UUID;
@@ -20,15 +21,15 @@ public class DataInitializer {
             if (repository.count() == 0) {
                 CurrentAccount ca = new CurrentAccount();
                 ca.setRib(UUID.randomUUID().toString());
-                ca.setBalance(1500.0);
+                ca.setBalance(new BigDecimal("1500"));
                 ca.setIsActive(true);
                 ca.setCreatedAt(new Date());
                 ca.setUserId(1L);
-                ca.setOverDraft(500.0);
+                ca.setOverDraft(new BigDecimal("500"));
 
                 SavingAccount sa = new SavingAccount();
                 sa.setRib(UUID.randomUUID().toString());
-                sa.setBalance(2500.0);
+                sa.setBalance(new BigDecimal("2500"));
                 sa.setIsActive(true);
                 sa.setCreatedAt(new Date());
                 sa.setUserId(2L);
@@ -0,0 +1,28 @@
+package com.lachguer.accountservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Pool des appels groupés vers auth-service : sa taille borne le nombre de lots demandés en parallèle
+ * pour une même liste de comptes, indépendamment des threads HTTP.
+ */
+@Configuration
+public class UserLookupExecutorConfig {
+
+    @Bean(name = "userLookupExecutor")
+    public ThreadPoolTaskExecutor userLookupExecutor(@Value("${users.lookup.parallelism:4}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("user-lookup-");
+        // File pleine : le thread appelant demande le lot lui-même
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+}
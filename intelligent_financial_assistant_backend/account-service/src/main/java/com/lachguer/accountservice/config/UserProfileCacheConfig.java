@@ -0,0 +1,20 @@
+package com.lachguer.accountservice.config;
+
+import com.aitsaid.commonsecurity.users.UserNearCache;
+import com.aitsaid.commonsecurity.users.UserNearCacheRegistry;
+import com.lachguer.accountservice.dto.UserDTO;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Profils d'utilisateurs gardés localement entre deux listes de comptes ; invalidés par le flux
+ * des modifications d'auth-service. Métriques sous {@code cache.gets{cache=user-profiles}}.
+ */
+@Configuration
+public class UserProfileCacheConfig {
+
+    @Bean
+    public UserNearCache<UserDTO> userProfileCache(UserNearCacheRegistry registry) {
+        return registry.create("user-profiles");
+    }
+}
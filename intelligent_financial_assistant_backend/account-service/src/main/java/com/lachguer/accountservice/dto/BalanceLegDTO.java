@@ -0,0 +1,55 @@
+package com.lachguer.accountservice.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Une jambe d'opération : compte désigné par son ID ou par son RIB (l'un des deux).
+ */
+public class BalanceLegDTO {
+    private Long accountId;
+    private String rib;
+    private BigDecimal amount;
+    private String operation; // "ADD" ou "SUBTRACT"
+
+    public BalanceLegDTO() {
+    }
+
+    public BalanceLegDTO(Long accountId, String rib, BigDecimal amount, String operation) {
+        this.accountId = accountId;
+        this.rib = rib;
+        this.amount = amount;
+        this.operation = operation;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public String getRib() {
+        return rib;
+    }
+
+    public void setRib(String rib) {
+        this.rib = rib;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+}
@@ -0,0 +1,33 @@
+package com.lachguer.accountservice.dto;
+
+import java.util.List;
+
+public class BalanceOperationRequestDTO {
+    // Rejouer la même clé ne réapplique pas les jambes
+    private String idempotencyKey;
+    private List<BalanceLegDTO> legs;
+
+    public BalanceOperationRequestDTO() {
+    }
+
+    public BalanceOperationRequestDTO(String idempotencyKey, List<BalanceLegDTO> legs) {
+        this.idempotencyKey = idempotencyKey;
+        this.legs = legs;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public List<BalanceLegDTO> getLegs() {
+        return legs;
+    }
+
+    public void setLegs(List<BalanceLegDTO> legs) {
+        this.legs = legs;
+    }
+}
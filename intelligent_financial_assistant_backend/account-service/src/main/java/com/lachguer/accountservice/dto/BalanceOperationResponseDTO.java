@@ -0,0 +1,44 @@
+package com.lachguer.accountservice.dto;
+
+import java.util.List;
+
+public class BalanceOperationResponseDTO {
+    private String idempotencyKey;
+    // IDs des comptes, dans l'ordre des jambes de la requête
+    private List<Long> accountIds;
+    // true si la clé avait déjà été appliquée : aucun solde modifié par cet appel
+    private boolean replayed;
+
+    public BalanceOperationResponseDTO() {
+    }
+
+    public BalanceOperationResponseDTO(String idempotencyKey, List<Long> accountIds, boolean replayed) {
+        this.idempotencyKey = idempotencyKey;
+        this.accountIds = accountIds;
+        this.replayed = replayed;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public List<Long> getAccountIds() {
+        return accountIds;
+    }
+
+    public void setAccountIds(List<Long> accountIds) {
+        this.accountIds = accountIds;
+    }
+
+    public boolean isReplayed() {
+        return replayed;
+    }
+
+    public void setReplayed(boolean replayed) {
+        this.replayed = replayed;
+    }
+}
@@ -1,13 +1,14 @@
 package com.lachguer.accountservice.dto;
 
 import com.lachguer.accountservice.enums.AccountType;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Date;
 
 public class BankAccountResponseDTO {
     private Long id;
     private String iban;
-    private Double balance;
+    private BigDecimal balance;
     private LocalDate expirationDate;
     private Boolean isActive;
     private Boolean isPaymentByCard;
@@ -16,7 +17,7 @@ public class BankAccountResponseDTO {
     private Boolean isContactless;
     private Date createdAt;
     private AccountType type;
-    private Double overDraft;
+    private BigDecimal overDraft;
     private Double interestRate;
     private Long userId;
 
@@ -36,11 +37,11 @@ public class BankAccountResponseDTO {
         this.iban = iban;
     }
 
-    public Double getBalance() {
+    public BigDecimal getBalance() {
         return balance;
     }
 
-    public void setBalance(Double balance) {
+    public void setBalance(BigDecimal balance) {
         this.balance = balance;
     }
 
@@ -108,11 +109,11 @@ public class BankAccountResponseDTO {
         this.type = type;
     }
 
-    public Double getOverDraft() {
+    public BigDecimal getOverDraft() {
         return overDraft;
     }
 
-    public void setOverDraft(Double overDraft) {
+    public void setOverDraft(BigDecimal overDraft) {
         this.overDraft = overDraft;
     }
 
@@ -1,19 +1,21 @@
 package com.lachguer.accountservice.dto;
 
+import java.math.BigDecimal;
+
 public class BankAccountUpdateDTO {
-    private Double balance;
+    private BigDecimal balance;
     private Boolean isActive;
     private Boolean isPaymentByCard;
     private Boolean isWithdrawal;
     private Boolean isOnlinePayment;
     private Boolean isContactless;
-    private Double overDraft;  // Pour CurrentAccount
+    private BigDecimal overDraft;  // Pour CurrentAccount
     private Double interestRate; // Pour SavingAccount
 
     public BankAccountUpdateDTO() {
     }
 
-    public BankAccountUpdateDTO(Double balance, Boolean isActive, Boolean isPaymentByCard, Boolean isWithdrawal, Boolean isOnlinePayment, Boolean isContactless, Double overDraft, Double interestRate) {
+    public BankAccountUpdateDTO(BigDecimal balance, Boolean isActive, Boolean isPaymentByCard, Boolean isWithdrawal, Boolean isOnlinePayment, Boolean isContactless, BigDecimal overDraft, Double interestRate) {
         this.balance = balance;
         this.isActive = isActive;
         this.isPaymentByCard = isPaymentByCard;
@@ -24,11 +26,11 @@ public class BankAccountUpdateDTO {
         this.interestRate = interestRate;
     }
 
-    public Double getBalance() {
+    public BigDecimal getBalance() {
         return balance;
     }
 
-    public void setBalance(Double balance) {
+    public void setBalance(BigDecimal balance) {
         this.balance = balance;
     }
 
@@ -72,11 +74,11 @@ public class BankAccountUpdateDTO {
         this.isContactless = isContactless;
     }
 
-    public Double getOverDraft() {
+    public BigDecimal getOverDraft() {
         return overDraft;
     }
 
-    public void setOverDraft(Double overDraft) {
+    public void setOverDraft(BigDecimal overDraft) {
         this.overDraft = overDraft;
     }
 
@@ -0,0 +1,58 @@
+package com.lachguer.accountservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * Page de transactions renvoyée par transactions-service ({@code Page} Spring Data sérialisée) ;
+ * seuls le contenu et la pagination sont conservés.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TransactionPageDTO {
+    private List<TransactionResponseDTO> content;
+    private long totalElements;
+    private int totalPages;
+    private int number;
+    private int size;
+
+    public List<TransactionResponseDTO> getContent() {
+        return content;
+    }
+
+    public void setContent(List<TransactionResponseDTO> content) {
+        this.content = content;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    public void setTotalPages(int totalPages) {
+        this.totalPages = totalPages;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public void setNumber(int number) {
+        this.number = number;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
@@ -1,15 +1,23 @@
 package com.lachguer.accountservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import java.math.BigDecimal;
 import java.util.Date;
 
+// Lu depuis transactions-service, dont les noms de champs diffèrent (bankAccountId, reason, date)
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class TransactionResponseDTO {
     private Long id;
+    @JsonAlias("bankAccountId")
     private Long accountId;
     private Long userId;
     private BigDecimal amount;
     private String type; // DEBIT or CREDIT
+    @JsonAlias("reason")
     private String description;
+    @JsonAlias("date")
     private Date createdAt;
 
     public Long getId() {
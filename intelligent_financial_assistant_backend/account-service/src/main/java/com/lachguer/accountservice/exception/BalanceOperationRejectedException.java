@@ -0,0 +1,11 @@
+package com.lachguer.accountservice.exception;
+
+/**
+ * Opération de solde refusée (compte inconnu, solde insuffisant, contre-passation impossible) :
+ * réponse 422, que l'appelant traite comme définitive, à la différence d'un 404 de routage.
+ */
+public class BalanceOperationRejectedException extends RuntimeException {
+    public BalanceOperationRejectedException(String message) {
+        super(message);
+    }
+}
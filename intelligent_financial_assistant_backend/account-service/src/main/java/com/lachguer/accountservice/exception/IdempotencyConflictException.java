@@ -0,0 +1,10 @@
+package com.lachguer.accountservice.exception;
+
+/**
+ * Clé d'idempotence déjà utilisée pour une opération différente.
+ */
+public class IdempotencyConflictException extends RuntimeException {
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,84 @@
+package com.lachguer.accountservice.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Journal des opérations multi-jambes appliquées, indexé par clé d'idempotence.
+ * La ligne est écrite dans la même transaction que les mises à jour de solde.
+ */
+@Entity
+@Table(name = "balance_operation", indexes = {
+        @Index(name = "idx_balance_operation_created_at", columnList = "created_at")
+})
+public class BalanceOperation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "idempotency_key", nullable = false, unique = true, length = 100)
+    private String idempotencyKey;
+    // Empreinte SHA-256 des jambes : une clé réutilisée pour une autre opération est refusée
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+    // IDs des comptes résolus, séparés par des virgules, dans l'ordre des jambes
+    @Column(name = "account_ids", nullable = false, length = 512)
+    private String accountIds;
+    // Jambes résolues "compte:opération:montant;..." : permettent la contre-passation
+    @Column(name = "legs", length = 1024)
+    private String legs;
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    // Renseigné quand l'opération a été contre-passée (ou bloquée avant d'avoir été appliquée)
+    @Column(name = "reversed_at")
+    private LocalDateTime reversedAt;
+
+    public BalanceOperation() {
+    }
+
+    public BalanceOperation(String idempotencyKey, String requestHash, String accountIds, String legs,
+                            LocalDateTime createdAt) {
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+        this.accountIds = accountIds;
+        this.legs = legs;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Clé bloquée avant toute application : un appel tardif avec cette clé sera refusé.
+     */
+    public static BalanceOperation tombstone(String idempotencyKey, String requestHash, LocalDateTime now) {
+        BalanceOperation operation = new BalanceOperation(idempotencyKey, requestHash, "", "", now);
+        operation.reversedAt = now;
+        return operation;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public String getAccountIds() {
+        return accountIds;
+    }
+
+    public String getLegs() {
+        return legs;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getReversedAt() {
+        return reversedAt;
+    }
+}
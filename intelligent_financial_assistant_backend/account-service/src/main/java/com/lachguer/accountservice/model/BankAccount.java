@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.lachguer.accountservice.enums.AccountType;
 import jakarta.persistence.*;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Date;
 
@@ -25,7 +26,9 @@ public abstract class BankAccount {
     private Long id;
     @Column(unique = true)
     private String rib;
-    private Double balance;
+    // Montant exact ; modifié par UPDATE conditionnel (voir BankAccountRepository#credit / #debit)
+    @Column(precision = 19, scale = 2)
+    private BigDecimal balance;
     private LocalDate expirationDate;
     private Boolean isActive;
     private Boolean isPaymentByCard;
@@ -36,6 +39,9 @@ public abstract class BankAccount {
     private Long userId;
     @Transient
     private User user;
+    // Verrou optimiste pour les mises à jour passant par l'entité (updateAccount)
+    @Version
+    private Long version;
 
     @Enumerated(EnumType.STRING)
     @Column(name = "account_type", insertable = false, updatable = false)
@@ -44,7 +50,7 @@ public abstract class BankAccount {
     public BankAccount() {
     }
 
-    public BankAccount(Long id, String rib, Double balance, LocalDate expirationDate, Boolean isActive, Boolean isPaymentByCard, Boolean isWithdrawal, Boolean isOnlinePayment, Boolean isContactless, Date createdAt, Long userId, User user, AccountType accountType) {
+    public BankAccount(Long id, String rib, BigDecimal balance, LocalDate expirationDate, Boolean isActive, Boolean isPaymentByCard, Boolean isWithdrawal, Boolean isOnlinePayment, Boolean isContactless, Date createdAt, Long userId, User user, AccountType accountType) {
         this.id = id;
         this.rib = rib;
         this.balance = balance;
@@ -76,11 +82,11 @@ public abstract class BankAccount {
         this.rib = rib;
     }
 
-    public Double getBalance() {
+    public BigDecimal getBalance() {
         return balance;
     }
 
-    public void setBalance(Double balance) {
+    public void setBalance(BigDecimal balance) {
         this.balance = balance;
     }
 
@@ -156,6 +162,14 @@ public abstract class BankAccount {
         this.user = user;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public AccountType getAccountType() {
         return accountType;
     }
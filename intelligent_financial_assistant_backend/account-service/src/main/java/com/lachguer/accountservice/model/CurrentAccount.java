@@ -1,26 +1,30 @@
 package com.lachguer.accountservice.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
 
+import java.math.BigDecimal;
+
 @Entity
 @DiscriminatorValue("CURRENT_ACCOUNT")
 public class CurrentAccount extends BankAccount {
-    private Double overDraft;
+    @Column(precision = 19, scale = 2)
+    private BigDecimal overDraft;
 
     public CurrentAccount() {
         super();
     }
 
-    public CurrentAccount(Double overDraft) {
+    public CurrentAccount(BigDecimal overDraft) {
         this.overDraft = overDraft;
     }
 
-    public Double getOverDraft() {
+    public BigDecimal getOverDraft() {
         return overDraft;
     }
 
-    public void setOverDraft(Double overDraft) {
+    public void setOverDraft(BigDecimal overDraft) {
         this.overDraft = overDraft;
     }
 }
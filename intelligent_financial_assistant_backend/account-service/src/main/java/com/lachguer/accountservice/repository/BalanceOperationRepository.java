@@ -0,0 +1,29 @@
+package com.lachguer.accountservice.repository;
+
+import com.lachguer.accountservice.model.BalanceOperation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface BalanceOperationRepository extends JpaRepository<BalanceOperation, Long> {
+    Optional<BalanceOperation> findByIdempotencyKey(String idempotencyKey);
+
+    /**
+     * Marque l'opération contre-passée ; 0 si un autre appel l'a déjà fait.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BalanceOperation o SET o.reversedAt = :now WHERE o.id = :id AND o.reversedAt IS NULL")
+    int markReversed(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM BalanceOperation o WHERE o.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -2,9 +2,14 @@ package com.lachguer.accountservice.repository;
 
 import com.lachguer.accountservice.model.BankAccount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BankAccountRepository extends JpaRepository<BankAccount, Long> {
@@ -14,6 +19,30 @@ public interface BankAccountRepository extends JpaRepository<BankAccount, Long>
 
     BankAccount findByRib(String rib);
 
+    @Query("SELECT a.id FROM BankAccount a WHERE a.rib = :rib")
+    Optional<Long> findIdByRib(@Param("rib") String rib);
+
     @org.springframework.data.jpa.repository.Query("SELECT a.accountType, COUNT(a) FROM BankAccount a GROUP BY a.accountType")
     List<Object[]> countTotalAccountsByType();
+
+    /**
+     * Crédit atomique : une seule instruction UPDATE, sans lecture préalable du solde.
+     *
+     * @return nombre de lignes modifiées (0 si le compte n'existe pas)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE bank_account SET balance = balance + :amount, version = COALESCE(version, 0) + 1 "
+            + "WHERE id = :id", nativeQuery = true)
+    int credit(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Débit atomique et conditionnel : la provision (solde + découvert autorisé) est vérifiée
+     * dans le même UPDATE, deux débits concurrents ne peuvent donc pas dépasser le découvert.
+     *
+     * @return nombre de lignes modifiées (0 si le compte n'existe pas ou si la provision est insuffisante)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE bank_account SET balance = balance - :amount, version = COALESCE(version, 0) + 1 "
+            + "WHERE id = :id AND balance + COALESCE(over_draft, 0) >= :amount", nativeQuery = true)
+    int debit(@Param("id") Long id, @Param("amount") BigDecimal amount);
 }
@@ -3,6 +3,7 @@ package com.lachguer.accountservice.service;
 import com.lachguer.accountservice.dto.*;
 import com.lachguer.accountservice.model.BankAccount;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 public interface AccountService {
@@ -20,15 +21,17 @@ public interface AccountService {
 
     void deleteAccount(Long id);
 
-    // Transaction operations via TRANSACTION-SERVICE
-    List<TransactionResponseDTO> getTransactionsForAccount(Long accountId, String authorizationHeader);
+    // Transaction operations via transactions-service
+    // Une page des transactions du compte : taille bornée à 100, jamais l'historique complet
+    TransactionPageDTO getTransactionsForAccount(Long accountId, int page, int size,
+            String authorizationHeader);
 
     TransactionResponseDTO createTransactionForAccount(Long accountId, TransactionRequestDTO request,
             String authorizationHeader);
 
     long countUsers();
 
-    void updateBalance(Long accountId, Double amount, String operation);
+    void updateBalance(Long accountId, BigDecimal amount, String operation);
 
     List<AccountDistributionDTO> getAccountDistribution();
 }
@@ -1,6 +1,6 @@
 package com.lachguer.accountservice.service;
 
-import com.lachguer.accountservice.client.AuthRestClient;
+import com.aitsaid.commoncore.cache.AggregateCache;
 import com.lachguer.accountservice.client.TransactionRestClient;
 import com.lachguer.accountservice.dto.*;
 import com.lachguer.accountservice.enums.AccountType;
@@ -9,12 +9,18 @@ import com.lachguer.accountservice.model.BankAccount;
 import com.lachguer.accountservice.model.CurrentAccount;
 import com.lachguer.accountservice.model.SavingAccount;
 import com.lachguer.accountservice.repository.BankAccountRepository;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Random;
 
 import com.lachguer.accountservice.model.User;
@@ -24,16 +30,23 @@ import org.springframework.beans.BeanUtils;
 @Transactional
 public class AccountServiceImpl implements AccountService {
 
+    private static final int MAX_TRANSACTIONS_PAGE_SIZE = 100;
+    private static final String COUNT_CACHE_KEY = "accounts.count";
+    private static final String DISTRIBUTION_CACHE_KEY = "accounts.distribution";
+
     private final BankAccountRepository bankAccountRepository;
     private final AccountMapper accountMapper;
     private final TransactionRestClient transactionRestClient;
-    private final AuthRestClient authRestClient;
+    private final UserBatchLoader userBatchLoader;
+    private final AggregateCache aggregateCache;
 
-    public AccountServiceImpl(BankAccountRepository bankAccountRepository, AccountMapper accountMapper, TransactionRestClient transactionRestClient, AuthRestClient authRestClient) {
+    public AccountServiceImpl(BankAccountRepository bankAccountRepository, AccountMapper accountMapper, TransactionRestClient transactionRestClient, UserBatchLoader userBatchLoader,
+            AggregateCache aggregateCache) {
         this.bankAccountRepository = bankAccountRepository;
         this.accountMapper = accountMapper;
         this.transactionRestClient = transactionRestClient;
-        this.authRestClient = authRestClient;
+        this.userBatchLoader = userBatchLoader;
+        this.aggregateCache = aggregateCache;
     }
 
     @Override
@@ -60,7 +73,7 @@ public class AccountServiceImpl implements AccountService {
         BankAccount bankAccount;
         if (bankAccountDTO.getType() == AccountType.CURRENT_ACCOUNT) {
             bankAccount = new CurrentAccount();
-            ((CurrentAccount) bankAccount).setOverDraft(1000.0);
+            ((CurrentAccount) bankAccount).setOverDraft(new BigDecimal("1000"));
         } else {
             bankAccount = new SavingAccount();
             ((SavingAccount) bankAccount).setInterestRate(3.5);
@@ -74,7 +87,7 @@ public class AccountServiceImpl implements AccountService {
         }
         bankAccount.setRib(ribBuilder.toString());
 
-        bankAccount.setBalance(10000.0);
+        bankAccount.setBalance(new BigDecimal("10000"));
 
         Date now = new Date();
         bankAccount.setCreatedAt(now);
@@ -89,6 +102,7 @@ public class AccountServiceImpl implements AccountService {
         bankAccount.setUserId(bankAccountDTO.getUserId());
 
         BankAccount savedAccount = bankAccountRepository.save(bankAccount);
+        aggregateCache.invalidate(COUNT_CACHE_KEY, DISTRIBUTION_CACHE_KEY);
         return accountMapper.fromBankAccount(savedAccount);
     }
 
@@ -114,7 +128,7 @@ public class AccountServiceImpl implements AccountService {
     @Override
     public List<BankAccountResponseDTO> getAccounts() {
         List<BankAccount> bankAccounts = bankAccountRepository.findAll();
-        bankAccounts.forEach(this::enrichAccountWithUser);
+        enrichAccountsWithUsers(bankAccounts);
         return bankAccounts.stream()
                 .map(accountMapper::fromBankAccount)
                 .collect(java.util.stream.Collectors.toList());
@@ -123,24 +137,27 @@ public class AccountServiceImpl implements AccountService {
     @Override
     public List<BankAccountResponseDTO> getAccountsByUserId(Long userId) {
         List<BankAccount> bankAccounts = bankAccountRepository.findByUserId(userId);
-        bankAccounts.forEach(this::enrichAccountWithUser);
+        enrichAccountsWithUsers(bankAccounts);
         return bankAccounts.stream()
                 .map(accountMapper::fromBankAccount)
                 .collect(java.util.stream.Collectors.toList());
     }
 
-    private void enrichAccountWithUser(BankAccount bankAccount) {
-        if (bankAccount.getUserId() != null) {
-            try {
-                UserDTO userDTO = authRestClient.getUserById(bankAccount.getUserId());
-                if (userDTO != null) {
-                    User user = new User();
-                    BeanUtils.copyProperties(userDTO, user);
-                    bankAccount.setUser(user);
-                }
-            } catch (Exception e) {
-                // Log error but don't fail the request if auth service is down
-                System.err.println("Error fetching user for account " + bankAccount.getId() + ": " + e.getMessage());
+    /**
+     * Un appel groupé à auth-service par lot d'utilisateurs distincts, au lieu d'un appel par compte ;
+     * un compte dont l'utilisateur n'a pas pu être chargé reste sans utilisateur.
+     */
+    private void enrichAccountsWithUsers(List<BankAccount> bankAccounts) {
+        Map<Long, UserDTO> users = userBatchLoader.loadUsers(bankAccounts.stream()
+                .map(BankAccount::getUserId)
+                .filter(Objects::nonNull)
+                .toList());
+        for (BankAccount bankAccount : bankAccounts) {
+            UserDTO userDTO = users.get(bankAccount.getUserId());
+            if (userDTO != null) {
+                User user = new User();
+                BeanUtils.copyProperties(userDTO, user);
+                bankAccount.setUser(user);
             }
         }
     }
@@ -174,24 +191,32 @@ public class AccountServiceImpl implements AccountService {
     @Override
     public void deleteAccount(Long id) {
         bankAccountRepository.deleteById(id);
+        aggregateCache.invalidate(COUNT_CACHE_KEY, DISTRIBUTION_CACHE_KEY);
     }
 
-    // Méthode pour valider le token avant chaque opération sensible
+    /**
+     * Le token a déjà été vérifié par le gateway (headers X-Auth-*) ou localement par
+     * GatewayAuthenticationFilter (signature, expiration et révocation via le filtre de Bloom local) :
+     * aucun appel à auth-service n'est nécessaire, il suffit que la requête soit authentifiée.
+     */
     private void validateToken(String authorizationHeader) {
         if (authorizationHeader == null || authorizationHeader.isEmpty()) {
             throw new com.lachguer.accountservice.exception.UnauthorizedException("Token d'autorisation manquant");
         }
-        Boolean isValid = authRestClient.validateToken(authorizationHeader);
-        if (!isValid) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
             throw new com.lachguer.accountservice.exception.UnauthorizedException("Token invalide ou expiré");
         }
     }
 
     @Override
-    public List<TransactionResponseDTO> getTransactionsForAccount(Long accountId, String authorizationHeader) {
+    public TransactionPageDTO getTransactionsForAccount(Long accountId, int page, int size,
+            String authorizationHeader) {
         validateToken(authorizationHeader); // Valider le token
         bankAccountRepository.findById(accountId).orElseThrow(() -> new RuntimeException("Account not found"));
-        return transactionRestClient.getTransactionsByAccount(accountId, authorizationHeader);
+        return transactionRestClient.getTransactionsByAccount(accountId, Math.max(page, 0),
+                Math.min(Math.max(size, 1), MAX_TRANSACTIONS_PAGE_SIZE), authorizationHeader);
     }
 
     @Override
@@ -207,33 +232,41 @@ public class AccountServiceImpl implements AccountService {
 
     @Override
     public long countUsers() {
-        return bankAccountRepository.count();
+        return aggregateCache.get(COUNT_CACHE_KEY, bankAccountRepository::count);
     }
 
     @Override
     public List<AccountDistributionDTO> getAccountDistribution() {
-        List<Object[]> results = bankAccountRepository.countTotalAccountsByType();
-        return results.stream()
+        return aggregateCache.get(DISTRIBUTION_CACHE_KEY, () -> bankAccountRepository.countTotalAccountsByType()
+                .stream()
                 .map(result -> new AccountDistributionDTO((AccountType) result[0], (Long) result[1]))
-                .collect(java.util.stream.Collectors.toList());
+                .toList());
     }
 
+    /**
+     * Applique le delta par un UPDATE conditionnel : pas de lecture-modification-écriture,
+     * donc aucune mise à jour perdue entre écritures concurrentes sur le même compte.
+     */
     @Override
-    public void updateBalance(Long accountId, Double amount, String operation) {
-        BankAccount account = bankAccountRepository.findById(accountId)
-                .orElseThrow(() -> new RuntimeException("Account not found"));
-
+    public void updateBalance(Long accountId, BigDecimal amount, String operation) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        int updated;
         if ("ADD".equals(operation)) {
-            account.setBalance(account.getBalance() + amount);
+            updated = bankAccountRepository.credit(accountId, amount);
         } else if ("SUBTRACT".equals(operation)) {
-            if (account.getBalance() < amount) {
-                throw new RuntimeException("Insufficient balance");
-            }
-            account.setBalance(account.getBalance() - amount);
+            updated = bankAccountRepository.debit(accountId, amount);
         } else {
             throw new IllegalArgumentException("Invalid operation: " + operation);
         }
 
-        bankAccountRepository.save(account);
+        if (updated == 0) {
+            // Aucune ligne modifiée : compte absent, ou provision insuffisante pour le débit
+            if (!bankAccountRepository.existsById(accountId)) {
+                throw new RuntimeException("Account not found");
+            }
+            throw new RuntimeException("Insufficient balance");
+        }
     }
 }
@@ -0,0 +1,19 @@
+package com.lachguer.accountservice.service;
+
+import com.lachguer.accountservice.dto.BalanceOperationRequestDTO;
+import com.lachguer.accountservice.dto.BalanceOperationResponseDTO;
+
+public interface BalanceOperationService {
+
+    /**
+     * Applique toutes les jambes dans une seule transaction locale, ou aucune.
+     */
+    BalanceOperationResponseDTO apply(BalanceOperationRequestDTO request);
+
+    /**
+     * Contre-passe l'opération identifiée par sa clé (compensation d'une saga). Si la clé est inconnue,
+     * elle est bloquée pour qu'un appel {@link #apply} arrivé en retard ne soit jamais appliqué.
+     * Rejouable : un second appel ne contre-passe pas deux fois.
+     */
+    BalanceOperationResponseDTO reverse(String idempotencyKey);
+}
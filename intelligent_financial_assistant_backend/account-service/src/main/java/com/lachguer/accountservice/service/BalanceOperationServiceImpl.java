@@ -0,0 +1,289 @@
+package com.lachguer.accountservice.service;
+
+import com.lachguer.accountservice.dto.BalanceLegDTO;
+import com.lachguer.accountservice.dto.BalanceOperationRequestDTO;
+import com.lachguer.accountservice.dto.BalanceOperationResponseDTO;
+import com.lachguer.accountservice.exception.BalanceOperationRejectedException;
+import com.lachguer.accountservice.exception.IdempotencyConflictException;
+import com.lachguer.accountservice.model.BalanceOperation;
+import com.lachguer.accountservice.repository.BalanceOperationRepository;
+import com.lachguer.accountservice.repository.BankAccountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Opérations multi-jambes (virement : débit + crédit) appliquées en une seule transaction.
+ * <p>
+ * Chaque jambe passe par le même UPDATE conditionnel que {@code /balance} ; la première jambe refusée
+ * annule toute l'opération. La ligne du journal {@link BalanceOperation} est écrite dans la même
+ * transaction : une clé d'idempotence rejouée (retry Feign, double clic) renvoie le résultat initial
+ * sans toucher aux soldes, et la contrainte d'unicité départage deux appels concurrents.
+ * <p>
+ * {@link #reverse(String)} sert de compensation aux sagas de transactions-service : les jambes résolues
+ * sont conservées dans le journal pour pouvoir être inversées, dans le même ordre de verrouillage.
+ */
+@Service
+public class BalanceOperationServiceImpl implements BalanceOperationService {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceOperationServiceImpl.class);
+    private static final int MAX_LEGS = 10;
+    private static final int MAX_KEY_LENGTH = 100;
+    // Aucune empreinte SHA-256 réelle ne vaut "-" : un apply() tardif sur une clé bloquée est en conflit
+    private static final String TOMBSTONE_HASH = "-";
+
+    private final BankAccountRepository bankAccountRepository;
+    private final BalanceOperationRepository balanceOperationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long retentionMs;
+
+    public BalanceOperationServiceImpl(BankAccountRepository bankAccountRepository,
+                                       BalanceOperationRepository balanceOperationRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${balance.operations.retention-ms:604800000}") long retentionMs) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.balanceOperationRepository = balanceOperationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retentionMs = retentionMs;
+    }
+
+    @Override
+    public BalanceOperationResponseDTO apply(BalanceOperationRequestDTO request) {
+        validate(request);
+        String key = request.getIdempotencyKey();
+        String hash = fingerprint(request.getLegs());
+
+        BalanceOperation existing = balanceOperationRepository.findByIdempotencyKey(key).orElse(null);
+        if (existing != null) {
+            return replay(existing, hash);
+        }
+        try {
+            return transactionTemplate.execute(status -> applyLegs(key, hash, request.getLegs()));
+        } catch (DataIntegrityViolationException e) {
+            // Appel concurrent avec la même clé : il a validé le premier, ses jambes font foi
+            BalanceOperation winner = balanceOperationRepository.findByIdempotencyKey(key).orElseThrow(() -> e);
+            return replay(winner, hash);
+        }
+    }
+
+    private BalanceOperationResponseDTO applyLegs(String key, String hash, List<BalanceLegDTO> legs) {
+        List<ResolvedLeg> resolved = new ArrayList<>(legs.size());
+        for (BalanceLegDTO leg : legs) {
+            resolved.add(new ResolvedLeg(resolve(leg), leg.getOperation(), leg.getAmount()));
+        }
+        applyResolved(resolved);
+
+        List<Long> accountIds = accountIdsOf(resolved);
+        balanceOperationRepository.saveAndFlush(
+                new BalanceOperation(key, hash, join(accountIds), encode(resolved), LocalDateTime.now()));
+        log.debug("Balance operation {} applied on accounts {}", key, accountIds);
+        return new BalanceOperationResponseDTO(key, accountIds, false);
+    }
+
+    private void applyResolved(List<ResolvedLeg> legs) {
+        // Ordre stable (compte, débits d'abord) : deux virements croisés verrouillent les lignes
+        // dans le même ordre et ne peuvent pas s'interbloquer
+        List<ResolvedLeg> ordered = new ArrayList<>(legs);
+        ordered.sort(Comparator.comparing(ResolvedLeg::accountId)
+                .thenComparing(leg -> !"SUBTRACT".equals(leg.operation())));
+
+        for (ResolvedLeg leg : ordered) {
+            int updated = "ADD".equals(leg.operation())
+                    ? bankAccountRepository.credit(leg.accountId(), leg.amount())
+                    : bankAccountRepository.debit(leg.accountId(), leg.amount());
+            if (updated == 0) {
+                // Exception non vérifiée : rollback des jambes déjà appliquées
+                if (!bankAccountRepository.existsById(leg.accountId())) {
+                    throw new BalanceOperationRejectedException("Account not found");
+                }
+                throw new BalanceOperationRejectedException("Insufficient balance");
+            }
+        }
+    }
+
+    @Override
+    public BalanceOperationResponseDTO reverse(String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key is required (max " + MAX_KEY_LENGTH + " characters)");
+        }
+        try {
+            return transactionTemplate.execute(status -> reverseOrBlock(idempotencyKey));
+        } catch (DataIntegrityViolationException e) {
+            // L'opération d'origine a été enregistrée entre-temps : on la contre-passe
+            return transactionTemplate.execute(status -> reverseOrBlock(idempotencyKey));
+        }
+    }
+
+    private BalanceOperationResponseDTO reverseOrBlock(String key) {
+        BalanceOperation operation = balanceOperationRepository.findByIdempotencyKey(key).orElse(null);
+        if (operation == null) {
+            balanceOperationRepository.saveAndFlush(
+                    BalanceOperation.tombstone(key, TOMBSTONE_HASH, LocalDateTime.now()));
+            log.info("Balance operation {} blocked before being applied", key);
+            return new BalanceOperationResponseDTO(key, List.of(), false);
+        }
+        if (operation.getReversedAt() != null) {
+            return new BalanceOperationResponseDTO(key, List.of(), true);
+        }
+        if (operation.getLegs() == null) {
+            throw new BalanceOperationRejectedException("Balance operation cannot be reversed: " + key);
+        }
+
+        List<ResolvedLeg> legs = decode(operation.getLegs());
+        if (balanceOperationRepository.markReversed(operation.getId(), LocalDateTime.now()) == 0) {
+            // Contre-passation concurrente déjà validée
+            return new BalanceOperationResponseDTO(key, accountIdsOf(legs), true);
+        }
+        List<ResolvedLeg> inverse = new ArrayList<>(legs.size());
+        for (ResolvedLeg leg : legs) {
+            inverse.add(new ResolvedLeg(leg.accountId(),
+                    "ADD".equals(leg.operation()) ? "SUBTRACT" : "ADD", leg.amount()));
+        }
+        applyResolved(inverse);
+        log.info("Balance operation {} reversed on accounts {}", key, accountIdsOf(legs));
+        return new BalanceOperationResponseDTO(key, accountIdsOf(legs), false);
+    }
+
+    private Long resolve(BalanceLegDTO leg) {
+        if (leg.getAccountId() != null) {
+            return leg.getAccountId();
+        }
+        return bankAccountRepository.findIdByRib(leg.getRib())
+                .orElseThrow(() -> new BalanceOperationRejectedException("Account not found"));
+    }
+
+    private BalanceOperationResponseDTO replay(BalanceOperation operation, String hash) {
+        if (operation.getReversedAt() != null) {
+            throw new IdempotencyConflictException(
+                    "Balance operation was reversed: " + operation.getIdempotencyKey());
+        }
+        if (!operation.getRequestHash().equals(hash)) {
+            throw new IdempotencyConflictException(
+                    "Idempotency key already used for a different operation: " + operation.getIdempotencyKey());
+        }
+        List<Long> accountIds = new ArrayList<>();
+        for (String id : operation.getAccountIds().split(",")) {
+            accountIds.add(Long.valueOf(id));
+        }
+        return new BalanceOperationResponseDTO(operation.getIdempotencyKey(), accountIds, true);
+    }
+
+    private static void validate(BalanceOperationRequestDTO request) {
+        String key = request.getIdempotencyKey();
+        if (key == null || key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key is required (max " + MAX_KEY_LENGTH + " characters)");
+        }
+        List<BalanceLegDTO> legs = request.getLegs();
+        if (legs == null || legs.isEmpty() || legs.size() > MAX_LEGS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_LEGS + " legs are required");
+        }
+        for (BalanceLegDTO leg : legs) {
+            if ((leg.getAccountId() == null) == (leg.getRib() == null)) {
+                throw new IllegalArgumentException("Each leg needs either an accountId or a rib");
+            }
+            if (leg.getAmount() == null || leg.getAmount().signum() <= 0) {
+                throw new IllegalArgumentException("Amount must be positive");
+            }
+            if (!"ADD".equals(leg.getOperation()) && !"SUBTRACT".equals(leg.getOperation())) {
+                throw new IllegalArgumentException("Invalid operation: " + leg.getOperation());
+            }
+        }
+    }
+
+    /**
+     * Empreinte des jambes telles que reçues ; le montant est normalisé (10.0 == 10.00).
+     */
+    static String fingerprint(List<BalanceLegDTO> legs) {
+        StringBuilder canonical = new StringBuilder();
+        for (BalanceLegDTO leg : legs) {
+            canonical.append(leg.getAccountId()).append('|')
+                    .append(leg.getRib()).append('|')
+                    .append(leg.getOperation()).append('|')
+                    .append(leg.getAmount().stripTrailingZeros().toPlainString()).append('\n');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static List<Long> accountIdsOf(List<ResolvedLeg> legs) {
+        List<Long> ids = new ArrayList<>(legs.size());
+        for (ResolvedLeg leg : legs) {
+            ids.add(leg.accountId());
+        }
+        return ids;
+    }
+
+    private static String encode(List<ResolvedLeg> legs) {
+        StringBuilder encoded = new StringBuilder();
+        for (ResolvedLeg leg : legs) {
+            if (encoded.length() > 0) {
+                encoded.append(';');
+            }
+            encoded.append(leg.accountId()).append(':')
+                    .append(leg.operation()).append(':')
+                    .append(leg.amount().toPlainString());
+        }
+        return encoded.toString();
+    }
+
+    private static List<ResolvedLeg> decode(String encoded) {
+        List<ResolvedLeg> legs = new ArrayList<>();
+        for (String part : encoded.split(";")) {
+            String[] fields = part.split(":");
+            legs.add(new ResolvedLeg(Long.valueOf(fields[0]), fields[1], new BigDecimal(fields[2])));
+        }
+        return legs;
+    }
+
+    private static String join(List<Long> ids) {
+        StringBuilder joined = new StringBuilder();
+        for (Long id : ids) {
+            if (joined.length() > 0) {
+                joined.append(',');
+            }
+            joined.append(id);
+        }
+        return joined.toString();
+    }
+
+    private record ResolvedLeg(Long accountId, String operation, BigDecimal amount) {
+    }
+
+    /**
+     * Les clés ne servent qu'à absorber les retries : au-delà de la rétention, le journal est purgé.
+     */
+    @Scheduled(fixedDelayString = "${balance.operations.purge-interval-ms:3600000}",
+            initialDelayString = "${balance.operations.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        try {
+            int deleted = balanceOperationRepository.deleteCreatedBefore(
+                    LocalDateTime.now().minus(Duration.ofMillis(retentionMs)));
+            if (deleted > 0) {
+                log.info("Purged {} balance operation keys", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("Balance operation purge failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.lachguer.accountservice.service;
+
+import com.aitsaid.commonsecurity.users.UserNearCache;
+import com.lachguer.accountservice.client.AuthRestClient;
+import com.lachguer.accountservice.dto.UserDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Charge les utilisateurs d'une liste de comptes auprès d'auth-service : IDs dédoublonnés, découpés
+ * en lots de {@code users.lookup.batch-size}, lots demandés en parallèle puis joints en mémoire.
+ * Le nombre d'appels HTTP suit le nombre d'utilisateurs distincts divisé par la taille de lot,
+ * et non plus le nombre de comptes.
+ * <p>
+ * Seuls les utilisateurs absents du near-cache {@code user-profiles} sont demandés.
+ */
+@Component
+public class UserBatchLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(UserBatchLoader.class);
+
+    private final AuthRestClient authRestClient;
+    private final UserNearCache<UserDTO> userCache;
+    private final Executor executor;
+    private final int batchSize;
+
+    public UserBatchLoader(AuthRestClient authRestClient, UserNearCache<UserDTO> userCache,
+                           @Qualifier("userLookupExecutor") Executor executor,
+                           @Value("${users.lookup.batch-size:200}") int batchSize) {
+        this.authRestClient = authRestClient;
+        this.userCache = userCache;
+        // Le token de la requête en cours est relu par l'intercepteur Feign dans les threads du pool
+        this.executor = new DelegatingSecurityContextExecutor(executor);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return utilisateurs trouvés, par ID ; un lot en échec est ignoré (auth-service indisponible)
+     */
+    public Map<Long, UserDTO> loadUsers(Collection<Long> userIds) {
+        return userCache.getAll(userIds, this::fetch);
+    }
+
+    private Map<Long, UserDTO> fetch(Set<Long> userIds) {
+        List<Long> distinctIds = new ArrayList<>(userIds);
+
+        List<CompletableFuture<List<UserDTO>>> batches = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size(); from += batchSize) {
+            List<Long> batch = distinctIds.subList(from, Math.min(from + batchSize, distinctIds.size()));
+            batches.add(CompletableFuture.supplyAsync(() -> authRestClient.getUsersByIds(batch), executor)
+                    .exceptionally(e -> {
+                        log.warn("Could not fetch {} users from auth-service: {}", batch.size(), e.getMessage());
+                        return List.of();
+                    }));
+        }
+
+        Map<Long, UserDTO> users = new HashMap<>();
+        for (CompletableFuture<List<UserDTO>> batch : batches) {
+            List<UserDTO> found = batch.join();
+            if (found != null) {
+                found.forEach(user -> users.put(user.getId(), user));
+            }
+        }
+        return users;
+    }
+}
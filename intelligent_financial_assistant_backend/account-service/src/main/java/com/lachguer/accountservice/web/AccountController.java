@@ -3,6 +3,7 @@ package com.lachguer.accountservice.web;
 import com.lachguer.accountservice.dto.*;
 import com.lachguer.accountservice.model.BankAccount;
 import com.lachguer.accountservice.service.AccountService;
+import com.lachguer.accountservice.service.BalanceOperationService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 
+import java.math.BigDecimal;
 import java.util.Enumeration;
 import java.util.List;
 
@@ -22,9 +24,11 @@ public class AccountController {
 
     private static final Logger log = LoggerFactory.getLogger(AccountController.class);
     private final AccountService accountService;
+    private final BalanceOperationService balanceOperationService;
 
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountService accountService, BalanceOperationService balanceOperationService) {
         this.accountService = accountService;
+        this.balanceOperationService = balanceOperationService;
     }
 
     @GetMapping
@@ -82,10 +86,17 @@ public class AccountController {
         accountService.deleteAccount(id);
     }
 
+    /**
+     * Page des transactions du compte, lue sur l'endpoint admin de transactions-service : réservée aux admins
+     * (un utilisateur consulte les siennes via {@code /user/transactions/my-transactions}).
+     */
     @GetMapping("/{id}/transactions")
-    public List<TransactionResponseDTO> getAccountTransactions(@PathVariable("id") Long accountId,
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public TransactionPageDTO getAccountTransactions(@PathVariable("id") Long accountId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
             @RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
-        return accountService.getTransactionsForAccount(accountId, authorizationHeader);
+        return accountService.getTransactionsForAccount(accountId, page, size, authorizationHeader);
     }
 
     @PostMapping("/{id}/transactions")
@@ -112,7 +123,12 @@ public class AccountController {
         return ResponseEntity.ok(accountService.getAccountDistribution());
     }
 
+    /**
+     * Crédit ou débit unitaire, pour les opérations d'administration ; mêmes restrictions que
+     * {@code /balance-operations}.
+     */
     @PostMapping("/{id}/balance")
+    @PreAuthorize("hasAnyAuthority('ROLE_SERVICE', 'ROLE_ADMIN')")
     public ResponseEntity<Void> updateBalance(
             @PathVariable Long id,
             @RequestBody BalanceUpdateRequest request) {
@@ -120,15 +136,36 @@ public class AccountController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Débits et crédits appliqués ensemble (virement) : tous ou aucun, rejouable avec la même clé.
+     * Réservé au token de service de transactions-service (et aux admins) : un utilisateur ne doit pas
+     * pouvoir débiter ou créditer un compte directement.
+     */
+    @PostMapping("/balance-operations")
+    @PreAuthorize("hasAnyAuthority('ROLE_SERVICE', 'ROLE_ADMIN')")
+    public ResponseEntity<BalanceOperationResponseDTO> applyBalanceOperation(
+            @RequestBody BalanceOperationRequestDTO request) {
+        return ResponseEntity.ok(balanceOperationService.apply(request));
+    }
+
+    /**
+     * Compensation : contre-passe l'opération, ou bloque la clé si elle n'a jamais été appliquée.
+     */
+    @PostMapping("/balance-operations/{key}/reversal")
+    @PreAuthorize("hasAnyAuthority('ROLE_SERVICE', 'ROLE_ADMIN')")
+    public ResponseEntity<BalanceOperationResponseDTO> reverseBalanceOperation(@PathVariable String key) {
+        return ResponseEntity.ok(balanceOperationService.reverse(key));
+    }
+
     public static class BalanceUpdateRequest {
-        private Double amount;
+        private BigDecimal amount;
         private String operation; // "ADD" ou "SUBTRACT"
 
-        public Double getAmount() {
+        public BigDecimal getAmount() {
             return amount;
         }
 
-        public void setAmount(Double amount) {
+        public void setAmount(BigDecimal amount) {
             this.amount = amount;
         }
 
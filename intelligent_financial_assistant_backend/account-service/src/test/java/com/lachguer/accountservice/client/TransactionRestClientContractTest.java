@@ -0,0 +1,104 @@
+package com.lachguer.accountservice.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lachguer.accountservice.dto.TransactionPageDTO;
+import com.lachguer.accountservice.dto.TransactionResponseDTO;
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Contrat avec {@code TransactionAdminController#getAccountTransactions} de transactions-service : nom du
+ * service, chemin, paramètres et forme de la réponse ({@code Page} Spring Data de {@code TransactionResponseDTO}).
+ */
+class TransactionRestClientContractTest {
+
+    // Réponse de transactions-service pour GET /admin/transactions/account/1?page=0&size=2
+    private static final String ACCOUNT_PAGE = """
+            {"content":[{"id":12,"userId":7,"bankAccountId":1,"reference":"TXN-00000012","type":"DEPOSIT",
+            "status":"COMPLETED","amount":150.00,"recipientId":null,"recipientName":null,"recipientIban":null,
+            "reason":"Salaire","date":"2024-01-02T10:00:00Z"}],
+            "pageable":{"pageNumber":0,"pageSize":2,"sort":{"sorted":true,"unsorted":false,"empty":false},
+            "offset":0,"paged":true,"unpaged":false},
+            "totalElements":3,"totalPages":2,"last":false,"size":2,"number":0,
+            "sort":{"sorted":true,"unsorted":false,"empty":false},"numberOfElements":1,"first":true,"empty":false}
+            """;
+
+    private final AtomicReference<String> requested = new AtomicReference<>();
+    private final AtomicReference<String> authorization = new AtomicReference<>();
+    private HttpServer server;
+    private TransactionRestClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requested.set(exchange.getRequestMethod() + " " + exchange.getRequestURI());
+            authorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+            byte[] body = ACCOUNT_PAGE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        // Mêmes réglages Jackson que l'ObjectMapper de Spring Boot
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        HttpMessageConverters converters = new HttpMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper));
+        client = Feign.builder()
+                .contract(new SpringMvcContract())
+                .decoder(new ResponseEntityDecoder(new SpringDecoder(() -> converters)))
+                .target(TransactionRestClient.class, "http://localhost:" + server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void targetsTheRegisteredTransactionsService() {
+        assertEquals("transactions-service", TransactionRestClient.class.getAnnotation(FeignClient.class).name());
+    }
+
+    @Test
+    void getTransactionsByAccount_CallsAdminAccountListingAndReadsPage() {
+        TransactionPageDTO page = client.getTransactionsByAccount(1L, 0, 2, "Bearer admin");
+
+        assertEquals("GET /admin/transactions/account/1?page=0&size=2", requested.get());
+        assertEquals("Bearer admin", authorization.get());
+        assertEquals(3, page.getTotalElements());
+        assertEquals(2, page.getTotalPages());
+        assertEquals(0, page.getNumber());
+        assertEquals(2, page.getSize());
+        assertEquals(1, page.getContent().size());
+        TransactionResponseDTO transaction = page.getContent().get(0);
+        assertEquals(12L, transaction.getId());
+        assertEquals(1L, transaction.getAccountId());
+        assertEquals(7L, transaction.getUserId());
+        assertEquals(0, new BigDecimal("150.00").compareTo(transaction.getAmount()));
+        assertEquals("DEPOSIT", transaction.getType());
+        assertEquals("Salaire", transaction.getDescription());
+        assertEquals(1704189600000L, transaction.getCreatedAt().getTime());
+    }
+}
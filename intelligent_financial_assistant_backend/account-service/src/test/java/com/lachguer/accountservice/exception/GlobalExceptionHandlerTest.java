@@ -3,6 +3,7 @@ package com.lachguer.accountservice.exception;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,6 +21,24 @@ class GlobalExceptionHandlerTest {
         assertEquals(HttpStatus.UNAUTHORIZED.getReasonPhrase(), response.getBody().get("error"));
     }
 
+    @Test
+    void handleAccessDeniedException() {
+        ResponseEntity<java.util.Map<String, Object>> response =
+                exceptionHandler.handleAccessDenied(new AccessDeniedException("Access Denied"));
+
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN.getReasonPhrase(), response.getBody().get("error"));
+    }
+
+    @Test
+    void handleBalanceOperationRejectedException() {
+        ResponseEntity<java.util.Map<String, Object>> response = exceptionHandler.handleBalanceOperationRejected(
+                new BalanceOperationRejectedException("Insufficient balance"));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+        assertEquals("Insufficient balance", response.getBody().get("message"));
+    }
+
     @Test
     void handleRuntimeException() {
         RuntimeException ex = new RuntimeException("Account not found");
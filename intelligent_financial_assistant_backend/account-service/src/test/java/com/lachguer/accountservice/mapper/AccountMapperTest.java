@@ -10,6 +10,8 @@ import org.springframework.beans.BeanUtils;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.math.BigDecimal;
+
 class AccountMapperTest {
 
     private AccountMapper accountMapper;
@@ -23,24 +25,24 @@ class AccountMapperTest {
     void fromBankAccount_CurrentAccount() {
         CurrentAccount account = new CurrentAccount();
         account.setId(1L);
-        account.setBalance(1000.0);
+        account.setBalance(new BigDecimal("1000.0"));
         account.setAccountType(AccountType.CURRENT_ACCOUNT);
-        account.setOverDraft(500.0);
+        account.setOverDraft(new BigDecimal("500.0"));
         
         BankAccountResponseDTO dto = accountMapper.fromBankAccount(account);
         
         assertNotNull(dto);
         assertEquals(1L, dto.getId());
-        assertEquals(1000.0, dto.getBalance());
+        assertEquals(new BigDecimal("1000.0"), dto.getBalance());
         assertEquals(AccountType.CURRENT_ACCOUNT, dto.getType());
-        assertEquals(500.0, dto.getOverDraft());
+        assertEquals(new BigDecimal("500.0"), dto.getOverDraft());
     }
 
     @Test
     void fromBankAccount_SavingAccount() {
         SavingAccount account = new SavingAccount();
         account.setId(2L);
-        account.setBalance(2000.0);
+        account.setBalance(new BigDecimal("2000.0"));
         account.setAccountType(AccountType.SAVING_ACCOUNT);
         account.setInterestRate(3.5);
         
@@ -48,7 +50,7 @@ class AccountMapperTest {
         
         assertNotNull(dto);
         assertEquals(2L, dto.getId());
-        assertEquals(2000.0, dto.getBalance());
+        assertEquals(new BigDecimal("2000.0"), dto.getBalance());
         assertEquals(AccountType.SAVING_ACCOUNT, dto.getType());
         assertEquals(3.5, dto.getInterestRate());
     }
@@ -1,6 +1,6 @@
 package com.lachguer.accountservice.service;
 
-import com.lachguer.accountservice.client.AuthRestClient;
+import com.aitsaid.commoncore.cache.AggregateCache;
 import com.lachguer.accountservice.client.TransactionRestClient;
 import com.lachguer.accountservice.dto.*;
 import com.lachguer.accountservice.enums.AccountType;
@@ -10,15 +10,22 @@ import com.lachguer.accountservice.model.CurrentAccount;
 import com.lachguer.accountservice.model.SavingAccount;
 import com.lachguer.accountservice.model.User;
 import com.lachguer.accountservice.repository.BankAccountRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -37,7 +44,10 @@ class AccountServiceImplTest {
     private TransactionRestClient transactionRestClient;
 
     @Mock
-    private AuthRestClient authRestClient;
+    private UserBatchLoader userBatchLoader;
+
+    @Mock
+    private AggregateCache aggregateCache;
 
     @InjectMocks
     private AccountServiceImpl accountService;
@@ -47,6 +57,17 @@ class AccountServiceImplTest {
     private BankAccountResponseDTO bankAccountResponseDTO;
     private UserDTO userDTO;
 
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    // Requête déjà authentifiée par GatewayAuthenticationFilter
+    private void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "user@test.com", "token", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
     @BeforeEach
     void setUp() {
         bankAccountRequestDTO = new BankAccountRequestDTO();
@@ -57,14 +78,14 @@ class AccountServiceImplTest {
         bankAccount.setId(1L);
         bankAccount.setUserId(1L);
         bankAccount.setAccountType(AccountType.CURRENT_ACCOUNT);
-        bankAccount.setBalance(1000.0);
+        bankAccount.setBalance(new BigDecimal("1000.0"));
         bankAccount.setRib("1234567890123456");
 
         bankAccountResponseDTO = new BankAccountResponseDTO();
         bankAccountResponseDTO.setId(1L);
         bankAccountResponseDTO.setUserId(1L);
         bankAccountResponseDTO.setType(AccountType.CURRENT_ACCOUNT);
-        bankAccountResponseDTO.setBalance(1000.0);
+        bankAccountResponseDTO.setBalance(new BigDecimal("1000.0"));
 
         userDTO = new UserDTO();
         userDTO.setId(1L);
@@ -158,20 +179,41 @@ class AccountServiceImplTest {
     @Test
     void getAccounts_Success() {
         when(bankAccountRepository.findAll()).thenReturn(Collections.singletonList(bankAccount));
-        when(authRestClient.getUserById(1L)).thenReturn(userDTO);
+        when(userBatchLoader.loadUsers(List.of(1L))).thenReturn(Map.of(1L, userDTO));
         when(accountMapper.fromBankAccount(bankAccount)).thenReturn(bankAccountResponseDTO);
 
         List<BankAccountResponseDTO> result = accountService.getAccounts();
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(authRestClient, times(1)).getUserById(1L);
+        assertNotNull(bankAccount.getUser());
+        verify(userBatchLoader, times(1)).loadUsers(List.of(1L));
+    }
+
+    @Test
+    void getAccounts_LoadsUsersOnceForAllAccounts() {
+        BankAccount other = new SavingAccount();
+        other.setId(2L);
+        other.setUserId(2L);
+        BankAccount sameUser = new SavingAccount();
+        sameUser.setId(3L);
+        sameUser.setUserId(1L);
+        UserDTO otherUser = new UserDTO();
+        otherUser.setId(2L);
+        when(bankAccountRepository.findAll()).thenReturn(List.of(bankAccount, other, sameUser));
+        when(userBatchLoader.loadUsers(any())).thenReturn(Map.of(1L, userDTO, 2L, otherUser));
+
+        accountService.getAccounts();
+
+        verify(userBatchLoader, times(1)).loadUsers(any());
+        assertEquals(2L, other.getUser().getId());
+        assertEquals(1L, sameUser.getUser().getId());
     }
 
     @Test
     void getAccountsByUserId_Success() {
         when(bankAccountRepository.findByUserId(1L)).thenReturn(Collections.singletonList(bankAccount));
-        when(authRestClient.getUserById(1L)).thenReturn(userDTO);
+        when(userBatchLoader.loadUsers(List.of(1L))).thenReturn(Map.of(1L, userDTO));
         when(accountMapper.fromBankAccount(bankAccount)).thenReturn(bankAccountResponseDTO);
 
         List<BankAccountResponseDTO> result = accountService.getAccountsByUserId(1L);
@@ -183,7 +225,7 @@ class AccountServiceImplTest {
     @Test
     void updateAccount_Success() {
         BankAccountUpdateDTO updateDTO = new BankAccountUpdateDTO();
-        updateDTO.setBalance(2000.0);
+        updateDTO.setBalance(new BigDecimal("2000.0"));
         updateDTO.setIsActive(false);
 
         when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccount));
@@ -192,7 +234,7 @@ class AccountServiceImplTest {
         BankAccount result = accountService.updateAccount(1L, updateDTO);
 
         assertNotNull(result);
-        assertEquals(2000.0, result.getBalance());
+        assertEquals(new BigDecimal("2000.0"), result.getBalance());
         assertEquals(false, result.getIsActive());
     }
 
@@ -203,37 +245,60 @@ class AccountServiceImplTest {
         accountService.deleteAccount(1L);
 
         verify(bankAccountRepository, times(1)).deleteById(1L);
+        verify(aggregateCache).invalidate("accounts.count", "accounts.distribution");
+    }
+
+    @Test
+    void countUsers_ServedFromCache() {
+        when(aggregateCache.get(eq("accounts.count"), any())).thenReturn(7L);
+
+        assertEquals(7L, accountService.countUsers());
+        verifyNoInteractions(bankAccountRepository);
     }
 
     @Test
     void updateBalance_Add_Success() {
-        when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccount));
-        when(bankAccountRepository.save(any(BankAccount.class))).thenReturn(bankAccount);
+        when(bankAccountRepository.credit(1L, new BigDecimal("500.0"))).thenReturn(1);
 
-        accountService.updateBalance(1L, 500.0, "ADD");
+        accountService.updateBalance(1L, new BigDecimal("500.0"), "ADD");
 
-        assertEquals(1500.0, bankAccount.getBalance());
+        verify(bankAccountRepository).credit(1L, new BigDecimal("500.0"));
+        verify(bankAccountRepository, never()).findById(any());
+        verify(bankAccountRepository, never()).save(any());
     }
 
     @Test
     void updateBalance_Subtract_Success() {
-        when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccount));
-        when(bankAccountRepository.save(any(BankAccount.class))).thenReturn(bankAccount);
+        when(bankAccountRepository.debit(1L, new BigDecimal("500.0"))).thenReturn(1);
 
-        accountService.updateBalance(1L, 500.0, "SUBTRACT");
+        accountService.updateBalance(1L, new BigDecimal("500.0"), "SUBTRACT");
 
-        assertEquals(500.0, bankAccount.getBalance());
+        verify(bankAccountRepository).debit(1L, new BigDecimal("500.0"));
+        verify(bankAccountRepository, never()).save(any());
     }
 
     @Test
     void updateBalance_Subtract_InsufficientBalance() {
-        when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccount));
+        when(bankAccountRepository.debit(1L, new BigDecimal("2000.0"))).thenReturn(0);
+        when(bankAccountRepository.existsById(1L)).thenReturn(true);
 
-        assertThrows(RuntimeException.class, () -> accountService.updateBalance(1L, 2000.0, "SUBTRACT"));
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> accountService.updateBalance(1L, new BigDecimal("2000.0"), "SUBTRACT"));
+        assertEquals("Insufficient balance", ex.getMessage());
+    }
+
+    @Test
+    void updateBalance_NonPositiveAmountRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> accountService.updateBalance(1L, new BigDecimal("-5.00"), "ADD"));
+        assertThrows(IllegalArgumentException.class,
+                () -> accountService.updateBalance(1L, null, "ADD"));
+        verifyNoInteractions(bankAccountRepository);
     }
 
     @Test
     void getAccountDistribution_Success() {
+        passThroughCache();
         List<Object[]> distribution = new ArrayList<>();
         distribution.add(new Object[]{AccountType.CURRENT_ACCOUNT, 10L});
         distribution.add(new Object[]{AccountType.SAVING_ACCOUNT, 5L});
@@ -249,6 +314,7 @@ class AccountServiceImplTest {
 
     @Test
     void countUsers_Success() {
+        passThroughCache();
         when(bankAccountRepository.count()).thenReturn(42L);
 
         Long result = accountService.countUsers();
@@ -267,13 +333,13 @@ class AccountServiceImplTest {
         List<BankAccountResponseDTO> result = accountService.getAccounts();
 
         assertNotNull(result);
-        verify(authRestClient, never()).getUserById(any());
+        verify(userBatchLoader).loadUsers(List.of());
     }
 
     @Test
     void enrichAccountWithUser_NullUserDTO() {
         when(bankAccountRepository.findAll()).thenReturn(Collections.singletonList(bankAccount));
-        when(authRestClient.getUserById(1L)).thenReturn(null);
+        when(userBatchLoader.loadUsers(List.of(1L))).thenReturn(Map.of());
         when(accountMapper.fromBankAccount(bankAccount)).thenReturn(bankAccountResponseDTO);
 
         List<BankAccountResponseDTO> result = accountService.getAccounts();
@@ -284,44 +350,56 @@ class AccountServiceImplTest {
 
     @Test
     void updateBalance_InvalidOperation() {
-        when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccount));
-
-        assertThrows(IllegalArgumentException.class, () -> accountService.updateBalance(1L, 100.0, "INVALID"));
+        assertThrows(IllegalArgumentException.class, () -> accountService.updateBalance(1L, new BigDecimal("100.0"), "INVALID"));
     }
 
     @Test
     void updateBalance_AccountNotFound() {
-        when(bankAccountRepository.findById(999L)).thenReturn(Optional.empty());
+        when(bankAccountRepository.credit(999L, new BigDecimal("100.0"))).thenReturn(0);
+        when(bankAccountRepository.existsById(999L)).thenReturn(false);
 
-        assertThrows(RuntimeException.class, () -> accountService.updateBalance(999L, 100.0, "ADD"));
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> accountService.updateBalance(999L, new BigDecimal("100.0"), "ADD"));
+        assertEquals("Account not found", ex.getMessage());
     }
 
     @Test
     void getTransactionsForAccount_Success() {
         String token = "Bearer token";
-        when(authRestClient.validateToken(token)).thenReturn(true);
+        authenticate();
         when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccount));
-        when(transactionRestClient.getTransactionsByAccount(1L, token)).thenReturn(Collections.emptyList());
+        TransactionPageDTO page = new TransactionPageDTO();
+        page.setContent(Collections.emptyList());
+        when(transactionRestClient.getTransactionsByAccount(1L, 0, 20, token)).thenReturn(page);
 
-        List<TransactionResponseDTO> result = accountService.getTransactionsForAccount(1L, token);
+        TransactionPageDTO result = accountService.getTransactionsForAccount(1L, 0, 20, token);
 
-        assertNotNull(result);
-        verify(transactionRestClient).getTransactionsByAccount(1L, token);
+        assertSame(page, result);
+        verify(transactionRestClient).getTransactionsByAccount(1L, 0, 20, token);
     }
 
     @Test
     void getTransactionsForAccount_Unauthorized() {
         String token = "Bearer token";
-        when(authRestClient.validateToken(token)).thenReturn(false);
 
         assertThrows(com.lachguer.accountservice.exception.UnauthorizedException.class, 
-            () -> accountService.getTransactionsForAccount(1L, token));
+            () -> accountService.getTransactionsForAccount(1L, 0, 20, token));
+        verifyNoInteractions(transactionRestClient);
+    }
+
+    @Test
+    void getTransactionsForAccount_AnonymousRejected() {
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken(
+                "key", "anonymousUser", List.of(new SimpleGrantedAuthority("ROLE_ANONYMOUS"))));
+
+        assertThrows(com.lachguer.accountservice.exception.UnauthorizedException.class,
+            () -> accountService.getTransactionsForAccount(1L, 0, 20, "Bearer token"));
     }
     
     @Test
     void getTransactionsForAccount_MissingToken() {
         assertThrows(com.lachguer.accountservice.exception.UnauthorizedException.class, 
-            () -> accountService.getTransactionsForAccount(1L, null));
+            () -> accountService.getTransactionsForAccount(1L, 0, 20, null));
     }
 
     @Test
@@ -330,7 +408,7 @@ class AccountServiceImplTest {
         TransactionRequestDTO request = new TransactionRequestDTO();
         TransactionResponseDTO response = new TransactionResponseDTO();
         
-        when(authRestClient.validateToken(token)).thenReturn(true);
+        authenticate();
         when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccount));
         when(transactionRestClient.createTransaction(any(TransactionRequestDTO.class), eq(token))).thenReturn(response);
 
@@ -347,7 +425,7 @@ class AccountServiceImplTest {
         updateDTO.setIsWithdrawal(true);
         updateDTO.setIsPaymentByCard(true);
         updateDTO.setIsOnlinePayment(true);
-        updateDTO.setOverDraft(500.0);
+        updateDTO.setOverDraft(new BigDecimal("500.0"));
 
         when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccount));
         when(bankAccountRepository.save(any(BankAccount.class))).thenReturn(bankAccount);
@@ -358,7 +436,7 @@ class AccountServiceImplTest {
         assertEquals(true, result.getIsWithdrawal());
         assertEquals(true, result.getIsPaymentByCard());
         assertEquals(true, result.getIsOnlinePayment());
-        assertEquals(500.0, ((CurrentAccount) result).getOverDraft());
+        assertEquals(new BigDecimal("500.0"), ((CurrentAccount) result).getOverDraft());
     }
 
     @Test
@@ -381,26 +459,26 @@ class AccountServiceImplTest {
     @Test
     void updateAccount_AllFields() {
         BankAccountUpdateDTO updateDTO = new BankAccountUpdateDTO();
-        updateDTO.setBalance(5000.0);
+        updateDTO.setBalance(new BigDecimal("5000.0"));
         updateDTO.setIsActive(true);
         updateDTO.setIsContactless(false);
         updateDTO.setIsWithdrawal(false);
         updateDTO.setIsPaymentByCard(true);
         updateDTO.setIsOnlinePayment(true);
-        updateDTO.setOverDraft(1200.0);
+        updateDTO.setOverDraft(new BigDecimal("1200.0"));
 
         when(bankAccountRepository.findById(1L)).thenReturn(Optional.of(bankAccount));
         when(bankAccountRepository.save(any(BankAccount.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         BankAccount result = accountService.updateAccount(1L, updateDTO);
 
-        assertEquals(5000.0, result.getBalance());
+        assertEquals(new BigDecimal("5000.0"), result.getBalance());
         assertEquals(true, result.getIsActive());
         assertEquals(false, result.getIsContactless());
         assertEquals(false, result.getIsWithdrawal());
         assertEquals(true, result.getIsPaymentByCard());
         assertEquals(true, result.getIsOnlinePayment());
-        assertEquals(1200.0, ((CurrentAccount) result).getOverDraft());
+        assertEquals(new BigDecimal("1200.0"), ((CurrentAccount) result).getOverDraft());
     }
 
     @Test
@@ -415,7 +493,7 @@ class AccountServiceImplTest {
         when(bankAccountRepository.save(any(BankAccount.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         BankAccount result = accountService.updateAccount(1L, updateDTO);
-        assertEquals(1000.0, result.getBalance());
+        assertEquals(new BigDecimal("1000.0"), result.getBalance());
     }
 
     @Test
@@ -437,14 +515,14 @@ class AccountServiceImplTest {
     @Test
     void getTransactionsForAccount_EmptyToken() {
         assertThrows(com.lachguer.accountservice.exception.UnauthorizedException.class, 
-            () -> accountService.getTransactionsForAccount(1L, ""));
+            () -> accountService.getTransactionsForAccount(1L, 0, 20, ""));
     }
 
     @Test
     void enrichAccountWithUser_AuthServiceFailure() {
-        // Setup: Auth service throws exception
+        // Setup: Auth service down, the loader returns no user
         when(bankAccountRepository.findAll()).thenReturn(Collections.singletonList(bankAccount));
-        when(authRestClient.getUserById(1L)).thenThrow(new RuntimeException("Service down"));
+        when(userBatchLoader.loadUsers(List.of(1L))).thenReturn(Map.of());
         when(accountMapper.fromBankAccount(bankAccount)).thenReturn(bankAccountResponseDTO);
 
         // Execute
@@ -454,4 +532,9 @@ class AccountServiceImplTest {
         assertNotNull(result);
         assertEquals(1, result.size());
     }
+
+    @SuppressWarnings("unchecked")
+    private void passThroughCache() {
+        when(aggregateCache.get(anyString(), any())).thenAnswer(inv -> ((Supplier<Object>) inv.getArgument(1)).get());
+    }
 }
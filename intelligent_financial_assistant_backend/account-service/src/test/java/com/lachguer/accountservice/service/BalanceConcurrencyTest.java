@@ -0,0 +1,164 @@
+package com.lachguer.accountservice.service;
+
+import com.lachguer.accountservice.model.BankAccount;
+import com.lachguer.accountservice.model.CurrentAccount;
+import com.lachguer.accountservice.model.SavingAccount;
+import com.lachguer.accountservice.repository.BankAccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Écritures concurrentes sur un même compte : aucune mise à jour perdue, découvert jamais dépassé.
+ */
+@SpringBootTest
+class BalanceConcurrencyTest {
+
+    private static final int WRITERS = 64;
+    private static final int OPERATIONS_PER_WRITER = 25;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        bankAccountRepository.deleteAllById(created);
+        created.clear();
+    }
+
+    private BankAccount save(BankAccount account, String balance) {
+        account.setRib(UUID.randomUUID().toString());
+        account.setBalance(new BigDecimal(balance));
+        account.setIsActive(true);
+        account.setCreatedAt(new Date());
+        account.setUserId(99L);
+        BankAccount saved = bankAccountRepository.save(account);
+        created.add(saved.getId());
+        return saved;
+    }
+
+    private BigDecimal balanceOf(Long id) {
+        return bankAccountRepository.findById(id).orElseThrow().getBalance();
+    }
+
+    /**
+     * Lance {@link #WRITERS} threads ensemble et compte les opérations acceptées.
+     */
+    private int runConcurrently(Runnable operation) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int w = 0; w < WRITERS; w++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < OPERATIONS_PER_WRITER; i++) {
+                        try {
+                            operation.run();
+                            succeeded.incrementAndGet();
+                        } catch (RuntimeException rejected) {
+                            // Débit refusé faute de provision
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return succeeded.get();
+    }
+
+    @Test
+    void concurrentCredits_shouldNotLoseUpdates() throws Exception {
+        Long id = save(new SavingAccount(), "0.00").getId();
+
+        // 0.10 n'est pas représentable en double : la somme exacte vérifie aussi l'arithmétique décimale
+        int applied = runConcurrently(() -> accountService.updateBalance(id, new BigDecimal("0.10"), "ADD"));
+
+        assertEquals(WRITERS * OPERATIONS_PER_WRITER, applied);
+        assertEquals(0, new BigDecimal("160.00").compareTo(balanceOf(id)));
+    }
+
+    @Test
+    void concurrentDebits_shouldStopExactlyAtOverdraftLimit() throws Exception {
+        CurrentAccount account = new CurrentAccount();
+        account.setOverDraft(new BigDecimal("50.00"));
+        Long id = save(account, "100.00").getId();
+
+        int applied = runConcurrently(() -> accountService.updateBalance(id, new BigDecimal("1.00"), "SUBTRACT"));
+
+        assertEquals(150, applied);
+        assertEquals(0, new BigDecimal("-50.00").compareTo(balanceOf(id)));
+    }
+
+    @Test
+    void concurrentCreditsAndDebits_shouldKeepExactBalance() throws Exception {
+        Long id = save(new SavingAccount(), "1000.00").getId();
+        AtomicInteger turn = new AtomicInteger();
+
+        int applied = runConcurrently(() -> {
+            if (turn.getAndIncrement() % 2 == 0) {
+                accountService.updateBalance(id, new BigDecimal("2.50"), "ADD");
+            } else {
+                accountService.updateBalance(id, new BigDecimal("1.25"), "SUBTRACT");
+            }
+        });
+
+        assertEquals(WRITERS * OPERATIONS_PER_WRITER, applied);
+        // 800 crédits de 2,50 et 800 débits de 1,25
+        assertEquals(0, new BigDecimal("2000.00").compareTo(balanceOf(id)));
+    }
+
+    @Test
+    void staleEntityUpdate_shouldFailOnVersionConflict() {
+        Long id = save(new SavingAccount(), "10.00").getId();
+        BankAccount first = bankAccountRepository.findById(id).orElseThrow();
+        BankAccount second = bankAccountRepository.findById(id).orElseThrow();
+
+        first.setIsActive(false);
+        bankAccountRepository.save(first);
+
+        second.setBalance(new BigDecimal("999.00"));
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> bankAccountRepository.save(second));
+        assertEquals(0, new BigDecimal("10.00").compareTo(balanceOf(id)));
+    }
+
+    @Test
+    void conditionalUpdate_shouldBumpVersionSoStaleEntityIsRejected() {
+        Long id = save(new SavingAccount(), "10.00").getId();
+        BankAccount stale = bankAccountRepository.findById(id).orElseThrow();
+
+        accountService.updateBalance(id, new BigDecimal("5.00"), "ADD");
+
+        stale.setIsActive(false);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> bankAccountRepository.save(stale));
+        assertEquals(0, new BigDecimal("15.00").compareTo(balanceOf(id)));
+    }
+}
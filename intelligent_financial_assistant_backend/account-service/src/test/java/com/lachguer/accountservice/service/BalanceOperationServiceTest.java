@@ -0,0 +1,222 @@
+package com.lachguer.accountservice.service;
+
+import com.lachguer.accountservice.dto.BalanceLegDTO;
+import com.lachguer.accountservice.dto.BalanceOperationRequestDTO;
+import com.lachguer.accountservice.dto.BalanceOperationResponseDTO;
+import com.lachguer.accountservice.exception.IdempotencyConflictException;
+import com.lachguer.accountservice.model.BankAccount;
+import com.lachguer.accountservice.model.SavingAccount;
+import com.lachguer.accountservice.repository.BalanceOperationRepository;
+import com.lachguer.accountservice.repository.BankAccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class BalanceOperationServiceTest {
+
+    @Autowired
+    private BalanceOperationService balanceOperationService;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private BalanceOperationRepository balanceOperationRepository;
+
+    private final List<Long> created = new ArrayList<>();
+    private BankAccount source;
+    private BankAccount target;
+
+    @BeforeEach
+    void setUp() {
+        source = save("100.00");
+        target = save("5.00");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        balanceOperationRepository.deleteAll();
+        bankAccountRepository.deleteAllById(created);
+        created.clear();
+    }
+
+    private BankAccount save(String balance) {
+        SavingAccount account = new SavingAccount();
+        account.setRib(UUID.randomUUID().toString());
+        account.setBalance(new BigDecimal(balance));
+        account.setIsActive(true);
+        account.setCreatedAt(new Date());
+        account.setUserId(42L);
+        BankAccount saved = bankAccountRepository.save(account);
+        created.add(saved.getId());
+        return saved;
+    }
+
+    private BigDecimal balanceOf(BankAccount account) {
+        return bankAccountRepository.findById(account.getId()).orElseThrow().getBalance();
+    }
+
+    private BalanceOperationRequestDTO transfer(String key, String amount) {
+        return new BalanceOperationRequestDTO(key, List.of(
+                new BalanceLegDTO(source.getId(), null, new BigDecimal(amount), "SUBTRACT"),
+                new BalanceLegDTO(null, target.getRib(), new BigDecimal(amount), "ADD")));
+    }
+
+    @Test
+    void apply_shouldMoveFundsAndResolveRib() {
+        BalanceOperationResponseDTO result = balanceOperationService.apply(transfer("TXN-A", "30.00"));
+
+        assertFalse(result.isReplayed());
+        assertEquals(List.of(source.getId(), target.getId()), result.getAccountIds());
+        assertEquals(0, new BigDecimal("70.00").compareTo(balanceOf(source)));
+        assertEquals(0, new BigDecimal("35.00").compareTo(balanceOf(target)));
+    }
+
+    @Test
+    void apply_shouldRollBackAllLegsWhenOneFails() {
+        BalanceOperationRequestDTO request = new BalanceOperationRequestDTO("TXN-B", List.of(
+                new BalanceLegDTO(null, target.getRib(), new BigDecimal("10.00"), "ADD"),
+                new BalanceLegDTO(source.getId(), null, new BigDecimal("500.00"), "SUBTRACT")));
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> balanceOperationService.apply(request));
+
+        assertEquals("Insufficient balance", ex.getMessage());
+        assertEquals(0, new BigDecimal("100.00").compareTo(balanceOf(source)));
+        assertEquals(0, new BigDecimal("5.00").compareTo(balanceOf(target)));
+        assertTrue(balanceOperationRepository.findByIdempotencyKey("TXN-B").isEmpty());
+    }
+
+    @Test
+    void apply_unknownRib_shouldFailWithoutSideEffects() {
+        BalanceOperationRequestDTO request = new BalanceOperationRequestDTO("TXN-C", List.of(
+                new BalanceLegDTO(source.getId(), null, new BigDecimal("10.00"), "SUBTRACT"),
+                new BalanceLegDTO(null, "UNKNOWN-RIB", new BigDecimal("10.00"), "ADD")));
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> balanceOperationService.apply(request));
+
+        assertEquals("Account not found", ex.getMessage());
+        assertEquals(0, new BigDecimal("100.00").compareTo(balanceOf(source)));
+    }
+
+    @Test
+    void apply_sameKeyTwice_shouldApplyOnce() {
+        balanceOperationService.apply(transfer("TXN-D", "30.00"));
+        // Même montant écrit autrement : même opération
+        BalanceOperationResponseDTO replay = balanceOperationService.apply(transfer("TXN-D", "30.0"));
+
+        assertTrue(replay.isReplayed());
+        assertEquals(List.of(source.getId(), target.getId()), replay.getAccountIds());
+        assertEquals(0, new BigDecimal("70.00").compareTo(balanceOf(source)));
+    }
+
+    @Test
+    void apply_sameKeyDifferentLegs_shouldConflict() {
+        balanceOperationService.apply(transfer("TXN-E", "30.00"));
+
+        assertThrows(IdempotencyConflictException.class,
+                () -> balanceOperationService.apply(transfer("TXN-E", "40.00")));
+        assertEquals(0, new BigDecimal("70.00").compareTo(balanceOf(source)));
+    }
+
+    @Test
+    void apply_concurrentRetriesWithSameKey_shouldApplyOnce() throws Exception {
+        int callers = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BalanceOperationResponseDTO>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return balanceOperationService.apply(transfer("TXN-F", "10.00"));
+                }));
+            }
+            start.countDown();
+            int applied = 0;
+            for (Future<BalanceOperationResponseDTO> future : futures) {
+                if (!future.get(30, TimeUnit.SECONDS).isReplayed()) {
+                    applied++;
+                }
+            }
+            assertEquals(1, applied);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(0, new BigDecimal("90.00").compareTo(balanceOf(source)));
+        assertEquals(0, new BigDecimal("15.00").compareTo(balanceOf(target)));
+    }
+
+    @Test
+    void apply_invalidRequests_shouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> balanceOperationService.apply(
+                new BalanceOperationRequestDTO(null, transfer("x", "1").getLegs())));
+        assertThrows(IllegalArgumentException.class, () -> balanceOperationService.apply(
+                new BalanceOperationRequestDTO("TXN-G", List.of())));
+        assertThrows(IllegalArgumentException.class, () -> balanceOperationService.apply(
+                new BalanceOperationRequestDTO("TXN-G", List.of(
+                        new BalanceLegDTO(source.getId(), source.getRib(), BigDecimal.ONE, "ADD")))));
+        assertThrows(IllegalArgumentException.class, () -> balanceOperationService.apply(
+                new BalanceOperationRequestDTO("TXN-G", List.of(
+                        new BalanceLegDTO(source.getId(), null, BigDecimal.ONE, "MULTIPLY")))));
+    }
+
+    @Test
+    void reverse_shouldRestoreBalancesOnce() {
+        balanceOperationService.apply(transfer("TXN-H", "30.00"));
+
+        BalanceOperationResponseDTO first = balanceOperationService.reverse("TXN-H");
+        BalanceOperationResponseDTO second = balanceOperationService.reverse("TXN-H");
+
+        assertFalse(first.isReplayed());
+        assertTrue(second.isReplayed());
+        assertEquals(0, new BigDecimal("100.00").compareTo(balanceOf(source)));
+        assertEquals(0, new BigDecimal("5.00").compareTo(balanceOf(target)));
+        // Un retry tardif de l'opération d'origine ne la réapplique pas
+        assertThrows(IdempotencyConflictException.class,
+                () -> balanceOperationService.apply(transfer("TXN-H", "30.00")));
+        assertEquals(0, new BigDecimal("100.00").compareTo(balanceOf(source)));
+    }
+
+    @Test
+    void reverse_unknownKey_shouldBlockLateApply() {
+        BalanceOperationResponseDTO result = balanceOperationService.reverse("TXN-I");
+
+        assertFalse(result.isReplayed());
+        assertTrue(result.getAccountIds().isEmpty());
+        assertThrows(IdempotencyConflictException.class,
+                () -> balanceOperationService.apply(transfer("TXN-I", "30.00")));
+        assertEquals(0, new BigDecimal("100.00").compareTo(balanceOf(source)));
+        assertTrue(balanceOperationService.reverse("TXN-I").isReplayed());
+    }
+
+    @Test
+    void reverse_creditAlreadySpent_shouldFailWithoutSideEffects() {
+        balanceOperationService.apply(transfer("TXN-J", "30.00"));
+        // Le bénéficiaire a déjà dépensé le crédit
+        BankAccount spent = bankAccountRepository.findById(target.getId()).orElseThrow();
+        spent.setBalance(new BigDecimal("1.00"));
+        bankAccountRepository.save(spent);
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> balanceOperationService.reverse("TXN-J"));
+
+        assertEquals("Insufficient balance", ex.getMessage());
+        assertEquals(0, new BigDecimal("70.00").compareTo(balanceOf(source)));
+        assertNull(balanceOperationRepository.findByIdempotencyKey("TXN-J").orElseThrow().getReversedAt());
+    }
+}
@@ -0,0 +1,189 @@
+package com.lachguer.accountservice.service;
+
+import com.aitsaid.commonsecurity.users.UserChangeFeed;
+import com.aitsaid.commonsecurity.users.UserNearCacheRegistry;
+import com.lachguer.accountservice.client.AuthRestClient;
+import com.lachguer.accountservice.dto.UserDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserBatchLoaderTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<UserChangeFeed.Entry> changes = new ArrayList<>();
+    private UserNearCacheRegistry registry = registry(60000);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+        registry.shutdown();
+        SecurityContextHolder.clearContext();
+    }
+
+    private UserNearCacheRegistry registry(long refreshMs) {
+        return new UserNearCacheRegistry((since, limit) -> {
+            List<UserChangeFeed.Entry> page = changes.stream().filter(entry -> entry.id() > since).toList();
+            long cursor = page.isEmpty() ? since : page.get(page.size() - 1).id();
+            return new UserChangeFeed(page, cursor, false);
+        }, meterRegistry, 600000, refreshMs, 1000, 1);
+    }
+
+    private UserBatchLoader loader(AuthRestClient client, int batchSize) {
+        return new UserBatchLoader(client, registry.create("user-profiles"), pool, batchSize);
+    }
+
+    @Test
+    void loadUsers_DeduplicatesAndChunksIds() {
+        RecordingAuthClient client = new RecordingAuthClient();
+        UserBatchLoader loader = loader(client, 2);
+
+        Map<Long, UserDTO> users = loader.loadUsers(List.of(1L, 2L, 1L, 3L, 2L));
+
+        assertEquals(Set.of(1L, 2L, 3L), users.keySet());
+        assertEquals(2, client.calls.get());
+        assertTrue(client.batches.stream().allMatch(batch -> batch.size() <= 2));
+    }
+
+    @Test
+    void loadUsers_FailedBatchIsSkipped() {
+        RecordingAuthClient client = new RecordingAuthClient() {
+            @Override
+            public List<UserDTO> getUsersByIds(Collection<Long> ids) {
+                if (ids.contains(3L)) {
+                    throw new RuntimeException("Service down");
+                }
+                return super.getUsersByIds(ids);
+            }
+        };
+        UserBatchLoader loader = loader(client, 2);
+
+        Map<Long, UserDTO> users = loader.loadUsers(List.of(1L, 2L, 3L));
+
+        assertEquals(Set.of(1L, 2L), users.keySet());
+    }
+
+    @Test
+    void loadUsers_PropagatesCallerSecurityContext() {
+        Authentication admin = new UsernamePasswordAuthenticationToken("admin", "token", List.of());
+        SecurityContextHolder.getContext().setAuthentication(admin);
+        Set<Object> seen = ConcurrentHashMap.newKeySet();
+        RecordingAuthClient client = new RecordingAuthClient() {
+            @Override
+            public List<UserDTO> getUsersByIds(Collection<Long> ids) {
+                Authentication current = SecurityContextHolder.getContext().getAuthentication();
+                seen.add(current == null ? "none" : current.getCredentials());
+                return super.getUsersByIds(ids);
+            }
+        };
+
+        loader(client, 1).loadUsers(List.of(1L, 2L, 3L));
+
+        assertEquals(Set.of("token"), seen);
+    }
+
+    /**
+     * Liste admin de 10 000 comptes (deux comptes par utilisateur) : un appel à auth-service par lot
+     * d'utilisateurs distincts au lieu d'un appel par compte.
+     */
+    @Test
+    void loadUsers_10kAccountsCallCountIsDistinctUsersOverBatchSize() {
+        int accounts = 10_000;
+        int batchSize = 200;
+        List<Long> accountUserIds = LongStream.range(0, accounts).map(i -> i / 2 + 1).boxed().toList();
+        RecordingAuthClient client = new RecordingAuthClient();
+        UserBatchLoader loader = loader(client, batchSize);
+
+        Map<Long, UserDTO> users = loader.loadUsers(accountUserIds);
+
+        int distinctUsers = accounts / 2;
+        assertEquals(distinctUsers, users.size());
+        assertEquals(25, client.calls.get());
+        assertTrue(client.batches.stream().allMatch(batch -> batch.size() == batchSize));
+    }
+
+    @Test
+    void loadUsers_SecondListingServedFromNearCache() {
+        RecordingAuthClient client = new RecordingAuthClient();
+        UserBatchLoader loader = loader(client, 200);
+
+        loader.loadUsers(List.of(1L, 2L, 3L));
+        Map<Long, UserDTO> users = loader.loadUsers(List.of(3L, 2L, 1L));
+
+        assertEquals(Set.of(1L, 2L, 3L), users.keySet());
+        assertEquals(1, client.calls.get());
+        assertEquals(3.0, meterRegistry.get("cache.gets").tag("cache", "user-profiles").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void loadUsers_ChangeFeedInvalidatesOnlyChangedUsers() {
+        RecordingAuthClient client = new RecordingAuthClient();
+        UserBatchLoader loader = loader(client, 200);
+        loader.loadUsers(List.of(1L, 2L, 3L));
+
+        changes.add(new UserChangeFeed.Entry(1L, 2L));
+        registry.sync();
+        loader.loadUsers(List.of(1L, 2L, 3L));
+
+        assertEquals(2, client.calls.get());
+        assertEquals(List.of(2L), client.batches.get(1));
+    }
+
+    @Test
+    void loadUsers_StaleEntriesRefreshedInBackground() throws InterruptedException {
+        registry.shutdown();
+        registry = registry(0);
+        RecordingAuthClient client = new RecordingAuthClient();
+        UserBatchLoader loader = loader(client, 200);
+        loader.loadUsers(List.of(1L, 2L));
+
+        Map<Long, UserDTO> users = loader.loadUsers(List.of(1L, 2L));
+
+        // L'appelant reçoit les valeurs en cache ; le rechargement part en arrière-plan
+        assertEquals(Set.of(1L, 2L), users.keySet());
+        for (int i = 0; i < 100 && client.calls.get() < 2; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, client.calls.get());
+        assertEquals(Set.of(1L, 2L), Set.copyOf(client.batches.get(1)));
+    }
+
+    private static class RecordingAuthClient implements AuthRestClient {
+        final AtomicInteger calls = new AtomicInteger();
+        final List<List<Long>> batches = Collections.synchronizedList(new ArrayList<>());
+        @Override
+        public UserDTO getUserById(Long id) {
+            throw new AssertionError("Per-account lookup should not be used");
+        }
+
+        @Override
+        public List<UserDTO> getUsersByIds(Collection<Long> ids) {
+            calls.incrementAndGet();
+            batches.add(List.copyOf(ids));
+            return ids.stream().map(id -> {
+                UserDTO user = new UserDTO();
+                user.setId(id);
+                return user;
+            }).toList();
+        }
+    }
+}
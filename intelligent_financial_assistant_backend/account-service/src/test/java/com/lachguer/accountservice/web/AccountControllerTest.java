@@ -3,29 +3,44 @@ package com.lachguer.accountservice.web;
 import com.aitsaid.commonsecurity.security.GatewayAuthenticationFilter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lachguer.accountservice.dto.AccountDistributionDTO;
+import com.lachguer.accountservice.dto.BalanceOperationRequestDTO;
+import com.lachguer.accountservice.dto.BalanceOperationResponseDTO;
 import com.lachguer.accountservice.dto.BankAccountRequestDTO;
 import com.lachguer.accountservice.dto.BankAccountResponseDTO;
 import com.lachguer.accountservice.dto.BankAccountUpdateDTO;
+import com.lachguer.accountservice.dto.TransactionPageDTO;
 import com.lachguer.accountservice.dto.TransactionRequestDTO;
 import com.lachguer.accountservice.dto.TransactionResponseDTO;
 import com.lachguer.accountservice.enums.AccountType;
+import com.lachguer.accountservice.exception.BalanceOperationRejectedException;
+import com.lachguer.accountservice.exception.IdempotencyConflictException;
 import com.lachguer.accountservice.model.CurrentAccount;
 import com.lachguer.accountservice.service.AccountService;
+import com.lachguer.accountservice.service.BalanceOperationService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
 import org.springframework.http.MediaType;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -47,9 +62,18 @@ class AccountControllerTest {
     @MockBean
     private com.lachguer.accountservice.repository.BankAccountRepository bankAccountRepository;
 
+    @MockBean
+    private BalanceOperationService balanceOperationService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    // La tranche WebMvc ne charge pas MicroserviceSecurityConfig : active @PreAuthorize comme en production
+    @TestConfiguration
+    @EnableMethodSecurity
+    static class MethodSecurityConfig {
+    }
+
     @Test
     @WithMockUser(authorities = "ROLE_ADMIN")
     void getAccounts_shouldReturnListOfAccounts() throws Exception {
@@ -107,7 +131,7 @@ class AccountControllerTest {
         BankAccountResponseDTO responseDTO = new BankAccountResponseDTO();
         responseDTO.setId(1L);
         responseDTO.setType(AccountType.CURRENT_ACCOUNT);
-        responseDTO.setBalance(1000.0);
+        responseDTO.setBalance(new BigDecimal("1000.0"));
 
         when(accountService.addAccount(any(BankAccountRequestDTO.class))).thenReturn(responseDTO);
 
@@ -124,14 +148,14 @@ class AccountControllerTest {
     @WithMockUser(authorities = "ROLE_ADMIN")
     void updateAccount_shouldUpdateAccount() throws Exception {
         BankAccountUpdateDTO updateDTO = new BankAccountUpdateDTO();
-        updateDTO.setBalance(1500.0);
+        updateDTO.setBalance(new BigDecimal("1500.0"));
         updateDTO.setIsActive(true);
-        updateDTO.setOverDraft(200.0);
+        updateDTO.setOverDraft(new BigDecimal("200.0"));
 
         CurrentAccount updatedAccount = new CurrentAccount();
         updatedAccount.setId(1L);
-        updatedAccount.setBalance(1500.0);
-        updatedAccount.setOverDraft(200.0);
+        updatedAccount.setBalance(new BigDecimal("1500.0"));
+        updatedAccount.setOverDraft(new BigDecimal("200.0"));
         updatedAccount.setIsActive(true);
         updatedAccount.setAccountType(AccountType.CURRENT_ACCOUNT);
 
@@ -184,9 +208,99 @@ class AccountControllerTest {
     }
 
     @Test
-    @WithMockUser
+    @WithMockUser(authorities = "ROLE_SERVICE")
+    void applyBalanceOperation_shouldReturnResult() throws Exception {
+        when(balanceOperationService.apply(any(BalanceOperationRequestDTO.class)))
+                .thenReturn(new BalanceOperationResponseDTO("TXN-1", List.of(1L, 2L), false));
+
+        String requestBody = "{\"idempotencyKey\": \"TXN-1\", \"legs\": ["
+                + "{\"accountId\": 1, \"amount\": 25.50, \"operation\": \"SUBTRACT\"},"
+                + "{\"rib\": \"1234\", \"amount\": 25.50, \"operation\": \"ADD\"}]}";
+
+        mockMvc.perform(post("/api/accounts/balance-operations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody)
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountIds[1]").value(2L))
+                .andExpect(jsonPath("$.replayed").value(false));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_SERVICE")
+    void applyBalanceOperation_reusedKey_shouldReturnConflict() throws Exception {
+        when(balanceOperationService.apply(any(BalanceOperationRequestDTO.class)))
+                .thenThrow(new IdempotencyConflictException("Idempotency key already used"));
+
+        String requestBody = "{\"idempotencyKey\": \"TXN-1\", \"legs\": ["
+                + "{\"accountId\": 1, \"amount\": 10, \"operation\": \"ADD\"}]}";
+
+        mockMvc.perform(post("/api/accounts/balance-operations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody)
+                        .with(csrf()))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_SERVICE")
+    void applyBalanceOperation_insufficientBalance_shouldReturnUnprocessable() throws Exception {
+        when(balanceOperationService.apply(any(BalanceOperationRequestDTO.class)))
+                .thenThrow(new BalanceOperationRejectedException("Insufficient balance"));
+
+        String requestBody = "{\"idempotencyKey\": \"TXN-1\", \"legs\": ["
+                + "{\"accountId\": 1, \"amount\": 10, \"operation\": \"SUBTRACT\"}]}";
+
+        mockMvc.perform(post("/api/accounts/balance-operations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody)
+                        .with(csrf()))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value("Insufficient balance"));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_ADMIN")
+    void reverseBalanceOperation_shouldReturnReversal() throws Exception {
+        when(balanceOperationService.reverse("TXN-1"))
+                .thenReturn(new BalanceOperationResponseDTO("TXN-1", List.of(1L, 2L), false));
+
+        mockMvc.perform(post("/api/accounts/balance-operations/TXN-1/reversal")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.idempotencyKey").value("TXN-1"))
+                .andExpect(jsonPath("$.replayed").value(false));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_USER")
+    void applyBalanceOperation_asUser_shouldBeForbidden() throws Exception {
+        String requestBody = "{\"idempotencyKey\": \"TXN-1\", \"legs\": ["
+                + "{\"accountId\": 1, \"amount\": 10, \"operation\": \"ADD\"}]}";
+
+        mockMvc.perform(post("/api/accounts/balance-operations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody)
+                        .with(csrf()))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(balanceOperationService);
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_USER")
+    void reverseBalanceOperation_asUser_shouldBeForbidden() throws Exception {
+        mockMvc.perform(post("/api/accounts/balance-operations/TXN-1/reversal")
+                        .with(csrf()))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(balanceOperationService);
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_SERVICE")
     void updateBalance_AddOperation_shouldUpdateBalance() throws Exception {
-        doNothing().when(accountService).updateBalance(1L, 500.0, "ADD");
+        doNothing().when(accountService).updateBalance(1L, new BigDecimal("500.0"), "ADD");
 
         String requestBody = "{\"amount\": 500.0, \"operation\": \"ADD\"}";
 
@@ -198,9 +312,9 @@ class AccountControllerTest {
     }
 
     @Test
-    @WithMockUser
+    @WithMockUser(authorities = "ROLE_ADMIN")
     void updateBalance_SubtractOperation_shouldUpdateBalance() throws Exception {
-        doNothing().when(accountService).updateBalance(1L, 200.0, "SUBTRACT");
+        doNothing().when(accountService).updateBalance(1L, new BigDecimal("200.0"), "SUBTRACT");
 
         String requestBody = "{\"amount\": 200.0, \"operation\": \"SUBTRACT\"}";
 
@@ -211,6 +325,18 @@ class AccountControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @WithMockUser(authorities = "ROLE_USER")
+    void updateBalance_asUser_shouldBeForbidden() throws Exception {
+        mockMvc.perform(post("/api/accounts/1/balance")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\": 500.0, \"operation\": \"ADD\"}")
+                        .with(csrf()))
+                .andExpect(status().isForbidden());
+
+        verify(accountService, never()).updateBalance(any(), any(), any());
+    }
+
     @Test
     @WithMockUser(authorities = "ROLE_USER")
     void getAccountByIban_shouldReturnAccount() throws Exception {
@@ -250,20 +376,34 @@ class AccountControllerTest {
     }
 
     @Test
-    @WithMockUser
+    @WithMockUser(authorities = "ROLE_ADMIN")
     void getAccountTransactions_shouldReturnTransactions() throws Exception {
         TransactionResponseDTO transaction = new TransactionResponseDTO();
         transaction.setId(1L);
         transaction.setAccountId(1L);
         transaction.setType("CREDIT");
-        
-        when(accountService.getTransactionsForAccount(anyLong(), any())).thenReturn(Collections.singletonList(transaction));
+        TransactionPageDTO page = new TransactionPageDTO();
+        page.setContent(Collections.singletonList(transaction));
+        page.setTotalElements(1);
+
+        when(accountService.getTransactionsForAccount(anyLong(), eq(0), eq(20), any())).thenReturn(page);
 
         mockMvc.perform(get("/api/accounts/1/transactions")
                         .header("Authorization", "Bearer token"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(1L))
-                .andExpect(jsonPath("$[0].type").value("CREDIT"));
+                .andExpect(jsonPath("$.content[0].id").value(1L))
+                .andExpect(jsonPath("$.content[0].type").value("CREDIT"))
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_USER")
+    void getAccountTransactions_asUser_shouldBeForbidden() throws Exception {
+        mockMvc.perform(get("/api/accounts/1/transactions")
+                        .header("Authorization", "Bearer token"))
+                .andExpect(status().isForbidden());
+
+        verify(accountService, never()).getTransactionsForAccount(anyLong(), anyInt(), anyInt(), any());
     }
 
     @Test
@@ -294,10 +434,10 @@ class AccountControllerTest {
     @Test
     void testBalanceUpdateRequest() {
         AccountController.BalanceUpdateRequest request = new AccountController.BalanceUpdateRequest();
-        request.setAmount(100.0);
+        request.setAmount(new BigDecimal("100.0"));
         request.setOperation("ADD");
 
-        org.assertj.core.api.Assertions.assertThat(request.getAmount()).isEqualTo(100.0);
+        org.assertj.core.api.Assertions.assertThat(request.getAmount()).isEqualByComparingTo("100.0");
         org.assertj.core.api.Assertions.assertThat(request.getOperation()).isEqualTo("ADD");
     }
 }
@@ -1,7 +1,12 @@
 package com.aitsaid.apigateway.filter;
 
+import com.aitsaid.commoncore.jwks.Jwks;
+import com.aitsaid.apigateway.jwks.JwksKeySet;
+import com.aitsaid.apigateway.revocation.TokenRevocationChecker;
+import com.aitsaid.commoncore.revocation.TokenDigests;
 import io.jsonwebtoken.Claims;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
@@ -12,22 +17,32 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
+import java.util.Optional;
 
 @Component
 public class GlobalAuthenticationFilter implements GlobalFilter, Ordered {
 
-    @Autowired
-    private RouteValidator validator;
-
-    @Autowired
-    private JwtUtil jwtUtil;
+    private static final Logger log = LoggerFactory.getLogger(GlobalAuthenticationFilter.class);
+
+    private final RouteValidator validator;
+    private final JwtUtil jwtUtil;
+    private final VerifiedTokenCache tokenCache;
+    private final TokenRevocationChecker revocationChecker;
+    private final JwksKeySet jwksKeySet;
+
+    public GlobalAuthenticationFilter(RouteValidator validator, JwtUtil jwtUtil, VerifiedTokenCache tokenCache,
+                                      TokenRevocationChecker revocationChecker, JwksKeySet jwksKeySet) {
+        this.validator = validator;
+        this.jwtUtil = jwtUtil;
+        this.tokenCache = tokenCache;
+        this.revocationChecker = revocationChecker;
+        this.jwksKeySet = jwksKeySet;
+    }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        System.out.println("DEBUG GLOBAL FILTER: Request to " + exchange.getRequest().getURI().getPath());
+        log.debug("Request to {}", exchange.getRequest().getURI().getPath());
         if (validator.isSecured.test(exchange.getRequest())) {
-            System.out.println("DEBUG GLOBAL FILTER: Route is secured");
             if (!exchange.getRequest().getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
                 return onError(exchange, "Missing authorization header", HttpStatus.UNAUTHORIZED);
             }
@@ -41,51 +56,72 @@ public class GlobalAuthenticationFilter implements GlobalFilter, Ordered {
                 tokenForValidation = fullAuthHeader.substring(7);
             }
 
+            String token = tokenForValidation;
+            String path = exchange.getRequest().getURI().getPath();
             try {
-                if (!jwtUtil.isTokenValid(tokenForValidation)) {
-                    System.out.println("DEBUG GLOBAL FILTER: Token invalid");
-                    return onError(exchange, "Invalid Access Token", HttpStatus.UNAUTHORIZED);
-                }
-
-                Claims claims = jwtUtil.extractAllClaims(tokenForValidation);
-                String username = claims.getSubject();
-                List<String> roles = claims.get("roles", List.class);
-
-                Object userIdObj = claims.get("userId");
-                String userId = "";
-                if (userIdObj != null) {
-                    userId = String.valueOf(userIdObj);
-                }
-
-                System.out.println("DEBUG GLOBAL FILTER: Token valid. User: " + username + ", Roles: " + roles);
-
-                if (username == null) username = "";
-                if (roles == null) roles = List.of();
-
-                // PROPAGER LE HEADER AUTHORIZATION COMPLET (avec "Bearer ")
-                ServerHttpRequest request = exchange.getRequest()
-                        .mutate()
-                        .header("Authorization", fullAuthHeader) // ← PROPAGER LE HEADER COMPLET
-                        .header("X-Auth-User", username)
-                        .header("X-Auth-Roles", String.join(",", roles))
-                        .header("X-Auth-User-Id", userId)
-                        .header("X-Auth-Token-Validated", "true")
-                        .build();
-
-                System.out.println("DEBUG GLOBAL FILTER: Added headers including Authorization: " +
-                        (fullAuthHeader != null ? "Bearer token present" : "null"));
-
-                return chain.filter(exchange.mutate().request(request).build());
+                // Un token déjà vérifié est servi depuis le cache jusqu'à son expiration
+                String digest = TokenDigests.sha256Hex(token);
+                VerifiedToken cached = tokenCache.get(digest);
+                // Sinon : kid inconnu (rotation) -> rechargement du JWKS avant la vérification locale
+                Mono<Optional<VerifiedToken>> verified = cached != null
+                        ? Mono.just(Optional.of(cached))
+                        : jwksKeySet.ensureKnown(Jwks.keyIdOf(token))
+                        .then(Mono.fromCallable(() -> Optional.ofNullable(verifyAndCache(token, digest))));
+
+                return verified.flatMap(result -> {
+                    if (result.isEmpty()) {
+                        log.debug("Invalid token for {}", path);
+                        return onError(exchange, "Invalid Access Token", HttpStatus.UNAUTHORIZED);
+                    }
+                    return forward(exchange, chain, fullAuthHeader, result.get());
+                });
 
             } catch (Exception e) {
-                System.out.println("DEBUG GLOBAL FILTER: Exception " + e.getMessage());
+                log.debug("Authentication error: {}", e.getMessage());
                 return onError(exchange, "Unauthorized access to application", HttpStatus.UNAUTHORIZED);
             }
         }
-        System.out.println("DEBUG GLOBAL FILTER: Route NOT secured");
         return chain.filter(exchange);
     }
 
+    private VerifiedToken verifyAndCache(String token, String digest) {
+        Claims claims = jwtUtil.verify(token);
+        if (claims == null) {
+            return null;
+        }
+        VerifiedToken verified = new VerifiedToken(digest, claims);
+        tokenCache.put(verified);
+        return verified;
+    }
+
+    private Mono<Void> forward(ServerWebExchange exchange, GatewayFilterChain chain,
+                               String fullAuthHeader, VerifiedToken verified) {
+        log.debug("Token valid. User: {}, Roles: {}", verified.getSubject(), verified.getRoles());
+
+        // PROPAGER LE HEADER AUTHORIZATION COMPLET (avec "Bearer ")
+        ServerHttpRequest request = exchange.getRequest()
+                .mutate()
+                .header("Authorization", fullAuthHeader) // ← PROPAGER LE HEADER COMPLET
+                .header("X-Auth-User", verified.getSubject())
+                .header("X-Auth-Roles", verified.getRolesHeader())
+                .header("X-Auth-User-Id", verified.getUserId())
+                .header("X-Auth-Token-Validated", "true")
+                .build();
+
+        ServerWebExchange authenticated = exchange.mutate().request(request).build();
+        // Les filtres suivants lisent le token vérifié au lieu de le re-parser
+        authenticated.getAttributes().put(VerifiedToken.EXCHANGE_ATTRIBUTE, verified);
+
+        // Logout appliqué au gateway : le filtre de Bloom local ne coûte rien sur un token actif
+        return revocationChecker.isRevoked(verified.getDigest()).flatMap(revoked -> {
+            if (revoked) {
+                log.debug("Revoked token rejected for {}", exchange.getRequest().getURI().getPath());
+                return onError(exchange, "Token has been revoked", HttpStatus.UNAUTHORIZED);
+            }
+            return chain.filter(authenticated);
+        });
+    }
+
     private Mono<Void> onError(ServerWebExchange exchange, String err, HttpStatus httpStatus) {
         exchange.getResponse().setStatusCode(httpStatus);
         return exchange.getResponse().setComplete();
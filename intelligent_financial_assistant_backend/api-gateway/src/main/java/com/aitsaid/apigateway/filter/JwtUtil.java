@@ -1,30 +1,87 @@
 package com.aitsaid.apigateway.filter;
 
+import com.aitsaid.apigateway.jwks.JwksKeySet;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.io.DecodingException;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
 import java.util.Date;
 
+/**
+ * Vérification locale des JWT : RS256 avec la clé du JWKS désignée par {@code kid},
+ * ou HS256 avec le secret partagé pour les tokens émis avant la migration.
+ */
 @Component
 public class JwtUtil {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
+
     @Value("${jwt.secret}")
     private String secret;
 
+    @Value("${jwt.legacy-hs256.enabled:false}")
+    private boolean legacyHs256Enabled;
+
+    private final JwksKeySet jwksKeySet;
+
+    // Clé et parser construits une seule fois : le JwtParser de jjwt est immuable et thread-safe
+    private JwtParser parser;
+
+    public JwtUtil(JwksKeySet jwksKeySet) {
+        this.jwksKeySet = jwksKeySet;
+    }
+
+    @PostConstruct
+    void init() {
+        SecretKey hmacKey = buildSigningKey();
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveKey(header.getKeyId(), hmacKey);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * jjwt refuse ensuite une clé dont le type ne correspond pas à l'algorithme annoncé.
+     */
+    private Key resolveKey(String kid, SecretKey hmacKey) {
+        if (kid == null) {
+            if (!legacyHs256Enabled) {
+                throw new UnsupportedJwtException("Tokens without key id are no longer accepted");
+            }
+            return hmacKey;
+        }
+        Key key = jwksKeySet.get(kid);
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown signing key id: " + kid);
+        }
+        return key;
+    }
+
     private boolean looksLikeBase64(String value) {
         if (value == null) return false;
         String v = value.trim();
         return v.length() % 4 == 0 && v.matches("[A-Za-z0-9+/=]+");
     }
 
-    private SecretKey getSigningKey() {
+    private SecretKey buildSigningKey() {
         byte[] keyBytes;
         String trimmed = secret == null ? "" : secret.trim();
         try {
@@ -39,25 +96,32 @@ public class JwtUtil {
         return Keys.hmacShaKeyFor(keyBytes);
     }
 
+    /**
+     * Vérifie la signature et l'expiration en un seul parsing.
+     * Lève une exception jjwt si le token est invalide ou expiré.
+     */
     public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    public boolean isTokenValid(String token) {
+    /**
+     * Retourne les claims vérifiés, ou {@code null} si le token est invalide ou expiré.
+     */
+    public Claims verify(String token) {
         try {
-            return !isTokenExpired(token);
+            Claims claims = extractAllClaims(token);
+            Date expiration = claims.getExpiration();
+            if (expiration != null && expiration.before(new Date())) {
+                return null;
+            }
+            return claims;
         } catch (Exception e) {
-            System.out.println("DEBUG JWT: Token validation failed: " + e.getMessage());
-            e.printStackTrace();
-            return false;
+            log.debug("Token validation failed: {}", e.getMessage());
+            return null;
         }
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
+    public boolean isTokenValid(String token) {
+        return verify(token) != null;
     }
 }
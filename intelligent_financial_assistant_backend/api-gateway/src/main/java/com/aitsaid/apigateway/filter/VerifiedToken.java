@@ -0,0 +1,67 @@
+package com.aitsaid.apigateway.filter;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * JWT vérifié une seule fois, avec les valeurs propagées aux services déjà extraites.
+ * <p>
+ * Conservé dans le cache de vérification et exposé en attribut d'échange
+ * ({@link #EXCHANGE_ATTRIBUTE}) pour les filtres suivants.
+ */
+public final class VerifiedToken {
+
+    public static final String EXCHANGE_ATTRIBUTE = VerifiedToken.class.getName();
+
+    private final String digest;
+    private final Claims claims;
+    private final String subject;
+    private final List<String> roles;
+    private final String rolesHeader;
+    private final String userId;
+
+    @SuppressWarnings("unchecked")
+    public VerifiedToken(String digest, Claims claims) {
+        this.digest = digest;
+        this.claims = claims;
+        this.subject = claims.getSubject() != null ? claims.getSubject() : "";
+        List<String> tokenRoles = claims.get("roles", List.class);
+        this.roles = tokenRoles != null ? List.copyOf(tokenRoles) : List.of();
+        this.rolesHeader = String.join(",", roles);
+        Object id = claims.get("userId");
+        this.userId = id != null ? String.valueOf(id) : "";
+    }
+
+    /**
+     * Empreinte SHA-256 (hex) du token brut.
+     */
+    public String getDigest() {
+        return digest;
+    }
+
+    public Claims getClaims() {
+        return claims;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public String getRolesHeader() {
+        return rolesHeader;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public Date getExpiration() {
+        return claims.getExpiration();
+    }
+}
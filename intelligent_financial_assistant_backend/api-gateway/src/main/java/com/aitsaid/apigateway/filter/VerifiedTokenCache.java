@@ -0,0 +1,92 @@
+package com.aitsaid.apigateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache borné des JWT déjà vérifiés par le gateway.
+ * <p>
+ * La clé est l'empreinte SHA-256 du token (le token brut n'est jamais conservé) et chaque
+ * entrée expire avec le claim {@code exp}. Un token déjà vu évite ainsi le parsing et la
+ * vérification de signature jusqu'à son expiration.
+ * Taux de succès publiés par Micrometer sous {@code cache.gets{cache=gateway.jwt}}.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, VerifiedToken> entries;
+
+    @Autowired
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+                              @Value("${jwt.cache.max-size:10000}") int maxSize) {
+        this(meterRegistry, maxSize, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    VerifiedTokenCache(MeterRegistry meterRegistry, int maxSize, Ticker ticker, Executor executor) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .ticker(ticker)
+                .executor(executor)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "gateway.jwt");
+    }
+
+    /**
+     * Retourne le token déjà vérifié pour cette empreinte, ou {@code null} si absent ou expiré.
+     */
+    public VerifiedToken get(String digest) {
+        return entries.getIfPresent(digest);
+    }
+
+    /**
+     * Mémorise un token vérifié. Les tokens sans {@code exp}, ou déjà expirés, ne sont pas mis en cache.
+     */
+    public void put(VerifiedToken token) {
+        Date expiration = token.getExpiration();
+        if (expiration == null || expiration.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        entries.put(token.getDigest(), token);
+    }
+
+    public long size() {
+        entries.cleanUp();
+        return entries.estimatedSize();
+    }
+
+    /**
+     * Durée de vie d'une entrée : jusqu'au claim {@code exp}, ni prolongée par la lecture, ni par la réécriture.
+     */
+    private static final class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+            long remainingMs = token.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(digest, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
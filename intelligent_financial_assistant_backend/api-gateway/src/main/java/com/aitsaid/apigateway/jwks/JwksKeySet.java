@@ -0,0 +1,92 @@
+package com.aitsaid.apigateway.jwks;
+
+import com.aitsaid.commoncore.jwks.Jwks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Clés publiques d'auth-service, rafraîchies en tâche de fond.
+ * <p>
+ * Un {@code kid} inconnu (rotation côté auth-service) déclenche un rechargement immédiat, partagé
+ * entre les requêtes concurrentes et limité à un par {@code jwt.jwks.min-refresh-interval-ms}
+ * pour qu'un {@code kid} arbitraire ne puisse pas saturer auth-service.
+ */
+@Component
+public class JwksKeySet {
+
+    private static final Logger log = LoggerFactory.getLogger(JwksKeySet.class);
+    private static final Duration TIMEOUT = Duration.ofSeconds(2);
+
+    private final JwksSource source;
+    private final long minRefreshIntervalMs;
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile long lastFetch;
+    private Mono<Void> inFlight;
+
+    public JwksKeySet(JwksSource source,
+                      @Value("${jwt.jwks.min-refresh-interval-ms:10000}") long minRefreshIntervalMs) {
+        this.source = source;
+        this.minRefreshIntervalMs = minRefreshIntervalMs;
+    }
+
+    public PublicKey get(String kid) {
+        return kid == null ? null : keys.get(kid);
+    }
+
+    /**
+     * Termine une fois la clé disponible, ou immédiatement si elle est connue ou si le délai
+     * minimal entre deux rechargements n'est pas écoulé.
+     */
+    public Mono<Void> ensureKnown(String kid) {
+        if (kid == null || keys.containsKey(kid)) {
+            return Mono.empty();
+        }
+        return fetch(false);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.jwks.refresh-interval-ms:300000}")
+    public void refresh() {
+        fetch(true).block(TIMEOUT.multipliedBy(2));
+    }
+
+    private synchronized Mono<Void> fetch(boolean force) {
+        if (inFlight != null) {
+            return inFlight;
+        }
+        long now = System.currentTimeMillis();
+        if (!force && now - lastFetch < minRefreshIntervalMs) {
+            return Mono.empty();
+        }
+        lastFetch = now;
+        Mono<Void> fetch = source.fetch()
+                .timeout(TIMEOUT)
+                .doOnNext(jwks -> {
+                    Map<String, PublicKey> loaded = Jwks.parse(jwks);
+                    if (!loaded.isEmpty()) {
+                        keys = Map.copyOf(loaded);
+                    }
+                })
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("JWKS refresh failed: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .doFinally(signal -> clearInFlight())
+                .cache();
+        inFlight = fetch;
+        return fetch;
+    }
+
+    private synchronized void clearInFlight() {
+        inFlight = null;
+    }
+}
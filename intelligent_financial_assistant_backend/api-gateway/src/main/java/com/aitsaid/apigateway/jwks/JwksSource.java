@@ -0,0 +1,13 @@
+package com.aitsaid.apigateway.jwks;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Provenance du document JWKS ({@code {"keys": [...]}}).
+ */
+public interface JwksSource {
+
+    Mono<Map<String, Object>> fetch();
+}
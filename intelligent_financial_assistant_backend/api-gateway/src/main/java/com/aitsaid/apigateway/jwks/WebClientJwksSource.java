@@ -0,0 +1,36 @@
+package com.aitsaid.apigateway.jwks;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * JWKS publié par auth-service, résolu via Eureka.
+ */
+@Component
+public class WebClientJwksSource implements JwksSource {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> JWKS_TYPE = new ParameterizedTypeReference<>() {
+    };
+
+    private final WebClient webClient;
+    private final String jwksUri;
+
+    public WebClientJwksSource(WebClient.Builder loadBalancedWebClientBuilder,
+                               @Value("${jwt.jwks.uri:http://auth-service/.well-known/jwks.json}") String jwksUri) {
+        this.webClient = loadBalancedWebClientBuilder.build();
+        this.jwksUri = jwksUri;
+    }
+
+    @Override
+    public Mono<Map<String, Object>> fetch() {
+        return webClient.get()
+                .uri(jwksUri)
+                .retrieve()
+                .bodyToMono(JWKS_TYPE);
+    }
+}
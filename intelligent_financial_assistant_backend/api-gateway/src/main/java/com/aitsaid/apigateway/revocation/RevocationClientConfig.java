@@ -0,0 +1,21 @@
+package com.aitsaid.apigateway.revocation;
+
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.reactive.function.client.WebClient;
+
+@Configuration
+@EnableScheduling
+public class RevocationClientConfig {
+
+    /**
+     * WebClient résolu via Eureka ({@code http://auth-service}) pour le flux de révocation.
+     */
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder loadBalancedWebClientBuilder() {
+        return WebClient.builder();
+    }
+}
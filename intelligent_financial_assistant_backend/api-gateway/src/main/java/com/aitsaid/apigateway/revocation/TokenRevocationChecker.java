@@ -0,0 +1,134 @@
+package com.aitsaid.apigateway.revocation;
+
+import com.aitsaid.commoncore.revocation.RevocationBloomFilter;
+import com.aitsaid.commoncore.revocation.RevocationFeed;
+import com.aitsaid.commoncore.revocation.RevocationCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Copie locale des révocations d'auth-service.
+ * <p>
+ * Le filtre de Bloom est alimenté par le flux {@code /auth/revocations} ; une réponse négative
+ * ne coûte rien, seule une réponse positive déclenche la confirmation exacte auprès d'auth-service.
+ * Si la confirmation échoue, le token est refusé (fail-closed).
+ */
+@Component
+public class TokenRevocationChecker {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationChecker.class);
+    private static final int PAGE_SIZE = 500;
+    // Délai maximal entre l'attribution d'un identifiant de révocation et son commit
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+    private static final Duration TIMEOUT = Duration.ofSeconds(2);
+
+    private final WebClient webClient;
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+
+    private volatile RevocationBloomFilter filter;
+    private final RevocationCursor cursor = new RevocationCursor(SYNC_OVERLAP);
+    // Révocations déjà confirmées : évite de rappeler auth-service pour un token rejoué
+    private final Set<String> confirmed = ConcurrentHashMap.newKeySet();
+
+    public TokenRevocationChecker(WebClient.Builder loadBalancedWebClientBuilder,
+                                  @Value("${revocation.auth-service-url:http://auth-service}") String authServiceUrl,
+                                  @Value("${revocation.bloom.expected-insertions:100000}") int expectedInsertions,
+                                  @Value("${revocation.bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.webClient = loadBalancedWebClientBuilder.baseUrl(authServiceUrl).build();
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new RevocationBloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    /**
+     * @param digest empreinte SHA-256 (hex) du token
+     */
+    public Mono<Boolean> isRevoked(String digest) {
+        if (!filter.mightContain(digest)) {
+            return Mono.just(false);
+        }
+        if (confirmed.contains(digest)) {
+            return Mono.just(true);
+        }
+        return webClient.get()
+                .uri("/auth/revocations/{digest}", digest)
+                .retrieve()
+                .bodyToMono(Boolean.class)
+                .timeout(TIMEOUT)
+                .doOnNext(revoked -> {
+                    if (revoked) confirmed.add(digest);
+                })
+                .onErrorResume(e -> {
+                    log.warn("Revocation lookup failed, rejecting token: {}", e.getMessage());
+                    return Mono.just(true);
+                });
+    }
+
+    /**
+     * Relit le flux depuis la position atteinte il y a une fenêtre de recouvrement : une révocation
+     * validée après une autre d'identifiant supérieur n'est pas perdue.
+     */
+    @Scheduled(fixedDelayString = "${revocation.sync-interval-ms:5000}")
+    public synchronized void sync() {
+        try {
+            cursor.advance(load(filter, cursor.from()));
+        } catch (Exception e) {
+            log.warn("Revocation feed sync failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reconstruction complète : purge les entrées disparues côté auth-service et redimensionne le filtre.
+     */
+    @Scheduled(fixedDelayString = "${revocation.rebuild-interval-ms:600000}",
+            initialDelayString = "${revocation.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        try {
+            RevocationBloomFilter fresh = new RevocationBloomFilter(
+                    Math.max(expectedInsertions, filter.insertions() * 2), falsePositiveRate);
+            long last = load(fresh, 0L);
+            filter = fresh;
+            cursor.advance(last);
+            confirmed.clear();
+        } catch (Exception e) {
+            log.warn("Revocation feed rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    private long load(RevocationBloomFilter target, long from) {
+        long last = from;
+        RevocationFeed page;
+        do {
+            page = fetch(last);
+            if (page == null || page.entries() == null) {
+                break;
+            }
+            for (RevocationFeed.Entry entry : page.entries()) {
+                target.put(entry.digest());
+            }
+            last = page.cursor();
+        } while (page.hasMore());
+        return last;
+    }
+
+    private RevocationFeed fetch(long since) {
+        return webClient.get()
+                .uri(uri -> uri.path("/auth/revocations")
+                        .queryParam("since", since)
+                        .queryParam("limit", PAGE_SIZE)
+                        .build())
+                .retrieve()
+                .bodyToMono(RevocationFeed.class)
+                .block(TIMEOUT);
+    }
+}
@@ -0,0 +1,115 @@
+package com.aitsaid.apigateway.filter;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private SimpleMeterRegistry registry;
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        Ticker ticker = nanos::get;
+        cache = new VerifiedTokenCache(registry, 3, ticker, Runnable::run);
+    }
+
+    private VerifiedToken tokenExpiringIn(String digest, long millis) {
+        Claims claims = Jwts.claims().setSubject("user@test.com");
+        claims.setExpiration(new Date(System.currentTimeMillis() + millis));
+        return new VerifiedToken(digest, claims);
+    }
+
+    private double counter(String name, String result) {
+        return result == null
+                ? registry.get(name).tag("cache", "gateway.jwt").functionCounter().count()
+                : registry.get(name).tag("cache", "gateway.jwt").tag("result", result).functionCounter().count();
+    }
+
+    @Test
+    void get_shouldReturnCachedTokenAndCountHit() {
+        VerifiedToken token = tokenExpiringIn("token-a", 60_000);
+        cache.put(token);
+
+        assertSame(token, cache.get("token-a"));
+        assertEquals(1.0, counter("cache.gets", "hit"));
+    }
+
+    @Test
+    void get_shouldCountMissForUnknownToken() {
+        assertNull(cache.get("unknown"));
+        assertEquals(1.0, counter("cache.gets", "miss"));
+    }
+
+    @Test
+    void put_shouldIgnoreExpiredTokens() {
+        cache.put(tokenExpiringIn("token-a", -1_000));
+
+        assertNull(cache.get("token-a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void get_shouldDropEntryAtTokenExpiration() {
+        VerifiedToken token = tokenExpiringIn("token-a", 60_000);
+        cache.put(token);
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(50));
+        assertSame(token, cache.get("token-a"));
+
+        // La lecture ne prolonge pas l'entrée au-delà du claim exp
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        assertNull(cache.get("token-a"));
+        assertEquals(0, cache.size());
+        assertEquals(1.0, counter("cache.evictions", null));
+    }
+
+    @Test
+    void put_shouldIgnoreTokensWithoutExpiration() {
+        cache.put(new VerifiedToken("token-a", Jwts.claims().setSubject("user@test.com")));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_shouldStayBounded() {
+        for (int i = 0; i < 10; i++) {
+            cache.put(tokenExpiringIn("token-" + i, 60_000));
+        }
+        assertTrue(cache.size() <= 3);
+        assertTrue(counter("cache.evictions", null) > 0);
+    }
+
+    @Test
+    void verifiedToken_shouldPrecomputeForwardedValues() {
+        Claims claims = Jwts.claims().setSubject("user@test.com");
+        claims.put("roles", java.util.List.of("ROLE_USER", "ROLE_ADMIN"));
+        claims.put("userId", 42);
+
+        VerifiedToken token = new VerifiedToken("digest", claims);
+
+        assertEquals("user@test.com", token.getSubject());
+        assertEquals("ROLE_USER,ROLE_ADMIN", token.getRolesHeader());
+        assertEquals("42", token.getUserId());
+    }
+
+    @Test
+    void verifiedToken_shouldDefaultMissingClaims() {
+        VerifiedToken token = new VerifiedToken("digest", Jwts.claims());
+
+        assertEquals("", token.getSubject());
+        assertEquals("", token.getRolesHeader());
+        assertEquals("", token.getUserId());
+    }
+}
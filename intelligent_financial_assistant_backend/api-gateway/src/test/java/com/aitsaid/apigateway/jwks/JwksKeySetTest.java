@@ -0,0 +1,111 @@
+package com.aitsaid.apigateway.jwks;
+
+import com.aitsaid.commoncore.jwks.Jwks;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwksKeySetTest {
+
+    private static final KeyPair KEY_PAIR = generate();
+
+    private InMemoryJwksSource source;
+    private JwksKeySet keySet;
+
+    private static KeyPair generate() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        source = new InMemoryJwksSource();
+        keySet = new JwksKeySet(source, 60_000);
+    }
+
+    @Test
+    void parse_shouldRoundTripRsaKey() {
+        Map<String, Object> jwks = Map.of("keys",
+                List.of(Jwks.toJwk("k1", (RSAPublicKey) KEY_PAIR.getPublic())));
+
+        assertEquals(KEY_PAIR.getPublic(), Jwks.parse(jwks).get("k1"));
+    }
+
+    @Test
+    void parse_shouldIgnoreNonRsaAndMalformedEntries() {
+        Map<String, Object> jwks = Map.of("keys", List.of(
+                Map.of("kty", "EC", "kid", "ec"),
+                Map.of("kty", "RSA", "kid", "bad", "n", "!!", "e", "AQAB")));
+
+        assertTrue(Jwks.parse(jwks).isEmpty());
+        assertTrue(Jwks.parse(null).isEmpty());
+    }
+
+    @Test
+    void ensureKnown_shouldFetchUnknownKid() {
+        source.put("k1", (RSAPublicKey) KEY_PAIR.getPublic());
+
+        keySet.ensureKnown("k1").block();
+
+        assertEquals(KEY_PAIR.getPublic(), keySet.get("k1"));
+        assertEquals(1, source.fetchCount());
+    }
+
+    @Test
+    void ensureKnown_shouldNotFetchKnownKidOrMissingKid() {
+        source.put("k1", (RSAPublicKey) KEY_PAIR.getPublic());
+        keySet.refresh();
+
+        keySet.ensureKnown("k1").block();
+        keySet.ensureKnown(null).block();
+
+        assertEquals(1, source.fetchCount());
+    }
+
+    @Test
+    void ensureKnown_shouldRateLimitUnknownKids() {
+        keySet.ensureKnown("forged-1").block();
+        keySet.ensureKnown("forged-2").block();
+
+        assertEquals(1, source.fetchCount());
+        assertNull(keySet.get("forged-1"));
+    }
+
+    @Test
+    void refresh_shouldPickUpRotatedKeyAndKeepKeysOnEmptyResponse() {
+        source.put("k1", (RSAPublicKey) KEY_PAIR.getPublic());
+        keySet.refresh();
+        source.remove("k1");
+
+        keySet.refresh();
+
+        assertNotNull(keySet.get("k1"));
+    }
+
+    @Test
+    void keyIdOf_shouldReadHeaderWithoutVerification() {
+        String token = Jwts.builder()
+                .setHeaderParam("kid", "k1")
+                .setSubject("user@test.com")
+                .signWith(KEY_PAIR.getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+
+        assertEquals("k1", Jwks.keyIdOf(token));
+        assertNull(Jwks.keyIdOf("not-a-token"));
+        assertNull(Jwks.keyIdOf(null));
+    }
+}
@@ -0,0 +1,89 @@
+package com.aitsaid.apigateway.revocation;
+
+import com.aitsaid.commoncore.revocation.TokenDigests;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationCheckerTest {
+
+    private static final String REVOKED = TokenDigests.sha256Hex("revoked.token");
+
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final List<String> feedQueries = new CopyOnWriteArrayList<>();
+
+    private TokenRevocationChecker checker(Supplier<Mono<ClientResponse>> lookup) {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            if (request.url().getPath().equals("/auth/revocations")) {
+                feedQueries.add(request.url().getQuery());
+                return Mono.just(json("{\"entries\":[{\"id\":1,\"digest\":\"" + REVOKED + "\"}],"
+                        + "\"cursor\":1,\"hasMore\":false}"));
+            }
+            lookups.incrementAndGet();
+            return lookup.get();
+        });
+        TokenRevocationChecker checker = new TokenRevocationChecker(builder, "http://auth-service", 1000, 0.01);
+        checker.sync();
+        return checker;
+    }
+
+    private static ClientResponse json(String body) {
+        return ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build();
+    }
+
+    @Test
+    void isRevoked_UnknownTokenSkipsConfirmation() {
+        TokenRevocationChecker checker = checker(() -> Mono.just(json("true")));
+
+        assertFalse(checker.isRevoked(TokenDigests.sha256Hex("active.token")).block());
+        assertEquals(0, lookups.get());
+    }
+
+    @Test
+    void isRevoked_ConfirmedOnceThenRemembered() {
+        TokenRevocationChecker checker = checker(() -> Mono.just(json("true")));
+
+        assertTrue(checker.isRevoked(REVOKED).block());
+        assertTrue(checker.isRevoked(REVOKED).block());
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    void isRevoked_FailsClosedWhenAuthServiceErrors() {
+        TokenRevocationChecker checker = checker(() -> Mono.just(
+                ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()));
+
+        assertTrue(checker.isRevoked(REVOKED).block());
+    }
+
+    @Test
+    void isRevoked_FailsClosedWhenAuthServiceUnreachable() {
+        TokenRevocationChecker checker = checker(() -> Mono.error(new IllegalStateException("connection refused")));
+
+        assertTrue(checker.isRevoked(REVOKED).block());
+    }
+
+    @Test
+    void sync_RereadsOverlapWindowForLateCommits() {
+        TokenRevocationChecker checker = checker(() -> Mono.just(json("true")));
+
+        checker.sync();
+
+        // Un identifiant inférieur au curseur, validé après la première lecture, est encore relu
+        assertEquals(List.of("since=0&limit=500", "since=0&limit=500"), feedQueries);
+    }
+}
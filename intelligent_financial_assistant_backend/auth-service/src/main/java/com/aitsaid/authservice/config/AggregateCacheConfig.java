@@ -0,0 +1,23 @@
+package com.aitsaid.authservice.config;
+
+import com.aitsaid.commoncore.cache.AggregateCache;
+import com.aitsaid.commoncore.cache.CaffeineAggregateCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache des compteurs du tableau de bord d'administration.
+ */
+@Configuration
+public class AggregateCacheConfig {
+
+    @Bean
+    public AggregateCache aggregateCache(MeterRegistry meterRegistry,
+                                         @Value("${aggregates.cache.ttl-ms:30000}") long ttlMs,
+                                         @Value("${aggregates.cache.refresh-ms:5000}") long refreshMs,
+                                         @Value("${aggregates.cache.max-size:1000}") long maxSize) {
+        return new CaffeineAggregateCache(meterRegistry, ttlMs, refreshMs, maxSize);
+    }
+}
@@ -36,7 +36,16 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         // ====== Endpoints publics (sans authentification) ======
-                        .requestMatchers("/auth/login", "/auth/register").permitAll()
+                        .requestMatchers("/auth/login", "/auth/register", "/auth/service-token").permitAll()
+
+                        // ====== Flux de révocation (empreintes uniquement, lu par le gateway et les services) ======
+                        .requestMatchers("/auth/revocations", "/auth/revocations/**").permitAll()
+
+                        // ====== Flux des modifications d'utilisateurs (identifiants uniquement, lu par les near-caches) ======
+                        .requestMatchers("/auth/user-changes").permitAll()
+
+                        // ====== Clés publiques de vérification des JWT (JWKS) ======
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
 
                         // ====== Endpoints Auth protégés (authentification requise) ======
                         .requestMatchers("/auth/logout", "/auth/validate-token").authenticated()
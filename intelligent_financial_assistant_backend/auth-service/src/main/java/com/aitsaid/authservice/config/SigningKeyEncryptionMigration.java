@@ -0,0 +1,54 @@
+package com.aitsaid.authservice.config;
+
+import com.aitsaid.authservice.security.SigningKeyCipher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chiffre les clés privées de {@code signing_keys} encore stockées en Base64 clair (lignes créées avant
+ * {@link SigningKeyCipher}). Idempotent : les lignes déjà chiffrées sont ignorées. La mise à jour est
+ * conditionnée à l'ancienne valeur pour ne pas écraser une ligne réécrite par une autre instance.
+ */
+@Component
+public class SigningKeyEncryptionMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SigningKeyEncryptionMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SigningKeyCipher cipher;
+
+    public SigningKeyEncryptionMigration(JdbcTemplate jdbcTemplate, SigningKeyCipher cipher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cipher = cipher;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        migrate();
+    }
+
+    public int migrate() {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, kid, private_key FROM signing_keys WHERE private_key NOT LIKE '" + SigningKeyCipher.PREFIX + "%'");
+        List<Object[]> updates = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            String kid = (String) row.get("kid");
+            String plain = (String) row.get("private_key");
+            updates.add(new Object[]{cipher.encrypt(kid, Base64.getDecoder().decode(plain)), row.get("id"), plain});
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE signing_keys SET private_key = ? WHERE id = ? AND private_key = ?", updates);
+            log.info("Encrypted {} signing key(s) stored in clear", updates.size());
+        }
+        return updates.size();
+    }
+}
@@ -0,0 +1,128 @@
+package com.aitsaid.authservice.config;
+
+import com.aitsaid.commoncore.revocation.TokenDigests;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Migration de l'ancienne blocklist (token JWT complet en TEXT unique) vers le stockage
+ * par empreinte SHA-256 + expiration.
+ * <p>
+ * Exécutée au démarrage, avant la construction du filtre de révocation, et uniquement si
+ * l'ancienne colonne {@code token} existe encore : calcule l'empreinte et l'expiration des
+ * lignes existantes par lots, puis supprime la colonne (et son index unique).
+ * Les lignes déjà expirées sont ensuite retirées par la purge planifiée.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TokenBlockListMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenBlockListMigration.class);
+    private static final String TABLE = "token_blocklist";
+    private static final String LEGACY_COLUMN = "token";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final long tokenLifetimeMs;
+
+    public TokenBlockListMigration(JdbcTemplate jdbcTemplate, @Value("${jwt.expiration}") long tokenLifetimeMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tokenLifetimeMs = tokenLifetimeMs;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        migrate();
+    }
+
+    public void migrate() {
+        if (!hasLegacyColumn()) {
+            return;
+        }
+        log.info("Migrating {} to digest storage", TABLE);
+
+        int migrated = 0;
+        List<Map<String, Object>> rows;
+        do {
+            rows = jdbcTemplate.queryForList(
+                    "SELECT id, token, created_at FROM " + TABLE + " WHERE token_hash IS NULL ORDER BY id LIMIT ?",
+                    BATCH_SIZE);
+            List<Object[]> updates = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                String token = (String) row.get("token");
+                updates.add(new Object[]{
+                        TokenDigests.sha256Hex(token),
+                        Timestamp.valueOf(expirationOf(token, (Timestamp) row.get("created_at"))),
+                        row.get("id")
+                });
+            }
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE " + TABLE + " SET token_hash = ?, expires_at = ? WHERE id = ?", updates);
+            }
+            migrated += updates.size();
+        } while (rows.size() == BATCH_SIZE);
+
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP COLUMN " + LEGACY_COLUMN);
+        log.info("Migrated {} rows of {}, legacy column dropped", migrated, TABLE);
+    }
+
+    /**
+     * Lit le claim {@code exp} sans vérifier la signature : les lignes proviennent de notre propre base
+     * et peuvent avoir été signées avec un ancien secret. À défaut, date de création + durée de vie.
+     */
+    LocalDateTime expirationOf(String token, Timestamp createdAt) {
+        try {
+            String[] parts = token.split("\\.");
+            if (parts.length >= 2) {
+                byte[] payload = Base64.getUrlDecoder().decode(parts[1]);
+                JsonNode exp = objectMapper.readTree(new String(payload, StandardCharsets.UTF_8)).get("exp");
+                if (exp != null && exp.canConvertToLong()) {
+                    return LocalDateTime.ofInstant(Instant.ofEpochSecond(exp.asLong()), ZoneId.systemDefault());
+                }
+            }
+        } catch (Exception e) {
+            log.debug("Unreadable legacy token payload: {}", e.getMessage());
+        }
+        LocalDateTime base = createdAt != null ? createdAt.toLocalDateTime() : LocalDateTime.now();
+        return base.plusSeconds(tokenLifetimeMs / 1000);
+    }
+
+    private boolean hasLegacyColumn() {
+        Boolean found = jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            return columnExists(metaData, TABLE, LEGACY_COLUMN)
+                    || columnExists(metaData, TABLE.toUpperCase(), LEGACY_COLUMN.toUpperCase());
+        });
+        return Boolean.TRUE.equals(found);
+    }
+
+    private static boolean columnExists(DatabaseMetaData metaData, String table, String column) throws SQLException {
+        try (ResultSet rs = metaData.getColumns(null, null, table, column)) {
+            return rs.next();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.aitsaid.authservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Index d'expression de la recherche admin par préfixe, que {@code ddl-auto=update} ne sait pas créer.
+ * <p>
+ * {@code lower(colonne) varchar_pattern_ops} (Postgres) permet à {@code lower(colonne) LIKE 'abc%'} de
+ * parcourir l'index quelle que soit la collation de la base ; les quatre index sont combinés par un
+ * {@code BitmapOr}. Sans index d'expression (H2), la recherche reste fonctionnelle mais séquentielle.
+ * <p>
+ * L'index GIN {@code gin_trgm_ops} sur {@link #SEARCH_DOCUMENT} sert la suggestion classée : sous-chaîne
+ * ({@code LIKE '%abc%'}) et faute de frappe ({@code <%}). Il demande l'extension {@code pg_trgm} ; si elle ne
+ * peut être créée, la suggestion se limite aux préfixes.
+ * <p>
+ * Sur Postgres, les index sont construits {@code CONCURRENTLY} : {@code users} reste accessible en écriture
+ * (inscriptions, connexions) pendant la construction. Ces ordres ne peuvent pas s'exécuter dans une
+ * transaction ; le runner n'en ouvre pas, chaque ordre est validé seul. Un index laissé invalide par une
+ * construction interrompue est supprimé puis reconstruit.
+ */
+@Component
+public class UserIndexMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(UserIndexMigration.class);
+    private static final String[][] PREFIX_INDEXES = {
+            {"idx_users_first_name_prefix", "first_name"},
+            {"idx_users_last_name_prefix", "last_name"},
+            {"idx_users_email_prefix", "email"},
+            {"idx_users_cin_prefix", "cin"}};
+
+    /** Texte indexé en trigrammes ; les requêtes doivent reprendre exactement cette expression. */
+    public static final String SEARCH_DOCUMENT = "lower(coalesce(first_name, '') || ' ' || coalesce(last_name, '')"
+            + " || ' ' || coalesce(email, '') || ' ' || coalesce(cin, ''))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserIndexMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        boolean postgres = isPostgres();
+        String concurrently = postgres ? "CONCURRENTLY " : "";
+        for (String[] index : PREFIX_INDEXES) {
+            try {
+                rebuildIfInvalid(index[0], postgres, concurrently);
+                jdbcTemplate.execute("CREATE INDEX " + concurrently + "IF NOT EXISTS " + index[0]
+                        + " ON users (lower(" + index[1] + ") varchar_pattern_ops)");
+            } catch (Exception e) {
+                log.info("Expression index {} not supported: {}", index[0], e.getMessage());
+            }
+        }
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            rebuildIfInvalid("idx_users_search_trgm", postgres, concurrently);
+            jdbcTemplate.execute("CREATE INDEX " + concurrently + "IF NOT EXISTS idx_users_search_trgm"
+                    + " ON users USING gin ((" + SEARCH_DOCUMENT + ") gin_trgm_ops)");
+        } catch (Exception e) {
+            log.info("Trigram index idx_users_search_trgm not supported: {}", e.getMessage());
+        }
+    }
+
+    private void rebuildIfInvalid(String index, boolean postgres, String concurrently) {
+        if (postgres && isInvalid(index)) {
+            log.warn("Rebuilding invalid index {}", index);
+            jdbcTemplate.execute("DROP INDEX " + concurrently + "IF EXISTS " + index);
+        }
+    }
+
+    private boolean isInvalid(String index) {
+        Integer invalid = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_index i"
+                + " JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = ? AND NOT i.indisvalid",
+                Integer.class, index);
+        return invalid != null && invalid > 0;
+    }
+
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equals(product);
+    }
+}
@@ -4,7 +4,10 @@ import com.aitsaid.authservice.dtos.LoginRequest;
 import com.aitsaid.authservice.dtos.LoginResponse;
 import com.aitsaid.authservice.dtos.RegisterRequest;
 import com.aitsaid.authservice.dtos.RegisterResponse;
+import com.aitsaid.authservice.dtos.ServiceTokenRequest;
+import com.aitsaid.authservice.dtos.ServiceTokenResponse;
 import com.aitsaid.authservice.service.AuthService;
+import com.aitsaid.authservice.service.ServiceTokenService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,9 +21,11 @@ public class AuthController {
 
     private static final Logger log = LoggerFactory.getLogger(AuthController.class);
     private final AuthService authService;
+    private final ServiceTokenService serviceTokenService;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, ServiceTokenService serviceTokenService) {
         this.authService = authService;
+        this.serviceTokenService = serviceTokenService;
     }
 
     /**
@@ -42,6 +47,14 @@ public class AuthController {
         return ResponseEntity.ok(authService.login(request));
     }
 
+    /**
+     * Endpoint public - Token de service (identifiants du microservice appelant)
+     */
+    @PostMapping("/service-token")
+    public ResponseEntity<ServiceTokenResponse> serviceToken(@Valid @RequestBody ServiceTokenRequest request) {
+        return ResponseEntity.ok(serviceTokenService.issue(request));
+    }
+
     /**
      * Endpoint protégé - Déconnexion
      */
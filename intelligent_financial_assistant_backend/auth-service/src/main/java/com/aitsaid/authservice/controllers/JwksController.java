@@ -0,0 +1,34 @@
+package com.aitsaid.authservice.controllers;
+
+import com.aitsaid.authservice.service.SigningKeyService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Clés publiques de signature des JWT, lues par le gateway et les microservices
+ * pour vérifier les tokens localement.
+ */
+@RestController
+public class JwksController {
+
+    private final SigningKeyService signingKeyService;
+
+    public JwksController(SigningKeyService signingKeyService) {
+        this.signingKeyService = signingKeyService;
+    }
+
+    /**
+     * Endpoint public - Jeu de clés courant (RFC 7517)
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(signingKeyService.jwks());
+    }
+}
@@ -0,0 +1,41 @@
+package com.aitsaid.authservice.controllers;
+
+import com.aitsaid.authservice.dtos.RevocationFeedResponse;
+import com.aitsaid.authservice.service.TokenRevocationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Flux de révocation consommé par le gateway et les microservices.
+ * N'expose que des empreintes SHA-256, jamais les tokens.
+ */
+@RestController
+@RequestMapping("/auth/revocations")
+public class RevocationController {
+
+    private final TokenRevocationService tokenRevocationService;
+
+    public RevocationController(TokenRevocationService tokenRevocationService) {
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    /**
+     * Endpoint interne - Révocations postérieures au curseur {@code since}
+     */
+    @GetMapping
+    public ResponseEntity<RevocationFeedResponse> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                             @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(tokenRevocationService.getChanges(since, limit));
+    }
+
+    /**
+     * Endpoint interne - Confirmation exacte après un positif du filtre de Bloom
+     */
+    @GetMapping("/{digest}")
+    public ResponseEntity<Boolean> isRevoked(@PathVariable String digest) {
+        if (!digest.matches("[0-9a-f]{64}")) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(tokenRevocationService.isRevokedDigest(digest));
+    }
+}
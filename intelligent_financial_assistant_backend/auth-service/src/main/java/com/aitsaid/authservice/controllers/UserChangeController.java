@@ -0,0 +1,30 @@
+package com.aitsaid.authservice.controllers;
+
+import com.aitsaid.authservice.dtos.UserChangeFeedResponse;
+import com.aitsaid.authservice.service.UserChangeService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Flux des modifications d'utilisateurs consommé par les near-caches des microservices.
+ * N'expose que des identifiants, jamais le contenu des profils.
+ */
+@RestController
+@RequestMapping("/auth/user-changes")
+public class UserChangeController {
+
+    private final UserChangeService userChangeService;
+
+    public UserChangeController(UserChangeService userChangeService) {
+        this.userChangeService = userChangeService;
+    }
+
+    /**
+     * Endpoint interne - Modifications postérieures au curseur {@code since}
+     */
+    @GetMapping
+    public ResponseEntity<UserChangeFeedResponse> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                             @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(userChangeService.getChanges(since, limit));
+    }
+}
@@ -3,7 +3,11 @@ package com.aitsaid.authservice.controllers;
 import com.aitsaid.authservice.dtos.RegisterRequest;
 import com.aitsaid.authservice.dtos.RegisterResponse;
 import com.aitsaid.authservice.dtos.UpdateUserRequest;
+import com.aitsaid.authservice.dtos.UserCursor;
 import com.aitsaid.authservice.dtos.UserDetails;
+import com.aitsaid.authservice.dtos.UserSearchFilter;
+import com.aitsaid.authservice.dtos.UserSearchPage;
+import com.aitsaid.authservice.dtos.UserSummary;
 import com.aitsaid.authservice.entities.User;
 import com.aitsaid.authservice.mappers.UserMapper;
 import com.aitsaid.authservice.service.AuthService;
@@ -11,11 +15,13 @@ import com.aitsaid.authservice.service.UserService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -23,6 +29,7 @@ import java.util.List;
 public class UserControllerAdmin {
 
     private static final Logger log = LoggerFactory.getLogger(UserControllerAdmin.class);
+    private static final int MAX_BATCH_SIZE = 500;
     private final UserService userService;
     private final AuthService authService;
 
@@ -42,7 +49,7 @@ public class UserControllerAdmin {
     }
 
     /**
-     * Récupérer tous les utilisateurs (ADMIN uniquement)
+     * Récupérer tous les utilisateurs (ADMIN uniquement) ; la liste paginée est servie par {@code /search}
      */
     @GetMapping()
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
@@ -51,6 +58,43 @@ public class UserControllerAdmin {
         return ResponseEntity.ok(userService.getAllUsers());
     }
 
+    /**
+     * Rechercher des utilisateurs par page (ADMIN uniquement) : préfixe du prénom, du nom, de l'email ou du CIN,
+     * période de création, statut. Passer le {@code nextCursor} de la réponse pour obtenir la page suivante.
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<UserSearchPage> searchUsers(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo,
+            @RequestParam(required = false) Boolean enabled,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size,
+            Authentication authentication) {
+        UserCursor after;
+        try {
+            after = cursor == null || cursor.isBlank() ? null : UserCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        log.debug("Admin {} searching users", authentication.getName());
+        UserSearchFilter filter = new UserSearchFilter(q, createdFrom, createdTo, enabled);
+        return ResponseEntity.ok(userService.searchUsers(filter, after, size));
+    }
+
+    /**
+     * Suggérer des utilisateurs à la saisie (ADMIN uniquement) : résultats classés par pertinence et bornés,
+     * tolérant une sous-chaîne ou une faute de frappe quand la base le permet.
+     */
+    @GetMapping("/suggest")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<List<UserSummary>> suggestUsers(@RequestParam String q,
+            @RequestParam(required = false) Integer limit, Authentication authentication) {
+        log.debug("Admin {} suggesting users", authentication.getName());
+        return ResponseEntity.ok(userService.suggestUsers(q, limit));
+    }
+
     /**
      * Récupérer le nombre total d'utilisateurs (ADMIN uniquement)
      */
@@ -84,6 +128,19 @@ public class UserControllerAdmin {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Récupérer plusieurs utilisateurs en une requête (ADMIN uniquement) ; les IDs inconnus sont ignorés.
+     */
+    @GetMapping("/batch")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<List<UserDetails>> getUsersByIds(@RequestParam List<Long> ids, Authentication authentication) {
+        if (ids.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        log.debug("Admin {} retrieving {} users", authentication.getName(), ids.size());
+        return ResponseEntity.ok(userService.getUsersByIds(ids));
+    }
+
     /**
      * Récupérer un utilisateur par ID (ADMIN uniquement)
      */
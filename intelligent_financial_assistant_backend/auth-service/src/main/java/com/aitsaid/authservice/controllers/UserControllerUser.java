@@ -4,6 +4,7 @@ import com.aitsaid.authservice.dtos.UpdateProfileRequest;
 import com.aitsaid.authservice.dtos.UserDetails;
 import com.aitsaid.authservice.entities.User;
 import com.aitsaid.authservice.mappers.UserMapper;
+import com.aitsaid.authservice.security.JwtUserPrincipal;
 import com.aitsaid.authservice.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,6 +55,10 @@ public class UserControllerUser {
         }
         User currentUser = (User) authentication.getPrincipal();
         log.debug("User {} retrieving their profile", currentUser.getEmail());
+        // Principal issu des seuls claims : le profil complet vient du cache (sans SQL une fois chaud)
+        if (currentUser instanceof JwtUserPrincipal) {
+            return ResponseEntity.ok(userService.getProfile(currentUser));
+        }
         return ResponseEntity.ok(UserMapper.userToUserDetails(currentUser));
     }
 }
@@ -0,0 +1,33 @@
+package com.aitsaid.authservice.dtos;
+
+/**
+ * Entrée du flux de révocation : identifiant de séquence et empreinte SHA-256 du token.
+ */
+public class RevocationEntry {
+    private Long id;
+    private String digest;
+
+    public RevocationEntry() {
+    }
+
+    public RevocationEntry(Long id, String digest) {
+        this.id = id;
+        this.digest = digest;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+}
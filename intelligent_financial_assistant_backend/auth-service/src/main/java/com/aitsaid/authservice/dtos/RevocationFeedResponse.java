@@ -0,0 +1,45 @@
+package com.aitsaid.authservice.dtos;
+
+import java.util.List;
+
+/**
+ * Page du flux de révocation. {@code cursor} est à renvoyer dans {@code since} au prochain appel.
+ */
+public class RevocationFeedResponse {
+    private List<RevocationEntry> entries;
+    private Long cursor;
+    private boolean hasMore;
+
+    public RevocationFeedResponse() {
+    }
+
+    public RevocationFeedResponse(List<RevocationEntry> entries, Long cursor, boolean hasMore) {
+        this.entries = entries;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<RevocationEntry> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<RevocationEntry> entries) {
+        this.entries = entries;
+    }
+
+    public Long getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(Long cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,38 @@
+package com.aitsaid.authservice.dtos;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Identifiants d'un microservice (client credentials) pour obtenir un token de service.
+ */
+public class ServiceTokenRequest {
+    @NotBlank(message = "Client id is required")
+    private String clientId;
+
+    @NotBlank(message = "Client secret is required")
+    private String clientSecret;
+
+    public ServiceTokenRequest() {
+    }
+
+    public ServiceTokenRequest(String clientId, String clientSecret) {
+        this.clientId = clientId;
+        this.clientSecret = clientSecret;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
+    public String getClientSecret() {
+        return clientSecret;
+    }
+
+    public void setClientSecret(String clientSecret) {
+        this.clientSecret = clientSecret;
+    }
+}
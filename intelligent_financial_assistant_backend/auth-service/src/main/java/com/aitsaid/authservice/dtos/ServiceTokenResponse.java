@@ -0,0 +1,33 @@
+package com.aitsaid.authservice.dtos;
+
+/**
+ * Token de service à courte durée de vie ; {@code expiresIn} en millisecondes.
+ */
+public class ServiceTokenResponse {
+    private String accessToken;
+    private long expiresIn;
+
+    public ServiceTokenResponse() {
+    }
+
+    public ServiceTokenResponse(String accessToken, long expiresIn) {
+        this.accessToken = accessToken;
+        this.expiresIn = expiresIn;
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public void setAccessToken(String accessToken) {
+        this.accessToken = accessToken;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+
+    public void setExpiresIn(long expiresIn) {
+        this.expiresIn = expiresIn;
+    }
+}
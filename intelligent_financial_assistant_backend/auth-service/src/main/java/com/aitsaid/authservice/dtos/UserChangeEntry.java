@@ -0,0 +1,33 @@
+package com.aitsaid.authservice.dtos;
+
+/**
+ * Entrée du flux des modifications : identifiant de séquence et ID de l'utilisateur modifié.
+ */
+public class UserChangeEntry {
+    private Long id;
+    private Long userId;
+
+    public UserChangeEntry() {
+    }
+
+    public UserChangeEntry(Long id, Long userId) {
+        this.id = id;
+        this.userId = userId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+}
@@ -0,0 +1,45 @@
+package com.aitsaid.authservice.dtos;
+
+import java.util.List;
+
+/**
+ * Page du flux des modifications d'utilisateurs. {@code cursor} est à renvoyer dans {@code since} au prochain appel.
+ */
+public class UserChangeFeedResponse {
+    private List<UserChangeEntry> entries;
+    private Long cursor;
+    private boolean hasMore;
+
+    public UserChangeFeedResponse() {
+    }
+
+    public UserChangeFeedResponse(List<UserChangeEntry> entries, Long cursor, boolean hasMore) {
+        this.entries = entries;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<UserChangeEntry> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<UserChangeEntry> entries) {
+        this.entries = entries;
+    }
+
+    public Long getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(Long cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
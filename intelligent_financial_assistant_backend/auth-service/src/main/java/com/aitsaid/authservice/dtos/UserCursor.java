@@ -0,0 +1,26 @@
+package com.aitsaid.authservice.dtos;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position dans la recherche d'utilisateurs, triée par ID décroissant (du plus récent au plus ancien) :
+ * la page suivante reprend strictement avant. Encodée en Base64 URL pour rester opaque côté client.
+ */
+public record UserCursor(Long id) {
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException si le curseur n'a pas été produit par {@link #encode()}
+     */
+    public static UserCursor decode(String token) {
+        try {
+            return new UserCursor(Long.valueOf(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.aitsaid.authservice.dtos;
+
+import java.time.LocalDate;
+
+/**
+ * Critères de la recherche admin ; les champs nuls ne filtrent pas.
+ *
+ * @param query       préfixe du prénom, du nom, de l'email ou du CIN (insensible à la casse)
+ * @param createdFrom premier jour de création inclus
+ * @param createdTo   dernier jour de création inclus
+ */
+public record UserSearchFilter(String query, LocalDate createdFrom, LocalDate createdTo, Boolean enabled) {
+}
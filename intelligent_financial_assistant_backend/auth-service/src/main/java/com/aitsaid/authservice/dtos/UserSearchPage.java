@@ -0,0 +1,43 @@
+package com.aitsaid.authservice.dtos;
+
+import java.util.List;
+
+public class UserSearchPage {
+    private List<UserSummary> content;
+    // null sur la dernière page
+    private String nextCursor;
+    private boolean hasMore;
+
+    public UserSearchPage() {
+    }
+
+    public UserSearchPage(List<UserSummary> content, String nextCursor, boolean hasMore) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<UserSummary> getContent() {
+        return content;
+    }
+
+    public void setContent(List<UserSummary> content) {
+        this.content = content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
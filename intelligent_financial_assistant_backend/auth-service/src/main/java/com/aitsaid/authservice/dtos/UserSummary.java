@@ -0,0 +1,28 @@
+package com.aitsaid.authservice.dtos;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection des colonnes affichées dans la liste admin : lue sans charger l'entité {@code User}
+ * (ni mot de passe, ni relation {@code tokenBlockList}).
+ */
+public interface UserSummary {
+
+    Long getId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getCin();
+
+    String getEmail();
+
+    String getPhoneNumber();
+
+    String getAddress();
+
+    LocalDateTime getCreatedAt();
+
+    boolean isEnabled();
+}
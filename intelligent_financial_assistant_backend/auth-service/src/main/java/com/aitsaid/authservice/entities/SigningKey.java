@@ -0,0 +1,84 @@
+package com.aitsaid.authservice.entities;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Paire de clés RSA de signature des JWT, identifiée par son {@code kid}.
+ * <p>
+ * Partagée en base pour que toutes les instances d'auth-service signent et publient
+ * le même jeu de clés. Clé publique encodée en Base64 (X.509) ; clé privée (PKCS#8) chiffrée par
+ * {@link com.aitsaid.authservice.security.SigningKeyCipher}.
+ */
+@Entity
+@Table(name = "signing_keys", indexes = {
+        @Index(name = "idx_signing_keys_kid", columnList = "kid", unique = true),
+        @Index(name = "idx_signing_keys_created_at", columnList = "created_at")
+})
+public class SigningKey {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false, length = 64)
+    private String kid;
+    @Column(name = "public_key", nullable = false, columnDefinition = "TEXT")
+    private String publicKey;
+    @Column(name = "private_key", nullable = false, columnDefinition = "TEXT")
+    private String privateKey;
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    public SigningKey() {
+    }
+
+    public SigningKey(Long id, String kid, String publicKey, String privateKey, LocalDateTime createdAt) {
+        this.id = id;
+        this.kid = kid;
+        this.publicKey = publicKey;
+        this.privateKey = privateKey;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getKid() {
+        return kid;
+    }
+
+    public void setKid(String kid) {
+        this.kid = kid;
+    }
+
+    public String getPublicKey() {
+        return publicKey;
+    }
+
+    public void setPublicKey(String publicKey) {
+        this.publicKey = publicKey;
+    }
+
+    public String getPrivateKey() {
+        return privateKey;
+    }
+
+    public void setPrivateKey(String privateKey) {
+        this.privateKey = privateKey;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
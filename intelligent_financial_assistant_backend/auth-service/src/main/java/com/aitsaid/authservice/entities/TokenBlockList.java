@@ -5,14 +5,24 @@ import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
+/**
+ * Token révoqué, stocké sous forme d'empreinte SHA-256 (hex, largeur fixe) avec son expiration.
+ * Une fois {@code expiresAt} dépassé le JWT est de toute façon refusé : la ligne est purgée.
+ */
 @Entity
-@Table(name = "token_blocklist")
+@Table(name = "token_blocklist", indexes = {
+        @Index(name = "idx_token_blocklist_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_token_blocklist_expires_at", columnList = "expires_at")
+})
 public class TokenBlockList {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-    @Column(nullable = false, unique = true, columnDefinition = "TEXT")
-    private String token;
+    // Nullable au niveau du schéma uniquement pour permettre la migration des lignes existantes
+    @Column(name = "token_hash", columnDefinition = "CHAR(64)")
+    private String tokenHash;
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
     @CreationTimestamp
     @Column(updatable = false)
     private LocalDateTime createdAt;
@@ -23,9 +33,10 @@ public class TokenBlockList {
     public TokenBlockList() {
     }
 
-    public TokenBlockList(Long id, String token, LocalDateTime createdAt, User user) {
+    public TokenBlockList(Long id, String tokenHash, LocalDateTime expiresAt, LocalDateTime createdAt, User user) {
         this.id = id;
-        this.token = token;
+        this.tokenHash = tokenHash;
+        this.expiresAt = expiresAt;
         this.createdAt = createdAt;
         this.user = user;
     }
@@ -38,12 +49,20 @@ public class TokenBlockList {
         this.id = id;
     }
 
-    public String getToken() {
-        return token;
+    public String getTokenHash() {
+        return tokenHash;
     }
 
-    public void setToken(String token) {
-        this.token = token;
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
     }
 
     public LocalDateTime getCreatedAt() {
@@ -0,0 +1,73 @@
+package com.aitsaid.authservice.entities;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Modification ou suppression d'un utilisateur, publiée aux autres services par le flux
+ * {@code /auth/user-changes}. Sans clé étrangère : l'entrée survit à la suppression de l'utilisateur.
+ * {@code sessions_invalidated} marque les changements qui révoquent les tokens déjà émis, relus par
+ * chaque instance d'auth-service.
+ */
+@Entity
+@Table(name = "user_changes", indexes = {
+        @Index(name = "idx_user_changes_changed_at", columnList = "changed_at")
+})
+public class UserChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    @CreationTimestamp
+    @Column(name = "changed_at", updatable = false)
+    private LocalDateTime changedAt;
+    @Column(name = "sessions_invalidated")
+    private Boolean sessionsInvalidated;
+
+    public UserChange() {
+    }
+
+    public UserChange(Long userId) {
+        this(userId, false);
+    }
+
+    public UserChange(Long userId, boolean sessionsInvalidated) {
+        this.userId = userId;
+        this.sessionsInvalidated = sessionsInvalidated;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+
+    public boolean isSessionsInvalidated() {
+        return Boolean.TRUE.equals(sessionsInvalidated);
+    }
+
+    public void setSessionsInvalidated(Boolean sessionsInvalidated) {
+        this.sessionsInvalidated = sessionsInvalidated;
+    }
+}
@@ -3,6 +3,7 @@ package com.aitsaid.authservice.mappers;
 import com.aitsaid.authservice.dtos.RegisterRequest;
 import com.aitsaid.authservice.dtos.UpdateUserRequest;
 import com.aitsaid.authservice.dtos.UserDetails;
+import com.aitsaid.authservice.dtos.UserSummary;
 import com.aitsaid.authservice.entities.Role;
 import com.aitsaid.authservice.entities.User;
 
@@ -66,4 +67,19 @@ public final class UserMapper {
         return userDetails;
     }
 
+    public static UserDetails summaryToUserDetails(UserSummary summary) {
+        UserDetails userDetails = new UserDetails();
+        userDetails.setId(summary.getId());
+        userDetails.setFirstName(summary.getFirstName());
+        userDetails.setLastName(summary.getLastName());
+        userDetails.setCin(summary.getCin());
+        userDetails.setEmail(summary.getEmail());
+        userDetails.setPhoneNumber(summary.getPhoneNumber());
+        userDetails.setAddress(summary.getAddress());
+        userDetails.setCreatedAt(summary.getCreatedAt());
+        userDetails.setEnabled(summary.isEnabled());
+
+        return userDetails;
+    }
+
 }
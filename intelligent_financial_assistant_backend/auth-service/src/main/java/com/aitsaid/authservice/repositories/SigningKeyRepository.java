@@ -0,0 +1,21 @@
+package com.aitsaid.authservice.repositories;
+
+import com.aitsaid.authservice.entities.SigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SigningKeyRepository extends JpaRepository<SigningKey, Long> {
+
+    /**
+     * Clés encore utiles à la vérification, la plus récente (clé de signature) en premier.
+     */
+    List<SigningKey> findByCreatedAtAfterOrderByCreatedAtDesc(LocalDateTime createdAt);
+
+    @Transactional
+    long deleteByCreatedAtBefore(LocalDateTime createdAt);
+}
@@ -1,18 +1,38 @@
 package com.aitsaid.authservice.repositories;
 
 import com.aitsaid.authservice.entities.TokenBlockList;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * @author radouane
  **/
 @Repository
 public interface TokenBlockListRepository extends JpaRepository<TokenBlockList, Long> {
-    Optional<TokenBlockList> findByToken(String token);
 
-    Boolean existsByToken(String token);
+    boolean existsByTokenHash(String tokenHash);
 
+    /**
+     * Lecture incrémentale du flux de révocation, dans l'ordre des identifiants.
+     */
+    List<TokenBlockList> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Supprime au plus {@code batchSize} entrées expirées, dans sa propre transaction,
+     * pour ne jamais verrouiller la table entière.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM token_blocklist WHERE id IN " +
+            "(SELECT id FROM token_blocklist WHERE expires_at < :now ORDER BY id LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
 }
@@ -0,0 +1,37 @@
+package com.aitsaid.authservice.repositories;
+
+import com.aitsaid.authservice.entities.UserChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UserChangeRepository extends JpaRepository<UserChange, Long> {
+
+    /**
+     * Lecture incrémentale du flux des modifications, dans l'ordre des identifiants.
+     */
+    List<UserChange> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Invalidations de sessions enregistrées depuis {@code since}, par toutes les instances.
+     */
+    List<UserChange> findBySessionsInvalidatedTrueAndChangedAtAfterOrderByIdAsc(LocalDateTime since);
+
+    /**
+     * Supprime au plus {@code batchSize} entrées antérieures à {@code before}, dans sa propre transaction.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM user_changes WHERE id IN " +
+            "(SELECT id FROM user_changes WHERE changed_at < :before ORDER BY id LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteOlderBatch(@Param("before") LocalDateTime before, @Param("batchSize") int batchSize);
+}
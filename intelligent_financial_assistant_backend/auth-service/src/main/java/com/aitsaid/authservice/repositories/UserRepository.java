@@ -1,5 +1,6 @@
 package com.aitsaid.authservice.repositories;
 
+import com.aitsaid.authservice.dtos.UserSummary;
 import com.aitsaid.authservice.entities.Role;
 import com.aitsaid.authservice.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -12,7 +13,7 @@ import java.util.Optional;
  * @author radouane
  **/
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserSearchRepository {
 
     Optional<User> findByEmail(String email);
 
@@ -23,7 +24,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByCin(String cin);
 
-    List<User>findAllByRole(Role role);
+    /**
+     * Projection fermée : seules les colonnes de {@link UserSummary} sont lues, sans entité hydratée.
+     */
+    List<UserSummary> findSummariesByRoleOrderByIdDesc(Role role);
 
     long countByRole(Role role);
 }
@@ -0,0 +1,23 @@
+package com.aitsaid.authservice.repositories;
+
+import com.aitsaid.authservice.dtos.UserCursor;
+import com.aitsaid.authservice.dtos.UserSearchFilter;
+import com.aitsaid.authservice.dtos.UserSummary;
+import com.aitsaid.authservice.entities.Role;
+
+import java.util.List;
+
+public interface UserSearchRepository {
+
+    /**
+     * Jusqu'à {@code limit} utilisateurs du rôle donné strictement avant {@code after} (null : première page),
+     * triés par ID décroissant.
+     */
+    List<UserSummary> searchAfter(Role role, UserSearchFilter filter, UserCursor after, int limit);
+
+    /**
+     * Jusqu'à {@code limit} utilisateurs du rôle donné correspondant à une saisie partielle, les plus pertinents
+     * en premier.
+     */
+    List<UserSummary> suggest(Role role, String query, int limit);
+}
@@ -0,0 +1,204 @@
+package com.aitsaid.authservice.repositories;
+
+import com.aitsaid.authservice.config.UserIndexMigration;
+import com.aitsaid.authservice.dtos.UserCursor;
+import com.aitsaid.authservice.dtos.UserSearchFilter;
+import com.aitsaid.authservice.dtos.UserSummary;
+import com.aitsaid.authservice.entities.Role;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Requête construite avec les seuls filtres renseignés et limitée aux colonnes de {@link UserSummary} :
+ * aucune entité n'est hydratée ni attachée au contexte de persistance. La recherche par préfixe compare
+ * {@code lower(colonne)} pour s'appuyer sur les index créés par
+ * {@link com.aitsaid.authservice.config.UserIndexMigration}, et la pagination reprend au dernier ID lu
+ * au lieu de sauter {@code offset} lignes.
+ * <p>
+ * La suggestion classée utilise l'index trigramme de {@link UserIndexMigration#SEARCH_DOCUMENT} quand
+ * {@code pg_trgm} est installée ; sinon, ou pour moins de trois caractères (aucun trigramme complet), elle se
+ * limite aux préfixes servis par les index d'expression.
+ */
+public class UserSearchRepositoryImpl implements UserSearchRepository {
+
+    private static final String SUMMARY_COLUMNS = "u.id AS id, u.firstName AS firstName, u.lastName AS lastName, "
+            + "u.cin AS cin, u.email AS email, u.phoneNumber AS phoneNumber, u.address AS address, "
+            + "u.createdAt AS createdAt, u.enabled AS enabled";
+    private static final String[] PREFIX_COLUMNS = {"u.firstName", "u.lastName", "u.email", "u.cin"};
+    // Correspondances lues avant classement : borne le coût d'une saisie très fréquente (« gmail »)
+    private static final int TRIGRAM_CANDIDATES = 200;
+    private static final String PREFIX_MATCH = "(lower(u.first_name) LIKE :prefix ESCAPE '\\'"
+            + " OR lower(u.last_name) LIKE :prefix ESCAPE '\\' OR lower(u.email) LIKE :prefix ESCAPE '\\'"
+            + " OR lower(u.cin) LIKE :prefix ESCAPE '\\')";
+    // Candidats : les préfixes les plus récents (index d'expression) et les plus proches en trigrammes,
+    // pour qu'un préfixe ne soit jamais écarté par la borne des correspondances approchées
+    private static final String TRIGRAM_SUGGEST_SQL = "SELECT u.id, u.first_name, u.last_name, u.cin, u.email,"
+            + " u.phone_number, u.address, u.created_at, u.enabled FROM ("
+            + " (SELECT u.id FROM users u WHERE u.role = :role AND " + PREFIX_MATCH
+            + " ORDER BY u.id DESC LIMIT :candidates)"
+            + " UNION"
+            + " (SELECT u.id FROM users u WHERE u.role = :role AND (" + UserIndexMigration.SEARCH_DOCUMENT
+            + " LIKE :contains ESCAPE '\\' OR :query <% " + UserIndexMigration.SEARCH_DOCUMENT + ")"
+            + " ORDER BY word_similarity(:query, " + UserIndexMigration.SEARCH_DOCUMENT + ") DESC, u.id DESC"
+            + " LIMIT :candidates)) c JOIN users u ON u.id = c.id"
+            + " ORDER BY " + PREFIX_MATCH + " DESC,"
+            + " word_similarity(:query, " + UserIndexMigration.SEARCH_DOCUMENT + ") DESC, u.id DESC"
+            + " LIMIT :limit";
+    // Extension absente : revérifiée périodiquement, elle peut être installée sans redémarrage
+    private static final long TRIGRAM_RECHECK_MS = 600_000;
+
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile boolean trigramAvailable;
+    private volatile long trigramCheckedAt;
+
+    @Override
+    public List<UserSummary> searchAfter(Role role, UserSearchFilter filter, UserCursor after, int limit) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder jpql = new StringBuilder("SELECT ").append(SUMMARY_COLUMNS)
+                .append(" FROM User u WHERE u.role = :role");
+        params.put("role", role);
+        appendFilters(jpql, params, filter);
+        if (after != null) {
+            jpql.append(" AND u.id < :cursorId");
+            params.put("cursorId", after.id());
+        }
+        jpql.append(" ORDER BY u.id DESC");
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList().stream()
+                .map(this::toSummary)
+                .toList();
+    }
+
+    @Override
+    public List<UserSummary> suggest(Role role, String query, int limit) {
+        String normalized = query.trim().toLowerCase(Locale.ROOT);
+        if (normalized.length() >= 3 && isTrigramAvailable()) {
+            return suggestByTrigram(role, normalized, limit);
+        }
+        StringBuilder jpql = new StringBuilder("SELECT ").append(SUMMARY_COLUMNS)
+                .append(" FROM User u WHERE u.role = :role");
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("role", role);
+        appendFilters(jpql, params, new UserSearchFilter(normalized, null, null, null));
+        // :prefix est posé par appendFilters ; préfixe du prénom ou du nom avant celui de l'email ou du CIN
+        jpql.append(" ORDER BY CASE WHEN LOWER(u.firstName) LIKE :prefix ESCAPE '\\'")
+                .append(" OR LOWER(u.lastName) LIKE :prefix ESCAPE '\\' THEN 0 ELSE 1 END, u.id DESC");
+
+        TypedQuery<Tuple> typed = entityManager.createQuery(jpql.toString(), Tuple.class);
+        params.forEach(typed::setParameter);
+        return typed.setMaxResults(limit).getResultList().stream()
+                .map(this::toSummary)
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<UserSummary> suggestByTrigram(Role role, String query, int limit) {
+        String escaped = escapeLike(query);
+        List<Object[]> rows = entityManager.createNativeQuery(TRIGRAM_SUGGEST_SQL)
+                .setParameter("role", role.name())
+                .setParameter("contains", "%" + escaped + "%")
+                .setParameter("prefix", escaped + "%")
+                .setParameter("query", query)
+                .setParameter("candidates", Math.max(TRIGRAM_CANDIDATES, limit))
+                .setParameter("limit", limit)
+                .getResultList();
+        return rows.stream().map(this::toSummary).toList();
+    }
+
+    private boolean isTrigramAvailable() {
+        if (trigramAvailable) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (trigramCheckedAt != 0 && now - trigramCheckedAt < TRIGRAM_RECHECK_MS) {
+            return false;
+        }
+        boolean available = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                return false;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm'")) {
+                return rs.next();
+            }
+        });
+        trigramAvailable = available;
+        trigramCheckedAt = now;
+        return available;
+    }
+
+    private static void appendFilters(StringBuilder jpql, Map<String, Object> params, UserSearchFilter filter) {
+        if (filter == null) {
+            return;
+        }
+        if (filter.query() != null && !filter.query().isBlank()) {
+            jpql.append(" AND (");
+            for (int i = 0; i < PREFIX_COLUMNS.length; i++) {
+                jpql.append(i == 0 ? "" : " OR ").append("LOWER(").append(PREFIX_COLUMNS[i])
+                        .append(") LIKE :prefix ESCAPE '\\'");
+            }
+            jpql.append(")");
+            params.put("prefix", escapeLike(filter.query().trim().toLowerCase(Locale.ROOT)) + "%");
+        }
+        if (filter.createdFrom() != null) {
+            jpql.append(" AND u.createdAt >= :createdFrom");
+            params.put("createdFrom", filter.createdFrom().atStartOfDay());
+        }
+        if (filter.createdTo() != null) {
+            jpql.append(" AND u.createdAt < :createdBefore");
+            params.put("createdBefore", filter.createdTo().plusDays(1).atStartOfDay());
+        }
+        if (filter.enabled() != null) {
+            jpql.append(" AND u.enabled = :enabled");
+            params.put("enabled", filter.enabled());
+        }
+    }
+
+    // Les caractères saisis sont cherchés tels quels : % et _ ne sont pas des jokers
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private UserSummary toSummary(Tuple tuple) {
+        Map<String, Object> values = new HashMap<>();
+        for (TupleElement<?> element : tuple.getElements()) {
+            values.put(element.getAlias(), tuple.get(element));
+        }
+        return projectionFactory.createProjection(UserSummary.class, values);
+    }
+
+    private UserSummary toSummary(Object[] row) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", ((Number) row[0]).longValue());
+        values.put("firstName", row[1]);
+        values.put("lastName", row[2]);
+        values.put("cin", row[3]);
+        values.put("email", row[4]);
+        values.put("phoneNumber", row[5]);
+        values.put("address", row[6]);
+        values.put("createdAt", row[7] instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : row[7]);
+        values.put("enabled", row[8]);
+        return projectionFactory.createProjection(UserSummary.class, values);
+    }
+}
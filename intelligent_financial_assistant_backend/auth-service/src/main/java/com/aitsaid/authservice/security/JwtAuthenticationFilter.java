@@ -1,11 +1,13 @@
 package com.aitsaid.authservice.security;
 
-import com.aitsaid.authservice.repositories.TokenBlockListRepository;
+import com.aitsaid.authservice.entities.User;
+import com.aitsaid.authservice.service.TokenRevocationService;
 import com.aitsaid.authservice.service.UserDetailsServiceImpl;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -22,12 +24,22 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil;
     private final UserDetailsServiceImpl userDetailsService;
-    private final TokenBlockListRepository tokenBlockListRepository;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserPrincipalCache principalCache;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsServiceImpl userDetailsService, TokenBlockListRepository tokenBlockListRepository) {
+    /**
+     * Mode sans état : le principal est construit depuis les claims vérifiés, sans requête SQL.
+     * Désactivé, le filtre recharge l'utilisateur en base à chaque requête.
+     */
+    @Value("${auth.stateless.enabled:true}")
+    private boolean statelessEnabled;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsServiceImpl userDetailsService,
+                                   TokenRevocationService tokenRevocationService, UserPrincipalCache principalCache) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
-        this.tokenBlockListRepository = tokenBlockListRepository;
+        this.tokenRevocationService = tokenRevocationService;
+        this.principalCache = principalCache;
     }
 
     @Override
@@ -41,11 +53,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && !tokenBlockListRepository.existsByToken(jwt) && jwtUtil.isTokenValid(jwt)) {
-                String username = jwtUtil.extractUsername(jwt);
+            // Un seul parsing par requête : les contrôles suivants lisent le token vérifié
+            VerifiedToken verified = jwt != null ? jwtUtil.verify(jwt) : null;
+            if (verified != null) {
+                request.setAttribute(VerifiedToken.REQUEST_ATTRIBUTE, verified);
+            }
+
+            if (verified != null && statelessEnabled) {
+                authenticateFromClaims(verified, request);
+            } else if (verified != null && !tokenRevocationService.isRevoked(jwt)) {
+                String username = verified.getSubject();
                 if (username != null) {
                     UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                    if (jwtUtil.validateToken(jwt, userDetails)) {
+                    if (jwtUtil.validateToken(verified, userDetails)) {
                         UsernamePasswordAuthenticationToken authToken =
                                 new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -60,6 +80,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Le profil complet est pris dans le cache s'il y est, sinon le principal se limite
+     * aux claims (voir {@link JwtUserPrincipal}).
+     */
+    private void authenticateFromClaims(VerifiedToken verified, HttpServletRequest request) {
+        if (tokenRevocationService.isRevoked(verified.getToken())) {
+            return;
+        }
+
+        User principal = principalCache.get(verified.getSubject());
+        if (principal == null) {
+            principal = JwtUserPrincipal.fromClaims(verified.getClaims());
+        }
+        if (principal == null || principalCache.isSessionInvalidated(principal.getId(), verified.getIssuedAt())) {
+            return;
+        }
+
+        UsernamePasswordAuthenticationToken authToken =
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
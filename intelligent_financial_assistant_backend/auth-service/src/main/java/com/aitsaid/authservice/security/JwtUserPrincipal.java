@@ -0,0 +1,52 @@
+package com.aitsaid.authservice.security;
+
+import com.aitsaid.authservice.entities.Role;
+import com.aitsaid.authservice.entities.User;
+import io.jsonwebtoken.Claims;
+
+import java.util.List;
+
+/**
+ * Principal construit uniquement à partir des claims d'un JWT vérifié, sans accès base.
+ * <p>
+ * Seuls l'identifiant, l'email, les noms et le rôle sont renseignés : les endpoints qui ont
+ * besoin du profil complet ou d'une entité managée la rechargent explicitement.
+ * Ce n'est pas une entité JPA.
+ */
+public class JwtUserPrincipal extends User {
+
+    /**
+     * @return le principal, ou {@code null} si les claims ne suffisent pas (token d'un ancien format)
+     */
+    public static JwtUserPrincipal fromClaims(Claims claims) {
+        Object userId = claims.get("userId");
+        Role role = roleOf(claims);
+        if (!(userId instanceof Number) || claims.getSubject() == null || role == null) {
+            return null;
+        }
+
+        JwtUserPrincipal principal = new JwtUserPrincipal();
+        principal.setId(((Number) userId).longValue());
+        principal.setEmail(claims.getSubject());
+        principal.setFirstName(claims.get("firstName", String.class));
+        principal.setLastName(claims.get("lastName", String.class));
+        principal.setRole(role);
+        principal.setEnabled(true);
+        return principal;
+    }
+
+    private static Role roleOf(Claims claims) {
+        Object role = claims.get("role");
+        if (role == null && claims.get("roles") instanceof List<?> roles && !roles.isEmpty()) {
+            role = roles.get(0);
+        }
+        if (role == null) {
+            return null;
+        }
+        try {
+            return Role.valueOf(role.toString());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
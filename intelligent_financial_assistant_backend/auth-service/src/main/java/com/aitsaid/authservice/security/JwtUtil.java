@@ -1,13 +1,20 @@
 package com.aitsaid.authservice.security;
 
 import com.aitsaid.authservice.entities.User;
+import com.aitsaid.authservice.service.SigningKeyService;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.io.DecodingException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,26 +22,48 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 /**
  * Utilitaire JWT: génération, validation, extraction. Gère correctement la clé (Base64 ou brute) et vérifie sa longueur.
- * NOTE: Tous les anciens tokens deviennent invalides si le secret change (rotation). Faire re-login après modification.
+ * <p>
+ * En RS256 (par défaut) les tokens sont signés avec la clé courante de {@link SigningKeyService} et portent
+ * son {@code kid} ; les vérificateurs obtiennent les clés publiques via le JWKS. Les tokens HS256 sans
+ * {@code kid} ne sont acceptés que si le service signe lui-même en HS256 ou si {@code jwt.legacy-hs256.enabled}
+ * est explicitement activé (désactivé par défaut : ceux émis avant la migration ont expiré).
+ * NOTE: Les tokens HS256 deviennent invalides si le secret change. Faire re-login après modification.
  */
 @Component
 public class JwtUtil {
 
+    /** Rôle des tokens de service : jamais attribué à un utilisateur. */
+    public static final String SERVICE_ROLE = "ROLE_SERVICE";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private long expiration;
 
+    @Value("${jwt.signing.algorithm:RS256}")
+    private String signingAlgorithm;
+
+    @Value("${jwt.legacy-hs256.enabled:false}")
+    private boolean legacyHs256Enabled;
+
+    // Absent : signature HS256 avec le secret partagé
+    @Autowired(required = false)
+    private SigningKeyService signingKeys;
+
     private final AtomicReference<SecretKey> cachedKey = new AtomicReference<>();
+    // Parser immuable et thread-safe, reconstruit seulement si la clé change
+    private final AtomicReference<KeyedParser> cachedParser = new AtomicReference<>();
 
     private boolean looksLikeBase64(String value) {
         if (value == null) return false;
@@ -65,6 +94,30 @@ public class JwtUtil {
         return key;
     }
 
+    private JwtParser parser() {
+        SecretKey key = getSigningKey();
+        KeyedParser existing = cachedParser.get();
+        if (existing != null && existing.key() == key) {
+            return existing.parser();
+        }
+        JwtParser parser = Jwts.parserBuilder().setSigningKeyResolver(new KeyResolver(key)).build();
+        cachedParser.set(new KeyedParser(key, parser));
+        return parser;
+    }
+
+    /**
+     * Vérifie signature et expiration en un seul parsing.
+     *
+     * @return le token vérifié, ou {@code null} s'il est invalide ou expiré
+     */
+    public VerifiedToken verify(String token) {
+        try {
+            return new VerifiedToken(token, extractAllClaims(token));
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -79,15 +132,7 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parser().parseClaimsJws(token).getBody();
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -105,37 +150,84 @@ public class JwtUtil {
             claims.put("firstName", user.getFirstName());
             claims.put("lastName", user.getLastName());
         }
-        return createToken(claims, userDetails.getUsername());
+        return createToken(claims, userDetails.getUsername(), expiration);
     }
 
-    private String createToken(Map<String, Object> claims, String subject) {
-        return Jwts.builder()
+    /**
+     * Token d'un microservice appelant en son nom propre : sujet {@code service:<clientId>},
+     * rôle {@link #SERVICE_ROLE}, sans {@code userId}.
+     */
+    public String generateServiceToken(String clientId, long ttlMs) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("roles", List.of(SERVICE_ROLE));
+        claims.put("role", SERVICE_ROLE);
+        return createToken(claims, "service:" + clientId, ttlMs);
+    }
+
+    private String createToken(Map<String, Object> claims, String subject, long ttlMs) {
+        JwtBuilder builder = Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + ttlMs));
+        if (signsRs256()) {
+            SigningKeyService.ActiveKey key = signingKeys.current();
+            return builder.setHeaderParam(JwsHeader.KEY_ID, key.kid())
+                    .signWith(key.privateKey(), SignatureAlgorithm.RS256)
+                    .compact();
+        }
+        return builder.signWith(getSigningKey(), SignatureAlgorithm.HS256).compact();
     }
 
     public boolean validateToken(String token, UserDetails userDetails) {
-        try {
-            final String username = extractUsername(token);
-            return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        VerifiedToken verified = verify(token);
+        return verified != null && validateToken(verified, userDetails);
+    }
+
+    /**
+     * Contrôle sans re-parsing d'un token déjà vérifié.
+     */
+    public boolean validateToken(VerifiedToken verified, UserDetails userDetails) {
+        String username = verified.getSubject();
+        return username != null && username.equals(userDetails.getUsername()) && !verified.isExpired();
     }
 
     public boolean isTokenValid(String token) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+        return verify(token) != null;
+    }
+
+    private boolean signsRs256() {
+        return signingKeys != null && "RS256".equalsIgnoreCase(signingAlgorithm);
+    }
+
+    private record KeyedParser(SecretKey key, JwtParser parser) {
+    }
+
+    /**
+     * Avec {@code kid} : clé publique RSA correspondante. Sans : secret HS256 historique.
+     * jjwt refuse une clé dont le type ne correspond pas à l'algorithme annoncé.
+     */
+    private final class KeyResolver extends SigningKeyResolverAdapter {
+        private final SecretKey hmacKey;
+
+        private KeyResolver(SecretKey hmacKey) {
+            this.hmacKey = hmacKey;
+        }
+
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            String kid = header.getKeyId();
+            if (kid == null) {
+                if (!legacyHs256Enabled && signsRs256()) {
+                    throw new UnsupportedJwtException("Tokens without key id are no longer accepted");
+                }
+                return hmacKey;
+            }
+            Key key = signingKeys != null ? signingKeys.publicKey(kid) : null;
+            if (key == null) {
+                throw new UnsupportedJwtException("Unknown signing key id: " + kid);
+            }
+            return key;
         }
     }
 }
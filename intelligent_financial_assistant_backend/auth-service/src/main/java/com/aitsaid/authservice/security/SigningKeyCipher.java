@@ -0,0 +1,85 @@
+package com.aitsaid.authservice.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Chiffrement AES-256-GCM des clés privées de signature stockées en base, avec la clé maître
+ * {@code jwt.signing.master-key} (32 octets en Base64, fournie par le gestionnaire de secrets).
+ * <p>
+ * Le {@code kid} sert de donnée authentifiée : une clé chiffrée recopiée sur une autre ligne est refusée.
+ * Format stocké : {@code v1:} suivi de Base64(IV || texte chiffré || tag).
+ */
+@Component
+public class SigningKeyCipher {
+
+    public static final String PREFIX = "v1:";
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+    private static final int KEY_BYTES = 32;
+
+    private final SecretKey masterKey;
+    private final SecureRandom random = new SecureRandom();
+
+    public SigningKeyCipher(@Value("${jwt.signing.master-key:}") String masterKey) {
+        byte[] keyBytes;
+        try {
+            keyBytes = Base64.getDecoder().decode(masterKey == null ? "" : masterKey.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("JWT signing master key must be Base64 encoded", e);
+        }
+        if (keyBytes.length != KEY_BYTES) {
+            throw new IllegalStateException("JWT signing master key must be 256 bits (32 bytes). Current length=" + keyBytes.length);
+        }
+        this.masterKey = new SecretKeySpec(keyBytes, "AES");
+    }
+
+    public String encrypt(String kid, byte[] privateKey) {
+        try {
+            byte[] iv = new byte[IV_BYTES];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, masterKey, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] sealed = cipher.doFinal(privateKey);
+            return PREFIX + Base64.getEncoder().encodeToString(
+                    ByteBuffer.allocate(iv.length + sealed.length).put(iv).put(sealed).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Signing key encryption failed", e);
+        }
+    }
+
+    /**
+     * @return la clé privée encodée PKCS#8 ; une valeur sans préfixe est une ligne antérieure au
+     * chiffrement, encore en Base64 clair, en attendant sa réécriture au démarrage
+     */
+    public byte[] decrypt(String kid, String stored) {
+        if (!isEncrypted(stored)) {
+            return Base64.getDecoder().decode(stored);
+        }
+        try {
+            byte[] data = Base64.getDecoder().decode(stored.substring(PREFIX.length()));
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, masterKey, new GCMParameterSpec(TAG_BITS, data, 0, IV_BYTES));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            return cipher.doFinal(data, IV_BYTES, data.length - IV_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Signing key " + kid + " cannot be decrypted with the configured master key", e);
+        }
+    }
+
+    public boolean isEncrypted(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+}
@@ -0,0 +1,174 @@
+package com.aitsaid.authservice.security;
+
+import com.aitsaid.authservice.entities.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache court des profils utilisateurs servant de principal, indexé par email (sujet du JWT).
+ * <p>
+ * Les entrées sont des copies détachées (sans mot de passe ni relations), bornées à
+ * {@code auth.principal-cache.max-size} et expirées après {@code auth.principal-cache.ttl-ms}.
+ * Les écritures sur un utilisateur invalident son entrée ; la suppression ou la désactivation
+ * invalide aussi les sessions ouvertes, dont les tokens resteraient sinon acceptés jusqu'à leur
+ * expiration en mode sans état. Ces invalidations sont partagées entre instances par le journal
+ * {@code user_changes} (voir {@code UserChangeService#syncSessionInvalidations()}).
+ * <p>
+ * Dans une transaction, l'invalidation attend le commit : avant, une lecture concurrente ne voit que l'ancienne
+ * ligne et la remettrait en cache. Une lecture commencée avant une invalidation n'est pas mise en cache
+ * (voir {@link #generation()}).
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final Cache<String, User> entries;
+    // Email courant de chaque utilisateur en cache : invalidation par id sans parcourir les entrées
+    private final Cache<Long, String> emailsById;
+    private final Cache<Long, Instant> invalidatedSessions;
+    // Incrémenté à chaque invalidation appliquée
+    private final AtomicLong generation = new AtomicLong();
+
+    public UserPrincipalCache(@Value("${auth.principal-cache.ttl-ms:60000}") long ttlMs,
+                              @Value("${auth.principal-cache.max-size:10000}") int maxSize,
+                              @Value("${jwt.expiration}") long tokenLifetimeMs) {
+        this.entries = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .maximumSize(maxSize)
+                .build();
+        this.emailsById = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .maximumSize(maxSize)
+                .build();
+        // Au-delà de la durée de vie d'un token, plus aucun token concerné n'est valide
+        this.invalidatedSessions = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(tokenLifetimeMs))
+                .build();
+    }
+
+    public User get(String email) {
+        return email == null ? null : entries.getIfPresent(email);
+    }
+
+    public void put(User user) {
+        put(user, generation());
+    }
+
+    /**
+     * Met en cache un utilisateur lu en base, sauf si une invalidation a eu lieu depuis {@code readGeneration}
+     * (valeur de {@link #generation()} relevée avant la lecture) : la ligne lue est peut-être déjà périmée.
+     */
+    public void put(User user, long readGeneration) {
+        if (user == null || user.getEmail() == null) {
+            return;
+        }
+        synchronized (generation) {
+            if (generation.get() != readGeneration) {
+                return;
+            }
+            entries.put(user.getEmail(), snapshot(user));
+            if (user.getId() != null) {
+                emailsById.put(user.getId(), user.getEmail());
+            }
+        }
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        afterCommit(() -> evict(userId));
+    }
+
+    private void evict(Long userId) {
+        synchronized (generation) {
+            generation.incrementAndGet();
+        }
+        String email = emailsById.getIfPresent(userId);
+        emailsById.invalidate(userId);
+        if (email != null) {
+            entries.invalidate(email);
+        }
+    }
+
+    /**
+     * Refuse désormais les tokens de cet utilisateur émis avant maintenant.
+     */
+    public void invalidateSessions(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        // Instant du commit : un token émis pendant la transaction l'a été sur l'ancien état
+        afterCommit(() -> applySessionInvalidation(userId, Instant.now()));
+    }
+
+    /**
+     * Refuse les tokens de cet utilisateur émis avant {@code since} ; appelé aussi pour les
+     * invalidations faites par une autre instance.
+     */
+    public void invalidateSessions(Long userId, Instant since) {
+        if (userId == null || since == null) {
+            return;
+        }
+        afterCommit(() -> applySessionInvalidation(userId, since));
+    }
+
+    private void applySessionInvalidation(Long userId, Instant since) {
+        invalidatedSessions.asMap().merge(userId, since, (current, next) -> next.isAfter(current) ? next : current);
+        evict(userId);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public boolean isSessionInvalidated(Long userId, Date issuedAt) {
+        Instant since = userId == null ? null : invalidatedSessions.getIfPresent(userId);
+        if (since == null) {
+            return false;
+        }
+        // iat est à la seconde : un token émis dans la même seconde est aussi refusé
+        return issuedAt == null || issuedAt.toInstant().getEpochSecond() <= since.getEpochSecond();
+    }
+
+    long size() {
+        entries.cleanUp();
+        return entries.estimatedSize();
+    }
+
+    private static User snapshot(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setFirstName(user.getFirstName());
+        copy.setLastName(user.getLastName());
+        copy.setCin(user.getCin());
+        copy.setEmail(user.getEmail());
+        copy.setPhoneNumber(user.getPhoneNumber());
+        copy.setAddress(user.getAddress());
+        copy.setRole(user.getRole());
+        copy.setCreatedAt(user.getCreatedAt());
+        copy.setEnabled(user.isEnabled());
+        return copy;
+    }
+}
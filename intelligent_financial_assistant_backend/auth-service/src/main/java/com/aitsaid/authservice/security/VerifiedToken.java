@@ -0,0 +1,65 @@
+package com.aitsaid.authservice.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * JWT dont la signature et l'expiration ont été vérifiées une seule fois pour la requête.
+ * <p>
+ * Le filtre l'expose en attribut de requête ({@link #REQUEST_ATTRIBUTE}) : les contrôles
+ * suivants lisent les claims ici au lieu de re-parser le token.
+ */
+public final class VerifiedToken {
+
+    public static final String REQUEST_ATTRIBUTE = VerifiedToken.class.getName();
+
+    private final String token;
+    private final Claims claims;
+
+    public VerifiedToken(String token, Claims claims) {
+        this.token = token;
+        this.claims = claims;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public Claims getClaims() {
+        return claims;
+    }
+
+    public String getSubject() {
+        return claims.getSubject();
+    }
+
+    public Date getIssuedAt() {
+        return claims.getIssuedAt();
+    }
+
+    public Date getExpiration() {
+        return claims.getExpiration();
+    }
+
+    public Long getUserId() {
+        Object userId = claims.get("userId");
+        return userId instanceof Number number ? number.longValue() : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<String> getRoles() {
+        Object roles = claims.get("roles");
+        if (roles instanceof List<?>) {
+            return (List<String>) roles;
+        }
+        Object role = claims.get("role");
+        return role != null ? List.of(role.toString()) : List.of();
+    }
+
+    public boolean isExpired() {
+        Date expiration = getExpiration();
+        return expiration != null && expiration.before(new Date());
+    }
+}
@@ -2,17 +2,17 @@ package com.aitsaid.authservice.service;
 
 import com.aitsaid.authservice.clients.AccountRestClient;
 import com.aitsaid.authservice.dtos.BankAccountRequestDTO;
-import com.aitsaid.authservice.dtos.LoginResponse;
-import com.aitsaid.authservice.dtos.RegisterResponse;
 import com.aitsaid.authservice.dtos.LoginRequest;
+import com.aitsaid.authservice.dtos.LoginResponse;
 import com.aitsaid.authservice.dtos.RegisterRequest;
-import com.aitsaid.authservice.entities.TokenBlockList;
+import com.aitsaid.authservice.dtos.RegisterResponse;
 import com.aitsaid.authservice.entities.User;
 import com.aitsaid.authservice.exceptions.*;
 import com.aitsaid.authservice.mappers.UserMapper;
-import com.aitsaid.authservice.repositories.TokenBlockListRepository;
 import com.aitsaid.authservice.repositories.UserRepository;
 import com.aitsaid.authservice.security.JwtUtil;
+import com.aitsaid.authservice.security.VerifiedToken;
+import com.aitsaid.commoncore.cache.AggregateCache;
 
 import java.time.LocalDate;
 
@@ -33,24 +33,27 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class AuthService {
     private final UserRepository userRepository;
-    private final TokenBlockListRepository tokenBlockListRepository;
+    private final TokenRevocationService tokenRevocationService;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
     private final AccountRestClient accountRestClient;
+    private final AggregateCache aggregateCache;
 
     public AuthService(UserRepository userRepository,
-                       TokenBlockListRepository tokenBlockListRepository,
+                       TokenRevocationService tokenRevocationService,
                        PasswordEncoder passwordEncoder,
                        AuthenticationManager authenticationManager,
                        JwtUtil jwtUtil,
-                       AccountRestClient accountRestClient) {
+                       AccountRestClient accountRestClient,
+                       AggregateCache aggregateCache) {
         this.userRepository = userRepository;
-        this.tokenBlockListRepository = tokenBlockListRepository;
+        this.tokenRevocationService = tokenRevocationService;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
         this.accountRestClient = accountRestClient;
+        this.aggregateCache = aggregateCache;
     }
 
     public RegisterResponse register(RegisterRequest request) {
@@ -64,6 +67,7 @@ public class AuthService {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
 
         User savedUser = userRepository.save(user);
+        aggregateCache.invalidate(UserService.COUNT_CACHE_KEY);
 
         BankAccountRequestDTO accountDTO = new BankAccountRequestDTO();
         accountDTO.setUserId(savedUser.getId());
@@ -110,7 +114,8 @@ public class AuthService {
                 throw new InvalidTokenException("Token cannot be empty");
             }
 
-            if (!jwtUtil.isTokenValid(token)) {
+            VerifiedToken verified = jwtUtil.verify(token);
+            if (verified == null) {
                 throw new InvalidTokenException("Invalid or expired token");
             }
 
@@ -118,15 +123,10 @@ public class AuthService {
                 throw new InvalidTokenException("Token is already invalidated");
             }
 
-            String username = jwtUtil.extractUsername(token);
-            User user = userRepository.findByEmail(username)
+            User user = userRepository.findByEmail(verified.getSubject())
                     .orElseThrow(() -> new UserNotFoundException("User not found"));
 
-            TokenBlockList blockedToken = new TokenBlockList();
-            blockedToken.setToken(token);
-            blockedToken.setUser(user);
-
-            tokenBlockListRepository.save(blockedToken);
+            tokenRevocationService.revoke(token, user, verified.getExpiration());
 
             SecurityContextHolder.clearContext();
 
@@ -148,7 +148,7 @@ public class AuthService {
     }
 
     public boolean isTokenBlocked(String token) {
-        return tokenBlockListRepository.existsByToken(token);
+        return tokenRevocationService.isRevoked(token);
     }
 
     public boolean validateToken(String token) {
@@ -165,8 +165,9 @@ public class AuthService {
                 return false;
             }
 
-            // Vérifier si le token est valide
-            if (!jwtUtil.isTokenValid(token)) {
+            // Vérifier si le token est valide (un seul parsing)
+            VerifiedToken verified = jwtUtil.verify(token);
+            if (verified == null) {
                 return false;
             }
 
@@ -176,8 +177,7 @@ public class AuthService {
             }
 
             // Vérifier si l'utilisateur existe
-            String username = jwtUtil.extractUsername(token);
-            return userRepository.findByEmail(username).isPresent();
+            return userRepository.findByEmail(verified.getSubject()).isPresent();
 
         } catch (Exception e) {
             return false;
@@ -0,0 +1,56 @@
+package com.aitsaid.authservice.service;
+
+import com.aitsaid.authservice.dtos.ServiceTokenRequest;
+import com.aitsaid.authservice.dtos.ServiceTokenResponse;
+import com.aitsaid.authservice.exceptions.InvalidCredentialsException;
+import com.aitsaid.authservice.security.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.regex.Pattern;
+
+/**
+ * Tokens de service (client credentials) pour les appels d'un microservice sans utilisateur derrière,
+ * comme le règlement des transactions par l'outbox.
+ * <p>
+ * Chaque client est déclaré par {@code service-clients.<clientId>.secret} (gestionnaire de secrets) ;
+ * un client sans secret configuré est refusé. Le token porte {@link JwtUtil#SERVICE_ROLE} et expire
+ * après {@code service-clients.token-ttl-ms}.
+ */
+@Service
+public class ServiceTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceTokenService.class);
+    private static final Pattern CLIENT_ID = Pattern.compile("[a-z0-9-]{1,64}");
+
+    private final Environment environment;
+    private final JwtUtil jwtUtil;
+    private final long tokenTtlMs;
+
+    public ServiceTokenService(Environment environment,
+                               JwtUtil jwtUtil,
+                               @Value("${service-clients.token-ttl-ms:300000}") long tokenTtlMs) {
+        this.environment = environment;
+        this.jwtUtil = jwtUtil;
+        this.tokenTtlMs = tokenTtlMs;
+    }
+
+    public ServiceTokenResponse issue(ServiceTokenRequest request) {
+        String clientId = request.getClientId();
+        String expected = clientId != null && CLIENT_ID.matcher(clientId).matches()
+                ? environment.getProperty("service-clients." + clientId + ".secret")
+                : null;
+        if (expected == null || expected.isBlank() || request.getClientSecret() == null
+                || !MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+                request.getClientSecret().getBytes(StandardCharsets.UTF_8))) {
+            log.warn("Service token refused for client: {}", clientId);
+            throw new InvalidCredentialsException("Invalid client credentials");
+        }
+        return new ServiceTokenResponse(jwtUtil.generateServiceToken(clientId, tokenTtlMs), tokenTtlMs);
+    }
+}
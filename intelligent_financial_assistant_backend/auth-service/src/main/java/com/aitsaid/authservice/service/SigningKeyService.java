@@ -0,0 +1,198 @@
+package com.aitsaid.authservice.service;
+
+import com.aitsaid.authservice.entities.SigningKey;
+import com.aitsaid.authservice.repositories.SigningKeyRepository;
+import com.aitsaid.commoncore.jwks.Jwks;
+import com.aitsaid.authservice.security.SigningKeyCipher;
+import com.aitsaid.commoncore.revocation.TokenDigests;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Clés RSA de signature des JWT, avec rotation.
+ * <p>
+ * La clé la plus récente signe ; les précédentes restent publiées dans le JWKS tant qu'un
+ * token signé avec elles peut être encore valide (intervalle de rotation + durée de vie d'un token).
+ * Les clés sont stockées en base afin que toutes les instances partagent le même jeu, la clé privée
+ * chiffrée par {@link SigningKeyCipher} ; chaque instance relit la table périodiquement et à la
+ * rencontre d'un {@code kid} inconnu.
+ */
+@Service
+public class SigningKeyService {
+
+    private static final Logger log = LoggerFactory.getLogger(SigningKeyService.class);
+    private static final long MIN_RELOAD_INTERVAL_MS = 5_000;
+
+    private final SigningKeyRepository signingKeyRepository;
+    private final SigningKeyCipher cipher;
+    private final long rotationIntervalMs;
+    private final long tokenLifetimeMs;
+    private final int keySize;
+
+    // Plus récente en premier
+    private volatile List<ActiveKey> keys = List.of();
+    private volatile long lastReload;
+
+    public SigningKeyService(SigningKeyRepository signingKeyRepository,
+                             SigningKeyCipher cipher,
+                             @Value("${jwt.signing.rotation-interval-ms:604800000}") long rotationIntervalMs,
+                             @Value("${jwt.expiration}") long tokenLifetimeMs,
+                             @Value("${jwt.signing.key-size:2048}") int keySize) {
+        if (keySize < 2048) {
+            // RS256 exige des clés d'au moins 2048 bits (RFC 7518 §3.3)
+            throw new IllegalStateException("JWT signing key size must be at least 2048 bits. Current size=" + keySize);
+        }
+        this.signingKeyRepository = signingKeyRepository;
+        this.cipher = cipher;
+        this.rotationIntervalMs = rotationIntervalMs;
+        this.tokenLifetimeMs = tokenLifetimeMs;
+        this.keySize = keySize;
+    }
+
+    /**
+     * Clé de signature courante ; en crée une si aucune n'est encore valide.
+     */
+    public ActiveKey current() {
+        List<ActiveKey> snapshot = keys;
+        if (snapshot.isEmpty() || isDue(snapshot.get(0))) {
+            rotateIfDue();
+            snapshot = keys;
+        }
+        return snapshot.get(0);
+    }
+
+    /**
+     * Clé publique pour ce {@code kid}, ou {@code null} si inconnue même après relecture de la base.
+     */
+    public RSAPublicKey publicKey(String kid) {
+        RSAPublicKey key = find(kid);
+        if (key == null && System.currentTimeMillis() - lastReload >= MIN_RELOAD_INTERVAL_MS) {
+            // Rotation faite par une autre instance
+            reload();
+            key = find(kid);
+        }
+        return key;
+    }
+
+    /**
+     * Jeu de clés publiques au format JWKS.
+     */
+    public Map<String, Object> jwks() {
+        if (keys.isEmpty()) {
+            current();
+        }
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        for (ActiveKey key : keys) {
+            jwks.add(Jwks.toJwk(key.kid(), key.publicKey()));
+        }
+        return Map.of("keys", jwks);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.signing.refresh-interval-ms:60000}",
+            initialDelayString = "${jwt.signing.refresh-interval-ms:60000}")
+    public void refresh() {
+        try {
+            rotateIfDue();
+        } catch (Exception e) {
+            log.warn("Signing key refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Relit la base puis, si la clé la plus récente a dépassé l'intervalle de rotation,
+     * en génère une nouvelle et supprime celles qui ne peuvent plus vérifier aucun token.
+     */
+    public synchronized void rotateIfDue() {
+        reload();
+        if (!keys.isEmpty() && !isDue(keys.get(0))) {
+            return;
+        }
+
+        KeyPair pair = generate();
+        RSAPublicKey publicKey = (RSAPublicKey) pair.getPublic();
+        String encodedPublic = Base64.getEncoder().encodeToString(publicKey.getEncoded());
+
+        SigningKey entity = new SigningKey();
+        entity.setKid(TokenDigests.sha256Hex(encodedPublic).substring(0, 32));
+        entity.setPublicKey(encodedPublic);
+        entity.setPrivateKey(cipher.encrypt(entity.getKid(), pair.getPrivate().getEncoded()));
+        entity.setCreatedAt(LocalDateTime.now());
+        signingKeyRepository.save(entity);
+
+        long purged = signingKeyRepository.deleteByCreatedAtBefore(retentionCutoff());
+        reload();
+        log.info("Rotated JWT signing key, kid={} ({} retired key(s) purged)", entity.getKid(), purged);
+    }
+
+    private synchronized void reload() {
+        List<ActiveKey> loaded = new ArrayList<>();
+        for (SigningKey row : signingKeyRepository.findByCreatedAtAfterOrderByCreatedAtDesc(retentionCutoff())) {
+            loaded.add(decode(row));
+        }
+        keys = List.copyOf(loaded);
+        lastReload = System.currentTimeMillis();
+    }
+
+    private RSAPublicKey find(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        for (ActiveKey key : keys) {
+            if (key.kid().equals(kid)) {
+                return key.publicKey();
+            }
+        }
+        return null;
+    }
+
+    private boolean isDue(ActiveKey key) {
+        return key.createdAt().plusNanos(rotationIntervalMs * 1_000_000).isBefore(LocalDateTime.now());
+    }
+
+    private LocalDateTime retentionCutoff() {
+        return LocalDateTime.now().minusNanos((rotationIntervalMs + tokenLifetimeMs) * 1_000_000);
+    }
+
+    private KeyPair generate() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(keySize);
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("RSA key generation unavailable", e);
+        }
+    }
+
+    private ActiveKey decode(SigningKey row) {
+        try {
+            KeyFactory factory = KeyFactory.getInstance("RSA");
+            RSAPublicKey publicKey = (RSAPublicKey) factory.generatePublic(
+                    new X509EncodedKeySpec(Base64.getDecoder().decode(row.getPublicKey())));
+            PrivateKey privateKey = factory.generatePrivate(
+                    new PKCS8EncodedKeySpec(cipher.decrypt(row.getKid(), row.getPrivateKey())));
+            return new ActiveKey(row.getKid(), row.getCreatedAt(), publicKey, privateKey);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid signing key " + row.getKid(), e);
+        }
+    }
+
+    public record ActiveKey(String kid, LocalDateTime createdAt, RSAPublicKey publicKey, PrivateKey privateKey) {
+    }
+}
@@ -0,0 +1,208 @@
+package com.aitsaid.authservice.service;
+
+import com.aitsaid.authservice.dtos.RevocationEntry;
+import com.aitsaid.authservice.dtos.RevocationFeedResponse;
+import com.aitsaid.authservice.entities.TokenBlockList;
+import com.aitsaid.authservice.entities.User;
+import com.aitsaid.authservice.repositories.TokenBlockListRepository;
+import com.aitsaid.commoncore.revocation.RevocationBloomFilter;
+import com.aitsaid.commoncore.revocation.RevocationCursor;
+import com.aitsaid.commoncore.revocation.TokenDigests;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Révocation des tokens : la blocklist reste la source de vérité en base, un filtre de Bloom
+ * en mémoire évite la requête SQL pour les tokens non révoqués (cas nominal), et le flux
+ * {@link #getChanges(long, int)} diffuse les empreintes au gateway et aux microservices.
+ * <p>
+ * Le filtre est resynchronisé périodiquement depuis la base (autres instances d'auth-service)
+ * et reconstruit entièrement à intervalle plus long. Les entrées dont le JWT a expiré sont
+ * purgées par lots : la table reste proportionnelle aux sessions actives.
+ *
+ * @author radouane
+ **/
+@Service
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+    private static final int PAGE_SIZE = 1000;
+    // Délai maximal entre l'attribution d'un identifiant de révocation et son commit
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final TokenBlockListRepository tokenBlockListRepository;
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+    private final long tokenLifetimeMs;
+    private final int purgeBatchSize;
+
+    private volatile RevocationBloomFilter filter;
+    private final RevocationCursor cursor = new RevocationCursor(SYNC_OVERLAP);
+
+    public TokenRevocationService(TokenBlockListRepository tokenBlockListRepository,
+                                  @Value("${revocation.bloom.expected-insertions:100000}") int expectedInsertions,
+                                  @Value("${revocation.bloom.false-positive-rate:0.01}") double falsePositiveRate,
+                                  @Value("${jwt.expiration}") long tokenLifetimeMs,
+                                  @Value("${revocation.purge-batch-size:1000}") int purgeBatchSize) {
+        this.tokenBlockListRepository = tokenBlockListRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.tokenLifetimeMs = tokenLifetimeMs;
+        this.purgeBatchSize = purgeBatchSize;
+        this.filter = new RevocationBloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    /**
+     * Enregistre la révocation en base puis l'ajoute au filtre local une fois la transaction validée :
+     * un rollback ne laisse pas d'empreinte orpheline dans le filtre.
+     *
+     * @param expiration claim {@code exp} du token ; à défaut, durée de vie maximale d'un token
+     */
+    public void revoke(String token, User user, Date expiration) {
+        String digest = TokenDigests.sha256Hex(token);
+        LocalDateTime expiresAt = expiration != null
+                ? LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault())
+                : LocalDateTime.now().plus(Duration.ofMillis(tokenLifetimeMs));
+
+        TokenBlockList blockedToken = new TokenBlockList();
+        blockedToken.setTokenHash(digest);
+        blockedToken.setExpiresAt(expiresAt);
+        blockedToken.setUser(user);
+        tokenBlockListRepository.save(blockedToken);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    filter.put(digest);
+                }
+            });
+        } else {
+            filter.put(digest);
+        }
+    }
+
+    /**
+     * Négatif du filtre : aucun accès base. Positif : confirmation exacte par empreinte.
+     */
+    public boolean isRevoked(String token) {
+        byte[] digest = TokenDigests.sha256(token);
+        if (!filter.mightContain(digest)) {
+            return false;
+        }
+        return tokenBlockListRepository.existsByTokenHash(TokenDigests.sha256Hex(token));
+    }
+
+    /**
+     * Vérification exacte par empreinte, appelée par les services distants après un positif de leur filtre.
+     */
+    public boolean isRevokedDigest(String digest) {
+        if (!filter.mightContain(digest)) {
+            return false;
+        }
+        return tokenBlockListRepository.existsByTokenHash(digest);
+    }
+
+    public RevocationFeedResponse getChanges(long since, int limit) {
+        int size = Math.min(Math.max(limit, 1), PAGE_SIZE);
+        // Une ligne de plus pour savoir s'il reste des entrées
+        List<TokenBlockList> rows = tokenBlockListRepository
+                .findByIdGreaterThanOrderByIdAsc(since, PageRequest.of(0, size + 1));
+
+        boolean hasMore = rows.size() > size;
+        List<TokenBlockList> page = hasMore ? rows.subList(0, size) : rows;
+        List<RevocationEntry> entries = page.stream()
+                .filter(row -> row.getTokenHash() != null)
+                .map(row -> new RevocationEntry(row.getId(), row.getTokenHash()))
+                .toList();
+        long next = page.isEmpty() ? since : page.get(page.size() - 1).getId();
+        return new RevocationFeedResponse(entries, next, hasMore);
+    }
+
+    /**
+     * Intègre les révocations écrites depuis le dernier passage (y compris par d'autres instances),
+     * relues avec une fenêtre de recouvrement.
+     */
+    @Scheduled(fixedDelayString = "${revocation.sync-interval-ms:5000}",
+            initialDelayString = "${revocation.sync-interval-ms:5000}")
+    public synchronized void sync() {
+        try {
+            cursor.advance(load(filter, cursor.from()));
+        } catch (Exception e) {
+            log.warn("Revocation filter sync failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reconstruit le filtre depuis zéro : un filtre de Bloom ne supporte pas la suppression,
+     * la reconstruction le redimensionne et comble un éventuel trou de séquence.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${revocation.rebuild-interval-ms:600000}",
+            initialDelayString = "${revocation.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        try {
+            RevocationBloomFilter fresh = new RevocationBloomFilter(
+                    Math.max(expectedInsertions, filter.insertions() * 2), falsePositiveRate);
+            long last = load(fresh, 0L);
+            filter = fresh;
+            cursor.advance(last);
+            log.info("Revocation filter rebuilt with {} entries", fresh.insertions());
+        } catch (Exception e) {
+            log.warn("Revocation filter rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    private long load(RevocationBloomFilter target, long from) {
+        long last = from;
+        List<TokenBlockList> page;
+        do {
+            page = tokenBlockListRepository.findByIdGreaterThanOrderByIdAsc(last, PageRequest.of(0, PAGE_SIZE));
+            for (TokenBlockList row : page) {
+                // Lignes historiques pas encore migrées : ignorées jusqu'à leur empreinte
+                if (row.getTokenHash() != null) {
+                    target.put(row.getTokenHash());
+                }
+                last = row.getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+        return last;
+    }
+
+    /**
+     * Supprime par lots les révocations dont le JWT a expiré ; chaque lot est une transaction courte.
+     */
+    @Scheduled(fixedDelayString = "${revocation.purge-interval-ms:3600000}",
+            initialDelayString = "${revocation.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        try {
+            do {
+                deleted = tokenBlockListRepository.deleteExpiredBatch(now, purgeBatchSize);
+                total += deleted;
+            } while (deleted == purgeBatchSize);
+        } catch (Exception e) {
+            log.warn("Revocation purge failed after {} rows: {}", total, e.getMessage());
+            return;
+        }
+        if (total > 0) {
+            log.info("Purged {} expired revocations", total);
+        }
+    }
+}
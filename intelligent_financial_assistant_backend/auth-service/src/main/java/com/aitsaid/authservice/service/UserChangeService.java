@@ -0,0 +1,138 @@
+package com.aitsaid.authservice.service;
+
+import com.aitsaid.authservice.dtos.UserChangeEntry;
+import com.aitsaid.authservice.dtos.UserChangeFeedResponse;
+import com.aitsaid.authservice.entities.UserChange;
+import com.aitsaid.authservice.repositories.UserChangeRepository;
+import com.aitsaid.authservice.security.UserPrincipalCache;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Journal des modifications d'utilisateurs : chaque mise à jour ou suppression ajoute une entrée dans la
+ * transaction de l'écriture, et {@link #getChanges(long, int)} la diffuse aux near-caches des autres
+ * services, qui retirent alors le profil concerné.
+ * <p>
+ * Le journal ne sert qu'à l'invalidation : les entrées plus anciennes que {@code users.changes.retention-ms}
+ * sont purgées par lots. Une entrée validée après une entrée plus récente peut échapper à un consommateur ;
+ * le TTL des near-caches borne ce cas.
+ * <p>
+ * Les invalidations de sessions (suppression, désactivation, changement d'email) passent aussi par ce
+ * journal : chaque instance les relit toutes les {@code users.sessions.sync-interval-ms} pour refuser les
+ * tokens concernés, et les conserve au moins la durée de vie d'un token.
+ */
+@Service
+public class UserChangeService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserChangeService.class);
+    private static final int PAGE_SIZE = 1000;
+    // Relecture chevauchante : une invalidation validée après le passage précédent n'est pas manquée
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final UserChangeRepository userChangeRepository;
+    private final UserPrincipalCache principalCache;
+    private final long retentionMs;
+    private final int purgeBatchSize;
+    private final long tokenLifetimeMs;
+
+    private volatile LocalDateTime sessionsSyncedAt;
+
+    public UserChangeService(UserChangeRepository userChangeRepository,
+                             UserPrincipalCache principalCache,
+                             @Value("${users.changes.retention-ms:86400000}") long retentionMs,
+                             @Value("${users.changes.purge-batch-size:1000}") int purgeBatchSize,
+                             @Value("${jwt.expiration}") long tokenLifetimeMs) {
+        this.userChangeRepository = userChangeRepository;
+        this.principalCache = principalCache;
+        // Une invalidation de sessions doit survivre aux tokens qu'elle refuse
+        this.retentionMs = Math.max(retentionMs, tokenLifetimeMs);
+        this.purgeBatchSize = purgeBatchSize;
+        this.tokenLifetimeMs = tokenLifetimeMs;
+    }
+
+    public void record(Long userId) {
+        userChangeRepository.save(new UserChange(userId));
+    }
+
+    /**
+     * Comme {@link #record(Long)}, en marquant les tokens déjà émis comme invalides pour toutes les instances.
+     */
+    public void recordSessionInvalidation(Long userId) {
+        userChangeRepository.save(new UserChange(userId, true));
+    }
+
+    /**
+     * Charge les invalidations encore utiles avant que l'instance ne reçoive du trafic.
+     */
+    @PostConstruct
+    void loadSessionInvalidations() {
+        syncSessionInvalidations();
+    }
+
+    /**
+     * Applique au cache local les invalidations de sessions écrites depuis le dernier passage,
+     * y compris par d'autres instances.
+     */
+    @Scheduled(fixedDelayString = "${users.sessions.sync-interval-ms:5000}",
+            initialDelayString = "${users.sessions.sync-interval-ms:5000}")
+    public synchronized void syncSessionInvalidations() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime since = sessionsSyncedAt == null
+                ? startedAt.minus(Duration.ofMillis(tokenLifetimeMs))
+                : sessionsSyncedAt.minus(SYNC_OVERLAP);
+        try {
+            for (UserChange change : userChangeRepository.findBySessionsInvalidatedTrueAndChangedAtAfterOrderByIdAsc(since)) {
+                principalCache.invalidateSessions(change.getUserId(),
+                        change.getChangedAt().atZone(ZoneId.systemDefault()).toInstant());
+            }
+            sessionsSyncedAt = startedAt;
+        } catch (Exception e) {
+            log.warn("Session invalidation sync failed: {}", e.getMessage());
+        }
+    }
+
+    public UserChangeFeedResponse getChanges(long since, int limit) {
+        int size = Math.min(Math.max(limit, 1), PAGE_SIZE);
+        // Une ligne de plus pour savoir s'il reste des entrées
+        List<UserChange> rows = userChangeRepository
+                .findByIdGreaterThanOrderByIdAsc(since, PageRequest.of(0, size + 1));
+
+        boolean hasMore = rows.size() > size;
+        List<UserChange> page = hasMore ? rows.subList(0, size) : rows;
+        List<UserChangeEntry> entries = page.stream()
+                .map(row -> new UserChangeEntry(row.getId(), row.getUserId()))
+                .toList();
+        long next = page.isEmpty() ? since : page.get(page.size() - 1).getId();
+        return new UserChangeFeedResponse(entries, next, hasMore);
+    }
+
+    @Scheduled(fixedDelayString = "${users.changes.purge-interval-ms:3600000}",
+            initialDelayString = "${users.changes.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime before = LocalDateTime.now().minus(Duration.ofMillis(retentionMs));
+        int total = 0;
+        int deleted;
+        try {
+            do {
+                deleted = userChangeRepository.deleteOlderBatch(before, purgeBatchSize);
+                total += deleted;
+            } while (deleted == purgeBatchSize);
+        } catch (Exception e) {
+            log.warn("User change purge failed after {} rows: {}", total, e.getMessage());
+            return;
+        }
+        if (total > 0) {
+            log.info("Purged {} user changes", total);
+        }
+    }
+}
@@ -2,7 +2,11 @@ package com.aitsaid.authservice.service;
 
 import com.aitsaid.authservice.dtos.UpdateProfileRequest;
 import com.aitsaid.authservice.dtos.UpdateUserRequest;
+import com.aitsaid.authservice.dtos.UserCursor;
 import com.aitsaid.authservice.dtos.UserDetails;
+import com.aitsaid.authservice.dtos.UserSearchFilter;
+import com.aitsaid.authservice.dtos.UserSearchPage;
+import com.aitsaid.authservice.dtos.UserSummary;
 import com.aitsaid.authservice.entities.Role;
 import com.aitsaid.authservice.entities.User;
 import com.aitsaid.authservice.exceptions.CinAlreadyExistsException;
@@ -10,9 +14,14 @@ import com.aitsaid.authservice.exceptions.EmailAlreadyExistsException;
 import com.aitsaid.authservice.exceptions.UserNotFoundException;
 import com.aitsaid.authservice.mappers.UserMapper;
 import com.aitsaid.authservice.repositories.UserRepository;
+import com.aitsaid.authservice.security.UserPrincipalCache;
+import com.aitsaid.commoncore.cache.AggregateCache;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -22,22 +31,63 @@ import java.util.stream.Collectors;
 @Service
 @Transactional
 public class UserService {
+    /**
+     * Clé {@link AggregateCache} du nombre d'utilisateurs, invalidée à chaque création ou suppression.
+     */
+    public static final String COUNT_CACHE_KEY = "users.count";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_SUGGEST_LIMIT = 10;
+    private static final int MAX_SUGGEST_LIMIT = 50;
+
     private final UserRepository userRepository;
+    private final UserPrincipalCache principalCache;
+    private final AggregateCache aggregateCache;
+    private final UserChangeService userChangeService;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, UserPrincipalCache principalCache,
+                       AggregateCache aggregateCache, UserChangeService userChangeService) {
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.aggregateCache = aggregateCache;
+        this.userChangeService = userChangeService;
     }
 
+    @Transactional(readOnly = true)
     public List<UserDetails> getAllUsers() {
-        List<User> users = userRepository.findAllByRole(Role.ROLE_USER);
-
-        return users.stream()
-                .map(UserMapper::userToUserDetails)
+        return userRepository.findSummariesByRoleOrderByIdDesc(Role.ROLE_USER).stream()
+                .map(UserMapper::summaryToUserDetails)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Page de la recherche admin, du plus récent au plus ancien, reprise après {@code after} (null : première page).
+     */
+    @Transactional(readOnly = true)
+    public UserSearchPage searchUsers(UserSearchFilter filter, UserCursor after, Integer size) {
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        // Une ligne de plus pour savoir s'il reste une page, sans count(*)
+        List<UserSummary> rows = userRepository.searchAfter(Role.ROLE_USER, filter, after, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<UserSummary> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? new UserCursor(page.get(page.size() - 1).getId()).encode() : null;
+        return new UserSearchPage(page, nextCursor, hasMore);
+    }
+
+    /**
+     * Suggestion à la saisie pour l'admin : au plus {@code limit} utilisateurs, les plus pertinents en premier.
+     */
+    @Transactional(readOnly = true)
+    public List<UserSummary> suggestUsers(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        int size = limit == null || limit <= 0 ? DEFAULT_SUGGEST_LIMIT : Math.min(limit, MAX_SUGGEST_LIMIT);
+        return userRepository.suggest(Role.ROLE_USER, query, size);
+    }
+
     public long countUsers() {
-        return userRepository.countByRole(Role.ROLE_USER);
+        return aggregateCache.get(COUNT_CACHE_KEY, () -> userRepository.countByRole(Role.ROLE_USER));
     }
 
     public User updateUserProfile(Long userId, UpdateProfileRequest updateRequest) {
@@ -54,6 +104,8 @@ public class UserService {
             user.setPhoneNumber(updateRequest.getPhoneNumber());
         }
 
+        principalCache.invalidate(userId);
+        userChangeService.record(userId);
         return userRepository.save(user);
     }
 
@@ -61,6 +113,8 @@ public class UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("Utilisateur non trouvé"));
 
+        String previousEmail = user.getEmail();
+        boolean wasEnabled = user.isEnabled();
         if (updateRequest.getEmail() != null && !updateRequest.getEmail().equals(user.getEmail())) {
             if (Boolean.TRUE.equals(userRepository.existsByEmail(updateRequest.getEmail()))) {
                 throw new EmailAlreadyExistsException(updateRequest.getEmail());
@@ -77,6 +131,15 @@ public class UserService {
 
         UserMapper.updateUserFromRequest(updateRequest, user);
 
+        // Email modifié ou compte désactivé : les tokens déjà émis ne doivent plus être acceptés
+        // Near-caches des autres services et autres instances : invalidés par le flux /auth/user-changes
+        if ((wasEnabled && !user.isEnabled()) || !user.getEmail().equals(previousEmail)) {
+            principalCache.invalidateSessions(userId);
+            userChangeService.recordSessionInvalidation(userId);
+        } else {
+            principalCache.invalidate(userId);
+            userChangeService.record(userId);
+        }
         return userRepository.save(user);
     }
 
@@ -85,6 +148,38 @@ public class UserService {
             throw new UserNotFoundException("Utilisateur non trouvé");
         }
         userRepository.deleteById(userId);
+        principalCache.invalidateSessions(userId);
+        userChangeService.recordSessionInvalidation(userId);
+        aggregateCache.invalidate(COUNT_CACHE_KEY);
+    }
+
+    /**
+     * Profil de l'utilisateur courant, servi depuis le cache des principaux ;
+     * la base n'est lue qu'en cas d'absence ou d'expiration de l'entrée.
+     * Hors transaction : un succès du cache n'emprunte pas de connexion, le repository ouvre
+     * sa propre transaction en lecture seule sinon.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public UserDetails getProfile(User principal) {
+        User user = principalCache.get(principal.getEmail());
+        if (user == null) {
+            // Relevée avant la lecture : une modification validée entre-temps empêche la mise en cache
+            long generation = principalCache.generation();
+            user = userRepository.findById(principal.getId())
+                    .orElseThrow(() -> new UserNotFoundException("Utilisateur non trouvé"));
+            principalCache.put(user, generation);
+        }
+        return UserMapper.userToUserDetails(user);
+    }
+
+    /**
+     * Une seule requête {@code IN} pour tout le lot, doublons compris.
+     */
+    @Transactional(readOnly = true)
+    public List<UserDetails> getUsersByIds(Collection<Long> userIds) {
+        return userRepository.findAllById(new HashSet<>(userIds)).stream()
+                .map(UserMapper::userToUserDetails)
+                .toList();
     }
 
     public UserDetails getUserById(Long userId) {
@@ -54,8 +54,8 @@ class DataObjectsTest {
         assertEquals(1L, userDetails.getId());
 
         // TokenBlockList
-        TokenBlockList tokenBlockList = new TokenBlockList(1L, "token", LocalDateTime.now(), new User());
-        assertNotNull(tokenBlockList.getToken());
+        TokenBlockList tokenBlockList = new TokenBlockList(1L, "hash", LocalDateTime.now(), LocalDateTime.now(), new User());
+        assertNotNull(tokenBlockList.getTokenHash());
 
         // User
         User user = new User(1L, "John", "Doe", "CIN123", "test@test.com", "pass", "123", "addr", Role.ROLE_USER, LocalDateTime.now(), true, null);
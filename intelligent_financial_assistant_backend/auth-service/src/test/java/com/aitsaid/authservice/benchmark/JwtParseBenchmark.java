@@ -0,0 +1,104 @@
+package com.aitsaid.authservice.benchmark;
+
+import com.aitsaid.authservice.entities.Role;
+import com.aitsaid.authservice.entities.User;
+import com.aitsaid.authservice.security.JwtUtil;
+import com.aitsaid.authservice.security.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Débit de la vérification d'un JWT par requête : ancien chemin (parser reconstruit et token
+ * re-vérifié pour chaque contrôle) contre parsing unique via {@link JwtUtil#verify(String)}.
+ * <p>
+ * Non exécuté par surefire. Lancement : {@code mvn test-compile} puis la méthode {@code main}
+ * depuis l'IDE (classpath de test).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtParseBenchmark {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private JwtUtil jwtUtil;
+    private SecretKey key;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "cachedKey", new AtomicReference<>());
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+
+        user = new User();
+        user.setId(1L);
+        user.setEmail("bench@example.com");
+        user.setFirstName("Bench");
+        user.setLastName("Mark");
+        user.setRole(Role.ROLE_USER);
+        user.setEnabled(true);
+        token = jwtUtil.generateToken(user);
+    }
+
+    /**
+     * isTokenValid, extractUsername puis validateToken (username + expiration) :
+     * quatre parsings, chacun avec un nouveau parser.
+     */
+    @Benchmark
+    public void multiParse(Blackhole bh) {
+        bh.consume(legacyParse(token));
+        String username = legacyParse(token).getSubject();
+        boolean valid = username.equals(legacyParse(token).getSubject())
+                && !legacyParse(token).getExpiration().before(new Date());
+        bh.consume(valid);
+    }
+
+    @Benchmark
+    public void singleParse(Blackhole bh) {
+        VerifiedToken verified = jwtUtil.verify(token);
+        bh.consume(jwtUtil.validateToken(verified, user));
+    }
+
+    private Claims legacyParse(String jwt) {
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtParseBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
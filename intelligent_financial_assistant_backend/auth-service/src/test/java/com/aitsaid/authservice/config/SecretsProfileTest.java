@@ -0,0 +1,29 @@
+package com.aitsaid.authservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Profil {@code secrets}, actif par défaut : le fichier doit se lire et fournir les secrets attendus au démarrage.
+ */
+class SecretsProfileTest {
+
+    @Test
+    void secretsProfile_ParsesAndProvidesSigningAndClientSecrets() throws Exception {
+        List<PropertySource<?>> sources = new YamlPropertySourceLoader()
+                .load("secrets", new ClassPathResource("application-secrets.yml"));
+
+        assertEquals(1, sources.size());
+        PropertySource<?> secrets = sources.get(0);
+        assertNotNull(secrets.getProperty("jwt.secret"));
+        assertNotNull(secrets.getProperty("jwt.signing.master-key"));
+        assertNotNull(secrets.getProperty("service-clients.transactions-service.secret"));
+        assertNotNull(secrets.getProperty("db.password"));
+    }
+}
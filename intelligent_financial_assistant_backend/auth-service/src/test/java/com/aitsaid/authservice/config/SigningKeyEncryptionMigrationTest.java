@@ -0,0 +1,65 @@
+package com.aitsaid.authservice.config;
+
+import com.aitsaid.authservice.security.SigningKeyCipher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SigningKeyEncryptionMigrationTest {
+
+    private static final byte[] PRIVATE_KEY = "pkcs8-private-key".getBytes(StandardCharsets.UTF_8);
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private final SigningKeyCipher cipher = new SigningKeyCipher("k2TcbKgh6DLmSFfZM2h3iA+6XeskDXyc/etbbBMlzUE=");
+    private SigningKeyEncryptionMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE signing_keys (" +
+                "id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "kid VARCHAR(64) NOT NULL, " +
+                "public_key TEXT NOT NULL, " +
+                "private_key TEXT NOT NULL, " +
+                "created_at TIMESTAMP)");
+        migration = new SigningKeyEncryptionMigration(jdbcTemplate, cipher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void migrate_EncryptsClearRowsOnce() {
+        jdbcTemplate.update("INSERT INTO signing_keys (kid, public_key, private_key) VALUES (?, 'pub', ?)",
+                "kid-1", Base64.getEncoder().encodeToString(PRIVATE_KEY));
+        String alreadyEncrypted = cipher.encrypt("kid-2", PRIVATE_KEY);
+        jdbcTemplate.update("INSERT INTO signing_keys (kid, public_key, private_key) VALUES (?, 'pub', ?)",
+                "kid-2", alreadyEncrypted);
+
+        assertEquals(1, migration.migrate());
+
+        String migrated = jdbcTemplate.queryForObject(
+                "SELECT private_key FROM signing_keys WHERE kid = 'kid-1'", String.class);
+        assertTrue(cipher.isEncrypted(migrated));
+        assertArrayEquals(PRIVATE_KEY, cipher.decrypt("kid-1", migrated));
+        assertEquals(alreadyEncrypted, jdbcTemplate.queryForObject(
+                "SELECT private_key FROM signing_keys WHERE kid = 'kid-2'", String.class));
+        assertEquals(0, migration.migrate());
+    }
+}
@@ -0,0 +1,108 @@
+package com.aitsaid.authservice.config;
+
+import com.aitsaid.commoncore.revocation.TokenDigests;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBlockListMigrationTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private TokenBlockListMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        migration = new TokenBlockListMigration(jdbcTemplate, 86_400_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    private void createLegacyTable() {
+        // Schéma historique, complété par ddl-auto=update avec les nouvelles colonnes nullables
+        jdbcTemplate.execute("CREATE TABLE token_blocklist (" +
+                "id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "token TEXT NOT NULL UNIQUE, " +
+                "created_at TIMESTAMP, " +
+                "user_id BIGINT, " +
+                "token_hash CHAR(64), " +
+                "expires_at TIMESTAMP)");
+    }
+
+    private static String jwtWithExp(long epochSeconds) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = encoder.encodeToString(("{\"sub\":\"a@b.c\",\"exp\":" + epochSeconds + "}").getBytes(StandardCharsets.UTF_8));
+        return header + "." + payload + ".signature";
+    }
+
+    @Test
+    void migrate_ShouldBackfillDigestAndExpiryThenDropLegacyColumn() {
+        createLegacyTable();
+        long exp = Instant.now().plusSeconds(3600).getEpochSecond();
+        String token = jwtWithExp(exp);
+        jdbcTemplate.update("INSERT INTO token_blocklist (token, created_at) VALUES (?, ?)", token, Timestamp.valueOf(LocalDateTime.now()));
+
+        migration.migrate();
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM token_blocklist");
+        assertEquals(TokenDigests.sha256Hex(token), row.get("TOKEN_HASH"));
+        assertEquals(LocalDateTime.ofInstant(Instant.ofEpochSecond(exp), ZoneId.systemDefault()),
+                ((Timestamp) row.get("EXPIRES_AT")).toLocalDateTime());
+        assertFalse(row.containsKey("TOKEN"));
+    }
+
+    @Test
+    void migrate_UnreadableToken_ShouldFallBackToCreationPlusLifetime() {
+        createLegacyTable();
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 10, 0);
+        jdbcTemplate.update("INSERT INTO token_blocklist (token, created_at) VALUES (?, ?)", "not-a-jwt", Timestamp.valueOf(created));
+
+        migration.migrate();
+
+        Timestamp expiresAt = jdbcTemplate.queryForObject("SELECT expires_at FROM token_blocklist", Timestamp.class);
+        assertEquals(created.plusDays(1), expiresAt.toLocalDateTime());
+    }
+
+    @Test
+    void migrate_ShouldProcessMoreRowsThanOneBatch() {
+        createLegacyTable();
+        for (int i = 0; i < 1_200; i++) {
+            jdbcTemplate.update("INSERT INTO token_blocklist (token, created_at) VALUES (?, ?)", "token-" + i, Timestamp.valueOf(LocalDateTime.now()));
+        }
+
+        migration.migrate();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM token_blocklist WHERE token_hash IS NULL", Integer.class));
+    }
+
+    @Test
+    void migrate_AlreadyMigratedSchema_ShouldDoNothing() {
+        jdbcTemplate.execute("CREATE TABLE token_blocklist (id BIGINT PRIMARY KEY, token_hash CHAR(64), expires_at TIMESTAMP)");
+
+        assertDoesNotThrow(() -> migration.migrate());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM token_blocklist", Integer.class));
+    }
+}
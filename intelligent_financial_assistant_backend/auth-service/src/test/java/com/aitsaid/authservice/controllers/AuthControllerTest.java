@@ -4,10 +4,15 @@ import com.aitsaid.authservice.dtos.LoginRequest;
 import com.aitsaid.authservice.dtos.LoginResponse;
 import com.aitsaid.authservice.dtos.RegisterRequest;
 import com.aitsaid.authservice.dtos.RegisterResponse;
+import com.aitsaid.authservice.dtos.ServiceTokenRequest;
+import com.aitsaid.authservice.dtos.ServiceTokenResponse;
+import com.aitsaid.authservice.exceptions.InvalidCredentialsException;
 import com.aitsaid.authservice.service.AuthService;
+import com.aitsaid.authservice.service.ServiceTokenService;
 import com.aitsaid.authservice.security.JwtUtil;
+import com.aitsaid.authservice.security.UserPrincipalCache;
 import com.aitsaid.authservice.service.UserDetailsServiceImpl;
-import com.aitsaid.authservice.repositories.TokenBlockListRepository;
+import com.aitsaid.authservice.service.TokenRevocationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,6 +45,9 @@ class AuthControllerTest {
     @MockBean
     private AuthService authService;
 
+    @MockBean
+    private ServiceTokenService serviceTokenService;
+
     @MockBean
     private JwtUtil jwtUtil;
 
@@ -47,7 +55,10 @@ class AuthControllerTest {
     private UserDetailsServiceImpl userDetailsService;
 
     @MockBean
-    private TokenBlockListRepository tokenBlockListRepository;
+    private TokenRevocationService tokenRevocationService;
+
+    @MockBean
+    private UserPrincipalCache userPrincipalCache;
 
     @Autowired
     private ObjectMapper objectMapper;
@@ -90,6 +101,30 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.token").value("token"));
     }
 
+    @Test
+    void serviceToken_Success() throws Exception {
+        when(serviceTokenService.issue(any(ServiceTokenRequest.class)))
+                .thenReturn(new ServiceTokenResponse("service-token", 300000));
+
+        mockMvc.perform(post("/auth/service-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ServiceTokenRequest("transactions-service", "secret"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").value("service-token"))
+                .andExpect(jsonPath("$.expiresIn").value(300000));
+    }
+
+    @Test
+    void serviceToken_InvalidCredentials_Returns401() throws Exception {
+        when(serviceTokenService.issue(any(ServiceTokenRequest.class)))
+                .thenThrow(new InvalidCredentialsException("Invalid client credentials"));
+
+        mockMvc.perform(post("/auth/service-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ServiceTokenRequest("transactions-service", "wrong"))))
+                .andExpect(status().isUnauthorized());
+    }
+
     @Test
     @WithMockUser
     void logout_Success() throws Exception {
@@ -0,0 +1,57 @@
+package com.aitsaid.authservice.controllers;
+
+import com.aitsaid.authservice.security.JwtUtil;
+import com.aitsaid.authservice.security.UserPrincipalCache;
+import com.aitsaid.authservice.service.SigningKeyService;
+import com.aitsaid.authservice.service.TokenRevocationService;
+import com.aitsaid.authservice.service.UserDetailsServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(JwksController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class JwksControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SigningKeyService signingKeyService;
+
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
+    @MockBean
+    private UserPrincipalCache userPrincipalCache;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Test
+    void jwks_ShouldPublishKeySetWithCacheHeader() throws Exception {
+        when(signingKeyService.jwks()).thenReturn(Map.of("keys",
+                List.of(Map.of("kty", "RSA", "kid", "k1", "alg", "RS256", "n", "AQAB", "e", "AQAB"))));
+
+        mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=300, public"))
+                .andExpect(jsonPath("$.keys[0].kid").value("k1"))
+                .andExpect(jsonPath("$.keys[0].kty").value("RSA"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.aitsaid.authservice.controllers;
+
+import com.aitsaid.authservice.dtos.RevocationEntry;
+import com.aitsaid.authservice.dtos.RevocationFeedResponse;
+import com.aitsaid.authservice.security.JwtUtil;
+import com.aitsaid.authservice.security.UserPrincipalCache;
+import com.aitsaid.authservice.service.TokenRevocationService;
+import com.aitsaid.authservice.service.UserDetailsServiceImpl;
+import com.aitsaid.commoncore.revocation.TokenDigests;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(RevocationController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class RevocationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
+    @MockBean
+    private UserPrincipalCache userPrincipalCache;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Test
+    void getChanges_ShouldReturnFeedPage() throws Exception {
+        String digest = TokenDigests.sha256Hex("revoked.token");
+        when(tokenRevocationService.getChanges(3L, 100))
+                .thenReturn(new RevocationFeedResponse(List.of(new RevocationEntry(4L, digest)), 4L, false));
+
+        mockMvc.perform(get("/auth/revocations").param("since", "3").param("limit", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries[0].digest").value(digest))
+                .andExpect(jsonPath("$.cursor").value(4))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void isRevoked_ShouldReturnExactAnswer() throws Exception {
+        String digest = TokenDigests.sha256Hex("revoked.token");
+        when(tokenRevocationService.isRevokedDigest(digest)).thenReturn(true);
+
+        mockMvc.perform(get("/auth/revocations/" + digest))
+                .andExpect(status().isOk())
+                .andExpect(content().string("true"));
+    }
+
+    @Test
+    void isRevoked_MalformedDigest_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/auth/revocations/not-a-digest"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,57 @@
+package com.aitsaid.authservice.controllers;
+
+import com.aitsaid.authservice.dtos.UserChangeEntry;
+import com.aitsaid.authservice.dtos.UserChangeFeedResponse;
+import com.aitsaid.authservice.security.JwtUtil;
+import com.aitsaid.authservice.security.UserPrincipalCache;
+import com.aitsaid.authservice.service.TokenRevocationService;
+import com.aitsaid.authservice.service.UserChangeService;
+import com.aitsaid.authservice.service.UserDetailsServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(UserChangeController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class UserChangeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserChangeService userChangeService;
+
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
+    @MockBean
+    private UserPrincipalCache userPrincipalCache;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @MockBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Test
+    void getChanges_ShouldReturnFeedPage() throws Exception {
+        when(userChangeService.getChanges(3L, 100))
+                .thenReturn(new UserChangeFeedResponse(List.of(new UserChangeEntry(4L, 42L)), 4L, false));
+
+        mockMvc.perform(get("/auth/user-changes").param("since", "3").param("limit", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries[0].userId").value(42))
+                .andExpect(jsonPath("$.cursor").value(4))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+}
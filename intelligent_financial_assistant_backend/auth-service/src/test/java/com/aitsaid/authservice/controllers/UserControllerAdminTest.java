@@ -3,13 +3,17 @@ package com.aitsaid.authservice.controllers;
 import com.aitsaid.authservice.dtos.RegisterRequest;
 import com.aitsaid.authservice.dtos.RegisterResponse;
 import com.aitsaid.authservice.dtos.UpdateUserRequest;
+import com.aitsaid.authservice.dtos.UserCursor;
 import com.aitsaid.authservice.dtos.UserDetails;
+import com.aitsaid.authservice.dtos.UserSearchFilter;
+import com.aitsaid.authservice.dtos.UserSearchPage;
 import com.aitsaid.authservice.entities.User;
 import com.aitsaid.authservice.service.AuthService;
 import com.aitsaid.authservice.service.UserService;
 import com.aitsaid.authservice.security.JwtUtil;
+import com.aitsaid.authservice.security.UserPrincipalCache;
 import com.aitsaid.authservice.service.UserDetailsServiceImpl;
-import com.aitsaid.authservice.repositories.TokenBlockListRepository;
+import com.aitsaid.authservice.service.TokenRevocationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,11 +25,14 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -51,7 +58,10 @@ class UserControllerAdminTest {
     private UserDetailsServiceImpl userDetailsService;
 
     @MockBean
-    private TokenBlockListRepository tokenBlockListRepository;
+    private TokenRevocationService tokenRevocationService;
+
+    @MockBean
+    private UserPrincipalCache userPrincipalCache;
 
     @Autowired
     private ObjectMapper objectMapper;
@@ -89,6 +99,49 @@ class UserControllerAdminTest {
                 .andExpect(jsonPath("$").isArray());
     }
 
+    @Test
+    void searchUsers_Success() throws Exception {
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken("admin", null, Collections.emptyList());
+        UserSearchFilter filter = new UserSearchFilter("doe", LocalDate.parse("2024-01-01"), null, true);
+        when(userService.searchUsers(filter, new UserCursor(42L), 50))
+                .thenReturn(new UserSearchPage(Collections.emptyList(), null, false));
+
+        mockMvc.perform(get("/admin/users/search")
+                        .param("q", "doe")
+                        .param("createdFrom", "2024-01-01")
+                        .param("enabled", "true")
+                        .param("cursor", new UserCursor(42L).encode())
+                        .param("size", "50")
+                        .principal(auth))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isArray())
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    void searchUsers_InvalidCursor() throws Exception {
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken("admin", null, Collections.emptyList());
+
+        mockMvc.perform(get("/admin/users/search")
+                        .param("cursor", "not-a-cursor!")
+                        .principal(auth))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void suggestUsers_Success() throws Exception {
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken("admin", null, Collections.emptyList());
+        when(userService.suggestUsers("dupon", 5)).thenReturn(Collections.emptyList());
+
+        mockMvc.perform(get("/admin/users/suggest")
+                        .param("q", "dupon")
+                        .param("limit", "5")
+                        .principal(auth))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray());
+        verify(userService).suggestUsers("dupon", 5);
+    }
+
     @Test
     void countUsers_Success() throws Exception {
         UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken("admin", null, Collections.emptyList());
@@ -141,4 +194,35 @@ class UserControllerAdminTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.email").value("found@example.com"));
     }
+
+    @Test
+    void getUsersByIds_Success() throws Exception {
+        UserDetails first = new UserDetails();
+        first.setEmail("first@example.com");
+        UserDetails second = new UserDetails();
+        second.setEmail("second@example.com");
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken("admin", null, Collections.emptyList());
+
+        when(userService.getUsersByIds(List.of(1L, 2L))).thenReturn(List.of(first, second));
+
+        mockMvc.perform(get("/admin/users/batch")
+                        .param("ids", "1,2")
+                        .principal(auth))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].email").value("second@example.com"));
+    }
+
+    @Test
+    void getUsersByIds_TooManyIds() throws Exception {
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken("admin", null, Collections.emptyList());
+        String ids = java.util.stream.LongStream.rangeClosed(1, 501)
+                .mapToObj(String::valueOf)
+                .collect(java.util.stream.Collectors.joining(","));
+
+        mockMvc.perform(get("/admin/users/batch")
+                        .param("ids", ids)
+                        .principal(auth))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -4,9 +4,12 @@ import com.aitsaid.authservice.dtos.UpdateProfileRequest;
 import com.aitsaid.authservice.entities.Role;
 import com.aitsaid.authservice.entities.User;
 import com.aitsaid.authservice.service.UserService;
+import com.aitsaid.authservice.dtos.UserDetails;
+import com.aitsaid.authservice.security.JwtUserPrincipal;
 import com.aitsaid.authservice.security.JwtUtil;
+import com.aitsaid.authservice.security.UserPrincipalCache;
 import com.aitsaid.authservice.service.UserDetailsServiceImpl;
-import com.aitsaid.authservice.repositories.TokenBlockListRepository;
+import com.aitsaid.authservice.service.TokenRevocationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -47,7 +50,10 @@ class UserControllerUserTest {
     private UserDetailsServiceImpl userDetailsService;
 
     @MockBean
-    private TokenBlockListRepository tokenBlockListRepository;
+    private TokenRevocationService tokenRevocationService;
+
+    @MockBean
+    private UserPrincipalCache userPrincipalCache;
 
     @Autowired
     private ObjectMapper objectMapper;
@@ -74,6 +80,26 @@ class UserControllerUserTest {
                 .andExpect(jsonPath("$.email").value("test@example.com"));
 }
 
+    @Test
+    void getMyProfile_StatelessPrincipal_UsesProfileCache() throws Exception {
+        JwtUserPrincipal principal = new JwtUserPrincipal();
+        principal.setId(1L);
+        principal.setEmail("test@example.com");
+        principal.setRole(Role.ROLE_USER);
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList());
+        SecurityContextHolder.getContext().setAuthentication(auth);
+
+        UserDetails details = new UserDetails();
+        details.setEmail("test@example.com");
+        details.setPhoneNumber("0600000000");
+        when(userService.getProfile(principal)).thenReturn(details);
+
+        mockMvc.perform(get("/user/users/me")
+                        .principal(auth))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.phoneNumber").value("0600000000"));
+    }
+
     @Test
     void getMyProfile_Unauthorized_NullAuth() throws Exception {
         mockMvc.perform(get("/user/users/me"))
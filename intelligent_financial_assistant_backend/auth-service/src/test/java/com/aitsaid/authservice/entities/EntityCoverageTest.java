@@ -54,17 +54,39 @@ class EntityCoverageTest {
     void tokenBlockList_test() {
         TokenBlockList token = new TokenBlockList();
         token.setId(1L);
-        token.setToken("abc");
+        token.setTokenHash("abc");
         LocalDateTime created = LocalDateTime.now();
         token.setCreatedAt(created);
+        token.setExpiresAt(created.plusHours(1));
         token.setUser(new User());
 
         assertEquals(1L, token.getId());
-        assertEquals("abc", token.getToken());
+        assertEquals("abc", token.getTokenHash());
+        assertEquals(created.plusHours(1), token.getExpiresAt());
         assertEquals(created, token.getCreatedAt());
         assertNotNull(token.getUser());
 
-        TokenBlockList allArgs = new TokenBlockList(1L, "abc", created, new User());
-        assertEquals("abc", allArgs.getToken());
+        TokenBlockList allArgs = new TokenBlockList(1L, "abc", created.plusHours(1), created, new User());
+        assertEquals("abc", allArgs.getTokenHash());
+    }
+
+    @Test
+    void signingKey_test() {
+        SigningKey key = new SigningKey();
+        LocalDateTime created = LocalDateTime.now();
+        key.setId(1L);
+        key.setKid("kid-1");
+        key.setPublicKey("pub");
+        key.setPrivateKey("priv");
+        key.setCreatedAt(created);
+
+        assertEquals(1L, key.getId());
+        assertEquals("kid-1", key.getKid());
+        assertEquals("pub", key.getPublicKey());
+        assertEquals("priv", key.getPrivateKey());
+        assertEquals(created, key.getCreatedAt());
+
+        SigningKey allArgs = new SigningKey(2L, "kid-2", "pub", "priv", created);
+        assertEquals("kid-2", allArgs.getKid());
     }
 }
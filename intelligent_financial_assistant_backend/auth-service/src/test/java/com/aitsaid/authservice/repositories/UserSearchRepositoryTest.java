@@ -0,0 +1,138 @@
+package com.aitsaid.authservice.repositories;
+
+import com.aitsaid.authservice.config.UserIndexMigration;
+import com.aitsaid.authservice.dtos.UserCursor;
+import com.aitsaid.authservice.dtos.UserSearchFilter;
+import com.aitsaid.authservice.dtos.UserSummary;
+import com.aitsaid.authservice.entities.Role;
+import com.aitsaid.authservice.entities.User;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class UserSearchRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User john;
+    private User jane;
+    private User admin;
+
+    @BeforeEach
+    void setUp() {
+        john = persist("John", "Doe", "john.doe@example.com", "AB123", Role.ROLE_USER, true);
+        jane = persist("Jane", "Martin", "jane_m@example.com", "CD456", Role.ROLE_USER, false);
+        persist("Paul", "Johnson", "paul@example.com", "EF789", Role.ROLE_USER, true);
+        admin = persist("Johanna", "Admin", "johanna@example.com", "GH000", Role.ROLE_ADMIN, true);
+        jdbcTemplate.update("UPDATE users SET created_at = ? WHERE id = ?",
+                LocalDate.parse("2024-01-10").atTime(12, 0), john.getId());
+        entityManager.clear();
+    }
+
+    private User persist(String firstName, String lastName, String email, String cin, Role role, boolean enabled) {
+        User user = new User();
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEmail(email);
+        user.setCin(cin);
+        user.setPassword("secret");
+        user.setRole(role);
+        user.setEnabled(enabled);
+        return entityManager.persistAndFlush(user);
+    }
+
+    private List<Long> ids(List<UserSummary> rows) {
+        return rows.stream().map(UserSummary::getId).toList();
+    }
+
+    @Test
+    void searchAfter_PrefixMatchesAnyColumnIgnoringCase() {
+        List<UserSummary> rows = userRepository.searchAfter(Role.ROLE_USER,
+                new UserSearchFilter("JO", null, null, null), null, 10);
+
+        // Prénom « John », nom « Johnson » ; l'admin « Johanna » est exclu par le rôle
+        assertEquals(2, rows.size());
+        assertFalse(ids(rows).contains(admin.getId()));
+        assertEquals(List.of(jane.getId()), ids(userRepository.searchAfter(Role.ROLE_USER,
+                new UserSearchFilter("cd4", null, null, null), null, 10)));
+    }
+
+    @Test
+    void searchAfter_LikeWildcardsAreLiteral() {
+        assertTrue(userRepository.searchAfter(Role.ROLE_USER,
+                new UserSearchFilter("%", null, null, null), null, 10).isEmpty());
+        assertEquals(List.of(jane.getId()), ids(userRepository.searchAfter(Role.ROLE_USER,
+                new UserSearchFilter("jane_", null, null, null), null, 10)));
+    }
+
+    @Test
+    void searchAfter_FiltersByCreationDayAndStatus() {
+        assertEquals(List.of(john.getId()), ids(userRepository.searchAfter(Role.ROLE_USER,
+                new UserSearchFilter(null, LocalDate.parse("2024-01-10"), LocalDate.parse("2024-01-10"), null),
+                null, 10)));
+        assertEquals(List.of(jane.getId()), ids(userRepository.searchAfter(Role.ROLE_USER,
+                new UserSearchFilter(null, null, null, false), null, 10)));
+    }
+
+    @Test
+    void searchAfter_KeysetPagesNewestFirstWithoutOverlap() {
+        List<UserSummary> first = userRepository.searchAfter(Role.ROLE_USER, null, null, 2);
+        List<UserSummary> second = userRepository.searchAfter(Role.ROLE_USER, null,
+                new UserCursor(first.get(1).getId()), 2);
+
+        assertEquals(2, first.size());
+        assertTrue(first.get(0).getId() > first.get(1).getId());
+        assertEquals(List.of(john.getId()), ids(second));
+    }
+
+    @Test
+    void searchAfter_ReturnsProjectionsWithoutManagedEntities() {
+        List<UserSummary> rows = userRepository.searchAfter(Role.ROLE_USER,
+                new UserSearchFilter("john.doe", null, null, null), null, 10);
+
+        assertEquals(1, rows.size());
+        UserSummary row = rows.get(0);
+        assertFalse(row instanceof User);
+        assertEquals("john.doe@example.com", row.getEmail());
+        assertTrue(row.isEnabled());
+        assertEquals(3, userRepository.findSummariesByRoleOrderByIdDesc(Role.ROLE_USER).size());
+        // Aucune entité User chargée dans le contexte de persistance
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void suggest_WithoutTrigrams_RanksNamePrefixBeforeEmailPrefix() {
+        User byEmail = persist("Alice", "Martin", "jo.alice@example.com", "IJ111", Role.ROLE_USER, true);
+        entityManager.clear();
+
+        List<UserSummary> rows = userRepository.suggest(Role.ROLE_USER, " Jo", 10);
+
+        // H2 : préfixes seulement ; prénom/nom (John, Johnson) avant l'email, l'admin exclu
+        assertEquals(3, rows.size());
+        assertEquals(byEmail.getId(), rows.get(2).getId());
+        assertFalse(ids(rows).contains(admin.getId()));
+        assertEquals(1, userRepository.suggest(Role.ROLE_USER, "jo", 1).size());
+    }
+
+    @Test
+    void indexMigration_SkipsExpressionIndexesWithoutFailing() {
+        assertDoesNotThrow(() -> new UserIndexMigration(jdbcTemplate).run(null));
+    }
+}
@@ -1,6 +1,10 @@
 package com.aitsaid.authservice.security;
 
+import com.aitsaid.authservice.entities.Role;
+import com.aitsaid.authservice.entities.User;
 import com.aitsaid.authservice.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,14 +15,17 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.io.IOException;
+import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class JwtAuthenticationFilterTest {
@@ -33,7 +40,10 @@ class JwtAuthenticationFilterTest {
     private UserDetailsServiceImpl userDetailsService;
 
     @Mock
-    private com.aitsaid.authservice.repositories.TokenBlockListRepository tokenBlockListRepository;
+    private com.aitsaid.authservice.service.TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private UserPrincipalCache principalCache;
 
     @Mock
     private HttpServletRequest request;
@@ -63,11 +73,11 @@ class JwtAuthenticationFilterTest {
         when(request.getRemoteAddr()).thenReturn("127.0.0.1");
         when(request.getSession(false)).thenReturn(null);
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(tokenBlockListRepository.existsByToken(token)).thenReturn(false);
-        when(jwtUtil.isTokenValid(token)).thenReturn(true);
-        when(jwtUtil.extractUsername(token)).thenReturn(username);
+        VerifiedToken verified = verified(token, username);
+        when(tokenRevocationService.isRevoked(token)).thenReturn(false);
+        when(jwtUtil.verify(token)).thenReturn(verified);
         when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
-        when(jwtUtil.validateToken(token, userDetails)).thenReturn(true);
+        when(jwtUtil.validateToken(verified, userDetails)).thenReturn(true);
         when(userDetails.getAuthorities()).thenReturn(java.util.Collections.emptyList());
 
         // When
@@ -76,6 +86,9 @@ class JwtAuthenticationFilterTest {
         // Then
         assertNotNull(SecurityContextHolder.getContext().getAuthentication());
         assertEquals(userDetails, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verify(request).setAttribute(VerifiedToken.REQUEST_ATTRIBUTE, verified);
+        verify(jwtUtil, times(1)).verify(token);
+        verify(jwtUtil, never()).extractUsername(anyString());
         verify(filterChain).doFilter(request, response);
     }
 
@@ -117,11 +130,11 @@ class JwtAuthenticationFilterTest {
         
         when(request.getRequestURI()).thenReturn("/api/test");
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtil.isTokenValid(token)).thenReturn(true);
-        when(tokenBlockListRepository.existsByToken(token)).thenReturn(false);
-        when(jwtUtil.extractUsername(token)).thenReturn(username);
+        VerifiedToken verified = verified(token, username);
+        when(jwtUtil.verify(token)).thenReturn(verified);
+        when(tokenRevocationService.isRevoked(token)).thenReturn(false);
         when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
-        when(jwtUtil.validateToken(token, userDetails)).thenReturn(false);
+        when(jwtUtil.validateToken(verified, userDetails)).thenReturn(false);
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -136,9 +149,8 @@ class JwtAuthenticationFilterTest {
         String token = "valid.token";
         when(request.getRequestURI()).thenReturn("/api/test");
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtil.isTokenValid(token)).thenReturn(true);
-        when(tokenBlockListRepository.existsByToken(token)).thenReturn(false);
-        when(jwtUtil.extractUsername(token)).thenReturn(null);
+        when(jwtUtil.verify(token)).thenReturn(verified(token, null));
+        when(tokenRevocationService.isRevoked(token)).thenReturn(false);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -151,11 +163,12 @@ class JwtAuthenticationFilterTest {
         String token = "invalid.token";
         when(request.getRequestURI()).thenReturn("/api/test");
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtil.isTokenValid(token)).thenReturn(false);
+        when(jwtUtil.verify(token)).thenReturn(null);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(request, never()).setAttribute(eq(VerifiedToken.REQUEST_ATTRIBUTE), any());
         verify(filterChain).doFilter(request, response);
     }
 
@@ -176,9 +189,9 @@ class JwtAuthenticationFilterTest {
 
         when(request.getRequestURI()).thenReturn("/api/test");
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtUtil.isTokenValid(token)).thenReturn(true);
-        when(tokenBlockListRepository.existsByToken(token)).thenReturn(false);
-        when(jwtUtil.extractUsername(token)).thenThrow(new RuntimeException("Token error"));
+        when(jwtUtil.verify(token)).thenReturn(verified(token, "test@example.com"));
+        when(tokenRevocationService.isRevoked(token)).thenReturn(false);
+        when(userDetailsService.loadUserByUsername("test@example.com")).thenThrow(new RuntimeException("Token error"));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -213,7 +226,8 @@ class JwtAuthenticationFilterTest {
         
         when(request.getRequestURI()).thenReturn("/api/test");
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(tokenBlockListRepository.existsByToken(token)).thenReturn(true);
+        when(jwtUtil.verify(token)).thenReturn(verified(token, "test@example.com"));
+        when(tokenRevocationService.isRevoked(token)).thenReturn(true);
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -221,7 +235,7 @@ class JwtAuthenticationFilterTest {
         // Then
         assertNull(SecurityContextHolder.getContext().getAuthentication());
         verify(filterChain).doFilter(request, response);
-        verify(jwtUtil, never()).extractUsername(anyString());
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
     }
 
     @Test
@@ -229,7 +243,100 @@ class JwtAuthenticationFilterTest {
         when(request.getRequestURI()).thenReturn("/api/test");
         when(request.getHeader("Authorization")).thenReturn("Basic invalidPrefix");
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
-        verify(jwtUtil, never()).isTokenValid(anyString());
+        verify(jwtUtil, never()).verify(anyString());
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_Stateless_BuildsPrincipalFromClaimsWithoutLookup() throws ServletException, IOException {
+        String token = "stateless.token";
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "statelessEnabled", true);
+        when(request.getRequestURI()).thenReturn("/api/test");
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtil.verify(token)).thenReturn(new VerifiedToken(token, claims()));
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        assertInstanceOf(JwtUserPrincipal.class, principal);
+        assertEquals(7L, ((User) principal).getId());
+        verifyNoInteractions(userDetailsService);
         verify(filterChain).doFilter(request, response);
     }
+
+    @Test
+    void doFilterInternal_Stateless_PrefersCachedProfile() throws ServletException, IOException {
+        String token = "stateless.token";
+        User cached = new User();
+        cached.setId(7L);
+        cached.setEmail("jane@example.com");
+        cached.setRole(Role.ROLE_ADMIN);
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "statelessEnabled", true);
+        when(request.getRequestURI()).thenReturn("/api/test");
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtil.verify(token)).thenReturn(new VerifiedToken(token, claims()));
+        when(principalCache.get("jane@example.com")).thenReturn(cached);
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        assertSame(cached, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void doFilterInternal_Stateless_RevokedToken_NotAuthenticated() throws ServletException, IOException {
+        String token = "stateless.token";
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "statelessEnabled", true);
+        when(request.getRequestURI()).thenReturn("/api/test");
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtil.verify(token)).thenReturn(new VerifiedToken(token, claims()));
+        when(tokenRevocationService.isRevoked(token)).thenReturn(true);
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_Stateless_InvalidatedSession_NotAuthenticated() throws ServletException, IOException {
+        String token = "stateless.token";
+        Claims claims = claims();
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "statelessEnabled", true);
+        when(request.getRequestURI()).thenReturn("/api/test");
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtil.verify(token)).thenReturn(new VerifiedToken(token, claims));
+        when(principalCache.isSessionInvalidated(7L, claims.getIssuedAt())).thenReturn(true);
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void doFilterInternal_Stateless_InvalidToken_NotAuthenticated() throws ServletException, IOException {
+        String token = "bad.token";
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "statelessEnabled", true);
+        when(request.getRequestURI()).thenReturn("/api/test");
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtil.verify(token)).thenReturn(null);
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(filterChain).doFilter(request, response);
+    }
+
+    private VerifiedToken verified(String token, String subject) {
+        return new VerifiedToken(token, Jwts.claims().setSubject(subject));
+    }
+
+    private Claims claims() {
+        Claims claims = Jwts.claims().setSubject("jane@example.com");
+        claims.setIssuedAt(new Date());
+        claims.put("userId", 7);
+        claims.put("firstName", "Jane");
+        claims.put("role", "ROLE_USER");
+        return claims;
+    }
 }
@@ -0,0 +1,58 @@
+package com.aitsaid.authservice.security;
+
+import com.aitsaid.authservice.entities.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUserPrincipalTest {
+
+    @Test
+    void fromClaims_BuildsPrincipal() {
+        Claims claims = Jwts.claims().setSubject("jane@example.com");
+        claims.put("userId", 7);
+        claims.put("firstName", "Jane");
+        claims.put("lastName", "Doe");
+        claims.put("role", "ROLE_ADMIN");
+
+        JwtUserPrincipal principal = JwtUserPrincipal.fromClaims(claims);
+
+        assertNotNull(principal);
+        assertEquals(7L, principal.getId());
+        assertEquals("jane@example.com", principal.getUsername());
+        assertEquals("Jane", principal.getFirstName());
+        assertEquals(Role.ROLE_ADMIN, principal.getRole());
+        assertTrue(principal.isEnabled());
+        assertEquals("ROLE_ADMIN", principal.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void fromClaims_FallsBackToRolesList() {
+        Claims claims = Jwts.claims().setSubject("jane@example.com");
+        claims.put("userId", 7L);
+        claims.put("roles", List.of("ROLE_USER"));
+
+        assertEquals(Role.ROLE_USER, JwtUserPrincipal.fromClaims(claims).getRole());
+    }
+
+    @Test
+    void fromClaims_MissingUserId_ReturnsNull() {
+        Claims claims = Jwts.claims().setSubject("jane@example.com");
+        claims.put("role", "ROLE_USER");
+
+        assertNull(JwtUserPrincipal.fromClaims(claims));
+    }
+
+    @Test
+    void fromClaims_UnknownRole_ReturnsNull() {
+        Claims claims = Jwts.claims().setSubject("jane@example.com");
+        claims.put("userId", 7);
+        claims.put("role", "ROLE_ROOT");
+
+        assertNull(JwtUserPrincipal.fromClaims(claims));
+    }
+}
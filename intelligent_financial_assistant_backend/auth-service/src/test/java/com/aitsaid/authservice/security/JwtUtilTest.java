@@ -1,7 +1,10 @@
 package com.aitsaid.authservice.security;
 
 import com.aitsaid.authservice.entities.Role;
+import com.aitsaid.authservice.entities.SigningKey;
 import com.aitsaid.authservice.entities.User;
+import com.aitsaid.authservice.repositories.SigningKeyRepository;
+import com.aitsaid.authservice.service.SigningKeyService;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
@@ -20,6 +23,7 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 class JwtUtilTest {
@@ -27,6 +31,7 @@ class JwtUtilTest {
     private JwtUtil jwtUtil;
     private User user;
     private String validToken;
+    private static final String MASTER_KEY = "k2TcbKgh6DLmSFfZM2h3iA+6XeskDXyc/etbbBMlzUE=";
     private final String testSecret = "dGhpc2lzYXNlY3JldGtleWZvcmp3dHRva2VuZ2VuZXJhdGlvbmFuZGl0c2hvdWxkYmV2ZXJ5bG9uZw==";
 
     @BeforeEach
@@ -203,4 +208,101 @@ class JwtUtilTest {
         // Second call should hit cache
         assertDoesNotThrow(() -> method.invoke(jwtUtil));
     }
+
+    @Test
+    void verify_ValidToken_ExposesClaims() {
+        VerifiedToken verified = jwtUtil.verify(validToken);
+
+        assertNotNull(verified);
+        assertEquals(validToken, verified.getToken());
+        assertEquals("test@example.com", verified.getSubject());
+        assertEquals(1L, verified.getUserId());
+        assertEquals(List.of("ROLE_USER"), verified.getRoles());
+        assertFalse(verified.isExpired());
+        assertTrue(jwtUtil.validateToken(verified, user));
+    }
+
+    @Test
+    void verify_InvalidToken_ReturnsNull() {
+        assertNull(jwtUtil.verify("invalid.token.here"));
+        assertNull(jwtUtil.verify(""));
+    }
+
+    @Test
+    void verify_ReusesParserUntilKeyChanges() throws Exception {
+        java.lang.reflect.Method method = JwtUtil.class.getDeclaredMethod("parser");
+        method.setAccessible(true);
+        Object first = method.invoke(jwtUtil);
+
+        assertSame(first, method.invoke(jwtUtil));
+
+        ReflectionTestUtils.setField(jwtUtil, "secret", "this_is_a_very_long_non_base64_secret_that_is_at_least_32_bytes_long");
+        ReflectionTestUtils.setField(jwtUtil, "cachedKey", new AtomicReference<>());
+        assertNotSame(first, method.invoke(jwtUtil));
+        assertNull(jwtUtil.verify(validToken));
+    }
+
+    @Test
+    void generateToken_Rs256_CarriesKidAndVerifies() {
+        SigningKeyService signingKeys = inMemorySigningKeys();
+        ReflectionTestUtils.setField(jwtUtil, "signingKeys", signingKeys);
+        ReflectionTestUtils.setField(jwtUtil, "signingAlgorithm", "RS256");
+
+        String token = jwtUtil.generateToken(user);
+        String header = new String(java.util.Base64.getUrlDecoder().decode(token.split("\\.")[0]), StandardCharsets.UTF_8);
+
+        assertTrue(header.contains("\"alg\":\"RS256\""));
+        assertTrue(header.contains(signingKeys.current().kid()));
+        assertEquals("test@example.com", jwtUtil.verify(token).getSubject());
+    }
+
+    @Test
+    void verify_LegacyHs256Token_AcceptedUntilDisabled() {
+        ReflectionTestUtils.setField(jwtUtil, "signingKeys", inMemorySigningKeys());
+        ReflectionTestUtils.setField(jwtUtil, "signingAlgorithm", "RS256");
+        ReflectionTestUtils.setField(jwtUtil, "legacyHs256Enabled", true);
+
+        // validToken a été signé en HS256 sans kid
+        assertNotNull(jwtUtil.verify(validToken));
+
+        ReflectionTestUtils.setField(jwtUtil, "legacyHs256Enabled", false);
+        assertNull(jwtUtil.verify(validToken));
+    }
+
+    @Test
+    void verify_UnknownKid_ReturnsNull() {
+        SigningKeyService issuerKeys = inMemorySigningKeys();
+        ReflectionTestUtils.setField(jwtUtil, "signingKeys", issuerKeys);
+        ReflectionTestUtils.setField(jwtUtil, "signingAlgorithm", "RS256");
+        String token = jwtUtil.generateToken(user);
+
+        ReflectionTestUtils.setField(jwtUtil, "signingKeys", inMemorySigningKeys());
+        assertNull(jwtUtil.verify(token));
+    }
+
+    @Test
+    void verify_HmacTokenClaimingKid_Rejected() {
+        SigningKeyService signingKeys = inMemorySigningKeys();
+        ReflectionTestUtils.setField(jwtUtil, "signingKeys", signingKeys);
+        // Confusion d'algorithme : HS256 signé avec le secret mais annonçant un kid RSA
+        String forged = Jwts.builder()
+                .setHeaderParam("kid", signingKeys.current().kid())
+                .setSubject("test@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(java.util.Base64.getDecoder().decode(testSecret)))
+                .compact();
+
+        assertNull(jwtUtil.verify(forged));
+    }
+
+    private SigningKeyService inMemorySigningKeys() {
+        List<SigningKey> rows = new java.util.ArrayList<>();
+        SigningKeyRepository repository = mock(SigningKeyRepository.class);
+        when(repository.save(any(SigningKey.class))).thenAnswer(inv -> {
+            rows.add(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+        when(repository.findByCreatedAtAfterOrderByCreatedAtDesc(any())).thenAnswer(inv -> List.copyOf(rows));
+        return new SigningKeyService(repository, new SigningKeyCipher(MASTER_KEY), 3_600_000L, 3_600_000L, 2048);
+    }
 }
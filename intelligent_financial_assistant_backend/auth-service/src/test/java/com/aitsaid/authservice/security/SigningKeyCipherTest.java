@@ -0,0 +1,54 @@
+package com.aitsaid.authservice.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SigningKeyCipherTest {
+
+    private static final String MASTER_KEY = "k2TcbKgh6DLmSFfZM2h3iA+6XeskDXyc/etbbBMlzUE=";
+    private static final byte[] PRIVATE_KEY = "pkcs8-private-key".getBytes(StandardCharsets.UTF_8);
+
+    private final SigningKeyCipher cipher = new SigningKeyCipher(MASTER_KEY);
+
+    @Test
+    void encrypt_RoundTripsWithoutExposingKey() {
+        String stored = cipher.encrypt("kid-1", PRIVATE_KEY);
+
+        assertTrue(cipher.isEncrypted(stored));
+        assertFalse(stored.contains(Base64.getEncoder().encodeToString(PRIVATE_KEY)));
+        assertArrayEquals(PRIVATE_KEY, cipher.decrypt("kid-1", stored));
+        // IV aléatoire : deux chiffrements du même contenu diffèrent
+        assertNotEquals(stored, cipher.encrypt("kid-1", PRIVATE_KEY));
+    }
+
+    @Test
+    void decrypt_RejectsCiphertextMovedToAnotherKid() {
+        String stored = cipher.encrypt("kid-1", PRIVATE_KEY);
+
+        assertThrows(IllegalStateException.class, () -> cipher.decrypt("kid-2", stored));
+    }
+
+    @Test
+    void decrypt_RejectsOtherMasterKey() {
+        String stored = cipher.encrypt("kid-1", PRIVATE_KEY);
+        SigningKeyCipher other = new SigningKeyCipher("75AZVUBycl+7nwY0X/EQgPFo0QxZEs1Gj9DBx0/MsP4=");
+
+        assertThrows(IllegalStateException.class, () -> other.decrypt("kid-1", stored));
+    }
+
+    @Test
+    void decrypt_LegacyClearValue_IsDecoded() {
+        assertArrayEquals(PRIVATE_KEY, cipher.decrypt("kid-1", Base64.getEncoder().encodeToString(PRIVATE_KEY)));
+    }
+
+    @Test
+    void constructor_MissingOrShortMasterKey_Throws() {
+        assertThrows(IllegalStateException.class, () -> new SigningKeyCipher(""));
+        assertThrows(IllegalStateException.class, () -> new SigningKeyCipher("c2hvcnQ="));
+        assertThrows(IllegalStateException.class, () -> new SigningKeyCipher("not base64!"));
+    }
+}
@@ -0,0 +1,140 @@
+package com.aitsaid.authservice.security;
+
+import com.aitsaid.authservice.entities.Role;
+import com.aitsaid.authservice.entities.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPrincipalCacheTest {
+
+    private final UserPrincipalCache cache = new UserPrincipalCache(60_000, 100, 86_400_000);
+
+    @Test
+    void put_StoresDetachedCopyWithoutPassword() {
+        User user = user();
+        cache.put(user);
+
+        User cached = cache.get("jane@example.com");
+        assertNotNull(cached);
+        assertNotSame(user, cached);
+        assertEquals(7L, cached.getId());
+        assertNull(cached.getPassword());
+    }
+
+    @Test
+    void get_ExpiredEntry_ReturnsNull() {
+        UserPrincipalCache shortLived = new UserPrincipalCache(0, 100, 86_400_000);
+        shortLived.put(user());
+
+        assertNull(shortLived.get("jane@example.com"));
+    }
+
+    @Test
+    void invalidate_RemovesEntryById() {
+        cache.put(user());
+        cache.invalidate(7L);
+
+        assertNull(cache.get("jane@example.com"));
+        assertFalse(cache.isSessionInvalidated(7L, new Date()));
+    }
+
+    @Test
+    void invalidateSessions_RejectsTokensIssuedBefore() {
+        cache.put(user());
+        Date issuedBefore = new Date(System.currentTimeMillis() - 5_000);
+
+        cache.invalidateSessions(7L);
+
+        assertNull(cache.get("jane@example.com"));
+        assertTrue(cache.isSessionInvalidated(7L, issuedBefore));
+        assertFalse(cache.isSessionInvalidated(7L, new Date(System.currentTimeMillis() + 5_000)));
+        assertFalse(cache.isSessionInvalidated(8L, issuedBefore));
+    }
+
+    @Test
+    void invalidateSessions_FromOtherInstance_KeepsLatest() {
+        Instant later = Instant.now().minusSeconds(10);
+        cache.invalidateSessions(7L, later);
+        cache.invalidateSessions(7L, later.minusSeconds(60));
+
+        assertTrue(cache.isSessionInvalidated(7L, Date.from(later.minusSeconds(5))));
+        assertFalse(cache.isSessionInvalidated(7L, Date.from(later.plusSeconds(5))));
+    }
+
+    @Test
+    void invalidate_AfterEmailChange_RemovesLatestEntry() {
+        cache.put(user());
+        User renamed = user();
+        renamed.setEmail("jane.doe@example.com");
+        cache.put(renamed);
+
+        cache.invalidate(7L);
+
+        assertNull(cache.get("jane.doe@example.com"));
+    }
+
+    @Test
+    void put_Full_StaysBounded() {
+        UserPrincipalCache small = new UserPrincipalCache(60_000, 10, 86_400_000);
+        for (long id = 1; id <= 100; id++) {
+            User other = user();
+            other.setId(id);
+            other.setEmail("user" + id + "@example.com");
+            small.put(other);
+        }
+
+        assertTrue(small.size() <= 10, "size: " + small.size());
+    }
+
+    @Test
+    void invalidate_InsideTransactionWaitsForCommit() {
+        cache.put(user());
+        Date issuedBefore = new Date(System.currentTimeMillis() - 5_000);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidate(7L);
+            cache.invalidateSessions(7L);
+            assertNotNull(cache.get("jane@example.com"));
+            assertFalse(cache.isSessionInvalidated(7L, issuedBefore));
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNull(cache.get("jane@example.com"));
+        assertTrue(cache.isSessionInvalidated(7L, issuedBefore));
+    }
+
+    @Test
+    void put_ReadStartedBeforeInvalidation_IsNotCached() {
+        long generation = cache.generation();
+        // Lecture de l'ancienne ligne, puis commit d'une modification concurrente
+        User stale = user();
+        cache.invalidate(7L);
+
+        cache.put(stale, generation);
+
+        assertNull(cache.get("jane@example.com"));
+        cache.put(user(), cache.generation());
+        assertNotNull(cache.get("jane@example.com"));
+    }
+
+    private User user() {
+        User user = new User();
+        user.setId(7L);
+        user.setEmail("jane@example.com");
+        user.setPassword("secret");
+        user.setRole(Role.ROLE_USER);
+        user.setEnabled(true);
+        return user;
+    }
+}
@@ -6,7 +6,6 @@ import com.aitsaid.authservice.dtos.LoginRequest;
 import com.aitsaid.authservice.dtos.LoginResponse;
 import com.aitsaid.authservice.dtos.RegisterRequest;
 import com.aitsaid.authservice.dtos.RegisterResponse;
-import com.aitsaid.authservice.entities.TokenBlockList;
 import com.aitsaid.authservice.entities.User;
 import com.aitsaid.authservice.exceptions.EmailAlreadyExistsException;
 import com.aitsaid.authservice.exceptions.InvalidCredentialsException;
@@ -14,9 +13,12 @@ import com.aitsaid.authservice.exceptions.InvalidTokenException;
 import com.aitsaid.authservice.exceptions.LogoutFailedException;
 import com.aitsaid.authservice.exceptions.UserNotAuthenticatedException;
 import com.aitsaid.authservice.exceptions.UserNotFoundException;
-import com.aitsaid.authservice.repositories.TokenBlockListRepository;
 import com.aitsaid.authservice.repositories.UserRepository;
 import com.aitsaid.authservice.security.JwtUtil;
+import com.aitsaid.authservice.security.VerifiedToken;
+import com.aitsaid.commoncore.cache.AggregateCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -30,10 +32,12 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Date;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,7 +47,7 @@ class AuthServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private TokenBlockListRepository tokenBlockListRepository;
+    private TokenRevocationService tokenRevocationService;
 
     @Mock
     private PasswordEncoder passwordEncoder;
@@ -57,6 +61,9 @@ class AuthServiceTest {
     @Mock
     private AccountRestClient accountRestClient;
 
+    @Mock
+    private AggregateCache aggregateCache;
+
     @InjectMocks
     private AuthService authService;
 
@@ -97,6 +104,7 @@ class AuthServiceTest {
         assertEquals("Registration successful", response.getMessage());
         verify(userRepository, times(1)).save(any(User.class));
         verify(accountRestClient, times(1)).createAccount(any(BankAccountRequestDTO.class));
+        verify(aggregateCache).invalidate(UserService.COUNT_CACHE_KEY);
     }
 
     @Test
@@ -132,20 +140,19 @@ class AuthServiceTest {
     @Test
     void logout_Success() {
         String token = "Bearer validToken";
-        when(jwtUtil.isTokenValid("validToken")).thenReturn(true);
-        when(tokenBlockListRepository.existsByToken("validToken")).thenReturn(false);
-        when(jwtUtil.extractUsername("validToken")).thenReturn("test@example.com");
+        when(jwtUtil.verify("validToken")).thenReturn(verified("validToken", "test@example.com"));
+        when(tokenRevocationService.isRevoked("validToken")).thenReturn(false);
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
 
         authService.logout(token);
 
-        verify(tokenBlockListRepository, times(1)).save(any(TokenBlockList.class));
+        verify(tokenRevocationService, times(1)).revoke(eq("validToken"), eq(user), any());
     }
 
     @Test
     void logout_InvalidToken() {
         String token = "Bearer invalidToken";
-        when(jwtUtil.isTokenValid("invalidToken")).thenReturn(false);
+        when(jwtUtil.verify("invalidToken")).thenReturn(null);
 
         assertThrows(InvalidTokenException.class, () -> authService.logout(token));
     }
@@ -153,9 +160,8 @@ class AuthServiceTest {
     @Test
     void validateToken_Valid() {
         String token = "Bearer validToken";
-        when(jwtUtil.isTokenValid("validToken")).thenReturn(true);
-        when(tokenBlockListRepository.existsByToken("validToken")).thenReturn(false);
-        when(jwtUtil.extractUsername("validToken")).thenReturn("test@example.com");
+        when(jwtUtil.verify("validToken")).thenReturn(verified("validToken", "test@example.com"));
+        when(tokenRevocationService.isRevoked("validToken")).thenReturn(false);
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
 
         boolean isValid = authService.validateToken(token);
@@ -166,7 +172,7 @@ class AuthServiceTest {
     @Test
     void validateToken_Invalid() {
         String token = "Bearer invalidToken";
-        when(jwtUtil.isTokenValid("invalidToken")).thenReturn(false);
+        when(jwtUtil.verify("invalidToken")).thenReturn(null);
 
         boolean isValid = authService.validateToken(token);
 
@@ -187,7 +193,7 @@ class AuthServiceTest {
     void logout_InvalidPrefix() {
         String token = "invalidPrefix tokensuffix";
         // After prefix removal (none), it checks validity of "invalidPrefix tokensuffix"
-        when(jwtUtil.isTokenValid(token)).thenReturn(false);
+        when(jwtUtil.verify(token)).thenReturn(null);
         assertThrows(InvalidTokenException.class, () -> authService.logout(token));
     }
 
@@ -199,8 +205,8 @@ class AuthServiceTest {
     @Test
     void logout_TokenAlreadyBlocked() {
         String token = "Bearer blockedToken";
-        when(jwtUtil.isTokenValid("blockedToken")).thenReturn(true);
-        when(tokenBlockListRepository.existsByToken("blockedToken")).thenReturn(true);
+        when(jwtUtil.verify("blockedToken")).thenReturn(verified("blockedToken", "test@example.com"));
+        when(tokenRevocationService.isRevoked("blockedToken")).thenReturn(true);
 
         assertThrows(InvalidTokenException.class, () -> authService.logout(token));
     }
@@ -208,9 +214,8 @@ class AuthServiceTest {
     @Test
     void logout_UserNotFound() {
         String token = "Bearer validToken";
-        when(jwtUtil.isTokenValid("validToken")).thenReturn(true);
-        when(tokenBlockListRepository.existsByToken("validToken")).thenReturn(false);
-        when(jwtUtil.extractUsername("validToken")).thenReturn("unknown@example.com");
+        when(jwtUtil.verify("validToken")).thenReturn(verified("validToken", "unknown@example.com"));
+        when(tokenRevocationService.isRevoked("validToken")).thenReturn(false);
         when(userRepository.findByEmail("unknown@example.com")).thenReturn(Optional.empty());
 
         assertThrows(UserNotFoundException.class, () -> authService.logout(token));
@@ -219,7 +224,7 @@ class AuthServiceTest {
     @Test
     void logout_GeneralException() {
         String token = "Bearer validToken";
-        when(jwtUtil.isTokenValid("validToken")).thenThrow(new RuntimeException("Unexpected error"));
+        when(jwtUtil.verify("validToken")).thenThrow(new RuntimeException("Unexpected error"));
 
         assertThrows(LogoutFailedException.class, () -> authService.logout(token));
     }
@@ -275,8 +280,8 @@ class AuthServiceTest {
     @Test
     void validateToken_BlockedToken() {
         String token = "Bearer blockedToken";
-        when(jwtUtil.isTokenValid("blockedToken")).thenReturn(true);
-        when(tokenBlockListRepository.existsByToken("blockedToken")).thenReturn(true);
+        when(jwtUtil.verify("blockedToken")).thenReturn(verified("blockedToken", "test@example.com"));
+        when(tokenRevocationService.isRevoked("blockedToken")).thenReturn(true);
 
         assertFalse(authService.validateToken(token));
     }
@@ -284,7 +289,7 @@ class AuthServiceTest {
     @Test
     void validateToken_Exception() {
         String token = "Bearer validToken";
-        when(jwtUtil.isTokenValid("validToken")).thenThrow(new RuntimeException("Unexpected"));
+        when(jwtUtil.verify("validToken")).thenThrow(new RuntimeException("Unexpected"));
 
         assertFalse(authService.validateToken(token));
     }
@@ -294,4 +299,10 @@ class AuthServiceTest {
         when(authenticationManager.authenticate(any())).thenThrow(new RuntimeException("Database down"));
         assertThrows(RuntimeException.class, () -> authService.login(loginRequest));
     }
+
+    private VerifiedToken verified(String token, String subject) {
+        Claims claims = Jwts.claims().setSubject(subject);
+        claims.setExpiration(new Date(System.currentTimeMillis() + 60_000));
+        return new VerifiedToken(token, claims);
+    }
 }
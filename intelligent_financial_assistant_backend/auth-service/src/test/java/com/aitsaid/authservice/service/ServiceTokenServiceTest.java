@@ -0,0 +1,58 @@
+package com.aitsaid.authservice.service;
+
+import com.aitsaid.authservice.dtos.ServiceTokenRequest;
+import com.aitsaid.authservice.dtos.ServiceTokenResponse;
+import com.aitsaid.authservice.exceptions.InvalidCredentialsException;
+import com.aitsaid.authservice.security.JwtUtil;
+import com.aitsaid.authservice.security.VerifiedToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceTokenServiceTest {
+
+    private JwtUtil jwtUtil;
+    private ServiceTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "dGhpc2lzYXNlY3JldGtleWZvcmp3dHRva2VuZ2VuZXJhdGlvbmFuZGl0c2hvdWxkYmV2ZXJ5bG9uZw==");
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("service-clients.transactions-service.secret", "s3cret");
+        service = new ServiceTokenService(environment, jwtUtil, 300_000);
+    }
+
+    @Test
+    void issue_ValidCredentials_ReturnsServiceToken() {
+        ServiceTokenResponse response = service.issue(new ServiceTokenRequest("transactions-service", "s3cret"));
+
+        VerifiedToken token = jwtUtil.verify(response.getAccessToken());
+        assertNotNull(token);
+        assertEquals("service:transactions-service", token.getSubject());
+        assertEquals(List.of(JwtUtil.SERVICE_ROLE), token.getRoles());
+        assertNull(token.getUserId());
+        assertEquals(300_000, response.getExpiresIn());
+        long ttl = token.getExpiration().getTime() - token.getIssuedAt().getTime();
+        assertTrue(ttl <= 300_000 && ttl > 290_000, "ttl: " + ttl);
+    }
+
+    @Test
+    void issue_WrongSecret_Throws() {
+        assertThrows(InvalidCredentialsException.class,
+                () -> service.issue(new ServiceTokenRequest("transactions-service", "wrong")));
+    }
+
+    @Test
+    void issue_UnknownOrMalformedClient_Throws() {
+        assertThrows(InvalidCredentialsException.class,
+                () -> service.issue(new ServiceTokenRequest("account-service", "s3cret")));
+        assertThrows(InvalidCredentialsException.class,
+                () -> service.issue(new ServiceTokenRequest("transactions-service.secret", "s3cret")));
+    }
+}
@@ -0,0 +1,131 @@
+package com.aitsaid.authservice.service;
+
+import com.aitsaid.authservice.entities.SigningKey;
+import com.aitsaid.authservice.repositories.SigningKeyRepository;
+import com.aitsaid.authservice.security.SigningKeyCipher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SigningKeyServiceTest {
+
+    private static final long ROTATION_MS = 60_000;
+    private static final long LIFETIME_MS = 30_000;
+    private static final SigningKeyCipher CIPHER = new SigningKeyCipher("k2TcbKgh6DLmSFfZM2h3iA+6XeskDXyc/etbbBMlzUE=");
+
+    private SigningKeyRepository repository;
+    private final List<SigningKey> rows = new ArrayList<>();
+    private SigningKeyService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(SigningKeyRepository.class);
+        when(repository.save(any(SigningKey.class))).thenAnswer(inv -> {
+            SigningKey key = inv.getArgument(0);
+            rows.add(key);
+            return key;
+        });
+        when(repository.findByCreatedAtAfterOrderByCreatedAtDesc(any())).thenAnswer(inv -> {
+            LocalDateTime cutoff = inv.getArgument(0);
+            return rows.stream()
+                    .filter(row -> row.getCreatedAt().isAfter(cutoff))
+                    .sorted(Comparator.comparing(SigningKey::getCreatedAt).reversed())
+                    .toList();
+        });
+        service = new SigningKeyService(repository, CIPHER, ROTATION_MS, LIFETIME_MS, 2048);
+    }
+
+    @Test
+    void current_GeneratesKeyOnFirstUse() {
+        SigningKeyService.ActiveKey key = service.current();
+
+        assertNotNull(key.kid());
+        assertEquals(1, rows.size());
+        assertSame(key.publicKey().getModulus(), service.current().publicKey().getModulus());
+        verify(repository, times(1)).save(any(SigningKey.class));
+    }
+
+    @Test
+    void rotateIfDue_KeepsPreviousKeyPublished() {
+        SigningKeyService.ActiveKey first = service.current();
+        // La clé courante a dépassé l'intervalle de rotation mais ses tokens peuvent encore être valides
+        rows.get(0).setCreatedAt(LocalDateTime.now().minusSeconds(70));
+
+        service.rotateIfDue();
+        SigningKeyService.ActiveKey second = service.current();
+
+        assertNotEquals(first.kid(), second.kid());
+        assertNotNull(service.publicKey(first.kid()));
+        assertEquals(2, ((List<?>) service.jwks().get("keys")).size());
+    }
+
+    @Test
+    void rotateIfDue_NotDue_DoesNothing() {
+        service.current();
+        service.rotateIfDue();
+
+        assertEquals(1, rows.size());
+    }
+
+    @Test
+    void publicKey_UnknownKid_ReloadsFromDatabase() {
+        SigningKeyService.ActiveKey key = service.current();
+        SigningKeyService other = new SigningKeyService(repository, CIPHER, ROTATION_MS, LIFETIME_MS, 2048);
+
+        // Clé créée par une autre instance
+        assertEquals(key.publicKey(), other.publicKey(key.kid()));
+        assertNull(other.publicKey("unknown"));
+        assertNull(other.publicKey(null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void jwks_ExposesRsaComponents() {
+        SigningKeyService.ActiveKey key = service.current();
+
+        Map<String, Object> jwk = ((List<Map<String, Object>>) service.jwks().get("keys")).get(0);
+
+        assertEquals("RSA", jwk.get("kty"));
+        assertEquals("RS256", jwk.get("alg"));
+        assertEquals(key.kid(), jwk.get("kid"));
+        BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode((String) jwk.get("n")));
+        assertEquals(key.publicKey().getModulus(), modulus);
+        assertEquals("AQAB", jwk.get("e"));
+        assertFalse(jwk.containsKey("d"));
+    }
+
+    @Test
+    void constructor_WeakKeySize_Throws() {
+        assertThrows(IllegalStateException.class, () -> new SigningKeyService(repository, CIPHER, ROTATION_MS, LIFETIME_MS, 1024));
+    }
+
+    @Test
+    void current_StoresPrivateKeyEncrypted() {
+        SigningKeyService.ActiveKey key = service.current();
+
+        String stored = rows.get(0).getPrivateKey();
+        assertTrue(CIPHER.isEncrypted(stored));
+        assertFalse(stored.contains(Base64.getEncoder().encodeToString(key.privateKey().getEncoded())));
+    }
+
+    @Test
+    void current_ReadsRowStoredInClearBeforeEncryption() {
+        SigningKeyService.ActiveKey key = service.current();
+        rows.get(0).setPrivateKey(Base64.getEncoder().encodeToString(key.privateKey().getEncoded()));
+
+        SigningKeyService other = new SigningKeyService(repository, CIPHER, ROTATION_MS, LIFETIME_MS, 2048);
+
+        assertEquals(key.privateKey(), other.current().privateKey());
+    }
+}
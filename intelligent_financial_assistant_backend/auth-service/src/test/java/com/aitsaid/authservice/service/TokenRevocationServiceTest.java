@@ -0,0 +1,192 @@
+package com.aitsaid.authservice.service;
+
+import com.aitsaid.authservice.dtos.RevocationFeedResponse;
+import com.aitsaid.authservice.entities.TokenBlockList;
+import com.aitsaid.authservice.entities.User;
+import com.aitsaid.authservice.repositories.TokenBlockListRepository;
+import com.aitsaid.commoncore.revocation.TokenDigests;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private TokenBlockListRepository tokenBlockListRepository;
+
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TokenRevocationService(tokenBlockListRepository, 1000, 0.01, 86_400_000L, 2);
+    }
+
+    private TokenBlockList row(long id, String token) {
+        return new TokenBlockList(id, TokenDigests.sha256Hex(token), LocalDateTime.now().plusHours(1), LocalDateTime.now(), null);
+    }
+
+    @Test
+    void isRevoked_UnknownToken_ShouldNotHitDatabase() {
+        assertFalse(service.isRevoked("active.token"));
+        verify(tokenBlockListRepository, never()).existsByTokenHash(anyString());
+    }
+
+    @Test
+    void revoke_ShouldPersistDigestAndConfirmOnLookup() {
+        User user = new User();
+        Date exp = new Date(System.currentTimeMillis() + 3_600_000);
+        service.revoke("revoked.token", user, exp);
+
+        ArgumentCaptor<TokenBlockList> captor = ArgumentCaptor.forClass(TokenBlockList.class);
+        verify(tokenBlockListRepository).save(captor.capture());
+        String digest = TokenDigests.sha256Hex("revoked.token");
+        assertEquals(digest, captor.getValue().getTokenHash());
+        assertSame(user, captor.getValue().getUser());
+        assertEquals(LocalDateTime.ofInstant(exp.toInstant(), ZoneId.systemDefault()), captor.getValue().getExpiresAt());
+
+        when(tokenBlockListRepository.existsByTokenHash(digest)).thenReturn(true);
+        assertTrue(service.isRevoked("revoked.token"));
+        assertTrue(service.isRevokedDigest(digest));
+    }
+
+    @Test
+    void revoke_WithoutExpiration_ShouldUseMaximumTokenLifetime() {
+        service.revoke("revoked.token", new User(), null);
+
+        ArgumentCaptor<TokenBlockList> captor = ArgumentCaptor.forClass(TokenBlockList.class);
+        verify(tokenBlockListRepository).save(captor.capture());
+        assertTrue(captor.getValue().getExpiresAt().isAfter(LocalDateTime.now().plusHours(23)));
+    }
+
+    @Test
+    void revoke_InsideTransaction_ShouldWaitForCommitBeforeFilter() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.revoke("revoked.token", new User(), null);
+
+            assertFalse(service.isRevoked("revoked.token"));
+            verify(tokenBlockListRepository, never()).existsByTokenHash(anyString());
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        when(tokenBlockListRepository.existsByTokenHash(TokenDigests.sha256Hex("revoked.token"))).thenReturn(true);
+        assertTrue(service.isRevoked("revoked.token"));
+    }
+
+    @Test
+    void rebuild_ShouldLoadExistingRevocations() {
+        when(tokenBlockListRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(row(1L, "old.token"), row(2L, "other.token")));
+        when(tokenBlockListRepository.existsByTokenHash(TokenDigests.sha256Hex("old.token"))).thenReturn(true);
+
+        service.rebuild();
+
+        assertTrue(service.isRevoked("old.token"));
+    }
+
+    @Test
+    void rebuild_ShouldSkipRowsNotYetMigrated() {
+        TokenBlockList legacy = new TokenBlockList(1L, null, null, LocalDateTime.now(), null);
+        when(tokenBlockListRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenReturn(List.of(legacy));
+
+        assertDoesNotThrow(() -> service.rebuild());
+    }
+
+    @Test
+    void purgeExpired_ShouldDeleteInBatchesUntilExhausted() {
+        when(tokenBlockListRepository.deleteExpiredBatch(any(LocalDateTime.class), eq(2))).thenReturn(2, 2, 1);
+
+        service.purgeExpired();
+
+        verify(tokenBlockListRepository, times(3)).deleteExpiredBatch(any(LocalDateTime.class), eq(2));
+    }
+
+    @Test
+    void purgeExpired_DatabaseError_ShouldNotPropagate() {
+        when(tokenBlockListRepository.deleteExpiredBatch(any(LocalDateTime.class), anyInt())).thenThrow(new RuntimeException("lock timeout"));
+        assertDoesNotThrow(() -> service.purgeExpired());
+    }
+
+    @Test
+    void sync_ShouldPickUpRevocationsFromOtherInstances() {
+        when(tokenBlockListRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(row(5L, "remote.token")));
+
+        service.sync();
+
+        when(tokenBlockListRepository.existsByTokenHash(TokenDigests.sha256Hex("remote.token"))).thenReturn(true);
+        assertTrue(service.isRevoked("remote.token"));
+    }
+
+    @Test
+    void sync_ShouldRereadOverlapWindowForLateCommits() {
+        when(tokenBlockListRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(row(6L, "fast.token")))
+                .thenReturn(List.of(row(5L, "late.token"), row(6L, "fast.token")));
+
+        service.sync();
+        // L'identifiant 5, attribué avant 6, n'est validé qu'après la première lecture
+        service.sync();
+
+        verify(tokenBlockListRepository, never()).findByIdGreaterThanOrderByIdAsc(eq(6L), any(Pageable.class));
+        when(tokenBlockListRepository.existsByTokenHash(TokenDigests.sha256Hex("late.token"))).thenReturn(true);
+        assertTrue(service.isRevoked("late.token"));
+    }
+
+    @Test
+    void sync_DatabaseError_ShouldNotPropagate() {
+        when(tokenBlockListRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class)))
+                .thenThrow(new RuntimeException("DB down"));
+        assertDoesNotThrow(() -> service.sync());
+    }
+
+    @Test
+    void getChanges_ShouldReturnDigestsAndCursor() {
+        when(tokenBlockListRepository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Pageable.class)))
+                .thenReturn(List.of(row(11L, "a"), row(12L, "b"), row(13L, "c")));
+
+        RevocationFeedResponse feed = service.getChanges(10L, 2);
+
+        assertEquals(2, feed.getEntries().size());
+        assertEquals(TokenDigests.sha256Hex("a"), feed.getEntries().get(0).getDigest());
+        assertEquals(12L, feed.getCursor());
+        assertTrue(feed.isHasMore());
+    }
+
+    @Test
+    void getChanges_Empty_ShouldKeepCursor() {
+        when(tokenBlockListRepository.findByIdGreaterThanOrderByIdAsc(eq(7L), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+
+        RevocationFeedResponse feed = service.getChanges(7L, 500);
+
+        assertTrue(feed.getEntries().isEmpty());
+        assertEquals(7L, feed.getCursor());
+        assertFalse(feed.isHasMore());
+    }
+}
@@ -0,0 +1,154 @@
+package com.aitsaid.authservice.service;
+
+import com.aitsaid.authservice.dtos.UserChangeFeedResponse;
+import com.aitsaid.authservice.entities.UserChange;
+import com.aitsaid.authservice.repositories.UserChangeRepository;
+import com.aitsaid.authservice.security.UserPrincipalCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserChangeServiceTest {
+
+    @Mock
+    private UserChangeRepository userChangeRepository;
+
+    @Mock
+    private UserPrincipalCache principalCache;
+
+    private UserChangeService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UserChangeService(userChangeRepository, principalCache, 86_400_000L, 2, 86_400_000L);
+    }
+
+    private UserChange row(long id, long userId) {
+        UserChange change = new UserChange(userId);
+        change.setId(id);
+        return change;
+    }
+
+    @Test
+    void record_ShouldPersistUserId() {
+        service.record(42L);
+
+        ArgumentCaptor<UserChange> captor = ArgumentCaptor.forClass(UserChange.class);
+        verify(userChangeRepository).save(captor.capture());
+        assertEquals(42L, captor.getValue().getUserId());
+    }
+
+    @Test
+    void recordSessionInvalidation_ShouldFlagEntry() {
+        service.recordSessionInvalidation(42L);
+
+        ArgumentCaptor<UserChange> captor = ArgumentCaptor.forClass(UserChange.class);
+        verify(userChangeRepository).save(captor.capture());
+        assertEquals(42L, captor.getValue().getUserId());
+        assertTrue(captor.getValue().isSessionsInvalidated());
+    }
+
+    @Test
+    void syncSessionInvalidations_ShouldApplyChangesFromAllInstances() {
+        LocalDateTime changedAt = LocalDateTime.now().minusSeconds(30);
+        UserChange change = new UserChange(5L, true);
+        change.setChangedAt(changedAt);
+        when(userChangeRepository.findBySessionsInvalidatedTrueAndChangedAtAfterOrderByIdAsc(any(LocalDateTime.class)))
+                .thenReturn(List.of(change));
+
+        service.syncSessionInvalidations();
+
+        // Premier passage : toute la durée de vie d'un token
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(userChangeRepository).findBySessionsInvalidatedTrueAndChangedAtAfterOrderByIdAsc(since.capture());
+        assertTrue(since.getValue().isBefore(LocalDateTime.now().minusHours(23)));
+        verify(principalCache).invalidateSessions(5L, changedAt.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    @Test
+    void syncSessionInvalidations_ShouldOverlapPreviousPass() {
+        when(userChangeRepository.findBySessionsInvalidatedTrueAndChangedAtAfterOrderByIdAsc(any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+        service.syncSessionInvalidations();
+        LocalDateTime secondStart = LocalDateTime.now();
+
+        service.syncSessionInvalidations();
+
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(userChangeRepository, times(2)).findBySessionsInvalidatedTrueAndChangedAtAfterOrderByIdAsc(since.capture());
+        LocalDateTime second = since.getAllValues().get(1);
+        assertTrue(second.isAfter(secondStart.minusMinutes(2)) && second.isBefore(secondStart));
+    }
+
+    @Test
+    void syncSessionInvalidations_DatabaseError_ShouldRetryFullWindow() {
+        when(userChangeRepository.findBySessionsInvalidatedTrueAndChangedAtAfterOrderByIdAsc(any(LocalDateTime.class)))
+                .thenThrow(new RuntimeException("connection refused"))
+                .thenReturn(Collections.emptyList());
+
+        assertDoesNotThrow(() -> service.syncSessionInvalidations());
+        service.syncSessionInvalidations();
+
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(userChangeRepository, times(2)).findBySessionsInvalidatedTrueAndChangedAtAfterOrderByIdAsc(since.capture());
+        assertTrue(since.getAllValues().get(1).isBefore(LocalDateTime.now().minusHours(23)));
+        verifyNoInteractions(principalCache);
+    }
+
+    @Test
+    void getChanges_ShouldReturnUserIdsAndCursor() {
+        when(userChangeRepository.findByIdGreaterThanOrderByIdAsc(eq(10L), any(Pageable.class)))
+                .thenReturn(List.of(row(11L, 5L), row(12L, 6L), row(13L, 5L)));
+
+        UserChangeFeedResponse feed = service.getChanges(10L, 2);
+
+        assertEquals(2, feed.getEntries().size());
+        assertEquals(5L, feed.getEntries().get(0).getUserId());
+        assertEquals(12L, feed.getCursor());
+        assertTrue(feed.isHasMore());
+    }
+
+    @Test
+    void getChanges_Empty_ShouldKeepCursor() {
+        when(userChangeRepository.findByIdGreaterThanOrderByIdAsc(eq(7L), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+
+        UserChangeFeedResponse feed = service.getChanges(7L, 500);
+
+        assertTrue(feed.getEntries().isEmpty());
+        assertEquals(7L, feed.getCursor());
+        assertFalse(feed.isHasMore());
+    }
+
+    @Test
+    void purgeExpired_ShouldDeleteInBatchesUntilExhausted() {
+        when(userChangeRepository.deleteOlderBatch(any(LocalDateTime.class), eq(2))).thenReturn(2, 1);
+
+        service.purgeExpired();
+
+        verify(userChangeRepository, times(2)).deleteOlderBatch(any(LocalDateTime.class), eq(2));
+    }
+
+    @Test
+    void purgeExpired_DatabaseError_ShouldNotPropagate() {
+        when(userChangeRepository.deleteOlderBatch(any(LocalDateTime.class), anyInt()))
+                .thenThrow(new RuntimeException("lock timeout"));
+        assertDoesNotThrow(() -> service.purgeExpired());
+    }
+}
@@ -2,26 +2,37 @@ package com.aitsaid.authservice.service;
 
 import com.aitsaid.authservice.dtos.UpdateProfileRequest;
 import com.aitsaid.authservice.dtos.UpdateUserRequest;
+import com.aitsaid.authservice.dtos.UserCursor;
 import com.aitsaid.authservice.dtos.UserDetails;
+import com.aitsaid.authservice.dtos.UserSearchFilter;
+import com.aitsaid.authservice.dtos.UserSearchPage;
+import com.aitsaid.authservice.dtos.UserSummary;
 import com.aitsaid.authservice.entities.Role;
 import com.aitsaid.authservice.entities.User;
 import com.aitsaid.authservice.exceptions.CinAlreadyExistsException;
 import com.aitsaid.authservice.exceptions.EmailAlreadyExistsException;
 import com.aitsaid.authservice.exceptions.UserNotFoundException;
 import com.aitsaid.authservice.repositories.UserRepository;
+import com.aitsaid.authservice.security.UserPrincipalCache;
+import com.aitsaid.commoncore.cache.AggregateCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +41,15 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserPrincipalCache principalCache;
+
+    @Mock
+    private AggregateCache aggregateCache;
+
+    @Mock
+    private UserChangeService userChangeService;
+
     @InjectMocks
     private UserService userService;
 
@@ -45,9 +65,15 @@ class UserServiceTest {
         user.setRole(Role.ROLE_USER);
     }
 
+    private UserSummary summary(long id, String email) {
+        return new SpelAwareProxyProjectionFactory().createProjection(UserSummary.class,
+                Map.of("id", id, "firstName", "John", "lastName", "Doe", "email", email, "enabled", true));
+    }
+
     @Test
     void getAllUsers_Success() {
-        when(userRepository.findAllByRole(Role.ROLE_USER)).thenReturn(Collections.singletonList(user));
+        when(userRepository.findSummariesByRoleOrderByIdDesc(Role.ROLE_USER))
+                .thenReturn(Collections.singletonList(summary(1L, "test@example.com")));
 
         List<UserDetails> result = userService.getAllUsers();
 
@@ -57,7 +83,53 @@ class UserServiceTest {
     }
 
     @Test
+    void searchUsers_FullPage_ReturnsCursorAfterLastRow() {
+        UserSearchFilter filter = new UserSearchFilter("jo", null, null, null);
+        when(userRepository.searchAfter(Role.ROLE_USER, filter, null, 3))
+                .thenReturn(List.of(summary(9L, "a@x.com"), summary(7L, "b@x.com"), summary(4L, "c@x.com")));
+
+        UserSearchPage page = userService.searchUsers(filter, null, 2);
+
+        assertEquals(2, page.getContent().size());
+        assertTrue(page.isHasMore());
+        assertEquals(7L, UserCursor.decode(page.getNextCursor()).id());
+    }
+
+    @Test
+    void searchUsers_LastPage_NoCursorAndSizeCapped() {
+        UserSearchFilter filter = new UserSearchFilter(null, null, null, null);
+        UserCursor after = new UserCursor(7L);
+        when(userRepository.searchAfter(Role.ROLE_USER, filter, after, 101))
+                .thenReturn(List.of(summary(4L, "c@x.com")));
+
+        UserSearchPage page = userService.searchUsers(filter, after, 10_000);
+
+        assertEquals(1, page.getContent().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void suggestUsers_DefaultsAndCapsLimit() {
+        when(userRepository.suggest(Role.ROLE_USER, "jo", 10)).thenReturn(List.of(summary(9L, "a@x.com")));
+
+        assertEquals(1, userService.suggestUsers("jo", null).size());
+        userService.suggestUsers("jo", 500);
+
+        verify(userRepository).suggest(Role.ROLE_USER, "jo", 50);
+    }
+
+    @Test
+    void suggestUsers_BlankQuery_ReturnsEmptyWithoutQuery() {
+        assertTrue(userService.suggestUsers(" ", 5).isEmpty());
+        verify(userRepository, never()).suggest(any(), any(), anyInt());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
     void countUsers_Success() {
+        when(aggregateCache.get(eq(UserService.COUNT_CACHE_KEY), any()))
+                .thenAnswer(inv -> ((Supplier<Object>) inv.getArgument(1)).get());
         when(userRepository.countByRole(Role.ROLE_USER)).thenReturn(10L);
 
         long count = userService.countUsers();
@@ -131,6 +203,17 @@ class UserServiceTest {
         assertThrows(CinAlreadyExistsException.class, () -> userService.updateUser(1L, request));
     }
 
+    @Test
+    void getUsersByIds_SingleQueryForDistinctIds() {
+        when(userRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(user));
+
+        List<UserDetails> result = userService.getUsersByIds(List.of(1L, 2L, 1L));
+
+        assertEquals(1, result.size());
+        verify(userRepository, times(1)).findAllById(Set.of(1L, 2L));
+        verify(userRepository, never()).findById(any());
+    }
+
     @Test
     void deleteUser_Success() {
         when(userRepository.existsById(1L)).thenReturn(true);
@@ -139,6 +222,7 @@ class UserServiceTest {
         userService.deleteUser(1L);
 
         verify(userRepository, times(1)).deleteById(1L);
+        verify(aggregateCache).invalidate(UserService.COUNT_CACHE_KEY);
     }
 
     @Test
@@ -199,4 +283,96 @@ class UserServiceTest {
         assertNotNull(updatedUser);
         verify(userRepository, never()).existsByCin(anyString());
     }
+
+    @Test
+    void updateUser_EmailChanged_InvalidatesSessions() {
+        UpdateUserRequest request = new UpdateUserRequest();
+        request.setEmail("new@example.com");
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.existsByEmail("new@example.com")).thenReturn(false);
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        userService.updateUser(1L, request);
+
+        verify(principalCache).invalidateSessions(1L);
+        verify(userChangeService).recordSessionInvalidation(1L);
+    }
+
+    @Test
+    void updateUser_Disabled_InvalidatesSessions() {
+        user.setEnabled(true);
+        UpdateUserRequest request = new UpdateUserRequest();
+        request.setEnabled(false);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        userService.updateUser(1L, request);
+
+        verify(principalCache).invalidateSessions(1L);
+        verify(userChangeService).recordSessionInvalidation(1L);
+    }
+
+    @Test
+    void updateUserProfile_InvalidatesCachedPrincipal() {
+        UpdateProfileRequest request = new UpdateProfileRequest();
+        request.setPhoneNumber("0600000000");
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        userService.updateUserProfile(1L, request);
+
+        verify(principalCache).invalidate(1L);
+        verify(principalCache, never()).invalidateSessions(anyLong());
+        verify(userChangeService).record(1L);
+    }
+
+    @Test
+    void deleteUser_InvalidatesSessions() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        userService.deleteUser(1L);
+
+        verify(principalCache).invalidateSessions(1L);
+        verify(userChangeService).recordSessionInvalidation(1L);
+    }
+
+    @Test
+    void deleteUser_NotFound_PublishesNoChange() {
+        when(userRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () -> userService.deleteUser(1L));
+
+        verifyNoInteractions(userChangeService);
+    }
+
+    @Test
+    void getProfile_CacheHit_NoLookup() {
+        when(principalCache.get("test@example.com")).thenReturn(user);
+
+        UserDetails details = userService.getProfile(user);
+
+        assertEquals("test@example.com", details.getEmail());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getProfile_CacheMiss_LoadsAndCaches() {
+        when(principalCache.generation()).thenReturn(4L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        UserDetails details = userService.getProfile(user);
+
+        assertEquals("John", details.getFirstName());
+        verify(principalCache).put(user, 4L);
+    }
+
+    @Test
+    void getProfile_NotFound() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> userService.getProfile(user));
+    }
 }
@@ -0,0 +1,26 @@
+package com.aitsaid.commoncore.cache;
+
+import java.util.function.Supplier;
+
+/**
+ * Cache des agrégats coûteux lus en boucle par les tableaux de bord (compteurs, statistiques).
+ * <p>
+ * Une valeur est partagée par tous les appelants de l'instance : N tableaux de bord ouverts
+ * coûtent un calcul par intervalle de rafraîchissement, pas N. Les chemins d'écriture appellent
+ * {@link #invalidate} pour que le changement soit visible sans attendre l'expiration.
+ */
+public interface AggregateCache {
+
+    /**
+     * Valeur en cache pour {@code key}, sinon calculée par {@code loader} (un seul calcul pour les
+     * appels concurrents). Le même loader sert ensuite à rafraîchir la clé : il ne doit dépendre
+     * que de la clé.
+     */
+    <T> T get(String key, Supplier<T> loader);
+
+    /**
+     * Retire ces clés ; dans une transaction, après sa validation seulement, pour qu'un rechargement
+     * ne relise pas l'état d'avant l'écriture.
+     */
+    void invalidate(String... keys);
+}
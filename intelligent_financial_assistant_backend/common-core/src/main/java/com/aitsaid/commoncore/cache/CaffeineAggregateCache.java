@@ -0,0 +1,67 @@
+package com.aitsaid.commoncore.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * {@link AggregateCache} Caffeine, déclaré en bean par chaque microservice hôte.
+ * <p>
+ * Une entrée lue après {@code refreshMs} est rechargée en arrière-plan (l'appelant reçoit encore
+ * l'ancienne valeur) et n'est plus servie après {@code ttlMs}.
+ * Taux de succès publiés par Micrometer sous {@code cache.gets{cache=aggregates}}.
+ */
+public class CaffeineAggregateCache implements AggregateCache {
+
+    private final Map<String, Supplier<?>> loaders = new ConcurrentHashMap<>();
+    private final LoadingCache<String, Object> cache;
+
+    public CaffeineAggregateCache(MeterRegistry meterRegistry, long ttlMs, long refreshMs, long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .refreshAfterWrite(Duration.ofMillis(refreshMs))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "aggregates");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        loaders.putIfAbsent(key, loader);
+        return (T) cache.get(key);
+    }
+
+    @Override
+    public void invalidate(String... keys) {
+        List<String> toInvalidate = List.of(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidateAll(toInvalidate);
+                }
+            });
+        } else {
+            cache.invalidateAll(toInvalidate);
+        }
+    }
+
+    private Object load(String key) {
+        Supplier<?> loader = loaders.get(key);
+        if (loader == null) {
+            throw new IllegalStateException("No loader registered for aggregate " + key);
+        }
+        return loader.get();
+    }
+}
@@ -0,0 +1,93 @@
+package com.aitsaid.commoncore.jwks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conversion JWK (RFC 7517) &lt;-&gt; clés publiques RSA : publication par auth-service, lecture par le
+ * gateway et les microservices.
+ */
+public final class Jwks {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private Jwks() {
+    }
+
+    /**
+     * Clés RSA de signature du document, indexées par {@code kid} ; les autres entrées sont ignorées.
+     */
+    public static Map<String, PublicKey> parse(Map<String, Object> jwks) {
+        Map<String, PublicKey> keys = new HashMap<>();
+        Object entries = jwks != null ? jwks.get("keys") : null;
+        if (!(entries instanceof List<?> list)) {
+            return keys;
+        }
+        for (Object entry : list) {
+            if (entry instanceof Map<?, ?> jwk && "RSA".equals(jwk.get("kty"))
+                    && jwk.get("kid") instanceof String kid && !"enc".equals(jwk.get("use"))) {
+                try {
+                    keys.put(kid, rsaKey((String) jwk.get("n"), (String) jwk.get("e")));
+                } catch (GeneralSecurityException | RuntimeException ignored) {
+                    // Entrée invalide : les autres clés restent utilisables
+                }
+            }
+        }
+        return keys;
+    }
+
+    public static Map<String, Object> toJwk(String kid, RSAPublicKey key) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "RSA");
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", "RS256");
+        jwk.put("n", base64Url(key.getModulus()));
+        jwk.put("e", base64Url(key.getPublicExponent()));
+        return jwk;
+    }
+
+    /**
+     * {@code kid} de l'en-tête, lu sans vérification (uniquement pour choisir la clé), ou {@code null}.
+     */
+    public static String keyIdOf(String token) {
+        int dot = token == null ? -1 : token.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        try {
+            JsonNode kid = MAPPER.readTree(Base64.getUrlDecoder().decode(token.substring(0, dot))).get("kid");
+            return kid != null && kid.isTextual() ? kid.asText() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static PublicKey rsaKey(String n, String e) throws GeneralSecurityException {
+        BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode(n));
+        BigInteger exponent = new BigInteger(1, Base64.getUrlDecoder().decode(e));
+        return KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(modulus, exponent));
+    }
+
+    // Entier non signé, big-endian, sans octet de signe (RFC 7518 §6.3.1)
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
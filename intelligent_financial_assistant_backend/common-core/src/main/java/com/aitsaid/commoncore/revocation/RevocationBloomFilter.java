@@ -0,0 +1,82 @@
+package com.aitsaid.commoncore.revocation;
+
+import java.nio.ByteBuffer;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtre de Bloom des tokens révoqués, indexé par empreinte SHA-256.
+ * <p>
+ * Les empreintes étant déjà uniformément réparties, les k positions sont dérivées
+ * directement des 16 premiers octets (double hachage), sans recalcul.
+ * Un résultat négatif est certain ; un résultat positif doit être confirmé.
+ * Thread-safe : les bits sont posés par CAS.
+ */
+public class RevocationBloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicInteger insertions = new AtomicInteger();
+
+    public RevocationBloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(expectedInsertions, 1);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        m = Math.max(64, m);
+        this.bits = new AtomicLongArray((int) ((m + 63) / 64));
+        this.bitCount = (long) bits.length() * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+    }
+
+    /**
+     * Une empreinte déjà présente (flux relu avec recouvrement) ne pose aucun bit et n'est pas recomptée.
+     */
+    public void put(byte[] digest) {
+        long h1 = h1(digest);
+        long h2 = h2(digest);
+        boolean added = false;
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitCount);
+            long mask = 1L << (index & 63);
+            long prev = bits.getAndAccumulate((int) (index >>> 6), mask, (p, m) -> p | m);
+            added |= (prev & mask) == 0;
+        }
+        if (added) {
+            insertions.incrementAndGet();
+        }
+    }
+
+    public void put(String hexDigest) {
+        put(HexFormat.of().parseHex(hexDigest));
+    }
+
+    public boolean mightContain(byte[] digest) {
+        long h1 = h1(digest);
+        long h2 = h2(digest);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (index >>> 6)) & (1L << (index & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean mightContain(String hexDigest) {
+        return mightContain(HexFormat.of().parseHex(hexDigest));
+    }
+
+    public int insertions() {
+        return insertions.get();
+    }
+
+    private static long h1(byte[] digest) {
+        return ByteBuffer.wrap(digest, 0, 8).getLong();
+    }
+
+    private static long h2(byte[] digest) {
+        // Forcé impair pour parcourir toutes les positions
+        return ByteBuffer.wrap(digest, 8, 8).getLong() | 1L;
+    }
+}
@@ -0,0 +1,60 @@
+package com.aitsaid.commoncore.revocation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Position de lecture du flux de révocation, avec fenêtre de recouvrement.
+ * <p>
+ * Les identifiants sont attribués à l'insertion mais visibles au commit : une révocation d'identifiant
+ * inférieur peut apparaître après une autre déjà lue. Avancer strictement sur {@code id > cursor} la
+ * manquerait jusqu'à la reconstruction suivante. Chaque lecture repart donc de la position atteinte il y a
+ * au moins {@code overlap} : toute transaction validée en moins de ce délai est relue. Les doublons sont
+ * sans effet sur le filtre de Bloom.
+ */
+public class RevocationCursor {
+
+    private record Checkpoint(Instant at, long position) {
+    }
+
+    private final Duration overlap;
+    private final Clock clock;
+    // Positions atteintes, par ordre chronologique ; la première est toujours sûre à relire
+    private final Deque<Checkpoint> checkpoints = new ArrayDeque<>();
+
+    public RevocationCursor(Duration overlap) {
+        this(overlap, Clock.systemUTC());
+    }
+
+    public RevocationCursor(Duration overlap, Clock clock) {
+        this.overlap = overlap;
+        this.clock = clock;
+        // Avant toute lecture, seule la position 0 ne laisse rien passer
+        checkpoints.add(new Checkpoint(Instant.MIN, 0L));
+    }
+
+    /**
+     * Position à partir de laquelle relire : la plus récente atteinte il y a au moins {@code overlap}.
+     */
+    public synchronized long from() {
+        Instant threshold = clock.instant().minus(overlap);
+        Checkpoint safe = checkpoints.pollFirst();
+        while (!checkpoints.isEmpty() && !checkpoints.peekFirst().at().isAfter(threshold)) {
+            safe = checkpoints.pollFirst();
+        }
+        checkpoints.addFirst(safe);
+        return safe.position();
+    }
+
+    /**
+     * Enregistre la position atteinte, une fois la lecture terminée.
+     */
+    public synchronized void advance(long position) {
+        if (position > checkpoints.getLast().position()) {
+            checkpoints.addLast(new Checkpoint(clock.instant(), position));
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.aitsaid.commoncore.revocation;
+
+import java.util.List;
+
+/**
+ * Page du flux {@code /auth/revocations} exposé par auth-service.
+ */
+public record RevocationFeed(List<Entry> entries, Long cursor, boolean hasMore) {
+
+    public record Entry(Long id, String digest) {
+    }
+}
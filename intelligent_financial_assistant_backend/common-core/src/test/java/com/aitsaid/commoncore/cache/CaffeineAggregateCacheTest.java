@@ -0,0 +1,31 @@
+package com.aitsaid.commoncore.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaffeineAggregateCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CaffeineAggregateCache cache = new CaffeineAggregateCache(meterRegistry, 60000, 60000, 100);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_LoadsOnceUntilInvalidated() {
+        assertEquals(1L, (long) cache.get("users.count", this::load));
+        assertEquals(1L, (long) cache.get("users.count", this::load));
+
+        cache.invalidate("users.count");
+
+        assertEquals(2L, (long) cache.get("users.count", this::load));
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "aggregates").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    private Long load() {
+        return (long) loads.incrementAndGet();
+    }
+}
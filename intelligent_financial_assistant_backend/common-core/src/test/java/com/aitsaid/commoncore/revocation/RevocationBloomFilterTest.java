@@ -0,0 +1,57 @@
+package com.aitsaid.commoncore.revocation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevocationBloomFilterTest {
+
+    @Test
+    void mightContain_ShouldReturnTrueForInsertedDigest() {
+        RevocationBloomFilter filter = new RevocationBloomFilter(1000, 0.01);
+        String digest = TokenDigests.sha256Hex("revoked.token");
+
+        filter.put(digest);
+
+        assertTrue(filter.mightContain(digest));
+        assertTrue(filter.mightContain(TokenDigests.sha256("revoked.token")));
+        assertEquals(1, filter.insertions());
+    }
+
+    @Test
+    void put_SameDigestTwice_ShouldCountOnce() {
+        RevocationBloomFilter filter = new RevocationBloomFilter(1000, 0.01);
+
+        filter.put(TokenDigests.sha256Hex("revoked.token"));
+        filter.put(TokenDigests.sha256Hex("revoked.token"));
+
+        assertEquals(1, filter.insertions());
+    }
+
+    @Test
+    void mightContain_ShouldReturnFalseForEmptyFilter() {
+        RevocationBloomFilter filter = new RevocationBloomFilter(1000, 0.01);
+        assertFalse(filter.mightContain(TokenDigests.sha256Hex("any.token")));
+    }
+
+    @Test
+    void mightContain_FalsePositiveRateShouldStayNearTarget() {
+        RevocationBloomFilter filter = new RevocationBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(TokenDigests.sha256("revoked-" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain(TokenDigests.sha256("active-" + i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void sha256Hex_ShouldBeFixedWidth() {
+        assertEquals(64, TokenDigests.sha256Hex("header.payload.signature").length());
+    }
+}
@@ -0,0 +1,74 @@
+package com.aitsaid.commoncore.revocation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevocationCursorTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private RevocationCursor cursor;
+
+    @BeforeEach
+    void setUp() {
+        cursor = new RevocationCursor(Duration.ofMinutes(1), new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(now.get());
+            }
+        });
+    }
+
+    @Test
+    void from_RereadsEverythingUntilFirstPositionIsOldEnough() {
+        cursor.advance(10);
+        now.addAndGet(5_000);
+        cursor.advance(20);
+
+        assertEquals(0, cursor.from());
+    }
+
+    @Test
+    void from_RestartsFromPositionReachedOneOverlapAgo() {
+        cursor.advance(10);
+        now.addAndGet(30_000);
+        cursor.advance(20);
+        now.addAndGet(40_000);
+        cursor.advance(30);
+
+        // 10 atteint il y a 70 s, 20 il y a 40 s : une révocation validée en retard sous 20 est relue
+        assertEquals(10, cursor.from());
+
+        now.addAndGet(30_000);
+        assertEquals(20, cursor.from());
+    }
+
+    @Test
+    void advance_IgnoresPositionsThatDoNotMoveForward() {
+        cursor.advance(10);
+        now.addAndGet(30_000);
+        cursor.advance(10);
+        cursor.advance(5);
+        now.addAndGet(40_000);
+
+        assertEquals(10, cursor.from());
+    }
+}
@@ -0,0 +1,264 @@
+package com.aitsaid.commonsecurity.idempotency;
+
+import com.aitsaid.commoncore.revocation.TokenDigests;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Déduplication des POST qui déplacent de l'argent, via l'en-tête {@code Idempotency-Key}.
+ * <p>
+ * La clé est propre à l'utilisateur authentifié. Un rejeu de la même requête renvoie la réponse
+ * enregistrée sans exécuter le contrôleur (ni appeler les autres services) ; la même clé avec un
+ * autre corps est refusée (422). Deux doublons simultanés sur la même instance attendent la même
+ * exécution ; sur deux instances, le second reçoit 409 tant que le premier n'a pas répondu.
+ * <p>
+ * Actif uniquement sur les chemins listés dans {@code idempotency.paths} ; sans en-tête, la requête
+ * passe inchangée. Les réponses 5xx ne sont pas conservées : le client peut réessayer.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyFilter.class);
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final ObjectProvider<IdempotencyStore> store;
+    private final List<String> paths;
+    private final long inFlightTimeoutMs;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    // Exécutions en cours sur cette instance : les doublons simultanés s'y rattachent
+    private final Map<String, CompletableFuture<IdempotencyStore.StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(ObjectProvider<IdempotencyStore> store,
+                             @Value("${idempotency.paths:}") List<String> paths,
+                             @Value("${idempotency.in-flight-timeout-ms:30000}") long inFlightTimeoutMs) {
+        this.store = store;
+        this.paths = paths.stream().map(String::trim).filter(p -> !p.isEmpty()).toList();
+        this.inFlightTimeoutMs = inFlightTimeoutMs;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String pattern : paths) {
+            if (matcher.match(pattern, path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        IdempotencyStore keys = store.getIfAvailable();
+        if (keys == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST,
+                    HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        CachedBodyRequest cached = new CachedBodyRequest(request);
+        String keyHash = TokenDigests.sha256Hex(principal() + '\n' + key);
+        String requestHash = TokenDigests.sha256Hex(request.getMethod() + ' ' + request.getRequestURI() + '\n'
+                + new String(cached.body, StandardCharsets.UTF_8));
+
+        CompletableFuture<IdempotencyStore.StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<IdempotencyStore.StoredResponse> running = inFlight.putIfAbsent(keyHash, mine);
+        if (running != null) {
+            awaitDuplicate(running, requestHash, response);
+            return;
+        }
+        try {
+            IdempotencyStore.StoredResponse stored = keys.find(keyHash);
+            if (stored != null) {
+                mine.complete(stored);
+                if (!stored.requestHash().equals(requestHash)) {
+                    writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                            HEADER + " already used for a different request");
+                } else if (stored.completed()) {
+                    replay(stored, response);
+                } else {
+                    writeInProgress(response);
+                }
+                return;
+            }
+            if (!keys.tryBegin(keyHash, requestHash)) {
+                mine.complete(null);
+                writeInProgress(response);
+                return;
+            }
+            mine.complete(execute(keys, keyHash, requestHash, cached, response, filterChain));
+        } catch (IOException | ServletException | RuntimeException | Error e) {
+            keys.release(keyHash);
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(keyHash, mine);
+        }
+    }
+
+    private IdempotencyStore.StoredResponse execute(IdempotencyStore keys, String keyHash, String requestHash,
+                                                    CachedBodyRequest request, HttpServletResponse response,
+                                                    FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        int status = wrapper.getStatus();
+        String body = new String(wrapper.getContentAsByteArray(), StandardCharsets.UTF_8);
+        IdempotencyStore.StoredResponse result = new IdempotencyStore.StoredResponse(
+                requestHash, true, status, wrapper.getContentType(), body);
+        if (status >= 500) {
+            keys.release(keyHash);
+        } else {
+            keys.complete(keyHash, status, wrapper.getContentType(), body);
+        }
+        wrapper.copyBodyToResponse();
+        return result;
+    }
+
+    private void awaitDuplicate(CompletableFuture<IdempotencyStore.StoredResponse> running, String requestHash,
+                                HttpServletResponse response) throws IOException {
+        IdempotencyStore.StoredResponse result;
+        try {
+            result = running.get(inFlightTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writeInProgress(response);
+            return;
+        } catch (Exception e) {
+            writeInProgress(response);
+            return;
+        }
+        if (result == null || !result.completed()) {
+            writeInProgress(response);
+        } else if (!result.requestHash().equals(requestHash)) {
+            writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, HEADER + " already used for a different request");
+        } else {
+            replay(result, response);
+        }
+    }
+
+    private void replay(IdempotencyStore.StoredResponse stored, HttpServletResponse response) throws IOException {
+        log.debug("Replaying stored response ({})", stored.status());
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.body() != null) {
+            response.getOutputStream().write(stored.body().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void writeInProgress(HttpServletResponse response) throws IOException {
+        response.setHeader("Retry-After", "1");
+        writeError(response, HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed");
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(("{\"status\":" + status.value()
+                + ",\"error\":\"" + status.getReasonPhrase()
+                + "\",\"message\":\"" + message + "\"}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String principal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    /**
+     * Corps lu une fois pour l'empreinte, puis relu par le contrôleur.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Corps déjà en mémoire : tout est lisible immédiatement, sans attendre le réseau
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.aitsaid.commonsecurity.idempotency;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Clés d'idempotence partagées par toutes les instances d'un microservice.
+ * <p>
+ * Une ligne par clé (empreinte SHA-256 : longueur fixe, clé primaire) avec l'empreinte de la requête
+ * et la réponse rendue. Une ligne IN_PROGRESS est un bail de {@code idempotency.in-flight-timeout-ms},
+ * prolongé toutes les {@code idempotency.lease-renew-interval-ms} tant que l'instance qui l'a pris exécute
+ * la requête : une requête lente n'est jamais réexécutée par une autre instance, et seule une instance
+ * arrêtée en cours de requête laisse expirer sa clé. Une réponse enregistrée est conservée
+ * {@code idempotency.ttl-ms} puis purgée par lots.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+    private static final String IN_PROGRESS = "IN_PROGRESS";
+    private static final String DONE = "DONE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long ttlMs;
+    private final long inFlightTimeoutMs;
+    // Clés IN_PROGRESS prises par cette instance, dont le bail est prolongé
+    private final Set<String> leases = ConcurrentHashMap.newKeySet();
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate,
+                            @Value("${idempotency.ttl-ms:86400000}") long ttlMs,
+                            @Value("${idempotency.in-flight-timeout-ms:30000}") long inFlightTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlMs = ttlMs;
+        this.inFlightTimeoutMs = inFlightTimeoutMs;
+    }
+
+    /**
+     * La table n'appartient à aucune entité JPA du service : elle est créée ici, avant la première requête.
+     */
+    @PostConstruct
+    void createTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS idempotency_keys ("
+                + "key_hash VARCHAR(64) PRIMARY KEY, "
+                + "request_hash VARCHAR(64) NOT NULL, "
+                + "state VARCHAR(16) NOT NULL, "
+                + "response_status INT, "
+                + "content_type VARCHAR(100), "
+                + "response_body TEXT, "
+                + "expires_at BIGINT NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at "
+                + "ON idempotency_keys (expires_at)");
+    }
+
+    /**
+     * @return l'entrée non expirée de cette clé, ou {@code null}
+     */
+    public StoredResponse find(String keyHash) {
+        List<StoredResponse> rows = jdbcTemplate.query(
+                "SELECT request_hash, state, response_status, content_type, response_body "
+                        + "FROM idempotency_keys WHERE key_hash = ? AND expires_at > ?",
+                (rs, i) -> new StoredResponse(
+                        rs.getString("request_hash"),
+                        DONE.equals(rs.getString("state")),
+                        rs.getInt("response_status"),
+                        rs.getString("content_type"),
+                        rs.getString("response_body")),
+                keyHash, System.currentTimeMillis());
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Réserve la clé pour une exécution ; {@code false} si une autre instance l'a déjà prise.
+     */
+    public boolean tryBegin(String keyHash, String requestHash) {
+        long now = System.currentTimeMillis();
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE key_hash = ? AND expires_at <= ?", keyHash, now);
+        try {
+            jdbcTemplate.update("INSERT INTO idempotency_keys (key_hash, request_hash, state, expires_at) "
+                    + "VALUES (?, ?, ?, ?)", keyHash, requestHash, IN_PROGRESS, now + inFlightTimeoutMs);
+            leases.add(keyHash);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public void complete(String keyHash, int status, String contentType, String body) {
+        leases.remove(keyHash);
+        jdbcTemplate.update("UPDATE idempotency_keys SET state = ?, response_status = ?, content_type = ?, "
+                        + "response_body = ?, expires_at = ? WHERE key_hash = ?",
+                DONE, status, contentType, body, System.currentTimeMillis() + ttlMs, keyHash);
+    }
+
+    /**
+     * Libère une clé dont l'exécution a échoué : le client peut réessayer avec la même clé.
+     */
+    public void release(String keyHash) {
+        leases.remove(keyHash);
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE key_hash = ? AND state = ?", keyHash, IN_PROGRESS);
+    }
+
+    /**
+     * Prolonge le bail des clés en cours d'exécution sur cette instance.
+     */
+    @Scheduled(fixedDelayString = "${idempotency.lease-renew-interval-ms:10000}")
+    public void renewLeases() {
+        if (leases.isEmpty()) {
+            return;
+        }
+        long expiresAt = System.currentTimeMillis() + inFlightTimeoutMs;
+        List<Object[]> args = leases.stream().map(key -> new Object[]{expiresAt, key, IN_PROGRESS}).toList();
+        try {
+            jdbcTemplate.batchUpdate("UPDATE idempotency_keys SET expires_at = ? WHERE key_hash = ? AND state = ?",
+                    args);
+        } catch (Exception e) {
+            log.warn("Idempotency lease renewal failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}",
+            initialDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        try {
+            int deleted = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at <= ?",
+                    System.currentTimeMillis());
+            if (deleted > 0) {
+                log.info("Purged {} idempotency keys", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("Idempotency key purge failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @param completed {@code false} tant que la première exécution est en cours
+     */
+    public record StoredResponse(String requestHash, boolean completed, int status,
+                                 String contentType, String body) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.aitsaid.commonsecurity.jwks;
+
+import com.aitsaid.commoncore.jwks.Jwks;
+
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JWKS local, sans auth-service : tests et développement hors réseau.
+ */
+public class InMemoryJwksSource implements JwksSource {
+
+    private final Map<String, RSAPublicKey> keys = new ConcurrentHashMap<>();
+    private final AtomicInteger fetchCount = new AtomicInteger();
+
+    public InMemoryJwksSource put(String kid, RSAPublicKey key) {
+        keys.put(kid, key);
+        return this;
+    }
+
+    public void remove(String kid) {
+        keys.remove(kid);
+    }
+
+    public int fetchCount() {
+        return fetchCount.get();
+    }
+
+    @Override
+    public Map<String, Object> fetch() {
+        fetchCount.incrementAndGet();
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        keys.forEach((kid, key) -> jwks.add(Jwks.toJwk(kid, key)));
+        return Map.of("keys", jwks);
+    }
+}
@@ -0,0 +1,13 @@
+package com.aitsaid.commonsecurity.jwks;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.util.Map;
+
+@FeignClient(name = "auth-service", contextId = "jwksClient")
+public interface JwksClient {
+
+    @GetMapping("/.well-known/jwks.json")
+    Map<String, Object> getKeys();
+}
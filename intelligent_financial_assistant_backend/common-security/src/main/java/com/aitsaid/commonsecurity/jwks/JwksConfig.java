@@ -0,0 +1,12 @@
+package com.aitsaid.commonsecurity.jwks;
+
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Active le client JWKS : les microservices vérifient les tokens RS256 localement.
+ */
+@Configuration
+@EnableFeignClients(clients = JwksClient.class)
+public class JwksConfig {
+}
@@ -0,0 +1,72 @@
+package com.aitsaid.commonsecurity.jwks;
+
+import com.aitsaid.commoncore.jwks.Jwks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.PublicKey;
+import java.util.Map;
+
+/**
+ * Clés publiques d'auth-service, rafraîchies en tâche de fond.
+ * <p>
+ * Un {@code kid} inconnu (rotation côté auth-service) déclenche un rechargement synchrone, limité
+ * à un par {@code jwt.jwks.min-refresh-interval-ms} pour qu'un {@code kid} arbitraire ne puisse
+ * pas saturer auth-service.
+ */
+@Component
+public class JwksKeySet {
+
+    private static final Logger log = LoggerFactory.getLogger(JwksKeySet.class);
+
+    private final JwksSource source;
+    private final long minRefreshIntervalMs;
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private long lastFetch;
+
+    public JwksKeySet(JwksSource source,
+                      @Value("${jwt.jwks.min-refresh-interval-ms:10000}") long minRefreshIntervalMs) {
+        this.source = source;
+        this.minRefreshIntervalMs = minRefreshIntervalMs;
+    }
+
+    /**
+     * Clé connue, sinon un rechargement si le délai minimal est écoulé ; {@code null} si toujours absente.
+     */
+    public PublicKey get(String kid) {
+        if (kid == null) {
+            return null;
+        }
+        PublicKey key = keys.get(kid);
+        if (key != null) {
+            return key;
+        }
+        load(false);
+        return keys.get(kid);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.jwks.refresh-interval-ms:300000}")
+    public void refresh() {
+        load(true);
+    }
+
+    private synchronized void load(boolean force) {
+        long now = System.currentTimeMillis();
+        if (!force && now - lastFetch < minRefreshIntervalMs) {
+            return;
+        }
+        lastFetch = now;
+        try {
+            Map<String, PublicKey> loaded = Jwks.parse(source.fetch());
+            if (!loaded.isEmpty()) {
+                keys = Map.copyOf(loaded);
+            }
+        } catch (Exception e) {
+            log.warn("JWKS refresh failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.aitsaid.commonsecurity.jwks;
+
+import java.util.Map;
+
+/**
+ * Fournit le document JWKS ({@code {"keys": [...]}}) d'auth-service.
+ */
+public interface JwksSource {
+
+    Map<String, Object> fetch();
+}
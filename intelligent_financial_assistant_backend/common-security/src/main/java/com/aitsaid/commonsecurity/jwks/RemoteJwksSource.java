@@ -0,0 +1,23 @@
+package com.aitsaid.commonsecurity.jwks;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * JWKS publié par auth-service, résolu via Eureka.
+ */
+@Component
+public class RemoteJwksSource implements JwksSource {
+
+    private final JwksClient jwksClient;
+
+    public RemoteJwksSource(JwksClient jwksClient) {
+        this.jwksClient = jwksClient;
+    }
+
+    @Override
+    public Map<String, Object> fetch() {
+        return jwksClient.getKeys();
+    }
+}
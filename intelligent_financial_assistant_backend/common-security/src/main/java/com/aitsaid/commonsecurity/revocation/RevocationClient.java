@@ -0,0 +1,17 @@
+package com.aitsaid.commonsecurity.revocation;
+
+import com.aitsaid.commoncore.revocation.RevocationFeed;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+@FeignClient(name = "auth-service", contextId = "revocationClient")
+public interface RevocationClient {
+
+    @GetMapping("/auth/revocations")
+    RevocationFeed getChanges(@RequestParam("since") long since, @RequestParam("limit") int limit);
+
+    @GetMapping("/auth/revocations/{digest}")
+    Boolean isRevoked(@PathVariable("digest") String digest);
+}
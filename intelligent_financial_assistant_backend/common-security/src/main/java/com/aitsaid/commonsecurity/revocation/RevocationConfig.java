@@ -0,0 +1,15 @@
+package com.aitsaid.commonsecurity.revocation;
+
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active le client du flux de révocation et la synchronisation périodique
+ * dans chaque microservice qui embarque common-security.
+ */
+@Configuration
+@EnableScheduling
+@EnableFeignClients(clients = RevocationClient.class)
+public class RevocationConfig {
+}
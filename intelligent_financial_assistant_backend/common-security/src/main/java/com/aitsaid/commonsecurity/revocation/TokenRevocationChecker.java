@@ -0,0 +1,116 @@
+package com.aitsaid.commonsecurity.revocation;
+
+import com.aitsaid.commoncore.revocation.RevocationBloomFilter;
+import com.aitsaid.commoncore.revocation.RevocationFeed;
+import com.aitsaid.commoncore.revocation.RevocationCursor;
+import com.aitsaid.commoncore.revocation.TokenDigests;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Copie locale des révocations d'auth-service pour les appels authentifiés par Bearer token.
+ * <p>
+ * Le filtre de Bloom est alimenté par le flux {@code /auth/revocations} ; seule une réponse
+ * positive déclenche la confirmation exacte auprès d'auth-service. Si la confirmation échoue,
+ * le token est refusé (fail-closed).
+ */
+@Component
+public class TokenRevocationChecker {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationChecker.class);
+    private static final int PAGE_SIZE = 500;
+    // Délai maximal entre l'attribution d'un identifiant de révocation et son commit
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevocationClient revocationClient;
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+
+    private volatile RevocationBloomFilter filter;
+    private final RevocationCursor cursor = new RevocationCursor(SYNC_OVERLAP);
+    private final Set<String> confirmed = ConcurrentHashMap.newKeySet();
+
+    public TokenRevocationChecker(RevocationClient revocationClient,
+                                  @Value("${revocation.bloom.expected-insertions:100000}") int expectedInsertions,
+                                  @Value("${revocation.bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revocationClient = revocationClient;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new RevocationBloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    public boolean isRevoked(String token) {
+        byte[] digest = TokenDigests.sha256(token);
+        if (!filter.mightContain(digest)) {
+            return false;
+        }
+        String hex = TokenDigests.sha256Hex(token);
+        if (confirmed.contains(hex)) {
+            return true;
+        }
+        try {
+            boolean revoked = Boolean.TRUE.equals(revocationClient.isRevoked(hex));
+            if (revoked) {
+                confirmed.add(hex);
+            }
+            return revoked;
+        } catch (Exception e) {
+            log.warn("Revocation lookup failed, rejecting token: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Relit le flux depuis la position atteinte il y a une fenêtre de recouvrement : une révocation
+     * validée après une autre d'identifiant supérieur n'est pas perdue.
+     */
+    @Scheduled(fixedDelayString = "${revocation.sync-interval-ms:5000}")
+    public synchronized void sync() {
+        try {
+            cursor.advance(load(filter, cursor.from()));
+        } catch (Exception e) {
+            log.warn("Revocation feed sync failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reconstruction complète : purge les entrées disparues côté auth-service et redimensionne le filtre.
+     */
+    @Scheduled(fixedDelayString = "${revocation.rebuild-interval-ms:600000}",
+            initialDelayString = "${revocation.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        try {
+            RevocationBloomFilter fresh = new RevocationBloomFilter(
+                    Math.max(expectedInsertions, filter.insertions() * 2), falsePositiveRate);
+            long last = load(fresh, 0L);
+            filter = fresh;
+            cursor.advance(last);
+            confirmed.clear();
+        } catch (Exception e) {
+            log.warn("Revocation feed rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    private long load(RevocationBloomFilter target, long from) {
+        long last = from;
+        RevocationFeed page;
+        do {
+            page = revocationClient.getChanges(last, PAGE_SIZE);
+            if (page == null || page.entries() == null) {
+                break;
+            }
+            for (RevocationFeed.Entry entry : page.entries()) {
+                target.put(entry.digest());
+            }
+            last = page.cursor();
+        } while (page.hasMore());
+        return last;
+    }
+}
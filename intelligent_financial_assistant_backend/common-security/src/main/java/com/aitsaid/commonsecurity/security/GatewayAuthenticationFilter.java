@@ -1,16 +1,24 @@
 package com.aitsaid.commonsecurity.security;
 
+import com.aitsaid.commonsecurity.jwks.JwksKeySet;
+import com.aitsaid.commonsecurity.revocation.TokenRevocationChecker;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.io.DecodingException;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -21,9 +29,11 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.security.Key;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.crypto.SecretKey;
 
 @Component
@@ -33,21 +43,72 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
     private static final String HEADER_USER = "X-Auth-User";
     private static final String HEADER_ROLES = "X-Auth-Roles";
     private static final String HEADER_TOKEN_VALIDATED = "X-Auth-Token-Validated";
+    private static final int MIN_KEY_BYTES = 32;
+    private static final int MAX_INTERNED_AUTHORITIES = 64;
+    // Peu de rôles distincts : une seule instance par rôle au lieu d'une allocation par requête
+    private static final Map<String, SimpleGrantedAuthority> AUTHORITIES = new ConcurrentHashMap<>();
 
     @Value("${jwt.secret}")
     private String jwtSecret;
 
+    // Tokens HS256 sans kid : refusés sauf retour temporaire d'auth-service à HS256
+    @Value("${jwt.legacy-hs256.enabled:false}")
+    private boolean legacyHs256Enabled;
+
+    // Clé et parser construits une seule fois au démarrage : le JwtParser de jjwt est immuable et thread-safe
+    private JwtParser parser;
+
+    // Optionnel : absent des contextes de test tranchés (@WebMvcTest)
+    private final ObjectProvider<TokenRevocationChecker> revocationChecker;
+    private final ObjectProvider<JwksKeySet> jwksKeySet;
+
+    public GatewayAuthenticationFilter(ObjectProvider<TokenRevocationChecker> revocationChecker,
+                                       ObjectProvider<JwksKeySet> jwksKeySet) {
+        this.revocationChecker = revocationChecker;
+        this.jwksKeySet = jwksKeySet;
+    }
+
+    /**
+     * Un secret absent ou trop court fait échouer le démarrage plutôt que chaque requête.
+     */
+    @PostConstruct
+    void init() {
+        SecretKey hmacKey = buildSigningKey();
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveKey(header.getKeyId(), hmacKey);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * RS256 : clé publique du JWKS désignée par {@code kid}. Sans {@code kid} : secret HS256 historique.
+     */
+    private Key resolveKey(String kid, SecretKey hmacKey) {
+        if (kid == null) {
+            if (!legacyHs256Enabled) {
+                throw new UnsupportedJwtException("Tokens without key id are no longer accepted");
+            }
+            return hmacKey;
+        }
+        JwksKeySet keySet = jwksKeySet.getIfAvailable();
+        Key key = keySet != null ? keySet.get(kid) : null;
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown signing key id: " + kid);
+        }
+        return key;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
 
-        String requestUri = request.getRequestURI();
-        String method = request.getMethod();
-        log.info("Processing request: {} {}", method, requestUri);
-
-        // DEBUG: Log des headers
         if (log.isDebugEnabled()) {
+            log.debug("Processing request: {} {}", request.getMethod(), request.getRequestURI());
             java.util.Enumeration<String> headerNames = request.getHeaderNames();
             while (headerNames.hasMoreElements()) {
                 String headerName = headerNames.nextElement();
@@ -72,11 +133,13 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
             authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authToken);
 
-            log.info("User '{}' authenticated with roles: {}",
-                    authResult.getUsername(),
-                    authResult.getAuthorities());
-        } else {
-            log.debug("No valid authentication found for request: {} {}", method, requestUri);
+            if (log.isDebugEnabled()) {
+                log.debug("User '{}' authenticated with roles: {}",
+                        authResult.getUsername(),
+                        authResult.getAuthorities());
+            }
+        } else if (log.isDebugEnabled()) {
+            log.debug("No valid authentication found for request: {} {}", request.getMethod(), request.getRequestURI());
         }
 
         filterChain.doFilter(request, response);
@@ -94,7 +157,7 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
             List<SimpleGrantedAuthority> authorities = parseRoles(rolesHeader);
             String rawToken = extractRawToken(request);
 
-            log.info("Authentication via Gateway headers - User: {}, Roles: {}", username, rolesHeader);
+            log.debug("Authentication via Gateway headers - User: {}, Roles: {}", username, rolesHeader);
             return new AuthenticationResult(true, username, rawToken, authorities);
         }
 
@@ -111,23 +174,30 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
             String token = authHeader.substring(7);
 
             try {
-                // Valider et parser le token JWT
+                // Valider et parser le token JWT (une seule fois par requête)
                 Claims claims = parseJwtToken(token);
                 String username = claims.getSubject();
 
+                // Appel direct (hors gateway) : le logout doit aussi être appliqué ici
+                TokenRevocationChecker checker = revocationChecker.getIfAvailable();
+                if (checker != null && checker.isRevoked(token)) {
+                    log.warn("Revoked Bearer token rejected for user: {}", username);
+                    return AuthenticationResult.notAuthenticated();
+                }
+
                 // Extraire les rôles du token
                 List<String> roles = extractRolesFromToken(claims);
-                List<SimpleGrantedAuthority> authorities = roles.stream()
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
-
-                // Extraire userId si présent
-                Object userId = claims.get("userId");
-                if (userId != null) {
-                    log.info("User ID from token: {}", userId);
+                List<SimpleGrantedAuthority> authorities = new ArrayList<>(roles.size());
+                for (String role : roles) {
+                    authorities.add(authority(role));
                 }
 
-                log.info("Authentication via Bearer Token - User: {}, Roles: {}", username, roles);
+                request.setAttribute(VerifiedToken.REQUEST_ATTRIBUTE, new VerifiedToken(token, claims, authorities));
+
+                if (log.isDebugEnabled()) {
+                    log.debug("Authentication via Bearer Token - User: {}, UserId: {}, Roles: {}",
+                            username, claims.get("userId"), roles);
+                }
                 return new AuthenticationResult(true, username, token, authorities);
 
             } catch (Exception e) {
@@ -139,11 +209,7 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
     }
 
     private Claims parseJwtToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     @SuppressWarnings("unchecked")
@@ -166,12 +232,37 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
         return List.of("ROLE_USER"); // Rôle par défaut
     }
 
+    /**
+     * Découpe le header "ROLE_A,ROLE_B" sans regex ni stream.
+     */
     private List<SimpleGrantedAuthority> parseRoles(String rolesHeader) {
-        return Arrays.stream(rolesHeader.split(","))
-                .map(String::trim)
-                .filter(role -> !role.isEmpty())
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+        List<SimpleGrantedAuthority> authorities = new ArrayList<>(2);
+        int start = 0;
+        int length = rolesHeader.length();
+        while (start <= length) {
+            int end = rolesHeader.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            String role = rolesHeader.substring(start, end).trim();
+            if (!role.isEmpty()) {
+                authorities.add(authority(role));
+            }
+            start = end + 1;
+        }
+        return authorities;
+    }
+
+    private static SimpleGrantedAuthority authority(String role) {
+        SimpleGrantedAuthority authority = AUTHORITIES.get(role);
+        if (authority != null) {
+            return authority;
+        }
+        // Le header de rôles vient de l'extérieur : la table reste bornée
+        if (AUTHORITIES.size() >= MAX_INTERNED_AUTHORITIES) {
+            return new SimpleGrantedAuthority(role);
+        }
+        return AUTHORITIES.computeIfAbsent(role, SimpleGrantedAuthority::new);
     }
 
     private String extractRawToken(HttpServletRequest request) {
@@ -182,7 +273,7 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
         return null;
     }
 
-    private SecretKey getSigningKey() {
+    private SecretKey buildSigningKey() {
         byte[] keyBytes;
         String trimmed = jwtSecret == null ? "" : jwtSecret.trim();
         try {
@@ -194,6 +285,9 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
         } catch (DecodingException | IllegalArgumentException e) {
             keyBytes = trimmed.getBytes(StandardCharsets.UTF_8);
         }
+        if (keyBytes.length < MIN_KEY_BYTES) {
+            throw new IllegalStateException("JWT secret must be at least 256 bits (32 bytes). Current length=" + keyBytes.length);
+        }
         return Keys.hmacShaKeyFor(keyBytes);
     }
 
@@ -206,9 +300,6 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getRequestURI();
-        String method = request.getMethod();
-
-        log.info("Checking filter for: {} {}", method, path);
 
         // Ne PAS filtrer :
         // 1. Actuator endpoints
@@ -217,12 +308,11 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
         }
 
         // 2. POST /api/accounts/register (inscription - PUBLIC)
-        if (path.equals("/api/accounts/register") && "POST".equals(method)) {
-            log.info("SKIP FILTER: Public registration endpoint");
+        if (path.equals("/api/accounts/register") && "POST".equals(request.getMethod())) {
+            log.debug("SKIP FILTER: Public registration endpoint");
             return true;
         }
 
-        log.info("SHOULD FILTER: Protected endpoint");
         return false;
     }
 
@@ -0,0 +1,47 @@
+package com.aitsaid.commonsecurity.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * JWT Bearer vérifié une seule fois par {@link GatewayAuthenticationFilter}.
+ * <p>
+ * Exposé en attribut de requête ({@link #REQUEST_ATTRIBUTE}) : les contrôleurs et services
+ * lisent les claims ici au lieu de re-parser le token.
+ */
+public final class VerifiedToken {
+
+    public static final String REQUEST_ATTRIBUTE = VerifiedToken.class.getName();
+
+    private final String token;
+    private final Claims claims;
+    private final List<SimpleGrantedAuthority> authorities;
+
+    public VerifiedToken(String token, Claims claims, List<SimpleGrantedAuthority> authorities) {
+        this.token = token;
+        this.claims = claims;
+        this.authorities = authorities;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public Claims getClaims() {
+        return claims;
+    }
+
+    public String getSubject() {
+        return claims.getSubject();
+    }
+
+    public Object getUserId() {
+        return claims.get("userId");
+    }
+
+    public List<SimpleGrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+}
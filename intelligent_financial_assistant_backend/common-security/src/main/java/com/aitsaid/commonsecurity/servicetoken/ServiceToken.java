@@ -0,0 +1,7 @@
+package com.aitsaid.commonsecurity.servicetoken;
+
+/**
+ * Token de service délivré par auth-service ; {@code expiresIn} en millisecondes.
+ */
+public record ServiceToken(String accessToken, long expiresIn) {
+}
@@ -0,0 +1,12 @@
+package com.aitsaid.commonsecurity.servicetoken;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+@FeignClient(name = "auth-service", contextId = "serviceTokenClient")
+public interface ServiceTokenClient {
+
+    @PostMapping("/auth/service-token")
+    ServiceToken issue(@RequestBody ServiceTokenRequest request);
+}
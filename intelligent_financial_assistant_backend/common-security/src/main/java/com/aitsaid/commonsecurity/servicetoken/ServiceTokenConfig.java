@@ -0,0 +1,12 @@
+package com.aitsaid.commonsecurity.servicetoken;
+
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Active le client des tokens de service dans chaque microservice qui embarque common-security.
+ */
+@Configuration
+@EnableFeignClients(clients = ServiceTokenClient.class)
+public class ServiceTokenConfig {
+}
@@ -0,0 +1,77 @@
+package com.aitsaid.commonsecurity.servicetoken;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+
+/**
+ * Token de service du microservice, pour les appels faits en son nom propre (traitements planifiés,
+ * sagas) plutôt qu'avec le token d'un utilisateur qui aura expiré entre-temps.
+ * <p>
+ * Le token est partagé et renouvelé peu avant son expiration ; {@link #invalidate()} force le
+ * renouvellement quand le service appelé l'a refusé (401). Identifiants :
+ * {@code service-token.client-id} (nom de l'application par défaut) et {@code service-token.client-secret}.
+ */
+@Component
+public class ServiceTokenProvider {
+
+    // Marge pour qu'un token n'expire pas pendant l'appel qui l'utilise
+    private static final long RENEW_MARGIN_MS = 30_000;
+
+    private final ServiceTokenClient client;
+    private final String clientId;
+    private final String clientSecret;
+    private final Clock clock;
+
+    private volatile String header;
+    private volatile long renewAt;
+
+    @Autowired
+    public ServiceTokenProvider(ServiceTokenClient client,
+                                @Value("${service-token.client-id:${spring.application.name:}}") String clientId,
+                                @Value("${service-token.client-secret:}") String clientSecret) {
+        this(client, clientId, clientSecret, Clock.systemUTC());
+    }
+
+    ServiceTokenProvider(ServiceTokenClient client, String clientId, String clientSecret, Clock clock) {
+        this.client = client;
+        this.clientId = clientId;
+        this.clientSecret = clientSecret;
+        this.clock = clock;
+    }
+
+    /**
+     * @return la valeur du header {@code Authorization} ({@code Bearer ...})
+     */
+    public String authorizationHeader() {
+        String current = header;
+        if (current != null && clock.millis() < renewAt) {
+            return current;
+        }
+        return renew();
+    }
+
+    public void invalidate() {
+        header = null;
+    }
+
+    private synchronized String renew() {
+        if (header != null && clock.millis() < renewAt) {
+            return header;
+        }
+        if (clientId == null || clientId.isBlank() || clientSecret == null || clientSecret.isBlank()) {
+            throw new IllegalStateException("service-token.client-id and service-token.client-secret must be configured");
+        }
+        long requestedAt = clock.millis();
+        ServiceToken token = client.issue(new ServiceTokenRequest(clientId, clientSecret));
+        if (token == null || token.accessToken() == null) {
+            throw new IllegalStateException("auth-service returned no service token");
+        }
+        String renewed = "Bearer " + token.accessToken();
+        header = renewed;
+        renewAt = requestedAt + Math.max(0, token.expiresIn() - RENEW_MARGIN_MS);
+        return renewed;
+    }
+}
@@ -0,0 +1,7 @@
+package com.aitsaid.commonsecurity.servicetoken;
+
+/**
+ * Identifiants du microservice auprès d'auth-service ({@code /auth/service-token}).
+ */
+public record ServiceTokenRequest(String clientId, String clientSecret) {
+}
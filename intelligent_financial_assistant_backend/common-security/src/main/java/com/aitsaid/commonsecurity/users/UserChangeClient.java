@@ -0,0 +1,12 @@
+package com.aitsaid.commonsecurity.users;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+@FeignClient(name = "auth-service", contextId = "userChangeClient")
+public interface UserChangeClient {
+
+    @GetMapping("/auth/user-changes")
+    UserChangeFeed getChanges(@RequestParam("since") long since, @RequestParam("limit") int limit);
+}
@@ -0,0 +1,12 @@
+package com.aitsaid.commonsecurity.users;
+
+import java.util.List;
+
+/**
+ * Page du flux {@code /auth/user-changes} exposé par auth-service.
+ */
+public record UserChangeFeed(List<Entry> entries, Long cursor, boolean hasMore) {
+
+    public record Entry(Long id, Long userId) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.aitsaid.commonsecurity.users;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Copie locale, bornée en taille, de profils d'utilisateurs lus dans auth-service ; créée par
+ * {@link UserNearCacheRegistry}.
+ * <p>
+ * Le chargement est fourni à chaque lecture (token de l'appelant, appel unitaire ou groupé). Une entrée
+ * lue après {@code users.near-cache.refresh-ms} est rechargée en arrière-plan, l'appelant recevant encore
+ * l'ancienne valeur ; elle n'est plus servie après {@code users.near-cache.ttl-ms}. Les modifications
+ * publiées par auth-service l'invalident dès la synchronisation suivante.
+ */
+public class UserNearCache<V> {
+
+    private static final Logger log = LoggerFactory.getLogger(UserNearCache.class);
+
+    private final Cache<Long, V> cache;
+    private final long refreshMs;
+    private final Executor refreshExecutor;
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+
+    UserNearCache(Cache<Long, V> cache, long refreshMs, Executor refreshExecutor) {
+        this.cache = cache;
+        this.refreshMs = refreshMs;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * @return le profil, ou {@code null} si le chargement n'en trouve pas (non mis en cache)
+     */
+    public V get(Long userId, Function<Long, V> loader) {
+        boolean[] loaded = new boolean[1];
+        V value = cache.get(userId, id -> {
+            loaded[0] = true;
+            return loader.apply(id);
+        });
+        if (value != null && !loaded[0] && isStale(userId)) {
+            refreshAsync(Map.of(userId, value), ids -> {
+                V fresh = loader.apply(userId);
+                return fresh == null ? Map.of() : Map.of(userId, fresh);
+            });
+        }
+        return value;
+    }
+
+    /**
+     * Un seul appel à {@code loader} pour l'ensemble des IDs absents du cache.
+     *
+     * @return profils trouvés, par ID ; les IDs inconnus sont absents
+     */
+    public Map<Long, V> getAll(Collection<Long> userIds, Function<Set<Long>, Map<Long, V>> loader) {
+        Set<Long> ids = new LinkedHashSet<>(userIds);
+        ids.removeIf(Objects::isNull);
+        Set<Long> loaded = new HashSet<>();
+        Map<Long, V> values = cache.getAll(ids, missing -> {
+            loaded.addAll(missing);
+            return loader.apply(new HashSet<>(missing));
+        });
+
+        Map<Long, V> stale = new HashMap<>();
+        values.forEach((id, value) -> {
+            if (!loaded.contains(id) && isStale(id)) {
+                stale.put(id, value);
+            }
+        });
+        if (!stale.isEmpty()) {
+            refreshAsync(stale, loader);
+        }
+        return values;
+    }
+
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private boolean isStale(Long userId) {
+        return cache.policy().expireAfterWrite()
+                .flatMap(expiration -> expiration.ageOf(userId))
+                .map(age -> age.compareTo(Duration.ofMillis(refreshMs)) >= 0)
+                .orElse(false);
+    }
+
+    private void refreshAsync(Map<Long, V> current, Function<Set<Long>, Map<Long, V>> loader) {
+        Map<Long, V> toRefresh = new HashMap<>();
+        current.forEach((id, value) -> {
+            if (refreshing.add(id)) {
+                toRefresh.put(id, value);
+            }
+        });
+        if (toRefresh.isEmpty()) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    Map<Long, V> fresh = loader.apply(new HashSet<>(toRefresh.keySet()));
+                    // Remplace seulement la valeur lue : une entrée invalidée entre-temps n'est pas recréée
+                    fresh.forEach((id, value) -> {
+                        V previous = toRefresh.get(id);
+                        if (previous != null && value != null) {
+                            cache.asMap().replace(id, previous, value);
+                        }
+                    });
+                } catch (Exception e) {
+                    log.debug("User near-cache refresh failed for {} users: {}", toRefresh.size(), e.getMessage());
+                } finally {
+                    refreshing.removeAll(toRefresh.keySet());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Pool saturé : l'entrée sera rechargée de façon synchrone à son expiration
+            refreshing.removeAll(toRefresh.keySet());
+        }
+    }
+}
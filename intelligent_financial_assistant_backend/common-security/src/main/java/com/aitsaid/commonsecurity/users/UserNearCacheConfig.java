@@ -0,0 +1,15 @@
+package com.aitsaid.commonsecurity.users;
+
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active le client du flux des modifications d'utilisateurs et son invalidation périodique
+ * des {@link UserNearCache} dans chaque microservice qui embarque common-security.
+ */
+@Configuration
+@EnableScheduling
+@EnableFeignClients(clients = UserChangeClient.class)
+public class UserNearCacheConfig {
+}
@@ -0,0 +1,107 @@
+package com.aitsaid.commonsecurity.users;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Crée les {@link UserNearCache} du service et les tient à jour à partir du flux
+ * {@code /auth/user-changes} d'auth-service : chaque utilisateur modifié ou supprimé est retiré
+ * de tous les caches. Le flux n'est interrogé que si au moins un cache a été créé.
+ * <p>
+ * Succès et échecs publiés par Micrometer sous {@code cache.gets{cache=<nom>}}.
+ */
+@Component
+public class UserNearCacheRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(UserNearCacheRegistry.class);
+    private static final int PAGE_SIZE = 500;
+
+    private final UserChangeClient userChangeClient;
+    private final MeterRegistry meterRegistry;
+    private final long ttlMs;
+    private final long refreshMs;
+    private final long maxSize;
+    private final ThreadPoolExecutor refreshPool;
+    private final Executor refreshExecutor;
+    private final List<UserNearCache<?>> caches = new CopyOnWriteArrayList<>();
+
+    private volatile long cursor;
+
+    public UserNearCacheRegistry(UserChangeClient userChangeClient, MeterRegistry meterRegistry,
+                                 @Value("${users.near-cache.ttl-ms:600000}") long ttlMs,
+                                 @Value("${users.near-cache.refresh-ms:60000}") long refreshMs,
+                                 @Value("${users.near-cache.max-size:10000}") long maxSize,
+                                 @Value("${users.near-cache.refresh-threads:2}") int refreshThreads) {
+        this.userChangeClient = userChangeClient;
+        this.meterRegistry = meterRegistry;
+        this.ttlMs = ttlMs;
+        this.refreshMs = refreshMs;
+        this.maxSize = maxSize;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("user-near-cache-");
+        threadFactory.setDaemon(true);
+        this.refreshPool = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(100), threadFactory);
+        this.refreshPool.allowCoreThreadTimeOut(true);
+        // Le rechargement en arrière-plan s'authentifie avec le token de la lecture qui l'a déclenché
+        this.refreshExecutor = new DelegatingSecurityContextExecutor(refreshPool);
+    }
+
+    public <V> UserNearCache<V> create(String name) {
+        Cache<Long, V> cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        UserNearCache<V> nearCache = new UserNearCache<>(cache, refreshMs, refreshExecutor);
+        caches.add(nearCache);
+        return nearCache;
+    }
+
+    @Scheduled(fixedDelayString = "${users.near-cache.sync-interval-ms:5000}")
+    public synchronized void sync() {
+        if (caches.isEmpty()) {
+            return;
+        }
+        try {
+            long last = cursor;
+            UserChangeFeed page;
+            do {
+                page = userChangeClient.getChanges(last, PAGE_SIZE);
+                if (page == null || page.entries() == null) {
+                    break;
+                }
+                for (UserChangeFeed.Entry entry : page.entries()) {
+                    caches.forEach(cache -> cache.invalidate(entry.userId()));
+                }
+                last = page.cursor();
+            } while (page.hasMore());
+            cursor = last;
+        } catch (Exception e) {
+            log.warn("User change feed sync failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshPool.shutdownNow();
+    }
+}
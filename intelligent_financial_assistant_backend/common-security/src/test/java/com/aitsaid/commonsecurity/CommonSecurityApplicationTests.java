@@ -1,9 +1,12 @@
 package com.aitsaid.commonsecurity;
 
+import com.aitsaid.commonsecurity.security.GatewayAuthenticationFilter;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Librairie sans application : on charge le filtre seul, sans JWKS ni vérification de révocation
+@SpringBootTest(classes = GatewayAuthenticationFilter.class,
+        properties = "jwt.secret=test-secret-for-gateway-filter-at-least-32-bytes")
 class CommonSecurityApplicationTests {
 
     @Test
@@ -0,0 +1,77 @@
+package com.aitsaid.commonsecurity.revocation;
+
+import com.aitsaid.commoncore.revocation.RevocationFeed;
+import com.aitsaid.commoncore.revocation.TokenDigests;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationCheckerTest {
+
+    private static final String REVOKED = "revoked.token";
+
+    private RevocationClient revocationClient;
+    private TokenRevocationChecker checker;
+
+    @BeforeEach
+    void setUp() {
+        revocationClient = mock(RevocationClient.class);
+        when(revocationClient.getChanges(anyLong(), anyInt())).thenReturn(new RevocationFeed(
+                List.of(new RevocationFeed.Entry(1L, TokenDigests.sha256Hex(REVOKED))), 1L, false));
+        checker = new TokenRevocationChecker(revocationClient, 1000, 0.01);
+        checker.sync();
+    }
+
+    @Test
+    void isRevoked_UnknownTokenSkipsConfirmation() {
+        assertFalse(checker.isRevoked("active.token"));
+        verify(revocationClient, never()).isRevoked(anyString());
+    }
+
+    @Test
+    void isRevoked_ConfirmedOnceThenRemembered() {
+        when(revocationClient.isRevoked(TokenDigests.sha256Hex(REVOKED))).thenReturn(true);
+
+        assertTrue(checker.isRevoked(REVOKED));
+        assertTrue(checker.isRevoked(REVOKED));
+        verify(revocationClient, times(1)).isRevoked(anyString());
+    }
+
+    @Test
+    void isRevoked_FailsClosedWhenConfirmationFails() {
+        when(revocationClient.isRevoked(anyString())).thenThrow(new RuntimeException("auth-service down"));
+
+        assertTrue(checker.isRevoked(REVOKED));
+    }
+
+    @Test
+    void sync_RereadsOverlapWindowForLateCommits() {
+        String late = TokenDigests.sha256Hex("late.token");
+        when(revocationClient.getChanges(anyLong(), anyInt())).thenReturn(new RevocationFeed(
+                List.of(new RevocationFeed.Entry(0L, late), new RevocationFeed.Entry(1L, TokenDigests.sha256Hex(REVOKED))),
+                1L, false));
+        when(revocationClient.isRevoked(late)).thenReturn(true);
+
+        checker.sync();
+
+        verify(revocationClient, times(2)).getChanges(0L, 500);
+        assertTrue(checker.isRevoked("late.token"));
+    }
+
+    @Test
+    void sync_FailureKeepsPreviousFilter() {
+        when(revocationClient.getChanges(anyLong(), anyInt())).thenThrow(new RuntimeException("auth-service down"));
+        when(revocationClient.isRevoked(anyString())).thenReturn(true);
+
+        checker.sync();
+
+        assertTrue(checker.isRevoked(REVOKED));
+    }
+}
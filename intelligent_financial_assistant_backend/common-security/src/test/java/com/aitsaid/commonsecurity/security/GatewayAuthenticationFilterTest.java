@@ -0,0 +1,204 @@
+package com.aitsaid.commonsecurity.security;
+
+import com.aitsaid.commonsecurity.jwks.InMemoryJwksSource;
+import com.aitsaid.commonsecurity.jwks.JwksKeySet;
+import com.aitsaid.commonsecurity.revocation.TokenRevocationChecker;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GatewayAuthenticationFilterTest {
+
+    private static final String SECRET = "test-secret-for-gateway-filter-at-least-32-bytes";
+    private static final String KID = "test-key";
+
+    private KeyPair rsa;
+    private TokenRevocationChecker revocationChecker;
+    private GatewayAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        rsa = generator.generateKeyPair();
+        revocationChecker = mock(TokenRevocationChecker.class);
+        filter = filter(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private GatewayAuthenticationFilter filter(boolean legacyHs256Enabled) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("revocationChecker", revocationChecker);
+        beans.addBean("jwksKeySet", new JwksKeySet(new InMemoryJwksSource().put(KID, (RSAPublicKey) rsa.getPublic()), 0));
+        GatewayAuthenticationFilter result = new GatewayAuthenticationFilter(
+                beans.getBeanProvider(TokenRevocationChecker.class), beans.getBeanProvider(JwksKeySet.class));
+        ReflectionTestUtils.setField(result, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(result, "legacyHs256Enabled", legacyHs256Enabled);
+        result.init();
+        return result;
+    }
+
+    private String rs256(Key key, Date expiration) {
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, KID)
+                .setClaims(Map.of("roles", List.of("ROLE_USER"), "userId", 7))
+                .setSubject("7")
+                .setExpiration(expiration)
+                .signWith(key, SignatureAlgorithm.RS256)
+                .compact();
+    }
+
+    private String hs256() {
+        return Jwts.builder()
+                .setClaims(Map.of("role", "ROLE_ADMIN"))
+                .setSubject("1")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    private MockHttpServletRequest bearer(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/accounts/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    private Authentication run(GatewayAuthenticationFilter target, MockHttpServletRequest request) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        target.doFilter(request, new MockHttpServletResponse(), chain);
+        // La requête continue toujours : l'accès est refusé plus loin si elle n'est pas authentifiée
+        assertNotNull(chain.getRequest());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static List<String> roles(Authentication authentication) {
+        return authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+    }
+
+    @Test
+    void validRs256Token_Authenticates() throws Exception {
+        String token = rs256(rsa.getPrivate(), new Date(System.currentTimeMillis() + 60_000));
+        MockHttpServletRequest request = bearer(token);
+
+        Authentication authentication = run(filter, request);
+
+        assertNotNull(authentication);
+        assertEquals("7", authentication.getName());
+        assertEquals(token, authentication.getCredentials());
+        assertEquals(List.of("ROLE_USER"), roles(authentication));
+        VerifiedToken verified = (VerifiedToken) request.getAttribute(VerifiedToken.REQUEST_ATTRIBUTE);
+        assertEquals(7, verified.getUserId());
+    }
+
+    @Test
+    void expiredToken_IsRejected() throws Exception {
+        String token = rs256(rsa.getPrivate(), new Date(System.currentTimeMillis() - 1_000));
+
+        assertNull(run(filter, bearer(token)));
+    }
+
+    @Test
+    void forgedToken_IsRejected() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        String forged = rs256(generator.generateKeyPair().getPrivate(), new Date(System.currentTimeMillis() + 60_000));
+
+        assertNull(run(filter, bearer(forged)));
+    }
+
+    @Test
+    void tamperedPayload_IsRejected() throws Exception {
+        String[] parts = rs256(rsa.getPrivate(), new Date(System.currentTimeMillis() + 60_000)).split("\\.");
+        String payload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                "{\"sub\":\"1\",\"roles\":[\"ROLE_ADMIN\"]}".getBytes(StandardCharsets.UTF_8));
+
+        assertNull(run(filter, bearer(parts[0] + "." + payload + "." + parts[2])));
+    }
+
+    @Test
+    void revokedToken_IsRejected() throws Exception {
+        String token = rs256(rsa.getPrivate(), new Date(System.currentTimeMillis() + 60_000));
+        when(revocationChecker.isRevoked(token)).thenReturn(true);
+
+        assertNull(run(filter, bearer(token)));
+        verify(revocationChecker).isRevoked(token);
+    }
+
+    @Test
+    void legacyHs256Token_AcceptedOnlyWhileEnabled() throws Exception {
+        String token = hs256();
+
+        assertEquals(List.of("ROLE_ADMIN"), roles(run(filter, bearer(token))));
+        SecurityContextHolder.clearContext();
+        assertNull(run(filter(false), bearer(token)));
+    }
+
+    @Test
+    void gatewayHeaders_AuthenticateWithoutParsing() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/accounts/1");
+        request.addHeader("X-Auth-User", "7");
+        request.addHeader("X-Auth-Roles", "ROLE_USER, ROLE_ADMIN");
+        request.addHeader("X-Auth-Token-Validated", "true");
+
+        Authentication authentication = run(filter, request);
+
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), roles(authentication));
+        verifyNoInteractions(revocationChecker);
+    }
+
+    @Test
+    void authorities_AreInternedUpToTheCap() throws Exception {
+        MockHttpServletRequest first = new MockHttpServletRequest("GET", "/api/accounts/1");
+        first.addHeader("X-Auth-User", "7");
+        first.addHeader("X-Auth-Roles", "ROLE_USER");
+        first.addHeader("X-Auth-Token-Validated", "true");
+        GrantedAuthority interned = run(filter, first).getAuthorities().iterator().next();
+        SecurityContextHolder.clearContext();
+        assertSame(interned, run(filter, first).getAuthorities().iterator().next());
+
+        // Des rôles arbitraires venus du header ne font pas grossir la table au-delà du plafond
+        StringBuilder roles = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            roles.append(i == 0 ? "" : ",").append("ROLE_X").append(i);
+        }
+        MockHttpServletRequest flood = new MockHttpServletRequest("GET", "/api/accounts/1");
+        flood.addHeader("X-Auth-User", "7");
+        flood.addHeader("X-Auth-Roles", roles.toString());
+        flood.addHeader("X-Auth-Token-Validated", "true");
+        SecurityContextHolder.clearContext();
+        assertEquals(200, run(filter, flood).getAuthorities().size());
+
+        Map<?, ?> table = (Map<?, ?>) ReflectionTestUtils.getField(GatewayAuthenticationFilter.class, "AUTHORITIES");
+        int cap = (int) ReflectionTestUtils.getField(GatewayAuthenticationFilter.class, "MAX_INTERNED_AUTHORITIES");
+        assertTrue(table.size() <= cap);
+    }
+}
@@ -0,0 +1,74 @@
+package com.aitsaid.commonsecurity.servicetoken;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ServiceTokenProviderTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final AtomicInteger issued = new AtomicInteger();
+    private ServiceTokenClient client;
+    private ServiceTokenProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(ServiceTokenClient.class);
+        when(client.issue(any())).thenAnswer(inv -> new ServiceToken("token-" + issued.incrementAndGet(), 300_000));
+        provider = new ServiceTokenProvider(client, "transactions-service", "s3cret", new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(now.get());
+            }
+        });
+    }
+
+    @Test
+    void authorizationHeader_ReusesTokenUntilNearExpiry() {
+        assertEquals("Bearer token-1", provider.authorizationHeader());
+        now.addAndGet(200_000);
+        assertEquals("Bearer token-1", provider.authorizationHeader());
+
+        // Dans la marge de renouvellement
+        now.addAndGet(80_000);
+        assertEquals("Bearer token-2", provider.authorizationHeader());
+        verify(client, times(2)).issue(new ServiceTokenRequest("transactions-service", "s3cret"));
+    }
+
+    @Test
+    void invalidate_ForcesNewToken() {
+        provider.authorizationHeader();
+
+        provider.invalidate();
+
+        assertEquals("Bearer token-2", provider.authorizationHeader());
+    }
+
+    @Test
+    void authorizationHeader_MissingSecret_Throws() {
+        ServiceTokenProvider unconfigured = new ServiceTokenProvider(client, "transactions-service", "");
+
+        assertThrows(IllegalStateException.class, unconfigured::authorizationHeader);
+        verifyNoInteractions(client);
+    }
+}
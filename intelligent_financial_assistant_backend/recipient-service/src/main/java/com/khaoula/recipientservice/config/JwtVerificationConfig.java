@@ -0,0 +1,21 @@
+package com.khaoula.recipientservice.config;
+
+import com.aitsaid.commonsecurity.jwks.JwksConfig;
+import com.aitsaid.commonsecurity.jwks.JwksKeySet;
+import com.aitsaid.commonsecurity.jwks.RemoteJwksSource;
+import com.aitsaid.commonsecurity.revocation.RevocationConfig;
+import com.aitsaid.commonsecurity.revocation.TokenRevocationChecker;
+import com.aitsaid.commonsecurity.security.GatewayAuthenticationFilter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Vérification des JWT partagée avec les autres microservices (common-security) : tokens RS256
+ * d'auth-service contrôlés avec son JWKS et son flux de révocation.
+ * Seules ces briques sont importées, pas le reste du module.
+ */
+@Configuration
+@Import({GatewayAuthenticationFilter.class, JwksConfig.class, JwksKeySet.class, RemoteJwksSource.class,
+        RevocationConfig.class, TokenRevocationChecker.class})
+public class JwtVerificationConfig {
+}
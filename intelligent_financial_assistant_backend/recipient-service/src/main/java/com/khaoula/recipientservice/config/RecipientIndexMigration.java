@@ -0,0 +1,94 @@
+package com.khaoula.recipientservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Unicité de {@code (user_id, iban)} sur une base existante : {@code ddl-auto=update} ne peut pas créer l'index
+ * unique tant que des doublons subsistent.
+ * <p>
+ * Les IBAN sont d'abord comparés sous leur forme normalisée (sans espaces, en majuscules), comme à l'écriture :
+ * {@code FR76 1234...} et {@code fr761234...} sont le même bénéficiaire. Les doublons d'un même utilisateur sont
+ * fusionnés dans le plus ancien ; leur identifiant, que des transactions peuvent référencer, est conservé dans
+ * {@code recipient_aliases}. Les IBAN restants sont ensuite réécrits normalisés, puis l'index est créé s'il
+ * manque. L'ancien index sur {@code user_id} seul est retiré : l'index composite le remplace pour
+ * {@code findByUserId}.
+ * <p>
+ * Seule la fusion s'exécute dans une transaction. Sur Postgres, l'index est ensuite créé (et l'ancien retiré)
+ * {@code CONCURRENTLY}, hors transaction : {@code recipients} reste accessible en écriture pendant la
+ * construction. Un index laissé invalide par une construction interrompue est supprimé puis reconstruit.
+ */
+@Component
+public class RecipientIndexMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(RecipientIndexMigration.class);
+    private static final String UNIQUE_INDEX = "uk_recipients_user_id_iban";
+    // Même utilisateur, même IBAN une fois normalisé
+    private static final String SAME_RECIPIENT = "o.user_id = r.user_id"
+            + " AND upper(replace(o.iban, ' ', '')) = upper(replace(r.iban, ' ', ''))";
+    private static final String IS_DUPLICATE =
+            "EXISTS (SELECT 1 FROM recipients o WHERE " + SAME_RECIPIENT + " AND o.id < r.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public RecipientIndexMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            Integer merged = transactionTemplate.execute(status -> mergeDuplicates());
+            if (merged != null && merged > 0) {
+                log.info("Merged {} duplicate recipients", merged);
+            }
+            boolean postgres = isPostgres();
+            String concurrently = postgres ? "CONCURRENTLY " : "";
+            if (postgres && isInvalid(UNIQUE_INDEX)) {
+                log.warn("Rebuilding invalid index {}", UNIQUE_INDEX);
+                jdbcTemplate.execute("DROP INDEX " + concurrently + "IF EXISTS " + UNIQUE_INDEX);
+            }
+            jdbcTemplate.execute("CREATE UNIQUE INDEX " + concurrently + "IF NOT EXISTS " + UNIQUE_INDEX
+                    + " ON recipients (user_id, iban)");
+            jdbcTemplate.execute("DROP INDEX " + concurrently + "IF EXISTS idx_recipients_user_id");
+        } catch (Exception e) {
+            log.warn("Recipient (user_id, iban) index migration failed: {}", e.getMessage());
+        }
+    }
+
+    private int mergeDuplicates() {
+        // Alias déjà enregistrés vers un doublon : redirigés vers le bénéficiaire conservé
+        jdbcTemplate.update("UPDATE recipient_aliases SET recipient_id = (SELECT MIN(o.id) FROM recipients r, recipients o"
+                + " WHERE r.id = recipient_aliases.recipient_id AND " + SAME_RECIPIENT + ")"
+                + " WHERE recipient_id IN (SELECT r.id FROM recipients r WHERE " + IS_DUPLICATE + ")");
+        jdbcTemplate.update("INSERT INTO recipient_aliases (id, recipient_id)"
+                + " SELECT r.id, (SELECT MIN(o.id) FROM recipients o WHERE " + SAME_RECIPIENT + ")"
+                + " FROM recipients r WHERE " + IS_DUPLICATE);
+        int merged = jdbcTemplate.update("DELETE FROM recipients r WHERE " + IS_DUPLICATE);
+        jdbcTemplate.update("UPDATE recipients SET iban = upper(replace(iban, ' ', ''))"
+                + " WHERE iban <> upper(replace(iban, ' ', ''))");
+        return merged;
+    }
+
+    private boolean isInvalid(String index) {
+        Integer invalid = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_index i"
+                + " JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = ? AND NOT i.indisvalid",
+                Integer.class, index);
+        return invalid != null && invalid > 0;
+    }
+
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equals(product);
+    }
+}
@@ -1,5 +1,6 @@
 package com.khaoula.recipientservice.controller;
 
+import com.aitsaid.commonsecurity.security.VerifiedToken;
 import com.khaoula.recipientservice.dto.RecipientRequest;
 import com.khaoula.recipientservice.dto.RecipientResponse;
 import com.khaoula.recipientservice.exception.ResourceNotFoundException;
@@ -7,11 +8,14 @@ import com.khaoula.recipientservice.model.ApiResponse;
 import com.khaoula.recipientservice.model.Recipient;
 import com.khaoula.recipientservice.repository.RecipientRepository;
 import com.khaoula.recipientservice.service.RecipientService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -20,6 +24,8 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/recipients")
 public class RecipientController {
 
+    private static final String HEADER_USER_ID = "X-Auth-User-Id";
+
     private final RecipientService recipientService;
     private final RecipientRepository  recipientRepository;
 
@@ -29,8 +35,9 @@ public class RecipientController {
     }
 
     /**
-     * Extrait le userId de l'authentification Spring Security
-     * Le JWT doit contenir le userId dans le sujet (subject) ou dans les claims
+     * Extrait le userId de l'utilisateur authentifié par GatewayAuthenticationFilter :
+     * claim {@code userId} du JWT vérifié, sinon header X-Auth-User-Id propagé par le Gateway,
+     * sinon le principal s'il est numérique.
      */
     private Long getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -39,18 +46,19 @@ public class RecipientController {
             throw new SecurityException("User not authenticated");
         }
 
-        // Si vous stockez le userId dans le subject du JWT
-        String userIdStr = authentication.getName(); // Par défaut, getName() retourne le subject
+        HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes())
+                .getRequest();
+        Object userId = request.getAttribute(VerifiedToken.REQUEST_ATTRIBUTE) instanceof VerifiedToken token
+                ? token.getUserId()
+                : request.getHeader(HEADER_USER_ID);
+        // Le sujet des tokens d'auth-service est l'email : le principal ne sert qu'en dernier recours
+        String userIdStr = userId != null ? userId.toString() : authentication.getName();
 
         try {
             return Long.parseLong(userIdStr);
         } catch (NumberFormatException e) {
             throw new SecurityException("Invalid user ID in token: " + userIdStr);
         }
-
-        // Alternative: Si vous stockez le userId dans les claims
-        // Jwt jwt = (Jwt) authentication.getPrincipal();
-        // return Long.parseLong(jwt.getClaimAsString("userId"));
     }
 
     private RecipientResponse toResponse(Recipient r) {
@@ -113,20 +121,25 @@ public class RecipientController {
         return ApiResponse.success("Recipient deleted successfully");
     }
 
+    @GetMapping("/search")
+    @PreAuthorize("isAuthenticated()")
+    public ApiResponse<List<RecipientResponse>> searchRecipients(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Integer limit) {
+        Long userId = getCurrentUserId();
+        List<RecipientResponse> responses = recipientService.searchRecipients(userId, query, limit).stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+        return ApiResponse.success(responses);
+    }
+
     @GetMapping("/iban/{iban}")
     @PreAuthorize("isAuthenticated()")
     public ApiResponse<RecipientResponse> getByIban(@PathVariable String iban) {
-        // Note: Cette méthode peut nécessiter une vérification supplémentaire
-        // pour s'assurer que l'utilisateur a accès à ce bénéficiaire
-        Recipient recipient = recipientService.getByIban(iban)
-                .orElseThrow(() -> new ResourceNotFoundException("Recipient not found with IBAN: " + iban));
-
-        // Vérifier que le bénéficiaire appartient à l'utilisateur
+        // Limité aux bénéficiaires de l'utilisateur : un autre peut avoir enregistré le même IBAN
         Long userId = getCurrentUserId();
-        if (!recipient.getUserId().equals(userId)) {
-            throw new ResourceNotFoundException("Recipient not found with IBAN: " + iban);
-        }
-
+        Recipient recipient = recipientService.getByIban(userId, iban)
+                .orElseThrow(() -> new ResourceNotFoundException("Recipient not found with IBAN: " + iban));
         return ApiResponse.success(toResponse(recipient));
     }
 
@@ -136,7 +149,9 @@ public class RecipientController {
         Long userId = getCurrentUserId();
 
         // Récupérer le bénéficiaire
+        // Un identifiant fusionné en doublon reste résolu vers le bénéficiaire conservé
         Recipient recipient = recipientRepository.findById(id)
+                .or(() -> recipientRepository.findByAliasId(id))
                 .orElseThrow(() -> new ResourceNotFoundException("Recipient not found with id: " + id));
 
         // Vérifier que le bénéficiaire appartient à l'utilisateur
@@ -1,15 +1,24 @@
 package com.khaoula.recipientservice.exception;
 
 import com.khaoula.recipientservice.model.ApiResponse;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.util.Locale;
+
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+    private static final String RECIPIENT_IBAN_CONSTRAINT = "uk_recipients_user_id_iban";
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ApiResponse<?>> handleNotFound(ResourceNotFoundException ex) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(ex.getMessage()));
@@ -20,6 +29,29 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error(ex.getMessage()));
     }
 
+    @ExceptionHandler(DuplicateResourceException.class)
+    public ResponseEntity<ApiResponse<?>> handleDuplicate(DuplicateResourceException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(ex.getMessage()));
+    }
+
+    // Deux ajouts simultanés du même IBAN : l'index unique (user_id, iban) rejette le second.
+    // Toute autre violation est une erreur serveur, journalisée sans détail SQL dans la réponse.
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ApiResponse<?>> handleDataIntegrity(DataIntegrityViolationException ex) {
+        if (violates(ex, RECIPIENT_IBAN_CONSTRAINT)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error("Recipient already exists"));
+        }
+        log.error("Data integrity violation", ex);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error("Data integrity violation"));
+    }
+
+    // Nom rapporté par Postgres ; H2 le préfixe du schéma et le met en majuscules
+    private static boolean violates(DataIntegrityViolationException ex, String constraint) {
+        String name = ex.getCause() instanceof ConstraintViolationException violation
+                ? violation.getConstraintName() : null;
+        return name != null && name.toLowerCase(Locale.ROOT).contains(constraint);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiResponse<?>> handleValidation(MethodArgumentNotValidException ex) {
         String message = ex.getBindingResult().getFieldErrors().stream()
@@ -7,9 +7,12 @@ import jakarta.validation.constraints.Size;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
-@Table(name = "recipients")
+@Table(name = "recipients", indexes = {
+        @Index(name = "uk_recipients_user_id_iban", columnList = "user_id, iban", unique = true)
+})
 public class Recipient {
 
     @Id
@@ -80,6 +83,13 @@ public class Recipient {
         this.userId = userId;
     }
 
+    /**
+     * Forme stockée et comparée d'un IBAN : sans espaces, en majuscules ({@code fr76 1234 ...} -> {@code FR761234...}).
+     */
+    public static String normalizeIban(String iban) {
+        return iban == null ? null : iban.replace(" ", "").toUpperCase(Locale.ROOT);
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,40 @@
+package com.khaoula.recipientservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Identifiant d'un bénéficiaire fusionné dans un autre par {@code RecipientIndexMigration} : les transactions
+ * qui le référencent encore sont résolues vers le bénéficiaire conservé.
+ */
+@Entity
+@Table(name = "recipient_aliases")
+public class RecipientAlias {
+
+    @Id
+    private Long id;
+
+    @Column(name = "recipient_id", nullable = false)
+    private Long recipientId;
+
+    public RecipientAlias() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getRecipientId() {
+        return recipientId;
+    }
+
+    public void setRecipientId(Long recipientId) {
+        this.recipientId = recipientId;
+    }
+}
@@ -2,6 +2,8 @@ package com.khaoula.recipientservice.repository;
 
 import com.khaoula.recipientservice.model.Recipient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,5 +12,11 @@ import java.util.Optional;
 @Repository
 public interface RecipientRepository extends JpaRepository<Recipient, Long> {
     List<Recipient> findByUserId(Long userId);
-    Optional<Recipient> findByIban(String iban);
+    Optional<Recipient> findByUserIdAndIban(Long userId, String iban);
+
+    /**
+     * Bénéficiaire conservé pour un identifiant fusionné (voir {@link com.khaoula.recipientservice.model.RecipientAlias}).
+     */
+    @Query("SELECT r FROM Recipient r, RecipientAlias a WHERE a.id = :id AND r.id = a.recipientId")
+    Optional<Recipient> findByAliasId(@Param("id") Long id);
 }
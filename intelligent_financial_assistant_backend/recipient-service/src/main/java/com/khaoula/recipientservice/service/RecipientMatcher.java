@@ -0,0 +1,105 @@
+package com.khaoula.recipientservice.service;
+
+import com.khaoula.recipientservice.model.Recipient;
+
+import java.text.Normalizer;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Score de pertinence d'un bénéficiaire pour une saisie partielle : correspondance exacte puis préfixe du nom,
+ * préfixe d'un mot du nom, sous-chaîne du nom ou de l'IBAN, préfixe de la banque, et enfin similarité par
+ * trigrammes avec le nom ou l'un de ses mots (mêmes règles que {@code pg_trgm}) pour tolérer une faute de frappe.
+ * Accents et casse sont ignorés.
+ */
+final class RecipientMatcher {
+
+    static final double MIN_SIMILARITY = 0.3;
+
+    private final String query;
+    private final String compactQuery;
+    private final Set<String> queryTrigrams;
+
+    RecipientMatcher(String query) {
+        this.query = normalize(query);
+        this.compactQuery = this.query.replace(" ", "").toUpperCase(Locale.ROOT);
+        this.queryTrigrams = trigrams(this.query);
+    }
+
+    /**
+     * @return un score positif, d'autant plus élevé que la correspondance est forte, ou 0 si le bénéficiaire
+     * ne correspond pas
+     */
+    int score(Recipient recipient) {
+        if (query.isEmpty()) {
+            return 0;
+        }
+        String name = normalize(recipient.getFullName());
+        if (name.equals(query)) {
+            return 100;
+        }
+        if (name.startsWith(query)) {
+            return 90;
+        }
+        if (name.contains(" " + query)) {
+            return 80;
+        }
+        String iban = recipient.getIban() == null ? "" : Recipient.normalizeIban(recipient.getIban());
+        if (!compactQuery.isEmpty() && iban.startsWith(compactQuery)) {
+            return 70;
+        }
+        if (name.contains(query)) {
+            return 60;
+        }
+        // Quelques caractères d'IBAN sont trop peu sélectifs au milieu du numéro
+        if (compactQuery.length() >= 4 && iban.contains(compactQuery)) {
+            return 50;
+        }
+        if (normalize(recipient.getBank()).startsWith(query)) {
+            return 40;
+        }
+        // Meilleure similarité entre la saisie et le nom entier ou l'un de ses mots
+        double similarity = similarity(queryTrigrams, trigrams(name));
+        for (String word : name.split(" ")) {
+            similarity = Math.max(similarity, similarity(queryTrigrams, trigrams(word)));
+        }
+        return similarity >= MIN_SIMILARITY ? (int) Math.round(similarity * 39) : 0;
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = Normalizer.normalize(value, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+
+    // Trigrammes de chaque mot complété par deux espaces devant et un derrière, comme pg_trgm
+    static Set<String> trigrams(String value) {
+        Set<String> result = new HashSet<>();
+        for (String word : value.split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                result.add(padded.substring(i, i + 3));
+            }
+        }
+        return result;
+    }
+
+    static double similarity(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int common = 0;
+        for (String trigram : a) {
+            if (b.contains(trigram)) {
+                common++;
+            }
+        }
+        return (double) common / (a.size() + b.size() - common);
+    }
+}
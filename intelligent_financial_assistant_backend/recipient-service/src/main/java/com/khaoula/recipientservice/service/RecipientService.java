@@ -10,5 +10,6 @@ public interface RecipientService {
     Recipient addRecipient(Recipient recipient, Long userId);
     Recipient updateRecipient(Long id, Recipient recipient, Long userId);
     void deleteRecipient(Long id, Long userId);
-    Optional<Recipient> getByIban(String iban);
+    Optional<Recipient> getByIban(Long userId, String iban);
+    List<Recipient> searchRecipients(Long userId, String query, Integer limit);
 }
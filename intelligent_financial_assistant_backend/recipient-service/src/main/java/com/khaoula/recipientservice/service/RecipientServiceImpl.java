@@ -4,15 +4,20 @@ import com.khaoula.recipientservice.model.Recipient;
 import com.khaoula.recipientservice.repository.RecipientRepository;
 import com.khaoula.recipientservice.exception.ResourceNotFoundException;
 import com.khaoula.recipientservice.exception.ForbiddenException;
+import com.khaoula.recipientservice.exception.DuplicateResourceException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class RecipientServiceImpl implements RecipientService {
 
+    static final int DEFAULT_SEARCH_LIMIT = 10;
+    static final int MAX_SEARCH_LIMIT = 50;
+
     private final RecipientRepository recipientRepository;
 
     public RecipientServiceImpl(RecipientRepository recipientRepository) {
@@ -26,6 +31,10 @@ public class RecipientServiceImpl implements RecipientService {
 
     @Override
     public Recipient addRecipient(Recipient recipient, Long userId) {
+        recipient.setIban(Recipient.normalizeIban(recipient.getIban()));
+        if (recipientRepository.findByUserIdAndIban(userId, recipient.getIban()).isPresent()) {
+            throw new DuplicateResourceException("Recipient already exists with IBAN: " + recipient.getIban());
+        }
         recipient.setUserId(userId);
         recipient.setCreatedAt(LocalDateTime.now());
         return recipientRepository.save(recipient);
@@ -38,8 +47,14 @@ public class RecipientServiceImpl implements RecipientService {
         if (!recipient.getUserId().equals(userId)) {
             throw new ForbiddenException("Forbidden: recipient does not belong to user");
         }
+        String iban = Recipient.normalizeIban(recipientDetails.getIban());
+        recipientRepository.findByUserIdAndIban(userId, iban)
+                .filter(other -> !other.getId().equals(id))
+                .ifPresent(other -> {
+                    throw new DuplicateResourceException("Recipient already exists with IBAN: " + other.getIban());
+                });
         recipient.setFullName(recipientDetails.getFullName());
-        recipient.setIban(recipientDetails.getIban());
+        recipient.setIban(iban);
         recipient.setBank(recipientDetails.getBank());
         return recipientRepository.save(recipient);
     }
@@ -54,8 +69,37 @@ public class RecipientServiceImpl implements RecipientService {
         recipientRepository.deleteById(id);
     }
 
+    /**
+     * Bénéficiaire de l'utilisateur pour cet IBAN, lu par l'index unique {@code (user_id, iban)} : plusieurs
+     * utilisateurs peuvent enregistrer le même IBAN. L'IBAN est comparé sous sa forme normalisée.
+     */
+    @Override
+    public Optional<Recipient> getByIban(Long userId, String iban) {
+        return recipientRepository.findByUserIdAndIban(userId, Recipient.normalizeIban(iban));
+    }
+
+    /**
+     * Recherche à la saisie parmi les bénéficiaires de l'utilisateur, classés par {@link RecipientMatcher}.
+     * Un utilisateur n'en a que quelques centaines : ils sont lus par l'index sur {@code user_id} et classés en
+     * mémoire, sans index de recherche à maintenir à chaque modification.
+     */
     @Override
-    public Optional<Recipient> getByIban(String iban) {
-        return recipientRepository.findByIban(iban);
+    public List<Recipient> searchRecipients(Long userId, String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        int size = limit == null ? DEFAULT_SEARCH_LIMIT : Math.min(Math.max(limit, 1), MAX_SEARCH_LIMIT);
+        RecipientMatcher matcher = new RecipientMatcher(query);
+        return recipientRepository.findByUserId(userId).stream()
+                .map(recipient -> new ScoredRecipient(recipient, matcher.score(recipient)))
+                .filter(scored -> scored.score() > 0)
+                .sorted(Comparator.comparingInt(ScoredRecipient::score).reversed()
+                        .thenComparing(scored -> scored.recipient().getFullName(), String.CASE_INSENSITIVE_ORDER))
+                .limit(size)
+                .map(ScoredRecipient::recipient)
+                .toList();
+    }
+
+    private record ScoredRecipient(Recipient recipient, int score) {
     }
 }
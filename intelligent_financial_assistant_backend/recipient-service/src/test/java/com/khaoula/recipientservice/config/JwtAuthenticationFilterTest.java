@@ -1,161 +0,0 @@
-package com.khaoula.recipientservice.config;
-
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import jakarta.servlet.FilterChain;
-import jakarta.servlet.ServletException;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
-import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.test.util.ReflectionTestUtils;
-
-import java.io.IOException;
-import java.util.Date;
-
-import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.*;
-
-@ExtendWith(MockitoExtension.class)
-class JwtAuthenticationFilterTest {
-
-    @Mock
-    private HttpServletRequest request;
-
-    @Mock
-    private HttpServletResponse response;
-
-    @Mock
-    private FilterChain filterChain;
-
-    @InjectMocks
-    private JwtAuthenticationFilter jwtAuthenticationFilter;
-
-    private String jwtSecret = "test-secret-key-for-jwt-authentication-testing-minimum-256-bits-required";
-
-    @BeforeEach
-    void setUp() {
-        SecurityContextHolder.clearContext();
-        ReflectionTestUtils.setField(jwtAuthenticationFilter, "jwtSecret", jwtSecret);
-    }
-
-    @Test
-    void doFilterInternal_ValidTokenWithUserId_SetsAuthentication() throws ServletException, IOException {
-        // Create a valid JWT with userId claim
-        String token = Jwts.builder()
-                .setSubject("user@example.com")
-                .claim("userId", 123)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 86400000))
-                .signWith(SignatureAlgorithm.HS256, jwtSecret.getBytes())
-                .compact();
-
-        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-
-        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
-
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        assertNotNull(auth);
-        assertEquals("123", auth.getPrincipal());
-        verify(filterChain, times(1)).doFilter(request, response);
-    }
-
-    @Test
-    void doFilterInternal_ValidTokenWithSubjectOnly_SetsAuthentication() throws ServletException, IOException {
-        // Create a valid JWT without userId claim (uses subject)
-        String token = Jwts.builder()
-                .setSubject("user@example.com")
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 86400000))
-                .signWith(SignatureAlgorithm.HS256, jwtSecret.getBytes())
-                .compact();
-
-        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-
-        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
-
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        assertNotNull(auth);
-        assertEquals("user@example.com", auth.getPrincipal());
-        verify(filterChain, times(1)).doFilter(request, response);
-    }
-
-    @Test
-    void doFilterInternal_InvalidToken_DoesNotSetAuthentication() throws ServletException, IOException {
-        when(request.getHeader("Authorization")).thenReturn("Bearer invalid.token.here");
-
-        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
-
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        assertNull(auth);
-        verify(filterChain, times(1)).doFilter(request, response);
-    }
-
-    @Test
-    void doFilterInternal_NoAuthorizationHeader_DoesNotSetAuthentication() throws ServletException, IOException {
-        when(request.getHeader("Authorization")).thenReturn(null);
-
-        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
-
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        assertNull(auth);
-        verify(filterChain, times(1)).doFilter(request, response);
-    }
-
-    @Test
-    void doFilterInternal_MalformedAuthorizationHeader_DoesNotSetAuthentication() throws ServletException, IOException {
-        when(request.getHeader("Authorization")).thenReturn("InvalidFormat token");
-
-        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
-
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        assertNull(auth);
-        verify(filterChain, times(1)).doFilter(request, response);
-    }
-
-    @Test
-    void doFilterInternal_ExpiredToken_DoesNotSetAuthentication() throws ServletException, IOException {
-        // Create an expired JWT
-        String token = Jwts.builder()
-                .setSubject("user@example.com")
-                .claim("userId", 123)
-                .setIssuedAt(new Date(System.currentTimeMillis() - 172800000)) // 2 days ago
-                .setExpiration(new Date(System.currentTimeMillis() - 86400000)) // 1 day ago
-                .signWith(SignatureAlgorithm.HS256, jwtSecret.getBytes())
-                .compact();
-
-        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-
-        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
-
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        assertNull(auth);
-        verify(filterChain, times(1)).doFilter(request, response);
-    }
-
-    @Test
-    void doFilterInternal_TokenWithWrongSignature_DoesNotSetAuthentication() throws ServletException, IOException {
-        // Create a token with different secret
-        String token = Jwts.builder()
-                .setSubject("user@example.com")
-                .claim("userId", 123)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 86400000))
-                .signWith(SignatureAlgorithm.HS256, "wrong-secret-key-that-is-also-long-enough-for-hs256".getBytes())
-                .compact();
-
-        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-
-        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
-
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        assertNull(auth);
-        verify(filterChain, times(1)).doFilter(request, response);
-    }
-}
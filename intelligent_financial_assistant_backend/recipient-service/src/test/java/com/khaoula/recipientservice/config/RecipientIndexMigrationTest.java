@@ -0,0 +1,123 @@
+package com.khaoula.recipientservice.config;
+
+import com.khaoula.recipientservice.exception.GlobalExceptionHandler;
+import com.khaoula.recipientservice.model.Recipient;
+import com.khaoula.recipientservice.repository.RecipientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+// Le DDL valide la transaction en cours sous H2 : pas de rollback possible, nettoyage explicite
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RecipientIndexMigrationTest {
+
+    private static final String IBAN = "FR7612345678901234567890123";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RecipientRepository recipientRepository;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM recipient_aliases");
+        jdbcTemplate.update("DELETE FROM recipients");
+        new RecipientIndexMigration(jdbcTemplate, transactionManager).run(null);
+    }
+
+    private void insert(long userId, String fullName) {
+        insert(userId, fullName, IBAN);
+    }
+
+    private void insert(long userId, String fullName, String iban) {
+        jdbcTemplate.update("INSERT INTO recipients (full_name, iban, bank, user_id) VALUES (?, ?, 'MyBank', ?)",
+                fullName, iban, userId);
+    }
+
+    private long idOf(String fullName) {
+        return jdbcTemplate.queryForObject("SELECT id FROM recipients WHERE full_name = ?", Long.class, fullName);
+    }
+
+    private void dropUniqueIndex() {
+        // Base créée avant l'index unique
+        jdbcTemplate.execute("ALTER TABLE recipients DROP CONSTRAINT IF EXISTS uk_recipients_user_id_iban");
+        jdbcTemplate.execute("DROP INDEX IF EXISTS uk_recipients_user_id_iban");
+    }
+
+    @Test
+    void run_MergesDuplicatesIntoOldestAndRestoresUniqueIndex() {
+        dropUniqueIndex();
+        insert(1L, "John Doe");
+        insert(1L, "John D.");
+        insert(2L, "John Doe");
+
+        new RecipientIndexMigration(jdbcTemplate, transactionManager).run(null);
+
+        List<String> kept = jdbcTemplate.queryForList(
+                "SELECT full_name FROM recipients WHERE user_id = 1", String.class);
+        assertEquals(List.of("John Doe"), kept);
+        assertEquals("John Doe", recipientRepository.findByUserIdAndIban(2L, IBAN).map(Recipient::getFullName).orElseThrow());
+        assertThrows(DataIntegrityViolationException.class, () -> insert(1L, "John Again"));
+    }
+
+    @Test
+    void run_NormalizesIbansBeforeMergingAndKeepsMergedIdsAsAliases() {
+        dropUniqueIndex();
+        insert(1L, "John Doe", "FR76 1234 5678 9012 3456 7890 123");
+        insert(1L, "John D.", "fr7612345678901234567890123");
+        insert(1L, "John Doe Jr", "fr76 1234 5678 9012 3456 7890 123");
+        long oldest = idOf("John Doe");
+        long merged = idOf("John D.");
+        long mergedLater = idOf("John Doe Jr");
+
+        new RecipientIndexMigration(jdbcTemplate, transactionManager).run(null);
+
+        List<String> ibans = jdbcTemplate.queryForList("SELECT iban FROM recipients WHERE user_id = 1", String.class);
+        assertEquals(List.of(IBAN), ibans);
+        assertEquals(oldest, recipientRepository.findByAliasId(merged).map(Recipient::getId).orElseThrow());
+        assertEquals(oldest, recipientRepository.findByAliasId(mergedLater).map(Recipient::getId).orElseThrow());
+        assertTrue(recipientRepository.findByAliasId(oldest).isEmpty());
+    }
+
+    @Test
+    void run_IsIdempotent() {
+        insert(1L, "John Doe");
+
+        RecipientIndexMigration migration = new RecipientIndexMigration(jdbcTemplate, transactionManager);
+        migration.run(null);
+        migration.run(null);
+
+        assertTrue(recipientRepository.findByUserIdAndIban(1L, IBAN).isPresent());
+        assertTrue(recipientRepository.findByUserIdAndIban(3L, IBAN).isEmpty());
+    }
+
+    @Test
+    void uniqueIndex_ViolationIsReportedAsConflict() {
+        insert(1L, "John Doe");
+        Recipient duplicate = new Recipient();
+        duplicate.setFullName("John D.");
+        duplicate.setIban(IBAN);
+        duplicate.setUserId(1L);
+
+        DataIntegrityViolationException ex = assertThrows(DataIntegrityViolationException.class,
+                () -> recipientRepository.saveAndFlush(duplicate));
+
+        assertEquals(HttpStatus.CONFLICT, new GlobalExceptionHandler().handleDataIntegrity(ex).getStatusCode());
+    }
+}
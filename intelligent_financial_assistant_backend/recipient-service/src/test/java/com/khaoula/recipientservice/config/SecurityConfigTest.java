@@ -1,9 +1,19 @@
 package com.khaoula.recipientservice.config;
 
+import com.aitsaid.commonsecurity.jwks.InMemoryJwksSource;
+import com.aitsaid.commonsecurity.jwks.JwksKeySet;
+import com.aitsaid.commonsecurity.security.GatewayAuthenticationFilter;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
@@ -11,22 +21,56 @@ import org.springframework.test.web.servlet.MockMvc;
 import com.khaoula.recipientservice.repository.RecipientRepository;
 import com.khaoula.recipientservice.service.RecipientService;
 
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest
-@ContextConfiguration(classes = {SecurityConfig.class, JwtAuthenticationFilter.class})
+@ContextConfiguration(classes = {SecurityConfig.class, GatewayAuthenticationFilter.class,
+        SecurityConfigTest.JwksTestConfig.class})
 class SecurityConfigTest {
 
+    private static final String KID = "test-key";
+
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private KeyPair rsa;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
     @MockBean
     private RecipientService recipientService;
 
     @MockBean
     private RecipientRepository recipientRepository;
 
+    // Clé publique servie comme le ferait le JWKS d'auth-service
+    @TestConfiguration
+    static class JwksTestConfig {
+
+        @Bean
+        KeyPair rsa() throws NoSuchAlgorithmException {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        }
+
+        @Bean
+        JwksKeySet jwksKeySet(KeyPair rsa) {
+            return new JwksKeySet(new InMemoryJwksSource().put(KID, (RSAPublicKey) rsa.getPublic()), 0);
+        }
+    }
+
     @Test
     void actuatorHealthEndpoint_IsPublic() throws Exception {
         mockMvc.perform(get("/actuator/health"))
@@ -47,6 +91,34 @@ class SecurityConfigTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void protectedEndpoint_WithRs256TokenFromJwks_IsNotBlocked() throws Exception {
+        String token = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, KID)
+                .setClaims(Map.of("roles", List.of("ROLE_USER"), "userId", 123))
+                .setSubject("user@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(rsa.getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+
+        mockMvc.perform(get("/api/recipients").header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void protectedEndpoint_WithHs256Token_ReturnsForbidden() throws Exception {
+        // Ancien format signé avec jwt.secret : auth-service n'émet plus que du RS256
+        String token = Jwts.builder()
+                .setClaims(Map.of("userId", 123))
+                .setSubject("user@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes()))
+                .compact();
+
+        mockMvc.perform(get("/api/recipients").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     void securityConfig_BeansAreCreated() {
         // Test that security configuration is loaded
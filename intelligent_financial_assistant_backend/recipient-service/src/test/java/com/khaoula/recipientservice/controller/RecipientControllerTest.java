@@ -1,10 +1,14 @@
 package com.khaoula.recipientservice.controller;
 
+import com.aitsaid.commonsecurity.security.VerifiedToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.khaoula.recipientservice.dto.RecipientRequest;
+import com.khaoula.recipientservice.exception.DuplicateResourceException;
 import com.khaoula.recipientservice.model.Recipient;
 import com.khaoula.recipientservice.repository.RecipientRepository;
 import com.khaoula.recipientservice.service.RecipientService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -16,12 +20,13 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -136,13 +141,40 @@ class RecipientControllerTest {
         recipient.setBank("MyBank");
         recipient.setCreatedAt(LocalDateTime.now());
 
-        when(recipientService.getByIban(anyString())).thenReturn(Optional.of(recipient));
+        when(recipientService.getByIban(1L, "FR7612345678901234567890123")).thenReturn(Optional.of(recipient));
 
         mockMvc.perform(get("/api/recipients/iban/FR7612345678901234567890123"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.data.full_name").value("John Doe"));
     }
 
+    @Test
+    @WithMockUser(username = "2")
+    void getByIban_NotOwnedByUser_NotFound() throws Exception {
+        when(recipientService.getByIban(2L, "FR7612345678901234567890123")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/recipients/iban/FR7612345678901234567890123"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "1")
+    void addRecipient_DuplicateIban_Conflict() throws Exception {
+        RecipientRequest request = new RecipientRequest();
+        request.setFullName("John Doe");
+        request.setIban("FR7612345678901234567890123");
+        request.setBank("MyBank");
+
+        when(recipientService.addRecipient(any(Recipient.class), anyLong()))
+                .thenThrow(new DuplicateResourceException("Recipient already exists with IBAN: FR7612345678901234567890123"));
+
+        mockMvc.perform(post("/api/recipients")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request))
+                        .with(csrf()))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     @WithMockUser(username = "1")
     void getRecipientById_Success() throws Exception {
@@ -160,4 +192,67 @@ class RecipientControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.data.full_name").value("John Doe"));
     }
+
+    @Test
+    @WithMockUser(username = "1")
+    void getRecipientById_MergedDuplicateId_ReturnsKeptRecipient() throws Exception {
+        Recipient recipient = new Recipient();
+        recipient.setId(1L);
+        recipient.setUserId(1L);
+        recipient.setFullName("John Doe");
+        recipient.setIban("FR7612345678901234567890123");
+        recipient.setBank("MyBank");
+        recipient.setCreatedAt(LocalDateTime.now());
+
+        when(recipientRepository.findById(7L)).thenReturn(Optional.empty());
+        when(recipientRepository.findByAliasId(7L)).thenReturn(Optional.of(recipient));
+
+        mockMvc.perform(get("/api/recipients/7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.full_name").value("John Doe"));
+    }
+
+    @Test
+    @WithMockUser(username = "1")
+    void searchRecipients_Success() throws Exception {
+        Recipient recipient = new Recipient();
+        recipient.setId(1L);
+        recipient.setUserId(1L);
+        recipient.setFullName("John Doe");
+        recipient.setIban("FR7612345678901234567890123");
+        recipient.setBank("MyBank");
+        recipient.setCreatedAt(LocalDateTime.now());
+
+        when(recipientService.searchRecipients(1L, "jo", 5)).thenReturn(List.of(recipient));
+
+        mockMvc.perform(get("/api/recipients/search").param("q", "jo").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].full_name").value("John Doe"));
+    }
+
+    @Test
+    @WithMockUser(username = "user@example.com")
+    void getRecipientList_UsesUserIdClaimOfVerifiedToken() throws Exception {
+        // Le sujet des tokens RS256 d'auth-service est l'email, le userId est dans les claims
+        Claims claims = Jwts.claims().setSubject("user@example.com");
+        claims.put("userId", 123);
+        when(recipientService.getRecipientList(123L)).thenReturn(Collections.emptyList());
+
+        mockMvc.perform(get("/api/recipients")
+                        .requestAttr(VerifiedToken.REQUEST_ATTRIBUTE, new VerifiedToken("token", claims, List.of())))
+                .andExpect(status().isOk());
+
+        verify(recipientService).getRecipientList(123L);
+    }
+
+    @Test
+    @WithMockUser(username = "user@example.com")
+    void getRecipientList_UsesGatewayUserIdHeader() throws Exception {
+        when(recipientService.getRecipientList(42L)).thenReturn(Collections.emptyList());
+
+        mockMvc.perform(get("/api/recipients").header("X-Auth-User-Id", "42"))
+                .andExpect(status().isOk());
+
+        verify(recipientService).getRecipientList(42L);
+    }
 }
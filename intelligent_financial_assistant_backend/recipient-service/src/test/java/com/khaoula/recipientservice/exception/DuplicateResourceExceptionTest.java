@@ -0,0 +1,32 @@
+package com.khaoula.recipientservice.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuplicateResourceExceptionTest {
+
+    @Test
+    void constructor_WithMessage_CreatesException() {
+        String message = "Recipient already exists";
+        DuplicateResourceException exception = new DuplicateResourceException(message);
+
+        assertNotNull(exception);
+        assertEquals(message, exception.getMessage());
+    }
+
+    @Test
+    void exception_IsRuntimeException() {
+        DuplicateResourceException exception = new DuplicateResourceException("Test");
+        assertTrue(exception instanceof RuntimeException);
+    }
+
+    @Test
+    void exception_HasResponseStatusAnnotation() {
+        ResponseStatus annotation = DuplicateResourceException.class.getAnnotation(ResponseStatus.class);
+        assertNotNull(annotation);
+        assertEquals(HttpStatus.CONFLICT, annotation.value());
+    }
+}
@@ -1,14 +1,17 @@
 package com.khaoula.recipientservice.exception;
 
 import com.khaoula.recipientservice.model.ApiResponse;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 
+import java.sql.SQLException;
 import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -104,4 +107,47 @@ class GlobalExceptionHandlerTest {
         assertFalse(response.getBody().isSuccess());
         assertEquals("Unexpected error", response.getBody().getMessage());
     }
+
+    @Test
+    void handleDuplicate_ReturnsConflictStatus() {
+        ResponseEntity<ApiResponse<?>> response = exceptionHandler.handleDuplicate(
+                new DuplicateResourceException("Recipient already exists"));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals("Recipient already exists", response.getBody().getMessage());
+    }
+
+    @Test
+    void handleDataIntegrity_ReturnsConflictWithoutSqlDetails() {
+        ResponseEntity<ApiResponse<?>> response = exceptionHandler.handleDataIntegrity(
+                violation("uk_recipients_user_id_iban"));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals("Recipient already exists", response.getBody().getMessage());
+    }
+
+    @Test
+    void handleDataIntegrity_OtherConstraint_ReturnsServerError() {
+        ResponseEntity<ApiResponse<?>> response = exceptionHandler.handleDataIntegrity(
+                violation("recipients_full_name_not_null"));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals("Data integrity violation", response.getBody().getMessage());
+    }
+
+    @Test
+    void handleDataIntegrity_UnknownConstraint_ReturnsServerError() {
+        ResponseEntity<ApiResponse<?>> response = exceptionHandler.handleDataIntegrity(
+                new DataIntegrityViolationException("duplicate key value violates unique constraint"));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+
+    private DataIntegrityViolationException violation(String constraint) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("violation", new SQLException("violation"), constraint));
+    }
 }
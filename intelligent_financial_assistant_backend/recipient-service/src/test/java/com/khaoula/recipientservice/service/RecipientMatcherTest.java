@@ -0,0 +1,55 @@
+package com.khaoula.recipientservice.service;
+
+import com.khaoula.recipientservice.model.Recipient;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipientMatcherTest {
+
+    private Recipient recipient(String fullName, String iban, String bank) {
+        Recipient recipient = new Recipient();
+        recipient.setFullName(fullName);
+        recipient.setIban(iban);
+        recipient.setBank(bank);
+        return recipient;
+    }
+
+    @Test
+    void score_OrdersMatchKinds() {
+        RecipientMatcher matcher = new RecipientMatcher("jean");
+        int exact = matcher.score(recipient("Jean", "FR7600000000000000000000000", null));
+        int prefix = matcher.score(recipient("Jean Moreau", "FR7600000000000000000000000", null));
+        int word = matcher.score(recipient("Paul Jean", "FR7600000000000000000000000", null));
+        int substring = matcher.score(recipient("Mijeanne", "FR7600000000000000000000000", null));
+
+        assertTrue(exact > prefix);
+        assertTrue(prefix > word);
+        assertTrue(word > substring);
+        assertTrue(substring > 0);
+    }
+
+    @Test
+    void score_MatchesBankPrefixAndToleratesTypo() {
+        assertTrue(new RecipientMatcher("attij").score(recipient("Omar Alaoui", "MA6400000000000000000000", "Attijariwafa")) > 0);
+        assertTrue(new RecipientMatcher("moreaux").score(recipient("Jean Moreau", "FR7600000000000000000000000", null)) > 0);
+        assertEquals(0, new RecipientMatcher("zzz").score(recipient("Jean Moreau", "FR7600000000000000000000000", null)));
+    }
+
+    @Test
+    void score_ShortIbanFragmentOnlyMatchesPrefix() {
+        Recipient recipient = recipient("Jean Moreau", "FR7612345678901234567890123", null);
+
+        assertTrue(new RecipientMatcher("fr7").score(recipient) > 0);
+        assertEquals(0, new RecipientMatcher("123").score(recipient));
+        assertTrue(new RecipientMatcher("1234").score(recipient) > 0);
+    }
+
+    @Test
+    void similarity_FollowsTrigramRules() {
+        assertEquals(1.0, RecipientMatcher.similarity(RecipientMatcher.trigrams("dupont"), RecipientMatcher.trigrams("dupont")));
+        assertTrue(RecipientMatcher.similarity(RecipientMatcher.trigrams("dupond"), RecipientMatcher.trigrams("dupont"))
+                >= RecipientMatcher.MIN_SIMILARITY);
+        assertEquals(0.0, RecipientMatcher.similarity(RecipientMatcher.trigrams(""), RecipientMatcher.trigrams("dupont")));
+    }
+}
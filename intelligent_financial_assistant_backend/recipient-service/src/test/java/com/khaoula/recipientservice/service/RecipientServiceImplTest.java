@@ -1,5 +1,6 @@
 package com.khaoula.recipientservice.service;
 
+import com.khaoula.recipientservice.exception.DuplicateResourceException;
 import com.khaoula.recipientservice.exception.ForbiddenException;
 import com.khaoula.recipientservice.exception.ResourceNotFoundException;
 import com.khaoula.recipientservice.model.Recipient;
@@ -12,6 +13,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -123,11 +125,126 @@ class RecipientServiceImplTest {
 
     @Test
     void getByIban_Success() {
-        when(recipientRepository.findByIban("FR7612345678901234567890123")).thenReturn(Optional.of(recipient));
+        when(recipientRepository.findByUserIdAndIban(1L, "FR7612345678901234567890123")).thenReturn(Optional.of(recipient));
 
-        Optional<Recipient> result = recipientService.getByIban("FR7612345678901234567890123");
+        Optional<Recipient> result = recipientService.getByIban(1L, "FR7612345678901234567890123");
 
         assertTrue(result.isPresent());
         assertEquals("John Doe", result.get().getFullName());
     }
+
+    @Test
+    void getByIban_SpacedLowerCaseIban_LooksUpNormalizedIban() {
+        when(recipientRepository.findByUserIdAndIban(1L, "FR7612345678901234567890123")).thenReturn(Optional.of(recipient));
+
+        assertTrue(recipientService.getByIban(1L, "fr76 1234 5678 9012 3456 7890 123").isPresent());
+    }
+
+    @Test
+    void addRecipient_SpacedIban_IsStoredNormalized() {
+        when(recipientRepository.findByUserIdAndIban(1L, "FR7612345678901234567890123")).thenReturn(Optional.empty());
+        when(recipientRepository.save(any(Recipient.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Recipient spaced = new Recipient();
+        spaced.setFullName("John Doe");
+        spaced.setIban("FR76 1234 5678 9012 3456 7890 123");
+
+        assertEquals("FR7612345678901234567890123", recipientService.addRecipient(spaced, 1L).getIban());
+    }
+
+    @Test
+    void getByIban_OtherUsersRecipient_NotFound() {
+        when(recipientRepository.findByUserIdAndIban(2L, "FR7612345678901234567890123")).thenReturn(Optional.empty());
+
+        assertTrue(recipientService.getByIban(2L, "FR7612345678901234567890123").isEmpty());
+    }
+
+    @Test
+    void addRecipient_DuplicateIban_ThrowsConflict() {
+        when(recipientRepository.findByUserIdAndIban(1L, recipient.getIban())).thenReturn(Optional.of(recipient));
+
+        Recipient duplicate = new Recipient();
+        duplicate.setFullName("John D.");
+        duplicate.setIban(recipient.getIban());
+
+        assertThrows(DuplicateResourceException.class, () -> recipientService.addRecipient(duplicate, 1L));
+        verify(recipientRepository, never()).save(any(Recipient.class));
+    }
+
+    @Test
+    void updateRecipient_IbanOfAnotherRecipient_ThrowsConflict() {
+        Recipient other = recipient(2L, "Jane Doe", "FR7698765432109876543210987");
+        Recipient details = new Recipient();
+        details.setFullName("John Doe");
+        details.setIban(other.getIban());
+        when(recipientRepository.findById(1L)).thenReturn(Optional.of(recipient));
+        when(recipientRepository.findByUserIdAndIban(1L, other.getIban())).thenReturn(Optional.of(other));
+
+        assertThrows(DuplicateResourceException.class, () -> recipientService.updateRecipient(1L, details, 1L));
+        verify(recipientRepository, never()).save(any(Recipient.class));
+    }
+
+    @Test
+    void updateRecipient_SameIban_Success() {
+        when(recipientRepository.findById(1L)).thenReturn(Optional.of(recipient));
+        when(recipientRepository.findByUserIdAndIban(1L, recipient.getIban())).thenReturn(Optional.of(recipient));
+        when(recipientRepository.save(recipient)).thenReturn(recipient);
+
+        Recipient details = new Recipient();
+        details.setFullName("John Updated");
+        details.setIban(recipient.getIban());
+
+        assertEquals("John Updated", recipientService.updateRecipient(1L, details, 1L).getFullName());
+    }
+
+    private Recipient recipient(long id, String fullName, String iban) {
+        Recipient r = new Recipient();
+        r.setId(id);
+        r.setUserId(1L);
+        r.setFullName(fullName);
+        r.setIban(iban);
+        r.setBank("MyBank");
+        return r;
+    }
+
+    @Test
+    void searchRecipients_RanksPrefixBeforeSubstringAndTypo() {
+        Recipient contains = recipient(2L, "Karim Ben Jomaa", "MA64011519000001205000534921");
+        Recipient typo = recipient(3L, "Marie Dupont", "FR7630006000011234567890189");
+        Recipient prefix = recipient(4L, "Dupond Transports", "FR7610107001011234567890129");
+        Recipient other = recipient(5L, "Alice Martin", "DE89370400440532013000");
+        when(recipientRepository.findByUserId(1L)).thenReturn(List.of(contains, typo, other, prefix));
+
+        List<Recipient> result = recipientService.searchRecipients(1L, "Dupond", null);
+
+        assertEquals(List.of(prefix, typo), result);
+    }
+
+    @Test
+    void searchRecipients_MatchesIbanIgnoringSpacesAndAccents() {
+        Recipient accented = recipient(2L, "Hélène Léger", "FR7630006000011234567890189");
+        when(recipientRepository.findByUserId(1L)).thenReturn(List.of(recipient, accented));
+
+        assertEquals(List.of(accented), recipientService.searchRecipients(1L, "helene", 10));
+        assertEquals(List.of(recipient), recipientService.searchRecipients(1L, "fr76 1234", 10));
+    }
+
+    @Test
+    void searchRecipients_BoundsResults() {
+        List<Recipient> many = new ArrayList<>();
+        for (long i = 0; i < 80; i++) {
+            many.add(recipient(i, "John " + i, "FR76" + i));
+        }
+        when(recipientRepository.findByUserId(1L)).thenReturn(many);
+
+        assertEquals(RecipientServiceImpl.DEFAULT_SEARCH_LIMIT, recipientService.searchRecipients(1L, "john", null).size());
+        assertEquals(RecipientServiceImpl.MAX_SEARCH_LIMIT, recipientService.searchRecipients(1L, "john", 500).size());
+        assertEquals(1, recipientService.searchRecipients(1L, "john", 0).size());
+    }
+
+    @Test
+    void searchRecipients_BlankQuery_ReturnsEmptyWithoutQuery() {
+        assertTrue(recipientService.searchRecipients(1L, "  ", null).isEmpty());
+        verifyNoInteractions(recipientRepository);
+    }
 }
@@ -3,6 +3,9 @@ package com.khaoula.transactionsservice.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.util.List;
+
 /**
  * @author radouane
  **/
@@ -17,10 +20,20 @@ public interface AccountClient {
     AccountResponse getAccountByIban(@PathVariable("iban") String iban,
                                      @RequestHeader("Authorization") String authorization);
 
-    @PostMapping("/api/accounts/{id}/balance")
-    void updateBalance(@PathVariable("id") Long id,
-                       @RequestBody BalanceUpdateRequest request,
-                       @RequestHeader("Authorization") String authorization);
+    /**
+     * Applique tous les débits/crédits en une seule transaction côté account-service.
+     * Rejouer la même clé d'idempotence ne réapplique pas les jambes.
+     */
+    @PostMapping("/api/accounts/balance-operations")
+    BalanceOperationResponse applyBalanceOperation(@RequestBody BalanceOperationRequest request,
+                                                   @RequestHeader("Authorization") String authorization);
+
+    /**
+     * Compensation : contre-passe l'opération de cette clé, ou la bloque si elle n'a jamais été appliquée.
+     */
+    @PostMapping("/api/accounts/balance-operations/{key}/reversal")
+    BalanceOperationResponse reverseBalanceOperation(@PathVariable("key") String idempotencyKey,
+                                                     @RequestHeader("Authorization") String authorization);
 
     class AccountResponse {
         private Long id;
@@ -70,23 +83,60 @@ public interface AccountClient {
         }
     }
 
-    class BalanceUpdateRequest {
-        private Double amount;
+    class BalanceLeg {
+        private Long accountId;
+        private String rib;
+        private BigDecimal amount;
         private String operation; // "ADD" or "SUBTRACT"
 
-        public BalanceUpdateRequest() {
+        public BalanceLeg() {
         }
 
-        public BalanceUpdateRequest(Double amount, String operation) {
-            this.amount = amount;
-            this.operation = operation;
+        public static BalanceLeg debit(Long accountId, BigDecimal amount) {
+            BalanceLeg leg = new BalanceLeg();
+            leg.setAccountId(accountId);
+            leg.setAmount(amount);
+            leg.setOperation("SUBTRACT");
+            return leg;
+        }
+
+        public static BalanceLeg credit(Long accountId, BigDecimal amount) {
+            BalanceLeg leg = new BalanceLeg();
+            leg.setAccountId(accountId);
+            leg.setAmount(amount);
+            leg.setOperation("ADD");
+            return leg;
+        }
+
+        public static BalanceLeg creditRib(String rib, BigDecimal amount) {
+            BalanceLeg leg = new BalanceLeg();
+            leg.setRib(rib);
+            leg.setAmount(amount);
+            leg.setOperation("ADD");
+            return leg;
+        }
+
+        public Long getAccountId() {
+            return accountId;
+        }
+
+        public void setAccountId(Long accountId) {
+            this.accountId = accountId;
         }
 
-        public Double getAmount() {
+        public String getRib() {
+            return rib;
+        }
+
+        public void setRib(String rib) {
+            this.rib = rib;
+        }
+
+        public BigDecimal getAmount() {
             return amount;
         }
 
-        public void setAmount(Double amount) {
+        public void setAmount(BigDecimal amount) {
             this.amount = amount;
         }
 
@@ -98,4 +148,63 @@ public interface AccountClient {
             this.operation = operation;
         }
     }
+
+    class BalanceOperationRequest {
+        private String idempotencyKey;
+        private List<BalanceLeg> legs;
+
+        public BalanceOperationRequest() {
+        }
+
+        public BalanceOperationRequest(String idempotencyKey, List<BalanceLeg> legs) {
+            this.idempotencyKey = idempotencyKey;
+            this.legs = legs;
+        }
+
+        public String getIdempotencyKey() {
+            return idempotencyKey;
+        }
+
+        public void setIdempotencyKey(String idempotencyKey) {
+            this.idempotencyKey = idempotencyKey;
+        }
+
+        public List<BalanceLeg> getLegs() {
+            return legs;
+        }
+
+        public void setLegs(List<BalanceLeg> legs) {
+            this.legs = legs;
+        }
+    }
+
+    class BalanceOperationResponse {
+        private String idempotencyKey;
+        private List<Long> accountIds;
+        private boolean replayed;
+
+        public String getIdempotencyKey() {
+            return idempotencyKey;
+        }
+
+        public void setIdempotencyKey(String idempotencyKey) {
+            this.idempotencyKey = idempotencyKey;
+        }
+
+        public List<Long> getAccountIds() {
+            return accountIds;
+        }
+
+        public void setAccountIds(List<Long> accountIds) {
+            this.accountIds = accountIds;
+        }
+
+        public boolean isReplayed() {
+            return replayed;
+        }
+
+        public void setReplayed(boolean replayed) {
+            this.replayed = replayed;
+        }
+    }
 }
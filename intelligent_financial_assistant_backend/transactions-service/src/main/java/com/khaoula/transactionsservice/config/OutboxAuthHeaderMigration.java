@@ -0,0 +1,33 @@
+package com.khaoula.transactionsservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Supprime {@code transaction_outbox.auth_header}, que {@code ddl-auto=update} laisse en place : la colonne
+ * conservait en clair le token de l'initiateur, remplacé par le token de service de transactions-service.
+ */
+@Component
+public class OutboxAuthHeaderMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxAuthHeaderMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxAuthHeaderMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            jdbcTemplate.execute("ALTER TABLE transaction_outbox DROP COLUMN IF EXISTS auth_header");
+        } catch (Exception e) {
+            log.warn("Could not drop transaction_outbox.auth_header: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.khaoula.transactionsservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Pool dédié aux sagas de règlement : sa taille borne le nombre d'appels simultanés vers
+ * account-service, indépendamment des threads HTTP.
+ */
+@Configuration
+public class SettlementExecutorConfig {
+
+    @Bean(name = "settlementExecutor")
+    public ThreadPoolTaskExecutor settlementExecutor(@Value("${outbox.workers:8}") int workers,
+                                                     @Value("${outbox.batch-size:50}") int batchSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(batchSize);
+        executor.setThreadNamePrefix("settlement-");
+        // File pleine : le dispatcher traite lui-même l'entrée plutôt que de la perdre
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,89 @@
+package com.khaoula.transactionsservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Index de {@code transactions} que {@code ddl-auto=update} ne sait pas gérer.
+ * <ul>
+ *     <li>Crée les index {@code (user_id | bank_account_id, tx_date, id)} avec {@code INCLUDE} (Postgres) :
+ *     les « dernières transactions » sont lues dans l'index seul. Sans {@code INCLUDE} (H2), l'index
+ *     est créé sans les colonnes incluses.</li>
+ *     <li>Supprime les index mono-colonne remplacés : {@code ddl-auto=update} crée les nouveaux mais ne retire
+ *     jamais les anciens, qui ne servent plus qu'à ralentir les écritures.</li>
+ * </ul>
+ * Sur Postgres, création et suppression se font {@code CONCURRENTLY} : la table reste accessible en écriture
+ * pendant la construction. Ces ordres ne peuvent pas s'exécuter dans une transaction ; le runner n'en ouvre
+ * pas, chaque ordre est validé seul (auto-commit). Un index laissé invalide par une construction interrompue
+ * est supprimé puis reconstruit.
+ */
+@Component
+public class TransactionIndexMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionIndexMigration.class);
+    private static final String[] OBSOLETE_INDEXES = {"idx_transaction_bank_account", "idx_transaction_date"};
+    private static final String RECENT_COLUMNS = " INCLUDE (reference, type, status, amount)";
+    private static final String[][] COVERING_INDEXES = {
+            {"idx_transaction_user_recent", "user_id, tx_date, id"},
+            {"idx_transaction_account_recent", "bank_account_id, tx_date, id"}};
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionIndexMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        boolean postgres = isPostgres();
+        String concurrently = postgres ? "CONCURRENTLY " : "";
+        for (String[] index : COVERING_INDEXES) {
+            if (postgres && isInvalid(index[0])) {
+                log.warn("Rebuilding invalid index {}", index[0]);
+                dropIndex(index[0], concurrently);
+            }
+            String create = "CREATE INDEX " + concurrently + "IF NOT EXISTS " + index[0]
+                    + " ON transactions (" + index[1] + ")";
+            try {
+                jdbcTemplate.execute(create + RECENT_COLUMNS);
+            } catch (Exception e) {
+                log.info("INCLUDE not supported for {}, creating plain index", index[0]);
+                try {
+                    jdbcTemplate.execute(create);
+                } catch (Exception ex) {
+                    log.warn("Could not create index {}: {}", index[0], ex.getMessage());
+                }
+            }
+        }
+        // Après la création : les requêtes par utilisateur ou par compte ne restent jamais sans index
+        for (String index : OBSOLETE_INDEXES) {
+            dropIndex(index, concurrently);
+        }
+    }
+
+    private void dropIndex(String index, String concurrently) {
+        try {
+            jdbcTemplate.execute("DROP INDEX " + concurrently + "IF EXISTS " + index);
+        } catch (Exception e) {
+            log.warn("Could not drop index {}: {}", index, e.getMessage());
+        }
+    }
+
+    private boolean isInvalid(String index) {
+        Integer invalid = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_index i"
+                + " JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = ? AND NOT i.indisvalid",
+                Integer.class, index);
+        return invalid != null && invalid > 0;
+    }
+
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equals(product);
+    }
+}
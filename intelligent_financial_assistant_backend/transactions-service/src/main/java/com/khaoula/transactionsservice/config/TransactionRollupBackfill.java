@@ -0,0 +1,94 @@
+package com.khaoula.transactionsservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Initialise {@code transaction_daily_rollup} à partir des transactions existantes, une seule fois :
+ * le marqueur {@value #MIGRATION} de {@code transaction_migrations} est posé dans la même transaction.
+ * Ensuite, les compteurs sont tenus par {@link com.khaoula.transactionsservice.service.TransactionRollupService}.
+ * <p>
+ * Exécuté une fois les beans créés, avant le démarrage du serveur web et des tâches planifiées. Sur Postgres,
+ * la table des compteurs est verrouillée ({@code EXCLUSIVE}) le temps du calcul : les transitions déjà
+ * comptées par une autre instance sont recalculées depuis {@code transactions} (pas de double comptage),
+ * et celles en cours attendent la fin du remplissage pour s'y ajouter.
+ */
+@Component
+public class TransactionRollupBackfill implements SmartInitializingSingleton {
+
+    static final String MIGRATION = "transaction_daily_rollup_backfill";
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionRollupBackfill.class);
+    private static final int MAX_ATTEMPTS = 3;
+    private static final String CREATE_MARKERS = "CREATE TABLE IF NOT EXISTS transaction_migrations ("
+            + "name VARCHAR(100) PRIMARY KEY, applied_at TIMESTAMP NOT NULL)";
+    private static final String BACKFILL =
+            "INSERT INTO transaction_daily_rollup (rollup_day, status, type, tx_count, amount_sum) " +
+            "SELECT CAST(tx_date AT TIME ZONE 'UTC' AS DATE), status, type, COUNT(*), SUM(amount) " +
+            "FROM transactions " +
+            "GROUP BY CAST(tx_date AT TIME ZONE 'UTC' AS DATE), status, type";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public TransactionRollupBackfill(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        backfill();
+    }
+
+    public void backfill() {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                jdbcTemplate.execute(CREATE_MARKERS);
+                Integer rows = transactionTemplate.execute(status -> backfillOnce());
+                if (rows != null && rows > 0) {
+                    log.info("Backfilled {} transaction rollup rows", rows);
+                }
+                return;
+            } catch (Exception e) {
+                log.warn("Transaction rollup backfill attempt {} failed: {}", attempt, e.getMessage());
+            }
+        }
+        log.error("Transaction rollups not backfilled, statistics stay incomplete until the next start");
+    }
+
+    private int backfillOnce() {
+        if (isPostgres()) {
+            // Une transition en attente du verrou ne doit pas bloquer le démarrage indéfiniment
+            jdbcTemplate.execute("SET LOCAL lock_timeout = '5s'");
+            jdbcTemplate.execute("LOCK TABLE transaction_daily_rollup IN EXCLUSIVE MODE");
+            jdbcTemplate.execute("LOCK TABLE transaction_migrations IN EXCLUSIVE MODE");
+        }
+        Integer applied = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transaction_migrations WHERE name = ?", Integer.class, MIGRATION);
+        if (applied != null && applied > 0) {
+            return 0;
+        }
+        // Compteurs tenus avant le remplissage : recalculés avec le reste
+        jdbcTemplate.update("DELETE FROM transaction_daily_rollup");
+        int rows = jdbcTemplate.update(BACKFILL);
+        jdbcTemplate.update("INSERT INTO transaction_migrations (name, applied_at) VALUES (?, ?)",
+                MIGRATION, Timestamp.from(Instant.now()));
+        return rows;
+    }
+
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equals(product);
+    }
+}
@@ -0,0 +1,21 @@
+package com.khaoula.transactionsservice.config;
+
+import com.aitsaid.commonsecurity.users.UserNearCache;
+import com.aitsaid.commonsecurity.users.UserNearCacheRegistry;
+import com.khaoula.transactionsservice.client.UserClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Profils des titulaires de comptes internes, utilisés pour créer automatiquement un bénéficiaire
+ * lors d'un virement ; invalidés par le flux des modifications d'auth-service.
+ * Métriques sous {@code cache.gets{cache=user-profiles}}.
+ */
+@Configuration
+public class UserProfileCacheConfig {
+
+    @Bean
+    public UserNearCache<UserClient.UserDetails> userProfileCache(UserNearCacheRegistry registry) {
+        return registry.create("user-profiles");
+    }
+}
@@ -2,21 +2,28 @@ package com.khaoula.transactionsservice.controller;
 
 import com.khaoula.transactionsservice.domain.TransactionStatus;
 import com.khaoula.transactionsservice.domain.TransactionType;
+import com.khaoula.transactionsservice.dto.RecentTransactionDTO;
+import com.khaoula.transactionsservice.dto.TransactionCursorPageDTO;
 import com.khaoula.transactionsservice.dto.TransactionFilterDTO;
 import com.khaoula.transactionsservice.dto.TransactionRequestDTO;
 import com.khaoula.transactionsservice.dto.TransferRequestDTO;
 import com.khaoula.transactionsservice.dto.TransactionResponseDTO;
+import com.khaoula.transactionsservice.exception.InvalidTransactionException;
+import com.khaoula.transactionsservice.service.TransactionExportService;
 import com.khaoula.transactionsservice.service.TransactionService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.List;
@@ -27,9 +34,12 @@ public class TransactionAdminController {
 
     private static final Logger log = LoggerFactory.getLogger(TransactionAdminController.class);
     private final TransactionService transactionService;
+    private final TransactionExportService transactionExportService;
 
-    public TransactionAdminController(TransactionService transactionService) {
+    public TransactionAdminController(TransactionService transactionService,
+                                      TransactionExportService transactionExportService) {
         this.transactionService = transactionService;
+        this.transactionExportService = transactionExportService;
     }
 
     /**
@@ -52,47 +62,9 @@ public class TransactionAdminController {
 
         log.info("Admin {} retrieving transactions", authentication.getName());
 
-        TransactionFilterDTO filter = new TransactionFilterDTO();
-        filter.setUserId(userId);
-        filter.setBankAccountId(bankAccountId);
-
-        // Parser le type
-        if (type != null && !type.isEmpty()) {
-            try {
-                filter.setType(TransactionType.valueOf(type.toUpperCase()));
-            } catch (IllegalArgumentException e) {
-                log.warn("Invalid transaction type: {}", type);
-                return ResponseEntity.badRequest().build();
-            }
-        }
-
-        // Parser le status
-        if (status != null && !status.isEmpty()) {
-            try {
-                filter.setStatus(TransactionStatus.valueOf(status.toUpperCase()));
-            } catch (IllegalArgumentException e) {
-                log.warn("Invalid transaction status: {}", status);
-                return ResponseEntity.badRequest().build();
-            }
-        }
-
-        // Parser les dates
-        if (startDate != null && !startDate.isEmpty()) {
-            try {
-                filter.setStartDate(OffsetDateTime.parse(startDate));
-            } catch (DateTimeParseException e) {
-                log.warn("Invalid start date format: {}", startDate);
-                return ResponseEntity.badRequest().build();
-            }
-        }
-
-        if (endDate != null && !endDate.isEmpty()) {
-            try {
-                filter.setEndDate(OffsetDateTime.parse(endDate));
-            } catch (DateTimeParseException e) {
-                log.warn("Invalid end date format: {}", endDate);
-                return ResponseEntity.badRequest().build();
-            }
+        TransactionFilterDTO filter = parseFilter(userId, bankAccountId, type, status, startDate, endDate);
+        if (filter == null) {
+            return ResponseEntity.badRequest().build();
         }
 
         filter.setPage(page);
@@ -104,6 +76,71 @@ public class TransactionAdminController {
         return ResponseEntity.ok(transactions);
     }
 
+    /**
+     * Recherche par curseur : passer le {@code nextCursor} de la réponse pour obtenir la page suivante.
+     * Le total, estimé par le planificateur, n'est calculé qu'à la demande, sur la première page.
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<TransactionCursorPageDTO> searchTransactions(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long bankAccountId,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size,
+            @RequestParam(defaultValue = "DESC") String sortDirection,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        TransactionFilterDTO filter = parseFilter(userId, bankAccountId, type, status, startDate, endDate);
+        if (filter == null || !("ASC".equalsIgnoreCase(sortDirection) || "DESC".equalsIgnoreCase(sortDirection))) {
+            return ResponseEntity.badRequest().build();
+        }
+        filter.setSize(size);
+        filter.setSortDirection(sortDirection);
+
+        return ResponseEntity.ok(transactionService.searchTransactions(filter, cursor, includeTotal));
+    }
+
+    /**
+     * Export complet (CSV ou NDJSON) écrit au fil de la lecture, sans pagination ni limite de taille.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public void exportTransactions(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long bankAccountId,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(defaultValue = "csv") String format,
+            Authentication authentication,
+            HttpServletResponse response) throws IOException {
+
+        TransactionFilterDTO filter = parseFilter(userId, bankAccountId, type, status, startDate, endDate);
+        if (filter == null) {
+            throw new InvalidTransactionException("Invalid export filters");
+        }
+        TransactionExportService.Format exportFormat;
+        try {
+            exportFormat = TransactionExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTransactionException("Unsupported export format: " + format);
+        }
+
+        log.info("Admin {} exporting transactions as {}", authentication.getName(), exportFormat);
+
+        boolean csv = exportFormat == TransactionExportService.Format.CSV;
+        response.setCharacterEncoding("UTF-8");
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"transactions." + (csv ? "csv" : "ndjson") + "\"");
+        transactionExportService.export(filter, exportFormat, response.getOutputStream());
+    }
+
     /**
      * Récupérer une transaction par ID
      */
@@ -131,33 +168,62 @@ public class TransactionAdminController {
     }
 
     /**
-     * Récupérer toutes les transactions d'un utilisateur
+     * Récupérer les transactions d'un utilisateur, par page (taille bornée), avec fenêtre de dates optionnelle
      */
     @GetMapping("/user/{userId}")
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
-    public ResponseEntity<List<TransactionResponseDTO>> getUserTransactions(
+    public ResponseEntity<Page<TransactionResponseDTO>> getUserTransactions(
             @PathVariable Long userId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "20") Integer size,
             Authentication authentication) {
 
         log.info("Admin {} retrieving transactions for user {}", authentication.getName(), userId);
-        List<TransactionResponseDTO> transactions = transactionService.getUserTransactions(userId);
+        TransactionFilterDTO window = parseFilter(userId, null, null, null, from, to);
+        if (window == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        Page<TransactionResponseDTO> transactions = transactionService.getUserTransactions(
+                userId, window.getStartDate(), window.getEndDate(), page, size);
         return ResponseEntity.ok(transactions);
     }
 
     /**
-     * Récupérer toutes les transactions d'un compte
+     * Récupérer les transactions d'un compte, par page (taille bornée), avec fenêtre de dates optionnelle
      */
     @GetMapping("/account/{accountId}")
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
-    public ResponseEntity<List<TransactionResponseDTO>> getAccountTransactions(
+    public ResponseEntity<Page<TransactionResponseDTO>> getAccountTransactions(
             @PathVariable Long accountId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "20") Integer size,
             Authentication authentication) {
 
         log.info("Admin {} retrieving transactions for account {}", authentication.getName(), accountId);
-        List<TransactionResponseDTO> transactions = transactionService.getAccountTransactions(accountId);
+        TransactionFilterDTO window = parseFilter(null, accountId, null, null, from, to);
+        if (window == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        Page<TransactionResponseDTO> transactions = transactionService.getAccountTransactions(
+                accountId, window.getStartDate(), window.getEndDate(), page, size);
         return ResponseEntity.ok(transactions);
     }
 
+    /**
+     * Dernières transactions d'un compte (résumé servi par l'index couvrant)
+     */
+    @GetMapping("/account/{accountId}/recent")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<List<RecentTransactionDTO>> getRecentAccountTransactions(
+            @PathVariable Long accountId,
+            @RequestParam(defaultValue = "5") Integer limit) {
+        return ResponseEntity.ok(transactionService.getRecentAccountTransactions(accountId, limit));
+    }
+
     /**
      * Créer un dépôt (admin peut faire des opérations pour n'importe quel
      * utilisateur)
@@ -171,7 +237,7 @@ public class TransactionAdminController {
 
         log.info("Admin {} creating deposit for account {}", authentication.getName(), request.getBankAccountId());
         TransactionResponseDTO response = transactionService.createDeposit(request, authHeader);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
     }
 
     /**
@@ -186,7 +252,7 @@ public class TransactionAdminController {
 
         log.info("Admin {} creating withdrawal for account {}", authentication.getName(), request.getBankAccountId());
         TransactionResponseDTO response = transactionService.createWithdrawal(request, authHeader);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
     }
 
     /**
@@ -201,7 +267,7 @@ public class TransactionAdminController {
 
         log.info("Admin {} creating transfer for account {}", authentication.getName(), request.getBankAccountId());
         TransactionResponseDTO response = transactionService.createTransfer(request, authHeader);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
     }
 
     /**
@@ -244,4 +310,54 @@ public class TransactionAdminController {
         return ResponseEntity.ok(cancelled);
     }
 
+    /**
+     * Filtres communs aux deux recherches ; {@code null} si un paramètre est invalide.
+     */
+    private TransactionFilterDTO parseFilter(Long userId, Long bankAccountId, String type, String status,
+                                             String startDate, String endDate) {
+        TransactionFilterDTO filter = new TransactionFilterDTO();
+        filter.setUserId(userId);
+        filter.setBankAccountId(bankAccountId);
+
+        // Parser le type
+        if (type != null && !type.isEmpty()) {
+            try {
+                filter.setType(TransactionType.valueOf(type.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid transaction type: {}", type);
+                return null;
+            }
+        }
+
+        // Parser le status
+        if (status != null && !status.isEmpty()) {
+            try {
+                filter.setStatus(TransactionStatus.valueOf(status.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid transaction status: {}", status);
+                return null;
+            }
+        }
+
+        // Parser les dates
+        if (startDate != null && !startDate.isEmpty()) {
+            try {
+                filter.setStartDate(OffsetDateTime.parse(startDate));
+            } catch (DateTimeParseException e) {
+                log.warn("Invalid start date format: {}", startDate);
+                return null;
+            }
+        }
+
+        if (endDate != null && !endDate.isEmpty()) {
+            try {
+                filter.setEndDate(OffsetDateTime.parse(endDate));
+            } catch (DateTimeParseException e) {
+                log.warn("Invalid end date format: {}", endDate);
+                return null;
+            }
+        }
+
+        return filter;
+    }
 }
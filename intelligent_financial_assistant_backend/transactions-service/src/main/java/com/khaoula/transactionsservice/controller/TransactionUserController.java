@@ -1,7 +1,10 @@
 package com.khaoula.transactionsservice.controller;
 
+import com.khaoula.transactionsservice.dto.RecentTransactionDTO;
+import com.khaoula.transactionsservice.dto.TransactionCursorPageDTO;
 import com.khaoula.transactionsservice.dto.TransferRequestDTO;
 import com.khaoula.transactionsservice.dto.TransactionResponseDTO;
+import com.khaoula.transactionsservice.exception.InvalidTransactionException;
 import com.khaoula.transactionsservice.service.TransactionService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -12,6 +15,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 @RestController
@@ -35,25 +40,57 @@ public class TransactionUserController {
             @RequestHeader("Authorization") String authHeader) {
         TransactionResponseDTO response = transactionService.createTransfer(request, authHeader);
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
     }
 
     /**
-     * Récupérer ses propres transactions
+     * Récupérer ses transactions, des plus récentes aux plus anciennes : {@code limit} lignes par page
+     * (20 par défaut, 100 maximum), éventuellement dans la fenêtre [from, to].
+     * Passer le {@code nextCursor} de la réponse pour obtenir la page suivante.
      */
     @GetMapping("/my-transactions")
     @PreAuthorize("hasAuthority('ROLE_USER')")
-    public ResponseEntity<List<TransactionResponseDTO>> getMyTransactions(
+    public ResponseEntity<TransactionCursorPageDTO> getMyTransactions(
             @RequestHeader(value = "X-Auth-User-Id", required = false) String userIdHeader,
+            @RequestParam(defaultValue = "20") Integer limit,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String cursor,
             Authentication authentication) {
 
         Long userId = getUserIdFromHeader(userIdHeader, authentication);
         log.info("User {} retrieving their transactions", userId);
 
-        List<TransactionResponseDTO> transactions = transactionService.getUserTransactions(userId);
+        TransactionCursorPageDTO transactions = transactionService.getLatestUserTransactions(
+                userId, parseDate(from), parseDate(to), cursor, limit);
         return ResponseEntity.ok(transactions);
     }
 
+    /**
+     * Résumé de ses dernières transactions (tableau de bord), servi par l'index couvrant
+     */
+    @GetMapping("/recent")
+    @PreAuthorize("hasAuthority('ROLE_USER')")
+    public ResponseEntity<List<RecentTransactionDTO>> getMyRecentTransactions(
+            @RequestHeader(value = "X-Auth-User-Id", required = false) String userIdHeader,
+            @RequestParam(defaultValue = "5") Integer limit,
+            Authentication authentication) {
+
+        Long userId = getUserIdFromHeader(userIdHeader, authentication);
+        return ResponseEntity.ok(transactionService.getRecentUserTransactions(userId, limit));
+    }
+
+    private OffsetDateTime parseDate(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidTransactionException("Invalid date format: " + value);
+        }
+    }
+
     /**
      * Helper method pour récupérer le userId
      * Ordre de priorité:
@@ -0,0 +1,130 @@
+package com.khaoula.transactionsservice.domain;
+
+import jakarta.persistence.*;
+import java.time.OffsetDateTime;
+
+/**
+ * Saga de règlement d'une transaction PENDING, écrite dans la même transaction locale
+ * que la {@link Transaction} et consommée par le dispatcher. L'étape, les tentatives et la
+ * réservation sont persistées : après un crash, la saga reprend là où elle s'était arrêtée.
+ * La ligne est supprimée dès que la transaction atteint un statut final.
+ */
+@Entity
+@Table(name = "transaction_outbox", indexes = {
+                @Index(name = "idx_outbox_available_at", columnList = "available_at")
+})
+public class OutboxEvent {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        @Column(name = "transaction_id", nullable = false, unique = true)
+        private Long transactionId;
+
+        @Column(name = "reference", nullable = false, length = 100)
+        private String reference;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "step", nullable = false, length = 20)
+        private SettlementStep step;
+
+        @Column(name = "attempts", nullable = false)
+        private int attempts;
+
+        @Column(name = "available_at", nullable = false)
+        private OffsetDateTime availableAt;
+
+        @Column(name = "claimed_until")
+        private OffsetDateTime claimedUntil;
+
+        @Column(name = "last_error", length = 500)
+        private String lastError;
+
+        @Column(name = "created_at", nullable = false)
+        private OffsetDateTime createdAt;
+
+        public OutboxEvent() {
+        }
+
+        public OutboxEvent(Transaction transaction) {
+                OffsetDateTime now = OffsetDateTime.now();
+                this.transactionId = transaction.getId();
+                this.reference = transaction.getReference();
+                this.step = SettlementStep.SETTLE;
+                this.availableAt = now;
+                this.createdAt = now;
+        }
+
+        public Long getId() {
+                return id;
+        }
+
+        public void setId(Long id) {
+                this.id = id;
+        }
+
+        public Long getTransactionId() {
+                return transactionId;
+        }
+
+        public void setTransactionId(Long transactionId) {
+                this.transactionId = transactionId;
+        }
+
+        public String getReference() {
+                return reference;
+        }
+
+        public void setReference(String reference) {
+                this.reference = reference;
+        }
+
+        public SettlementStep getStep() {
+                return step;
+        }
+
+        public void setStep(SettlementStep step) {
+                this.step = step;
+        }
+
+        public int getAttempts() {
+                return attempts;
+        }
+
+        public void setAttempts(int attempts) {
+                this.attempts = attempts;
+        }
+
+        public OffsetDateTime getAvailableAt() {
+                return availableAt;
+        }
+
+        public void setAvailableAt(OffsetDateTime availableAt) {
+                this.availableAt = availableAt;
+        }
+
+        public OffsetDateTime getClaimedUntil() {
+                return claimedUntil;
+        }
+
+        public void setClaimedUntil(OffsetDateTime claimedUntil) {
+                this.claimedUntil = claimedUntil;
+        }
+
+        public String getLastError() {
+                return lastError;
+        }
+
+        public void setLastError(String lastError) {
+                this.lastError = lastError;
+        }
+
+        public OffsetDateTime getCreatedAt() {
+                return createdAt;
+        }
+
+        public void setCreatedAt(OffsetDateTime createdAt) {
+                this.createdAt = createdAt;
+        }
+}
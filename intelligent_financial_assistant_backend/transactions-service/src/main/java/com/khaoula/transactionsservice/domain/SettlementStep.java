@@ -0,0 +1,13 @@
+package com.khaoula.transactionsservice.domain;
+
+/**
+ * Étape courante de la saga de règlement d'une transaction (persistée dans l'outbox).
+ */
+public enum SettlementStep {
+    // Application des jambes auprès d'account-service
+    SETTLE,
+    // Contre-passation après un résultat incertain ou une annulation tardive
+    COMPENSATE,
+    // Compensation refusée : intervention manuelle requise, plus de relance automatique
+    MANUAL
+}
@@ -8,8 +8,11 @@ import java.time.OffsetDateTime;
 @Table(name = "transactions", uniqueConstraints = {
                 @UniqueConstraint(name = "uk_transaction_reference", columnNames = "reference")
 }, indexes = {
-                @Index(name = "idx_transaction_bank_account", columnList = "bank_account_id"),
-                @Index(name = "idx_transaction_date", columnList = "tx_date")
+                // Recherche admin par curseur : (tx_date, id) dans l'ordre de tri. Les index
+                // (user_id | bank_account_id, tx_date, id) sont créés couvrants par TransactionIndexMigration
+                @Index(name = "idx_transaction_date_id", columnList = "tx_date, id"),
+                // Listes par statut (PENDING, FAILED) : le statut seul est trop peu sélectif
+                @Index(name = "idx_transaction_status_date_id", columnList = "status, tx_date, id")
 })
 public class Transaction {
 
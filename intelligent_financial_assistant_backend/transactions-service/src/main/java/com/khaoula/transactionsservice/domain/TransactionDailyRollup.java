@@ -0,0 +1,97 @@
+package com.khaoula.transactionsservice.domain;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Compteurs pré-agrégés des transactions par jour (UTC, date de la transaction), statut et type.
+ * Tenus à jour dans la même transaction que chaque changement de statut : le tableau de bord
+ * lit quelques lignes au lieu de parcourir {@code transactions}.
+ */
+@Entity
+@Table(name = "transaction_daily_rollup", uniqueConstraints = {
+                @UniqueConstraint(name = "uk_rollup_day_status_type", columnNames = {"rollup_day", "status", "type"})
+})
+public class TransactionDailyRollup {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        @Column(name = "rollup_day", nullable = false)
+        private LocalDate day;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "status", nullable = false, length = 20)
+        private TransactionStatus status;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "type", nullable = false, length = 20)
+        private TransactionType type;
+
+        @Column(name = "tx_count", nullable = false)
+        private long transactionCount;
+
+        @Column(name = "amount_sum", nullable = false, precision = 19, scale = 4)
+        private BigDecimal amountSum;
+
+        public TransactionDailyRollup() {
+        }
+
+        public TransactionDailyRollup(LocalDate day, TransactionStatus status, TransactionType type) {
+                this.day = day;
+                this.status = status;
+                this.type = type;
+                this.transactionCount = 0;
+                this.amountSum = BigDecimal.ZERO;
+        }
+
+        public Long getId() {
+                return id;
+        }
+
+        public void setId(Long id) {
+                this.id = id;
+        }
+
+        public LocalDate getDay() {
+                return day;
+        }
+
+        public void setDay(LocalDate day) {
+                this.day = day;
+        }
+
+        public TransactionStatus getStatus() {
+                return status;
+        }
+
+        public void setStatus(TransactionStatus status) {
+                this.status = status;
+        }
+
+        public TransactionType getType() {
+                return type;
+        }
+
+        public void setType(TransactionType type) {
+                this.type = type;
+        }
+
+        public long getTransactionCount() {
+                return transactionCount;
+        }
+
+        public void setTransactionCount(long transactionCount) {
+                this.transactionCount = transactionCount;
+        }
+
+        public BigDecimal getAmountSum() {
+                return amountSum;
+        }
+
+        public void setAmountSum(BigDecimal amountSum) {
+                this.amountSum = amountSum;
+        }
+}
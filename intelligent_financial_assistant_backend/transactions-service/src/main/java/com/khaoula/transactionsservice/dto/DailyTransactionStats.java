@@ -1,10 +1,15 @@
 package com.khaoula.transactionsservice.dto;
 
+import com.khaoula.transactionsservice.domain.TransactionStatus;
+import com.khaoula.transactionsservice.domain.TransactionType;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
+import java.math.BigDecimal;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -12,4 +17,15 @@ import java.util.Date;
 public class DailyTransactionStats {
     private Date date;
     private Long count;
+    /**
+     * Montant des transactions COMPLETED du jour.
+     */
+    private BigDecimal volume = BigDecimal.ZERO;
+    private Map<TransactionStatus, Long> countByStatus = new EnumMap<>(TransactionStatus.class);
+    private Map<TransactionType, Long> countByType = new EnumMap<>(TransactionType.class);
+
+    public DailyTransactionStats(Date date, Long count) {
+        this.date = date;
+        this.count = count;
+    }
 }
@@ -0,0 +1,81 @@
+package com.khaoula.transactionsservice.dto;
+
+import com.khaoula.transactionsservice.domain.TransactionStatus;
+import com.khaoula.transactionsservice.domain.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Ligne des « dernières transactions » : uniquement les colonnes portées par les index couvrants
+ * {@code idx_transaction_user_recent} / {@code idx_transaction_account_recent}.
+ */
+public class RecentTransactionDTO {
+    private Long id;
+    private String reference;
+    private TransactionType type;
+    private TransactionStatus status;
+    private BigDecimal amount;
+    private OffsetDateTime date;
+
+    public RecentTransactionDTO() {
+    }
+
+    public RecentTransactionDTO(Long id, String reference, TransactionType type, TransactionStatus status,
+            BigDecimal amount, OffsetDateTime date) {
+        this.id = id;
+        this.reference = reference;
+        this.type = type;
+        this.status = status;
+        this.amount = amount;
+        this.date = date;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+
+    public TransactionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TransactionStatus status) {
+        this.status = status;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public OffsetDateTime getDate() {
+        return date;
+    }
+
+    public void setDate(OffsetDateTime date) {
+        this.date = date;
+    }
+}
@@ -0,0 +1,37 @@
+package com.khaoula.transactionsservice.dto;
+
+import com.khaoula.transactionsservice.domain.Transaction;
+import com.khaoula.transactionsservice.exception.InvalidTransactionException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Position dans la recherche triée par {@code (tx_date, id)} : la page suivante reprend strictement après.
+ * Encodée en Base64 URL pour rester opaque côté client.
+ */
+public record TransactionCursor(OffsetDateTime date, Long id) {
+
+    public static TransactionCursor after(Transaction last) {
+        return new TransactionCursor(last.getDate(), last.getId());
+    }
+
+    public String encode() {
+        String raw = date.toInstant() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            Instant instant = Instant.parse(raw.substring(0, separator));
+            return new TransactionCursor(instant.atOffset(ZoneOffset.UTC), Long.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidTransactionException("Invalid cursor");
+        }
+    }
+}
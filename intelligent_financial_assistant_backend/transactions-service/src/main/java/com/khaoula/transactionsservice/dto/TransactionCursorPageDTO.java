@@ -0,0 +1,56 @@
+package com.khaoula.transactionsservice.dto;
+
+import java.util.List;
+
+public class TransactionCursorPageDTO {
+    private List<TransactionResponseDTO> content;
+    // null sur la dernière page
+    private String nextCursor;
+    private boolean hasMore;
+    // Estimation du planificateur Postgres, pas un compte exact ; seulement sur la première page
+    // et à la demande (includeTotal=true)
+    private Long estimatedTotal;
+
+    public TransactionCursorPageDTO() {
+    }
+
+    public TransactionCursorPageDTO(List<TransactionResponseDTO> content, String nextCursor, boolean hasMore,
+            Long estimatedTotal) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+        this.estimatedTotal = estimatedTotal;
+    }
+
+    public List<TransactionResponseDTO> getContent() {
+        return content;
+    }
+
+    public void setContent(List<TransactionResponseDTO> content) {
+        this.content = content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public Long getEstimatedTotal() {
+        return estimatedTotal;
+    }
+
+    public void setEstimatedTotal(Long estimatedTotal) {
+        this.estimatedTotal = estimatedTotal;
+    }
+}
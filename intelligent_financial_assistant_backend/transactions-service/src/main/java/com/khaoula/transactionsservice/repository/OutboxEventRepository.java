@@ -0,0 +1,32 @@
+package com.khaoula.transactionsservice.repository;
+
+import com.khaoula.transactionsservice.domain.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Entrées dues, y compris celles dont la réservation a expiré (instance arrêtée en cours de saga).
+     */
+    @Query("SELECT e.id FROM OutboxEvent e WHERE e.availableAt <= :now " +
+            "AND e.step <> com.khaoula.transactionsservice.domain.SettlementStep.MANUAL " +
+            "AND (e.claimedUntil IS NULL OR e.claimedUntil < :now) ORDER BY e.id")
+    List<Long> findDispatchableIds(@Param("now") OffsetDateTime now, Pageable pageable);
+
+    /**
+     * Réserve l'entrée jusqu'à {@code until} ; renvoie 0 si une autre instance l'a déjà prise.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OutboxEvent e SET e.claimedUntil = :until WHERE e.id = :id " +
+            "AND (e.claimedUntil IS NULL OR e.claimedUntil < :now)")
+    int claim(@Param("id") Long id, @Param("now") OffsetDateTime now, @Param("until") OffsetDateTime until);
+}
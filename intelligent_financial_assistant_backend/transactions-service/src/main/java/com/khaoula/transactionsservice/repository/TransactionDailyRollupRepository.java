@@ -0,0 +1,68 @@
+package com.khaoula.transactionsservice.repository;
+
+import com.khaoula.transactionsservice.domain.TransactionDailyRollup;
+import com.khaoula.transactionsservice.domain.TransactionStatus;
+import com.khaoula.transactionsservice.domain.TransactionType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+public interface TransactionDailyRollupRepository extends JpaRepository<TransactionDailyRollup, Long> {
+
+    /**
+     * Incrément atomique (sans lecture préalable) ; 0 si la ligne n'existe pas encore.
+     */
+    @Modifying
+    @Query("UPDATE TransactionDailyRollup r SET r.transactionCount = r.transactionCount + :count, " +
+            "r.amountSum = r.amountSum + :amount " +
+            "WHERE r.day = :day AND r.status = :status AND r.type = :type")
+    int increment(@Param("day") LocalDate day,
+            @Param("status") TransactionStatus status,
+            @Param("type") TransactionType type,
+            @Param("count") long count,
+            @Param("amount") BigDecimal amount);
+
+    /**
+     * Totaux par statut et nombre du jour {@code today}, en un seul parcours des compteurs.
+     */
+    @Query(value = "SELECT status AS status, SUM(tx_count) AS txCount, SUM(amount_sum) AS amount, " +
+            "COALESCE(SUM(tx_count) FILTER (WHERE rollup_day = :today), 0) AS todayCount " +
+            "FROM transaction_daily_rollup GROUP BY status", nativeQuery = true)
+    List<StatusTotals> totalsByStatus(@Param("today") LocalDate today);
+
+    /**
+     * Compteurs (jour, statut, type) à partir de {@code from}, par jour croissant.
+     */
+    @Query(value = "SELECT rollup_day AS rollupDay, status AS status, type AS type, tx_count AS txCount, " +
+            "amount_sum AS amount FROM transaction_daily_rollup WHERE rollup_day >= :from " +
+            "ORDER BY rollup_day", nativeQuery = true)
+    List<DayCounters> countersSince(@Param("from") LocalDate from);
+
+    interface StatusTotals {
+        String getStatus();
+
+        Long getTxCount();
+
+        BigDecimal getAmount();
+
+        Long getTodayCount();
+    }
+
+    interface DayCounters {
+        Date getRollupDay();
+
+        String getStatus();
+
+        String getType();
+
+        Long getTxCount();
+
+        BigDecimal getAmount();
+    }
+}
@@ -2,10 +2,12 @@ package com.khaoula.transactionsservice.repository;
 
 import com.khaoula.transactionsservice.domain.Transaction;
 import com.khaoula.transactionsservice.domain.TransactionStatus;
-import com.khaoula.transactionsservice.domain.TransactionType;
+import com.khaoula.transactionsservice.dto.RecentTransactionDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -13,7 +15,8 @@ import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, JpaSpecificationExecutor<Transaction>,
+        TransactionSearchRepository {
 
     Optional<Transaction> findByReference(String reference);
 
@@ -25,33 +28,29 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 
     Page<Transaction> findByBankAccountId(Long bankAccountId, Pageable pageable);
 
-    @Query("SELECT t FROM Transaction t WHERE " +
-            "(:userId IS NULL OR t.userId = :userId) AND " +
-            "(:bankAccountId IS NULL OR t.bankAccountId = :bankAccountId) AND " +
-            "(:type IS NULL OR t.type = :type) AND " +
-            "(:status IS NULL OR t.status = :status) AND " +
-            "(cast(:startDate as timestamp) IS NULL OR t.date >= :startDate) AND " +
-            "(cast(:endDate as timestamp) IS NULL OR t.date <= :endDate)")
-    Page<Transaction> findByFilters(@Param("userId") Long userId,
-            @Param("bankAccountId") Long bankAccountId,
-            @Param("type") TransactionType type,
-            @Param("status") TransactionStatus status,
-            @Param("startDate") OffsetDateTime startDate,
-            @Param("endDate") OffsetDateTime endDate,
+    /**
+     * Dernières transactions d'un utilisateur, lues dans l'index couvrant (pas d'accès à la table).
+     */
+    @Query("SELECT new com.khaoula.transactionsservice.dto.RecentTransactionDTO(" +
+            "t.id, t.reference, t.type, t.status, t.amount, t.date) " +
+            "FROM Transaction t WHERE t.userId = :userId ORDER BY t.date DESC, t.id DESC")
+    List<RecentTransactionDTO> findRecentByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT new com.khaoula.transactionsservice.dto.RecentTransactionDTO(" +
+            "t.id, t.reference, t.type, t.status, t.amount, t.date) " +
+            "FROM Transaction t WHERE t.bankAccountId = :bankAccountId ORDER BY t.date DESC, t.id DESC")
+    List<RecentTransactionDTO> findRecentByBankAccountId(@Param("bankAccountId") Long bankAccountId,
             Pageable pageable);
 
     List<Transaction> findByUserIdAndDateBetween(Long userId, OffsetDateTime startDate, OffsetDateTime endDate);
 
     Long countByUserId(Long userId);
 
-    Long countByStatus(TransactionStatus status);
-
-    @Query("SELECT SUM(t.amount) FROM Transaction t WHERE t.status = :status")
-    Double sumAmountByStatus(@Param("status") TransactionStatus status);
-
-    @Query("SELECT new com.khaoula.transactionsservice.dto.DailyTransactionStats(cast(t.date as date), COUNT(t)) FROM Transaction t WHERE t.date >= :startDate GROUP BY cast(t.date as date)")
-    List<com.khaoula.transactionsservice.dto.DailyTransactionStats> findDailyStats(
-            @Param("startDate") OffsetDateTime startDate);
-
-    Long countByDateBetween(OffsetDateTime startDate, OffsetDateTime endDate);
+    /**
+     * Passe une transaction encore PENDING à son statut final ; 0 si elle a changé entre-temps (annulation).
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Transaction t SET t.status = :status WHERE t.id = :id " +
+            "AND t.status = com.khaoula.transactionsservice.domain.TransactionStatus.PENDING")
+    int settlePending(@Param("id") Long id, @Param("status") TransactionStatus status);
 }
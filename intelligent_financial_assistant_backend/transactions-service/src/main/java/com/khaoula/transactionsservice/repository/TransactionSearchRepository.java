@@ -0,0 +1,23 @@
+package com.khaoula.transactionsservice.repository;
+
+import com.khaoula.transactionsservice.domain.Transaction;
+import com.khaoula.transactionsservice.dto.TransactionCursor;
+import com.khaoula.transactionsservice.dto.TransactionFilterDTO;
+
+import java.util.List;
+
+public interface TransactionSearchRepository {
+
+    /**
+     * Jusqu'à {@code limit} transactions strictement après {@code after} (null : première page),
+     * triées par {@code (tx_date, id)} dans le sens du filtre.
+     */
+    List<Transaction> searchAfter(TransactionFilterDTO filter, TransactionCursor after, int limit);
+
+    long countMatching(TransactionFilterDTO filter);
+
+    /**
+     * Nombre approximatif de transactions correspondant au filtre, sans {@code count(*)} sur la table.
+     */
+    long estimateMatching(TransactionFilterDTO filter);
+}
@@ -0,0 +1,84 @@
+package com.khaoula.transactionsservice.repository;
+
+import com.khaoula.transactionsservice.domain.Transaction;
+import com.khaoula.transactionsservice.dto.TransactionCursor;
+import com.khaoula.transactionsservice.dto.TransactionFilterDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Requête construite par {@link TransactionSpecifications} avec les seuls filtres renseignés : contrairement
+ * aux conditions {@code (:x IS NULL OR ...)}, le planificateur peut choisir l'index composite correspondant,
+ * et la borne {@code (tx_date, id)} reprend la lecture de l'index au curseur au lieu de sauter
+ * {@code offset} lignes.
+ */
+public class TransactionSearchRepositoryImpl implements TransactionSearchRepository {
+
+    // Première ligne du plan : "Seq Scan on transactions  (cost=0.00..1.00 rows=42 width=4)"
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Transaction> searchAfter(TransactionFilterDTO filter, TransactionCursor after, int limit) {
+        boolean ascending = "ASC".equalsIgnoreCase(filter.getSortDirection());
+        Specification<Transaction> spec = TransactionSpecifications.matching(filter);
+        if (after != null) {
+            spec = spec.and(TransactionSpecifications.after(after, ascending));
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Transaction> query = cb.createQuery(Transaction.class);
+        Root<Transaction> root = query.from(Transaction.class);
+        query.where(spec.toPredicate(root, query, cb));
+        query.orderBy(ascending
+                ? List.of(cb.asc(root.get("date")), cb.asc(root.get("id")))
+                : List.of(cb.desc(root.get("date")), cb.desc(root.get("id"))));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public long countMatching(TransactionFilterDTO filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Transaction> root = query.from(Transaction.class);
+        query.select(cb.count(root)).where(TransactionSpecifications.matching(filter).toPredicate(root, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Sur Postgres, estimation du planificateur ({@code rows=} du plan, via les statistiques de la table) :
+     * rien n'est parcouru, quel que soit le nombre de lignes. Compte exact ailleurs (H2 des tests).
+     */
+    @Override
+    public long estimateMatching(TransactionFilterDTO filter) {
+        if (!isPostgres()) {
+            return countMatching(filter);
+        }
+        List<TransactionSpecifications.Condition> conditions = TransactionSpecifications.conditions(filter);
+        var explain = entityManager.createNativeQuery(
+                "EXPLAIN SELECT 1 FROM transactions" + TransactionSpecifications.where(conditions));
+        for (int i = 0; i < conditions.size(); i++) {
+            Object value = conditions.get(i).value();
+            explain.setParameter(i + 1, value instanceof Enum<?> e ? e.name() : value);
+        }
+        Matcher rows = PLAN_ROWS.matcher(String.valueOf(explain.getResultList().get(0)));
+        return rows.find() ? Long.parseLong(rows.group(1)) : countMatching(filter);
+    }
+
+    private boolean isPostgres() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+}
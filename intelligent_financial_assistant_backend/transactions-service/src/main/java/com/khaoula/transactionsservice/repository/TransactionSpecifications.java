@@ -0,0 +1,103 @@
+package com.khaoula.transactionsservice.repository;
+
+import com.khaoula.transactionsservice.domain.Transaction;
+import com.khaoula.transactionsservice.dto.TransactionCursor;
+import com.khaoula.transactionsservice.dto.TransactionFilterDTO;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Critères des recherches de transactions : pagination admin par page ou par curseur, comptage, estimation
+ * et export partent tous de {@link #conditions}.
+ * <p>
+ * Seuls les filtres renseignés produisent un prédicat : pas de {@code (:x IS NULL OR col = :x)},
+ * dont le plan générique (réutilisé par Postgres après quelques exécutions d'une requête préparée)
+ * ignore les index et finit en parcours séquentiel. Chaque combinaison de filtres donne un SQL
+ * distinct, planifié pour l'index composite qui la couvre.
+ */
+public final class TransactionSpecifications {
+
+    private TransactionSpecifications() {
+    }
+
+    /**
+     * Filtre renseigné : attribut de l'entité et colonne correspondante, pour que l'estimation SQL
+     * ({@link #where}) reste alignée sur les prédicats JPA.
+     */
+    record Condition(String attribute, String column, String operator, Object value) {
+    }
+
+    static List<Condition> conditions(TransactionFilterDTO filter) {
+        List<Condition> conditions = new ArrayList<>();
+        if (filter.getUserId() != null) {
+            conditions.add(new Condition("userId", "user_id", "=", filter.getUserId()));
+        }
+        if (filter.getBankAccountId() != null) {
+            conditions.add(new Condition("bankAccountId", "bank_account_id", "=", filter.getBankAccountId()));
+        }
+        if (filter.getType() != null) {
+            conditions.add(new Condition("type", "type", "=", filter.getType()));
+        }
+        if (filter.getStatus() != null) {
+            conditions.add(new Condition("status", "status", "=", filter.getStatus()));
+        }
+        if (filter.getStartDate() != null) {
+            conditions.add(new Condition("date", "tx_date", ">=", filter.getStartDate()));
+        }
+        if (filter.getEndDate() != null) {
+            conditions.add(new Condition("date", "tx_date", "<=", filter.getEndDate()));
+        }
+        return conditions;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Transaction> matching(TransactionFilterDTO filter) {
+        List<Condition> conditions = conditions(filter);
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>(conditions.size());
+            for (Condition condition : conditions) {
+                Path<Comparable> path = root.get(condition.attribute());
+                Comparable value = (Comparable) condition.value();
+                predicates.add(switch (condition.operator()) {
+                    case ">=" -> cb.greaterThanOrEqualTo(path, value);
+                    case "<=" -> cb.lessThanOrEqualTo(path, value);
+                    default -> cb.equal(path, value);
+                });
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Clause SQL des mêmes conditions, paramètres {@code ?} dans l'ordre de la liste ; vide sans filtre.
+     */
+    static String where(List<Condition> conditions) {
+        StringBuilder sql = new StringBuilder();
+        for (Condition condition : conditions) {
+            sql.append(sql.isEmpty() ? " WHERE " : " AND ")
+                    .append(condition.column()).append(' ').append(condition.operator()).append(" ?");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Transactions strictement après le curseur dans l'ordre {@code (tx_date, id)} du tri. La borne sur
+     * {@code tx_date} seule, redondante, permet de démarrer le parcours de l'index au curseur.
+     */
+    public static Specification<Transaction> after(TransactionCursor cursor, boolean ascending) {
+        return (root, query, cb) -> {
+            Path<OffsetDateTime> date = root.get("date");
+            Path<Long> id = root.get("id");
+            return ascending
+                    ? cb.and(cb.greaterThanOrEqualTo(date, cursor.date()),
+                    cb.or(cb.greaterThan(date, cursor.date()), cb.greaterThan(id, cursor.id())))
+                    : cb.and(cb.lessThanOrEqualTo(date, cursor.date()),
+                    cb.or(cb.lessThan(date, cursor.date()), cb.lessThan(id, cursor.id())));
+        };
+    }
+}
@@ -0,0 +1,291 @@
+package com.khaoula.transactionsservice.service;
+
+import com.aitsaid.commonsecurity.servicetoken.ServiceTokenProvider;
+import com.khaoula.transactionsservice.client.AccountClient;
+import com.khaoula.transactionsservice.domain.OutboxEvent;
+import com.khaoula.transactionsservice.domain.SettlementStep;
+import com.khaoula.transactionsservice.domain.Transaction;
+import com.khaoula.transactionsservice.domain.TransactionStatus;
+import com.khaoula.transactionsservice.repository.OutboxEventRepository;
+import com.khaoula.transactionsservice.repository.TransactionRepository;
+import feign.FeignException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Saga de règlement des transactions PENDING inscrites dans l'outbox.
+ * <p>
+ * Chaque passage réserve un lot d'entrées (réservation conditionnelle, sûre entre plusieurs
+ * instances) et les traite sur le pool {@code settlementExecutor}. L'étape {@link SettlementStep#SETTLE}
+ * envoie une opération de solde avec la référence comme clé d'idempotence : une entrée rejouée après
+ * un crash n'est pas appliquée deux fois. Les appels se font avec le token de service de
+ * transactions-service ({@link ServiceTokenProvider}), pas avec celui de l'initiateur qui peut avoir expiré.
+ * <ul>
+ *     <li>refus métier (4xx) : rien n'a été appliqué, la transaction passe en FAILED ;</li>
+ *     <li>erreurs transitoires au-delà de {@code outbox.max-attempts} : le résultat est incertain,
+ *     la saga passe à {@link SettlementStep#COMPENSATE} qui contre-passe (ou bloque) la clé ;</li>
+ *     <li>compensation refusée : {@link SettlementStep#MANUAL}, la saga n'est plus relancée.</li>
+ * </ul>
+ * Une réservation expirée rend l'entrée à nouveau éligible : c'est la reprise des sagas d'une
+ * instance arrêtée en plein traitement.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountClient accountClient;
+    private final ServiceTokenProvider serviceTokens;
+    private final TransactionRollupService rollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor settlementExecutor;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration claimTimeout;
+    private final Duration retryBackoff;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            TransactionRepository transactionRepository,
+                            AccountClient accountClient,
+                            ServiceTokenProvider serviceTokens,
+                            TransactionRollupService rollupService,
+                            PlatformTransactionManager transactionManager,
+                            @Qualifier("settlementExecutor") Executor settlementExecutor,
+                            @Value("${outbox.batch-size:50}") int batchSize,
+                            @Value("${outbox.max-attempts:5}") int maxAttempts,
+                            @Value("${outbox.claim-timeout-ms:60000}") long claimTimeoutMs,
+                            @Value("${outbox.retry-backoff-ms:2000}") long retryBackoffMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountClient = accountClient;
+        this.serviceTokens = serviceTokens;
+        this.rollupService = rollupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settlementExecutor = settlementExecutor;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.claimTimeout = Duration.ofMillis(claimTimeoutMs);
+        this.retryBackoff = Duration.ofMillis(retryBackoffMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${outbox.dispatch-interval-ms:500}")
+    public void dispatch() {
+        try {
+            int processed;
+            do {
+                processed = dispatchBatch();
+            } while (processed == batchSize);
+        } catch (Exception e) {
+            log.warn("Outbox dispatch failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Réserve un lot puis attend la fin de ses sagas, pour que la réservation couvre tout le traitement.
+     *
+     * @return nombre d'entrées réservées et traitées dans ce lot
+     */
+    int dispatchBatch() {
+        OffsetDateTime now = OffsetDateTime.now();
+        List<Long> ids = outboxEventRepository.findDispatchableIds(now, PageRequest.of(0, batchSize));
+        List<CompletableFuture<Void>> running = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            if (outboxEventRepository.claim(id, now, now.plus(claimTimeout)) == 0) {
+                continue;
+            }
+            running.add(CompletableFuture.runAsync(() -> outboxEventRepository.findById(id).ifPresent(this::settle),
+                    settlementExecutor));
+        }
+        CompletableFuture.allOf(running.toArray(new CompletableFuture[0]))
+                .exceptionally(e -> {
+                    log.warn("Settlement task failed: {}", e.getMessage());
+                    return null;
+                })
+                .join();
+        return running.size();
+    }
+
+    void settle(OutboxEvent event) {
+        Transaction transaction = transactionRepository.findById(event.getTransactionId()).orElse(null);
+        if (transaction == null) {
+            outboxEventRepository.deleteById(event.getId());
+            return;
+        }
+        if (event.getStep() == SettlementStep.COMPENSATE) {
+            compensate(event, transaction);
+            return;
+        }
+        if (transaction.getStatus() != TransactionStatus.PENDING) {
+            if (event.getAttempts() > 0) {
+                // Annulée après une tentative au résultat inconnu : l'opération a pu être appliquée
+                startCompensation(event, transaction, "transaction " + transaction.getStatus());
+            } else {
+                outboxEventRepository.deleteById(event.getId());
+            }
+            return;
+        }
+
+        try {
+            accountClient.applyBalanceOperation(
+                    new AccountClient.BalanceOperationRequest(transaction.getReference(), legsOf(transaction)),
+                    serviceTokens.authorizationHeader());
+        } catch (FeignException e) {
+            if (!isRejected(e)) {
+                retrySettlement(event, transaction, e);
+            } else if (event.getAttempts() == 0) {
+                log.warn("Settlement rejected for {}: {}", transaction.getReference(), e.getMessage());
+                complete(event, transaction, TransactionStatus.FAILED);
+            } else {
+                // Une tentative précédente au résultat inconnu a pu être appliquée : on contre-passe
+                startCompensation(event, transaction, e.getMessage());
+            }
+            return;
+        } catch (Exception e) {
+            retrySettlement(event, transaction, e);
+            return;
+        }
+
+        complete(event, transaction, TransactionStatus.COMPLETED);
+        log.info("{} settled: {}", transaction.getType(), transaction.getReference());
+    }
+
+    private void compensate(OutboxEvent event, Transaction transaction) {
+        try {
+            accountClient.reverseBalanceOperation(transaction.getReference(), serviceTokens.authorizationHeader());
+        } catch (FeignException e) {
+            if (isRejected(e)) {
+                requireManualAction(event, transaction, e);
+            } else {
+                retryCompensation(event, transaction, e);
+            }
+            return;
+        } catch (Exception e) {
+            retryCompensation(event, transaction, e);
+            return;
+        }
+
+        // Une transaction annulée reste CANCELLED ; une transaction encore PENDING passe en FAILED
+        complete(event, transaction, TransactionStatus.FAILED);
+        log.info("{} compensated: {}", transaction.getType(), transaction.getReference());
+    }
+
+    private List<AccountClient.BalanceLeg> legsOf(Transaction transaction) {
+        return switch (transaction.getType()) {
+            case DEPOSIT -> List.of(
+                    AccountClient.BalanceLeg.credit(transaction.getBankAccountId(), transaction.getAmount()));
+            case WITHDRAWAL -> List.of(
+                    AccountClient.BalanceLeg.debit(transaction.getBankAccountId(), transaction.getAmount()));
+            case TRANSFER -> List.of(
+                    AccountClient.BalanceLeg.debit(transaction.getBankAccountId(), transaction.getAmount()),
+                    AccountClient.BalanceLeg.creditRib(transaction.getRecipientIban(), transaction.getAmount()));
+        };
+    }
+
+    /**
+     * Refus définitif d'account-service, inutile de réessayer : requête invalide (400), conflit de clé (409),
+     * solde insuffisant ou compte inconnu (422). Un 404 peut venir du routage (instance absente, gateway) et
+     * reste transitoire, comme 401 et 403 : token de service expiré ou pas encore accepté, il est renouvelé
+     * avant la tentative suivante.
+     */
+    private boolean isRejected(FeignException e) {
+        int status = e.status();
+        if (status == 401 || status == 403) {
+            serviceTokens.invalidate();
+            return false;
+        }
+        return status == 400 || status == 409 || status == 422;
+    }
+
+    private void complete(OutboxEvent event, Transaction transaction, TransactionStatus status) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            if (transactionRepository.settlePending(transaction.getId(), status) == 1) {
+                rollupService.recordTransition(transaction, TransactionStatus.PENDING, status);
+            } else if (status == TransactionStatus.COMPLETED && !isCompleted(transaction.getId())) {
+                // Annulée pendant l'appel alors que les soldes ont été modifiés : on les contre-passe
+                startCompensation(event, transaction, "transaction no longer PENDING after settlement");
+                return;
+            } else {
+                log.info("Transaction {} no longer PENDING, status kept", transaction.getReference());
+            }
+            outboxEventRepository.deleteById(event.getId());
+        });
+    }
+
+    private boolean isCompleted(Long transactionId) {
+        return transactionRepository.findById(transactionId)
+                .map(current -> current.getStatus() == TransactionStatus.COMPLETED)
+                .orElse(false);
+    }
+
+    private void retrySettlement(OutboxEvent event, Transaction transaction, Exception e) {
+        if (event.getAttempts() + 1 >= maxAttempts) {
+            startCompensation(event, transaction, e.getMessage());
+            return;
+        }
+        scheduleRetry(event, transaction, e);
+    }
+
+    private void retryCompensation(OutboxEvent event, Transaction transaction, Exception e) {
+        if (event.getAttempts() + 1 >= maxAttempts) {
+            requireManualAction(event, transaction, e);
+            return;
+        }
+        scheduleRetry(event, transaction, e);
+    }
+
+    private void startCompensation(OutboxEvent event, Transaction transaction, String reason) {
+        log.warn("Settlement of {} abandoned ({}), compensating", transaction.getReference(), reason);
+        event.setStep(SettlementStep.COMPENSATE);
+        event.setAttempts(0);
+        event.setLastError(truncate(reason));
+        event.setAvailableAt(OffsetDateTime.now());
+        event.setClaimedUntil(null);
+        outboxEventRepository.save(event);
+    }
+
+    private void requireManualAction(OutboxEvent event, Transaction transaction, Exception e) {
+        log.error("Compensation of {} failed, manual action required: {}",
+                transaction.getReference(), e.getMessage());
+        event.setStep(SettlementStep.MANUAL);
+        event.setLastError(truncate(e.getMessage()));
+        event.setClaimedUntil(null);
+        outboxEventRepository.save(event);
+    }
+
+    private void scheduleRetry(OutboxEvent event, Transaction transaction, Exception e) {
+        int attempts = event.getAttempts() + 1;
+        log.warn("{} of {} failed (attempt {}), retrying: {}",
+                event.getStep(), transaction.getReference(), attempts, e.getMessage());
+        event.setAttempts(attempts);
+        event.setLastError(truncate(e.getMessage()));
+        event.setAvailableAt(OffsetDateTime.now().plus(retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 10))));
+        event.setClaimedUntil(null);
+        outboxEventRepository.save(event);
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
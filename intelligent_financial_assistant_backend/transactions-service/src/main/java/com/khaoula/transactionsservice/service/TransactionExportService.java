@@ -0,0 +1,237 @@
+package com.khaoula.transactionsservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.khaoula.transactionsservice.domain.Transaction;
+import com.khaoula.transactionsservice.dto.TransactionFilterDTO;
+import com.khaoula.transactionsservice.repository.TransactionSpecifications;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Export des transactions en flux, à mémoire constante.
+ * <p>
+ * Le filtre est celui de la recherche ({@link TransactionSpecifications#matching}). Les colonnes sont lues
+ * en projection scalaire par un curseur en avant seulement ({@code export.fetch-size} lignes par aller-retour)
+ * et écrites une à une dans le flux de sortie : ni entités gérées, ni DTO, ni liste en mémoire. Sous Postgres
+ * le curseur n'existe que hors autocommit, d'où la transaction en lecture seule.
+ */
+@Service
+public class TransactionExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionExportService.class);
+    private static final String[] HEADER = {"id", "reference", "user_id", "bank_account_id", "type", "status",
+            "amount", "recipient_id", "recipient_name", "recipient_iban", "reason", "tx_date"};
+    // Attributs de Transaction, dans l'ordre de HEADER
+    private static final String[] ATTRIBUTES = {"id", "reference", "userId", "bankAccountId", "type", "status",
+            "amount", "recipientId", "recipientName", "recipientIban", "reason", "date"};
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+    private static final Pattern NUMBER = Pattern.compile("[-+]?\\d+(\\.\\d+)?");
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public TransactionExportService(EntityManager entityManager,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper,
+                                    @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.fetchSize = fetchSize;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Écrit les transactions correspondant au filtre, par ordre chronologique.
+     * Le flux n'est pas fermé.
+     *
+     * @return nombre de lignes exportées
+     */
+    public long export(TransactionFilterDTO filter, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rows = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        long[] count = {0};
+        try {
+            rows.start();
+            transactionTemplate.executeWithoutResult(tx -> {
+                try (Stream<Object[]> stream = select(filter)) {
+                    stream.forEach(row -> {
+                        try {
+                            rows.write(row);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        count[0]++;
+                    });
+                }
+            });
+            rows.finish();
+        } catch (UncheckedIOException e) {
+            // Client déconnecté en cours d'export : le curseur est déjà fermé
+            throw e.getCause();
+        }
+        writer.flush();
+        log.info("Exported {} transactions as {}", count[0], format);
+        return count[0];
+    }
+
+    private Stream<Object[]> select(TransactionFilterDTO filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Transaction> root = query.from(Transaction.class);
+        query.multiselect(Arrays.stream(ATTRIBUTES).<Selection<?>>map(root::get).toList())
+                .where(TransactionSpecifications.matching(filter).toPredicate(root, query, cb))
+                .orderBy(cb.asc(root.get("date")), cb.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    private interface RowWriter {
+        void start() throws IOException;
+
+        void write(Object[] row) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void start() throws IOException {
+            writer.write(String.join(",", HEADER));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(Object[] row) throws IOException {
+            for (int i = 0; i < HEADER.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(text(row[i])));
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() {
+        }
+
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (isFormula(value)) {
+                // Neutralisé pour Excel / LibreOffice, qui exécuteraient sinon la cellule comme une formule
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        // Les montants négatifs commencent aussi par '-' : un nombre n'est pas une formule
+        private static boolean isFormula(String value) {
+            return !value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0
+                    && !NUMBER.matcher(value).matches();
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+        private boolean empty = true;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.setRootValueSeparator(new SerializedString("\n"));
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void write(Object[] row) throws IOException {
+            empty = false;
+            generator.writeStartObject();
+            generator.writeNumberField("id", (Long) row[0]);
+            generator.writeStringField("reference", (String) row[1]);
+            generator.writeNumberField("userId", (Long) row[2]);
+            generator.writeNumberField("bankAccountId", (Long) row[3]);
+            generator.writeStringField("type", text(row[4]));
+            generator.writeStringField("status", text(row[5]));
+            generator.writeNumberField("amount", (BigDecimal) row[6]);
+            if (row[7] == null) {
+                generator.writeNullField("recipientId");
+            } else {
+                generator.writeNumberField("recipientId", (Long) row[7]);
+            }
+            generator.writeStringField("recipientName", (String) row[8]);
+            generator.writeStringField("recipientIban", (String) row[9]);
+            generator.writeStringField("reason", (String) row[10]);
+            generator.writeStringField("date", text(row[11]));
+            generator.writeEndObject();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (!empty) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+    }
+
+    private static String text(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof BigDecimal amount) {
+            return amount.toPlainString();
+        }
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,123 @@
+package com.khaoula.transactionsservice.service;
+
+import com.aitsaid.commoncore.cache.AggregateCache;
+import com.khaoula.transactionsservice.domain.Transaction;
+import com.khaoula.transactionsservice.domain.TransactionDailyRollup;
+import com.khaoula.transactionsservice.domain.TransactionStatus;
+import com.khaoula.transactionsservice.domain.TransactionType;
+import com.khaoula.transactionsservice.dto.DailyTransactionStats;
+import com.khaoula.transactionsservice.repository.TransactionDailyRollupRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tenue et lecture des compteurs {@link TransactionDailyRollup}.
+ * <p>
+ * {@link #recordTransition} doit être appelé dans la transaction qui écrit le changement de statut :
+ * compteurs et transactions sont validés (ou annulés) ensemble. Chaque transition retire la
+ * transaction de l'ancien statut et l'ajoute au nouveau, sur le jour de sa date.
+ */
+@Service
+public class TransactionRollupService {
+
+    /**
+     * Clés {@link AggregateCache} des statistiques calculées à partir des compteurs.
+     */
+    public static final String STATS_CACHE_KEY = "transactions.stats";
+    public static final String DAILY_STATS_CACHE_KEY = "transactions.stats.daily";
+
+    private final TransactionDailyRollupRepository rollupRepository;
+    private final AggregateCache aggregateCache;
+    private final TransactionTemplate newTransaction;
+
+    public TransactionRollupService(TransactionDailyRollupRepository rollupRepository,
+                                    AggregateCache aggregateCache,
+                                    PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.aggregateCache = aggregateCache;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @param from statut précédent, {@code null} pour une nouvelle transaction
+     */
+    public void recordTransition(Transaction transaction, TransactionStatus from, TransactionStatus to) {
+        LocalDate day = dayOf(transaction.getDate());
+        if (from != null) {
+            add(day, from, transaction.getType(), -1, transaction.getAmount().negate());
+        }
+        add(day, to, transaction.getType(), 1, transaction.getAmount());
+        aggregateCache.invalidate(STATS_CACHE_KEY, DAILY_STATS_CACHE_KEY);
+    }
+
+    /**
+     * Totaux par statut ; {@code today} fixe le jour compté dans {@link Totals#todayCount()}.
+     */
+    public Map<TransactionStatus, Totals> totalsByStatus(LocalDate today) {
+        Map<TransactionStatus, Totals> totals = new EnumMap<>(TransactionStatus.class);
+        for (TransactionDailyRollupRepository.StatusTotals row : rollupRepository.totalsByStatus(today)) {
+            totals.put(TransactionStatus.valueOf(row.getStatus()),
+                    new Totals(row.getTxCount(), row.getAmount(), row.getTodayCount()));
+        }
+        return totals;
+    }
+
+    /**
+     * Statistiques par jour à partir de {@code from}, avec répartition par statut et par type.
+     */
+    public List<DailyTransactionStats> dailyStats(LocalDate from) {
+        Map<Date, DailyTransactionStats> days = new LinkedHashMap<>();
+        for (TransactionDailyRollupRepository.DayCounters row : rollupRepository.countersSince(from)) {
+            DailyTransactionStats stats = days.computeIfAbsent(row.getRollupDay(),
+                    day -> new DailyTransactionStats(day, 0L));
+            TransactionStatus status = TransactionStatus.valueOf(row.getStatus());
+            long count = row.getTxCount();
+            stats.setCount(stats.getCount() + count);
+            stats.getCountByStatus().merge(status, count, Long::sum);
+            stats.getCountByType().merge(TransactionType.valueOf(row.getType()), count, Long::sum);
+            if (status == TransactionStatus.COMPLETED) {
+                stats.setVolume(stats.getVolume().add(row.getAmount()));
+            }
+        }
+        return new ArrayList<>(days.values());
+    }
+
+    public static LocalDate dayOf(OffsetDateTime date) {
+        return date.withOffsetSameInstant(ZoneOffset.UTC).toLocalDate();
+    }
+
+    private void add(LocalDate day, TransactionStatus status, TransactionType type, long count, BigDecimal amount) {
+        if (rollupRepository.increment(day, status, type, count, amount) > 0) {
+            return;
+        }
+        // Première transaction du jour pour ce statut et ce type : ligne créée à part, pour qu'une
+        // création concurrente (clé unique) n'annule pas la transaction appelante
+        try {
+            newTransaction.executeWithoutResult(tx ->
+                    rollupRepository.saveAndFlush(new TransactionDailyRollup(day, status, type)));
+        } catch (DataIntegrityViolationException e) {
+            // Créée entre-temps par une autre transaction
+        }
+        if (rollupRepository.increment(day, status, type, count, amount) == 0) {
+            throw new IllegalStateException("Rollup row missing for " + day + " " + status + " " + type);
+        }
+    }
+
+    public record Totals(long count, BigDecimal amount, long todayCount) {
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 
 @Service
@@ -31,14 +32,39 @@ public interface TransactionService {
     Page<TransactionResponseDTO> getAllTransactions(TransactionFilterDTO filter);
 
     /**
-     * Récupérer les transactions d'un utilisateur
+     * Recherche admin paginée par curseur (tri par date puis ID) : coût constant quelle que soit la page
      */
-    List<TransactionResponseDTO> getUserTransactions(Long userId);
+    TransactionCursorPageDTO searchTransactions(TransactionFilterDTO filter, String cursor, boolean includeTotal);
 
     /**
-     * Récupérer les transactions d'un compte bancaire
+     * Récupérer une page des transactions d'un utilisateur, plus récentes d'abord, éventuellement
+     * limitées à la fenêtre [from, to]. Taille bornée à 100.
      */
-    List<TransactionResponseDTO> getAccountTransactions(Long bankAccountId);
+    Page<TransactionResponseDTO> getUserTransactions(Long userId, OffsetDateTime from, OffsetDateTime to,
+            int page, int size);
+
+    /**
+     * Récupérer une page des transactions d'un compte bancaire (mêmes règles que par utilisateur)
+     */
+    Page<TransactionResponseDTO> getAccountTransactions(Long bankAccountId, OffsetDateTime from, OffsetDateTime to,
+            int page, int size);
+
+    /**
+     * Les {@code limit} transactions d'un utilisateur dans la fenêtre qui suivent {@code cursor} (null : les plus
+     * récentes), sans comptage du total ; {@code nextCursor} donne la page suivante
+     */
+    TransactionCursorPageDTO getLatestUserTransactions(Long userId, OffsetDateTime from, OffsetDateTime to,
+            String cursor, int limit);
+
+    /**
+     * Résumé des dernières transactions d'un utilisateur, servi par l'index couvrant
+     */
+    List<RecentTransactionDTO> getRecentUserTransactions(Long userId, int limit);
+
+    /**
+     * Résumé des dernières transactions d'un compte, servi par l'index couvrant
+     */
+    List<RecentTransactionDTO> getRecentAccountTransactions(Long bankAccountId, int limit);
 
     /**
      * Récupérer une transaction par son ID
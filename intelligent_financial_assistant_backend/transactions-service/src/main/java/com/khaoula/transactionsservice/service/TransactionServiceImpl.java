@@ -1,8 +1,11 @@
 package com.khaoula.transactionsservice.service;
 
+import com.aitsaid.commoncore.cache.AggregateCache;
+import com.aitsaid.commonsecurity.users.UserNearCache;
 import com.khaoula.transactionsservice.client.AccountClient;
 import com.khaoula.transactionsservice.client.RecipientClient;
 import com.khaoula.transactionsservice.client.UserClient;
+import com.khaoula.transactionsservice.domain.OutboxEvent;
 import com.khaoula.transactionsservice.domain.Transaction;
 import com.khaoula.transactionsservice.domain.TransactionStatus;
 import com.khaoula.transactionsservice.domain.TransactionType;
@@ -10,7 +13,9 @@ import com.khaoula.transactionsservice.dto.*;
 import com.khaoula.transactionsservice.exception.InsufficientBalanceException;
 import com.khaoula.transactionsservice.exception.InvalidTransactionException;
 import com.khaoula.transactionsservice.exception.ResourceNotFoundException;
+import com.khaoula.transactionsservice.repository.OutboxEventRepository;
 import com.khaoula.transactionsservice.repository.TransactionRepository;
+import com.khaoula.transactionsservice.repository.TransactionSpecifications;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -18,10 +23,14 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -29,21 +38,36 @@ import java.util.stream.Collectors;
 public class TransactionServiceImpl implements TransactionService {
 
     private static final Logger log = LoggerFactory.getLogger(TransactionServiceImpl.class);
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    // Plus récentes d'abord ; l'ID départage les transactions de même date
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "date", "id");
     private final TransactionRepository transactionRepository;
     private final AccountClient accountClient;
     private final RecipientClient recipientClient;
     private final UserClient userClient;
+    private final UserNearCache<UserClient.UserDetails> userProfileCache;
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionRollupService rollupService;
+    private final AggregateCache aggregateCache;
+    private final TransactionTemplate transactionTemplate;
 
     public TransactionServiceImpl(TransactionRepository transactionRepository, AccountClient accountClient,
-            RecipientClient recipientClient, UserClient userClient) {
+            RecipientClient recipientClient, UserClient userClient,
+            UserNearCache<UserClient.UserDetails> userProfileCache, OutboxEventRepository outboxEventRepository, TransactionRollupService rollupService,
+            AggregateCache aggregateCache, PlatformTransactionManager transactionManager) {
         this.transactionRepository = transactionRepository;
         this.accountClient = accountClient;
         this.recipientClient = recipientClient;
         this.userClient = userClient;
+        this.userProfileCache = userProfileCache;
+        this.outboxEventRepository = outboxEventRepository;
+        this.rollupService = rollupService;
+        this.aggregateCache = aggregateCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
-    @Transactional
     public TransactionResponseDTO createDeposit(TransactionRequestDTO request, String authHeader) {
         log.info("Creating deposit for account: {}, amount: {}", request.getBankAccountId(), request.getAmount());
 
@@ -65,33 +89,13 @@ public class TransactionServiceImpl implements TransactionService {
         transaction.setReason(request.getReason());
         transaction.setDate(OffsetDateTime.now());
 
-        // Sauvegarder
-        transaction = transactionRepository.save(transaction);
-
-        try {
-            // Mettre à jour le solde
-            accountClient.updateBalance(
-                    account.getId(),
-                    new AccountClient.BalanceUpdateRequest(request.getAmount().doubleValue(), "ADD"),
-                    authHeader);
-
-            // Marquer comme complétée
-            transaction.setStatus(TransactionStatus.COMPLETED);
-            transaction = transactionRepository.save(transaction);
-
-            log.info("Deposit completed successfully: {}", transaction.getReference());
-        } catch (Exception e) {
-            log.error("Failed to complete deposit: {}", e.getMessage());
-            transaction.setStatus(TransactionStatus.FAILED);
-            transactionRepository.save(transaction);
-            throw new InvalidTransactionException("Failed to process deposit: " + e.getMessage());
-        }
+        transaction = enqueue(transaction);
+        log.info("Deposit accepted: {}", transaction.getReference());
 
         return mapToResponseDTO(transaction);
     }
 
     @Override
-    @Transactional
     public TransactionResponseDTO createWithdrawal(TransactionRequestDTO request, String authHeader) {
         log.info("Creating withdrawal for account: {}, amount: {}", request.getBankAccountId(), request.getAmount());
 
@@ -118,32 +122,13 @@ public class TransactionServiceImpl implements TransactionService {
         transaction.setReason(request.getReason());
         transaction.setDate(OffsetDateTime.now());
 
-        transaction = transactionRepository.save(transaction);
-
-        try {
-            // Mettre à jour le solde
-            accountClient.updateBalance(
-                    account.getId(),
-                    new AccountClient.BalanceUpdateRequest(request.getAmount().doubleValue(), "SUBTRACT"),
-                    authHeader);
-
-            // Marquer comme complétée
-            transaction.setStatus(TransactionStatus.COMPLETED);
-            transaction = transactionRepository.save(transaction);
-
-            log.info("Withdrawal completed successfully: {}", transaction.getReference());
-        } catch (Exception e) {
-            log.error("Failed to complete withdrawal: {}", e.getMessage());
-            transaction.setStatus(TransactionStatus.FAILED);
-            transactionRepository.save(transaction);
-            throw new InvalidTransactionException("Failed to process withdrawal: " + e.getMessage());
-        }
+        transaction = enqueue(transaction);
+        log.info("Withdrawal accepted: {}", transaction.getReference());
 
         return mapToResponseDTO(transaction);
     }
 
     @Override
-    @Transactional
     public TransactionResponseDTO createTransfer(TransferRequestDTO request, String authHeader) {
         log.info("Creating transfer for account: {}, amount: {}", request.getBankAccountId(), request.getAmount());
 
@@ -167,6 +152,7 @@ public class TransactionServiceImpl implements TransactionService {
             recipientIban = request.getRecipientIban();
 
             log.info("Fetching recipient by IBAN: {}", recipientIban);
+            // Bénéficiaire de l'appelant (token transmis), lu par l'index unique (user_id, iban) de recipient-service
             try {
                 RecipientClient.ApiResponse<RecipientClient.RecipientResponse> response = recipientClient
                         .getRecipientByIban(recipientIban, authHeader);
@@ -178,9 +164,9 @@ public class TransactionServiceImpl implements TransactionService {
                     AccountClient.AccountResponse accountResponse = accountClient.getAccountByIban(recipientIban,
                             authHeader);
 
-                    // Fetch user details
-                    UserClient.UserDetails userDetails = userClient.getUserById(accountResponse.getUserId(),
-                            authHeader);
+                    // Fetch user details (near-cache, invalidé par auth-service)
+                    UserClient.UserDetails userDetails = userProfileCache.get(accountResponse.getUserId(),
+                            userId -> userClient.getUserById(userId, authHeader));
 
                     // Create new recipient
                     RecipientRequest recipientRequest = new RecipientRequest(
@@ -226,32 +212,8 @@ public class TransactionServiceImpl implements TransactionService {
         transaction.setReason(request.getReason());
         transaction.setDate(OffsetDateTime.now());
 
-        transaction = transactionRepository.save(transaction);
-
-        try {
-            accountClient.updateBalance(
-                    sourceAccount.getId(),
-                    new AccountClient.BalanceUpdateRequest(request.getAmount().doubleValue(), "SUBTRACT"),
-                    authHeader);
-
-            AccountClient.AccountResponse accountResponse = accountClient.getAccountByIban(request.getRecipientIban(),
-                    authHeader);
-            accountClient.updateBalance(
-                    accountResponse.getId(),
-                    new AccountClient.BalanceUpdateRequest(request.getAmount().doubleValue(), "ADD"),
-                    authHeader);
-
-            transaction.setStatus(TransactionStatus.COMPLETED);
-            transaction = transactionRepository.save(transaction);
-
-            log.info("Transfer completed successfully: {} to IBAN: {}",
-                    transaction.getReference(), recipientIban);
-        } catch (Exception e) {
-            log.error("Failed to complete transfer: {}", e.getMessage());
-            transaction.setStatus(TransactionStatus.FAILED);
-            transactionRepository.save(transaction);
-            throw new InvalidTransactionException("Failed to process transfer: " + e.getMessage());
-        }
+        transaction = enqueue(transaction);
+        log.info("Transfer accepted: {} to IBAN: {}", transaction.getReference(), recipientIban);
 
         return mapToResponseDTO(transaction, recipient);
     }
@@ -264,32 +226,83 @@ public class TransactionServiceImpl implements TransactionService {
                 Sort.Direction.fromString(filter.getSortDirection()),
                 filter.getSortBy());
 
-        Page<Transaction> transactions = transactionRepository.findByFilters(
-                filter.getUserId(),
-                filter.getBankAccountId(),
-                filter.getType(),
-                filter.getStatus(),
-                filter.getStartDate(),
-                filter.getEndDate(),
-                pageable);
+        Page<Transaction> transactions = transactionRepository.findAll(
+                TransactionSpecifications.matching(filter), pageable);
 
         return transactions.map(this::mapToResponseDTO);
     }
 
     @Override
-    public List<TransactionResponseDTO> getUserTransactions(Long userId) {
-        List<Transaction> transactions = transactionRepository.findByUserId(userId);
-        return transactions.stream()
+    public TransactionCursorPageDTO searchTransactions(TransactionFilterDTO filter, String cursor,
+            boolean includeTotal) {
+        int size = pageSize(filter.getSize());
+        TransactionCursor after = cursor != null && !cursor.isBlank() ? TransactionCursor.decode(cursor) : null;
+
+        // Une ligne de plus pour savoir s'il reste une page, sans count(*)
+        List<Transaction> rows = transactionRepository.searchAfter(filter, after, size + 1);
+        boolean hasMore = rows.size() > size;
+        List<Transaction> page = hasMore ? rows.subList(0, size) : rows;
+
+        String nextCursor = hasMore ? TransactionCursor.after(page.get(page.size() - 1)).encode() : null;
+        // Estimation du planificateur : un count(*) exact relirait toutes les lignes du filtre
+        Long total = includeTotal && after == null ? transactionRepository.estimateMatching(filter) : null;
+        List<TransactionResponseDTO> content = page.stream()
                 .map(this::mapToResponseDTO)
                 .collect(Collectors.toList());
+        return new TransactionCursorPageDTO(content, nextCursor, hasMore, total);
     }
 
     @Override
-    public List<TransactionResponseDTO> getAccountTransactions(Long bankAccountId) {
-        List<Transaction> transactions = transactionRepository.findByBankAccountId(bankAccountId);
-        return transactions.stream()
-                .map(this::mapToResponseDTO)
-                .collect(Collectors.toList());
+    public Page<TransactionResponseDTO> getUserTransactions(Long userId, OffsetDateTime from, OffsetDateTime to,
+            int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), pageSize(size), NEWEST_FIRST);
+        if (from == null && to == null) {
+            return transactionRepository.findByUserId(userId, pageable).map(this::mapToResponseDTO);
+        }
+        TransactionFilterDTO filter = new TransactionFilterDTO();
+        filter.setUserId(userId);
+        filter.setStartDate(from);
+        filter.setEndDate(to);
+        return transactionRepository.findAll(TransactionSpecifications.matching(filter), pageable)
+                .map(this::mapToResponseDTO);
+    }
+
+    @Override
+    public Page<TransactionResponseDTO> getAccountTransactions(Long bankAccountId, OffsetDateTime from,
+            OffsetDateTime to, int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), pageSize(size), NEWEST_FIRST);
+        if (from == null && to == null) {
+            return transactionRepository.findByBankAccountId(bankAccountId, pageable).map(this::mapToResponseDTO);
+        }
+        TransactionFilterDTO filter = new TransactionFilterDTO();
+        filter.setBankAccountId(bankAccountId);
+        filter.setStartDate(from);
+        filter.setEndDate(to);
+        return transactionRepository.findAll(TransactionSpecifications.matching(filter), pageable)
+                .map(this::mapToResponseDTO);
+    }
+
+    @Override
+    public TransactionCursorPageDTO getLatestUserTransactions(Long userId, OffsetDateTime from,
+            OffsetDateTime to, String cursor, int limit) {
+        TransactionFilterDTO filter = new TransactionFilterDTO();
+        filter.setUserId(userId);
+        filter.setStartDate(from);
+        filter.setEndDate(to);
+        filter.setSize(limit);
+        filter.setSortDirection("DESC");
+        // Pas de Page ici : le count(*) grandirait avec l'historique du client ; la suite se lit par curseur
+        return searchTransactions(filter, cursor, false);
+    }
+
+    @Override
+    public List<RecentTransactionDTO> getRecentUserTransactions(Long userId, int limit) {
+        return transactionRepository.findRecentByUserId(userId, PageRequest.of(0, pageSize(limit)));
+    }
+
+    @Override
+    public List<RecentTransactionDTO> getRecentAccountTransactions(Long bankAccountId, int limit) {
+        return transactionRepository.findRecentByBankAccountId(bankAccountId, PageRequest.of(0, pageSize(limit)));
     }
 
     @Override
@@ -316,12 +329,13 @@ public class TransactionServiceImpl implements TransactionService {
             throw new InvalidTransactionException("You are not authorized to cancel this transaction");
         }
 
-        if (transaction.getStatus() != TransactionStatus.PENDING) {
+        // Conditionnel : le règlement peut terminer la transaction entre la lecture et l'annulation
+        if (transaction.getStatus() != TransactionStatus.PENDING
+                || transactionRepository.settlePending(id, TransactionStatus.CANCELLED) == 0) {
             throw new InvalidTransactionException("Only pending transactions can be cancelled");
         }
-
+        rollupService.recordTransition(transaction, TransactionStatus.PENDING, TransactionStatus.CANCELLED);
         transaction.setStatus(TransactionStatus.CANCELLED);
-        transaction = transactionRepository.save(transaction);
 
         log.info("Transaction cancelled: {}", transaction.getReference());
         return mapToResponseDTO(transaction);
@@ -329,34 +343,66 @@ public class TransactionServiceImpl implements TransactionService {
 
     @Override
     public TransactionStatsDTO getTransactionStats() {
-        Long total = transactionRepository.count();
-        Long pending = transactionRepository.countByStatus(TransactionStatus.PENDING);
-        Long completed = transactionRepository.countByStatus(TransactionStatus.COMPLETED);
-        Long failed = transactionRepository.countByStatus(TransactionStatus.FAILED);
-
-        Double totalVolume = transactionRepository.sumAmountByStatus(TransactionStatus.COMPLETED);
-        if (totalVolume == null) {
-            totalVolume = 0.0;
-        }
-
-        OffsetDateTime startOfDay = OffsetDateTime.now().withHour(0).withMinute(0).withSecond(0).withNano(0);
-        OffsetDateTime endOfDay = OffsetDateTime.now().withHour(23).withMinute(59).withSecond(59).withNano(999999999);
-        Long todayTransactions = transactionRepository.countByDateBetween(startOfDay, endOfDay);
-
-        return new TransactionStatsDTO(total, pending, completed, failed, totalVolume, todayTransactions);
+        return aggregateCache.get(TransactionRollupService.STATS_CACHE_KEY, this::loadTransactionStats);
     }
 
     @Override
     public List<DailyTransactionStats> getDailyStats() {
-        OffsetDateTime sevenDaysAgo = OffsetDateTime.now().minusDays(7);
-        return transactionRepository.findDailyStats(sevenDaysAgo);
+        return aggregateCache.get(TransactionRollupService.DAILY_STATS_CACHE_KEY, this::loadDailyStats);
     }
 
     // Helper methods
+
+    private TransactionStatsDTO loadTransactionStats() {
+        // Une seule requête sur les compteurs pré-agrégés, quel que soit le volume de transactions
+        LocalDate today = TransactionRollupService.dayOf(OffsetDateTime.now());
+        Map<TransactionStatus, TransactionRollupService.Totals> totals = rollupService.totalsByStatus(today);
+        long total = 0;
+        long todayTransactions = 0;
+        for (TransactionRollupService.Totals statusTotals : totals.values()) {
+            total += statusTotals.count();
+            todayTransactions += statusTotals.todayCount();
+        }
+        TransactionRollupService.Totals completed = totals.get(TransactionStatus.COMPLETED);
+        Double totalVolume = completed != null && completed.amount() != null ? completed.amount().doubleValue() : 0.0;
+
+        return new TransactionStatsDTO(total, countOf(totals, TransactionStatus.PENDING),
+                countOf(totals, TransactionStatus.COMPLETED), countOf(totals, TransactionStatus.FAILED),
+                totalVolume, todayTransactions);
+    }
+
+    private List<DailyTransactionStats> loadDailyStats() {
+        LocalDate sevenDaysAgo = TransactionRollupService.dayOf(OffsetDateTime.now()).minusDays(7);
+        return List.copyOf(rollupService.dailyStats(sevenDaysAgo));
+    }
+
+    /**
+     * Enregistre la transaction PENDING et son entrée d'outbox dans une seule transaction locale ;
+     * le règlement auprès d'account-service est fait ensuite par {@link OutboxDispatcher}.
+     */
+    private Transaction enqueue(Transaction transaction) {
+        return transactionTemplate.execute(status -> {
+            Transaction saved = transactionRepository.save(transaction);
+            outboxEventRepository.save(new OutboxEvent(saved));
+            rollupService.recordTransition(saved, null, TransactionStatus.PENDING);
+            return saved;
+        });
+    }
+
     private String generateReference() {
         return "TXN-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
 
+    private static Long countOf(Map<TransactionStatus, TransactionRollupService.Totals> totals,
+            TransactionStatus status) {
+        TransactionRollupService.Totals statusTotals = totals.get(status);
+        return statusTotals != null ? statusTotals.count() : 0L;
+    }
+
+    private static int pageSize(Integer requested) {
+        return Math.min(Math.max(requested != null ? requested : DEFAULT_PAGE_SIZE, 1), MAX_PAGE_SIZE);
+    }
+
     private TransactionResponseDTO mapToResponseDTO(Transaction transaction) {
         TransactionResponseDTO dto = new TransactionResponseDTO();
         dto.setId(transaction.getId());
@@ -0,0 +1,70 @@
+package com.khaoula.transactionsservice.benchmark;
+
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Base Postgres jetable commune aux benchmarks JMH de transactions-service.
+ * <p>
+ * Paramètres lus dans les propriétés système {@code benchmark.*} ({@code jdbc-url}, {@code user},
+ * {@code password}, {@code rows}) ; {@link #options(Class)} les transmet au JVM forké par JMH.
+ */
+final class BenchmarkDatabase {
+
+    static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+    static final int USERS = 10_000;
+    static final int ACCOUNTS = 20_000;
+
+    private BenchmarkDatabase() {
+    }
+
+    static String url() {
+        String url = System.getProperty("benchmark.jdbc-url");
+        if (url == null || url.isBlank()) {
+            throw new IllegalStateException("benchmark.jdbc-url is required");
+        }
+        return url;
+    }
+
+    static String user() {
+        return System.getProperty("benchmark.user");
+    }
+
+    static String password() {
+        return System.getProperty("benchmark.password");
+    }
+
+    static Connection connect() throws SQLException {
+        return DriverManager.getConnection(url(), user(), password());
+    }
+
+    /**
+     * Remplit {@code table} (colonnes de l'entité Transaction) avec {@link #ROWS} lignes : un an d'historique,
+     * ~2 % PENDING, ~1 % FAILED.
+     */
+    static void seedTransactions(Statement st, String table) throws SQLException {
+        st.execute("INSERT INTO " + table + " (reference, user_id, bank_account_id, type, status, amount, tx_date) "
+                + "SELECT 'TXN-' || lpad(g::text, 8, '0'), g % " + USERS + " + 1, g % " + ACCOUNTS + " + 1, "
+                + "(ARRAY['DEPOSIT','WITHDRAWAL','TRANSFER'])[g % 3 + 1], "
+                + "CASE WHEN g % 50 = 0 THEN 'PENDING' WHEN g % 97 = 0 THEN 'FAILED' ELSE 'COMPLETED' END, "
+                + "round((random() * 1000)::numeric, 2), now() - (g * interval '31 seconds') "
+                + "FROM generate_series(1, " + ROWS + ") g");
+    }
+
+    /**
+     * Options de lancement : le benchmark donné, avec les propriétés {@code benchmark.*} du JVM courant.
+     */
+    static Options options(Class<?> benchmark) {
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(benchmark.getSimpleName());
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("benchmark."))
+                .forEach(name -> options.jvmArgsAppend("-D" + name + "=" + System.getProperty(name)));
+        return options.build();
+    }
+}
@@ -0,0 +1,199 @@
+package com.khaoula.transactionsservice.benchmark;
+
+import com.khaoula.transactionsservice.config.TransactionIndexMigration;
+import com.khaoula.transactionsservice.domain.Transaction;
+import com.khaoula.transactionsservice.domain.TransactionStatus;
+import com.khaoula.transactionsservice.domain.TransactionType;
+import com.khaoula.transactionsservice.dto.TransactionFilterDTO;
+import com.khaoula.transactionsservice.repository.TransactionSearchRepositoryImpl;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latence (p50/p99 en mode {@code SampleTime}) de la première page de la recherche admin, sur un million de
+ * transactions dans Postgres, pour chaque combinaison de filtres courante :
+ * <ul>
+ *     <li>{@code catchAll} : l'ancienne requête {@code (:x IS NULL OR ...)} ;</li>
+ *     <li>{@code specification} : {@link TransactionSearchRepositoryImpl#searchAfter}, c'est-à-dire le SQL
+ *     que Hibernate génère à partir de {@code TransactionSpecifications.matching}.</li>
+ * </ul>
+ * Les deux passent par Hibernate et les requêtes préparées de pgjdbc : Postgres bascule sur un plan générique
+ * comme en production. La table {@code transactions} est créée par l'entité, avec les index de
+ * {@link TransactionIndexMigration}, et remplie une seule fois.
+ * <p>
+ * Non exécuté par surefire. Lancement contre une base jetable : {@code mvn test-compile} puis la méthode
+ * {@code main} depuis l'IDE (classpath de test), avec
+ * {@code -Dbenchmark.jdbc-url=jdbc:postgresql://localhost:5432/bench -Dbenchmark.user=postgres
+ * -Dbenchmark.password=postgres}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionFilterBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final String CATCH_ALL = "SELECT t FROM Transaction t WHERE "
+            + "(:userId IS NULL OR t.userId = :userId) AND "
+            + "(:bankAccountId IS NULL OR t.bankAccountId = :bankAccountId) AND "
+            + "(:type IS NULL OR t.type = :type) AND "
+            + "(:status IS NULL OR t.status = :status) AND "
+            + "(cast(:startDate as timestamp) IS NULL OR t.date >= :startDate) AND "
+            + "(cast(:endDate as timestamp) IS NULL OR t.date <= :endDate) "
+            + "ORDER BY t.date DESC, t.id DESC";
+
+    @Param
+    public Combo combo;
+
+    private final Random random = new Random(42);
+    private final OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+    private SessionFactory sessionFactory;
+    private EntityManager entityManager;
+    private TransactionSearchRepositoryImpl search;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Transaction.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, BenchmarkDatabase.url())
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, BenchmarkDatabase.user())
+                .setProperty(AvailableSettings.JAKARTA_JDBC_PASSWORD, BenchmarkDatabase.password())
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "update")
+                .buildSessionFactory();
+        try (Connection connection = BenchmarkDatabase.connect();
+             Statement st = connection.createStatement()) {
+            if (isEmpty(st)) {
+                BenchmarkDatabase.seedTransactions(st, "transactions");
+                new TransactionIndexMigration(new JdbcTemplate(new SingleConnectionDataSource(connection, true)))
+                        .run(null);
+                st.execute("ANALYZE transactions");
+            }
+        }
+        entityManager = sessionFactory.createEntityManager();
+        search = new TransactionSearchRepositoryImpl();
+        ReflectionTestUtils.setField(search, "entityManager", entityManager);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public void catchAll(Blackhole bh) {
+        TransactionFilterDTO filter = combo.filter(random, now);
+        bh.consume(entityManager.createQuery(CATCH_ALL, Transaction.class)
+                .setParameter("userId", filter.getUserId())
+                .setParameter("bankAccountId", filter.getBankAccountId())
+                .setParameter("type", filter.getType())
+                .setParameter("status", filter.getStatus())
+                .setParameter("startDate", filter.getStartDate())
+                .setParameter("endDate", filter.getEndDate())
+                .setMaxResults(PAGE_SIZE)
+                .getResultList());
+        // Pas d'accumulation d'entités gérées d'une invocation à l'autre
+        entityManager.clear();
+    }
+
+    @Benchmark
+    public void specification(Blackhole bh) {
+        bh.consume(search.searchAfter(combo.filter(random, now), null, PAGE_SIZE));
+        entityManager.clear();
+    }
+
+    private static boolean isEmpty(Statement st) throws SQLException {
+        try (ResultSet rs = st.executeQuery("SELECT NOT EXISTS (SELECT 1 FROM transactions)")) {
+            rs.next();
+            return rs.getBoolean(1);
+        }
+    }
+
+    /**
+     * Combinaisons envoyées par l'écran admin.
+     */
+    public enum Combo {
+        NONE(false, false, false, false, false),
+        USER(true, false, false, false, false),
+        ACCOUNT(false, true, false, false, false),
+        STATUS(false, false, false, true, false),
+        USER_TYPE(true, false, true, false, false),
+        USER_DATE_RANGE(true, false, false, false, true),
+        ACCOUNT_DATE_RANGE(false, true, false, false, true),
+        STATUS_DATE_RANGE(false, false, false, true, true),
+        DATE_RANGE(false, false, false, false, true);
+
+        private final boolean user;
+        private final boolean account;
+        private final boolean type;
+        private final boolean status;
+        private final boolean dateRange;
+
+        Combo(boolean user, boolean account, boolean type, boolean status, boolean dateRange) {
+            this.user = user;
+            this.account = account;
+            this.type = type;
+            this.status = status;
+            this.dateRange = dateRange;
+        }
+
+        TransactionFilterDTO filter(Random random, OffsetDateTime now) {
+            TransactionFilterDTO filter = new TransactionFilterDTO();
+            if (user) {
+                filter.setUserId((long) random.nextInt(BenchmarkDatabase.USERS) + 1);
+            }
+            if (account) {
+                filter.setBankAccountId((long) random.nextInt(BenchmarkDatabase.ACCOUNTS) + 1);
+            }
+            if (type) {
+                filter.setType(TransactionType.WITHDRAWAL);
+            }
+            if (status) {
+                filter.setStatus(random.nextBoolean() ? TransactionStatus.PENDING : TransactionStatus.FAILED);
+            }
+            if (dateRange) {
+                OffsetDateTime end = now.minusDays(random.nextInt(300));
+                filter.setStartDate(end.minusDays(30));
+                filter.setEndDate(end);
+            }
+            return filter;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(BenchmarkDatabase.options(TransactionFilterBenchmark.class)).run();
+    }
+}
@@ -0,0 +1,152 @@
+package com.khaoula.transactionsservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latence (p50/p99 en mode {@code SampleTime}) des statistiques admin sur un million de transactions
+ * dans Postgres :
+ * <ul>
+ *     <li>{@code sixQueries} : les six requêtes d'origine sur {@code transactions}, six allers-retours ;</li>
+ *     <li>{@code singleGroupBy} : un seul {@code GROUP BY status} avec clauses {@code FILTER}, un aller-retour ;</li>
+ *     <li>{@code rollupGroupBy} : la même requête sur {@code transaction_daily_rollup} (ce que fait
+ *     {@code TransactionDailyRollupRepository.totalsByStatus}), un aller-retour.</li>
+ * </ul>
+ * Non exécuté par surefire. Lancement contre une base jetable : {@code mvn test-compile} puis la méthode
+ * {@code main} depuis l'IDE (classpath de test), avec les propriétés {@code benchmark.*} de
+ * {@link BenchmarkDatabase}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransactionStatsBenchmark {
+
+    private static final String TABLE = "transactions_stats_bench";
+    private static final String ROLLUP = "transaction_rollup_stats_bench";
+
+    // Requêtes de getTransactionStats avant regroupement : count(), countByStatus x3,
+    // sumAmountByStatus, countByDateBetween
+    private static final List<String> SEPARATE = List.of(
+            "SELECT COUNT(*) FROM " + TABLE,
+            "SELECT COUNT(*) FROM " + TABLE + " WHERE status = 'PENDING'",
+            "SELECT COUNT(*) FROM " + TABLE + " WHERE status = 'COMPLETED'",
+            "SELECT COUNT(*) FROM " + TABLE + " WHERE status = 'FAILED'",
+            "SELECT SUM(amount) FROM " + TABLE + " WHERE status = 'COMPLETED'",
+            "SELECT COUNT(*) FROM " + TABLE + " WHERE tx_date BETWEEN ? AND ?");
+
+    private static final String SINGLE_PASS = "SELECT status, COUNT(*), SUM(amount), "
+            + "COUNT(*) FILTER (WHERE tx_date BETWEEN ? AND ?) FROM " + TABLE + " GROUP BY status";
+
+    private static final String ROLLUP_PASS = "SELECT status, SUM(tx_count), SUM(amount_sum), "
+            + "COALESCE(SUM(tx_count) FILTER (WHERE rollup_day = ?), 0) FROM " + ROLLUP + " GROUP BY status";
+
+    private final Instant startOfDay = LocalDate.now(ZoneOffset.UTC).atStartOfDay().toInstant(ZoneOffset.UTC);
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = BenchmarkDatabase.connect();
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS " + TABLE);
+            st.execute("DROP TABLE IF EXISTS " + ROLLUP);
+            st.execute("CREATE TABLE " + TABLE + " (id BIGSERIAL PRIMARY KEY, reference VARCHAR(100) NOT NULL, "
+                    + "user_id BIGINT NOT NULL, bank_account_id BIGINT NOT NULL, type VARCHAR(20) NOT NULL, "
+                    + "status VARCHAR(20) NOT NULL, amount NUMERIC(19,4) NOT NULL, tx_date TIMESTAMPTZ NOT NULL)");
+            BenchmarkDatabase.seedTransactions(st, TABLE);
+            st.execute("CREATE INDEX ON " + TABLE + " (tx_date, id)");
+            st.execute("CREATE INDEX ON " + TABLE + " (status, tx_date, id)");
+            // Même remplissage que TransactionRollupBackfill
+            st.execute("CREATE TABLE " + ROLLUP + " (rollup_day DATE NOT NULL, status VARCHAR(20) NOT NULL, "
+                    + "type VARCHAR(20) NOT NULL, tx_count BIGINT NOT NULL, amount_sum NUMERIC(19,4) NOT NULL, "
+                    + "UNIQUE (rollup_day, status, type))");
+            st.execute("INSERT INTO " + ROLLUP + " SELECT CAST(tx_date AT TIME ZONE 'UTC' AS DATE), status, type, "
+                    + "COUNT(*), SUM(amount) FROM " + TABLE + " GROUP BY 1, 2, 3");
+            st.execute("ANALYZE " + TABLE);
+            st.execute("ANALYZE " + ROLLUP);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS " + TABLE);
+            st.execute("DROP TABLE IF EXISTS " + ROLLUP);
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public void sixQueries(Blackhole bh) throws SQLException {
+        for (String sql : SEPARATE) {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                if (sql.contains("?")) {
+                    bindToday(ps);
+                }
+                drain(ps, bh);
+            }
+        }
+    }
+
+    @Benchmark
+    public void singleGroupBy(Blackhole bh) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(SINGLE_PASS)) {
+            bindToday(ps);
+            drain(ps, bh);
+        }
+    }
+
+    @Benchmark
+    public void rollupGroupBy(Blackhole bh) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(ROLLUP_PASS)) {
+            ps.setDate(1, Date.valueOf(LocalDate.now(ZoneOffset.UTC)));
+            drain(ps, bh);
+        }
+    }
+
+    private void bindToday(PreparedStatement ps) throws SQLException {
+        ps.setTimestamp(1, Timestamp.from(startOfDay));
+        ps.setTimestamp(2, Timestamp.from(startOfDay.plus(1, ChronoUnit.DAYS)));
+    }
+
+    private static void drain(PreparedStatement ps, Blackhole bh) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(rs.getObject(1));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(BenchmarkDatabase.options(TransactionStatsBenchmark.class)).run();
+    }
+}
@@ -2,6 +2,8 @@ package com.khaoula.transactionsservice.client;
 
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class AccountClientTest {
@@ -23,10 +25,14 @@ class AccountClientTest {
     }
 
     @Test
-    void testBalanceUpdateRequest() {
-        AccountClient.BalanceUpdateRequest request = new AccountClient.BalanceUpdateRequest(100.0, "ADD");
+    void testBalanceLegFactories() {
+        AccountClient.BalanceLeg debit = AccountClient.BalanceLeg.debit(1L, new BigDecimal("100.00"));
+        AccountClient.BalanceLeg credit = AccountClient.BalanceLeg.creditRib("FR7612345678901234567890123",
+                new BigDecimal("100.00"));
 
-        assertEquals(100.0, request.getAmount());
-        assertEquals("ADD", request.getOperation());
+        assertEquals(1L, debit.getAccountId());
+        assertEquals("SUBTRACT", debit.getOperation());
+        assertEquals("FR7612345678901234567890123", credit.getRib());
+        assertEquals("ADD", credit.getOperation());
     }
 }
@@ -3,11 +3,13 @@ package com.khaoula.transactionsservice.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.khaoula.transactionsservice.domain.TransactionStatus;
 import com.khaoula.transactionsservice.domain.TransactionType;
+import com.khaoula.transactionsservice.dto.TransactionCursorPageDTO;
 import com.khaoula.transactionsservice.dto.TransactionFilterDTO;
 import com.khaoula.transactionsservice.dto.TransactionRequestDTO;
 import com.khaoula.transactionsservice.dto.TransactionResponseDTO;
 import com.khaoula.transactionsservice.dto.TransferRequestDTO;
 import com.khaoula.transactionsservice.dto.DailyTransactionStats;
+import com.khaoula.transactionsservice.service.TransactionExportService;
 import com.khaoula.transactionsservice.service.TransactionService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,16 +22,22 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.util.Collections;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -43,6 +51,9 @@ class TransactionAdminControllerTest {
     @MockBean
     private TransactionService transactionService;
 
+    @MockBean
+    private TransactionExportService transactionExportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -63,6 +74,61 @@ class TransactionAdminControllerTest {
                 .andExpect(jsonPath("$.content[0].id").value(1L));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void searchTransactions_Success() throws Exception {
+        TransactionResponseDTO response = new TransactionResponseDTO();
+        response.setId(1L);
+        TransactionCursorPageDTO page = new TransactionCursorPageDTO(
+                Collections.singletonList(response), "next-cursor", true, null);
+
+        when(transactionService.searchTransactions(any(TransactionFilterDTO.class), eq("abc"), eq(false)))
+                .thenReturn(page);
+
+        mockMvc.perform(get("/admin/transactions/search")
+                        .param("cursor", "abc")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1L))
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void searchTransactions_InvalidStatus() throws Exception {
+        mockMvc.perform(get("/admin/transactions/search")
+                        .param("status", "UNKNOWN"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void exportTransactions_WritesCsvAttachment() throws Exception {
+        doAnswer(inv -> {
+            inv.getArgument(2, OutputStream.class).write("id,reference\r\n1,TXN-1\r\n".getBytes());
+            return 1L;
+        }).when(transactionExportService).export(any(TransactionFilterDTO.class),
+                eq(TransactionExportService.Format.CSV), any(OutputStream.class));
+
+        mockMvc.perform(get("/admin/transactions/export")
+                        .param("bankAccountId", "1")
+                        .param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions.csv\""))
+                .andExpect(content().string("id,reference\r\n1,TXN-1\r\n"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void exportTransactions_UnsupportedFormat() throws Exception {
+        mockMvc.perform(get("/admin/transactions/export")
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(transactionExportService);
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void getTransactionById_Success() throws Exception {
@@ -96,7 +162,7 @@ class TransactionAdminControllerTest {
                         .content(objectMapper.writeValueAsString(request))
                         .header("Authorization", "Bearer token")
                         .with(csrf()))
-                .andExpect(status().isCreated())
+                .andExpect(status().isAccepted())
                 .andExpect(jsonPath("$.type").value("DEPOSIT"));
     }
 
@@ -120,7 +186,7 @@ class TransactionAdminControllerTest {
                         .content(objectMapper.writeValueAsString(request))
                         .header("Authorization", "Bearer token")
                         .with(csrf()))
-                .andExpect(status().isCreated())
+                .andExpect(status().isAccepted())
                 .andExpect(jsonPath("$.type").value("WITHDRAWAL"));
     }
 
@@ -145,7 +211,7 @@ class TransactionAdminControllerTest {
                         .content(objectMapper.writeValueAsString(request))
                         .header("Authorization", "Bearer token")
                         .with(csrf()))
-                .andExpect(status().isCreated())
+                .andExpect(status().isAccepted())
                 .andExpect(jsonPath("$.type").value("TRANSFER"));
     }
 
@@ -182,11 +248,12 @@ class TransactionAdminControllerTest {
         response.setId(1L);
         response.setUserId(1L);
 
-        when(transactionService.getUserTransactions(1L)).thenReturn(Collections.singletonList(response));
+        when(transactionService.getUserTransactions(1L, null, null, 0, 20))
+                .thenReturn(new PageImpl<>(Collections.singletonList(response)));
 
         mockMvc.perform(get("/admin/transactions/user/1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].userId").value(1L));
+                .andExpect(jsonPath("$.content[0].userId").value(1L));
     }
 
     @Test
@@ -196,11 +263,19 @@ class TransactionAdminControllerTest {
         response.setId(1L);
         response.setBankAccountId(1L);
 
-        when(transactionService.getAccountTransactions(1L)).thenReturn(Collections.singletonList(response));
+        when(transactionService.getAccountTransactions(1L, null, null, 0, 20))
+                .thenReturn(new PageImpl<>(Collections.singletonList(response)));
 
         mockMvc.perform(get("/admin/transactions/account/1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].bankAccountId").value(1L));
+                .andExpect(jsonPath("$.content[0].bankAccountId").value(1L));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getAccountTransactions_InvalidWindow() throws Exception {
+        mockMvc.perform(get("/admin/transactions/account/1").param("from", "yesterday"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -0,0 +1,188 @@
+package com.khaoula.transactionsservice.controller;
+
+import com.aitsaid.commonsecurity.idempotency.IdempotencyStore;
+import com.khaoula.transactionsservice.domain.TransactionStatus;
+import com.khaoula.transactionsservice.domain.TransactionType;
+import com.khaoula.transactionsservice.dto.TransactionRequestDTO;
+import com.khaoula.transactionsservice.dto.TransactionResponseDTO;
+import com.khaoula.transactionsservice.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "idempotency.paths=/admin/transactions/deposit")
+class TransactionIdempotencyTest {
+
+    private static final String BODY = "{\"bankAccountId\": 1, \"amount\": 100.00, \"reason\": \"Test\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TransactionService transactionService;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockHttpServletRequestBuilder deposit(String key, String body) {
+        MockHttpServletRequestBuilder request = post("/admin/transactions/deposit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body)
+                .header("Authorization", "Bearer token")
+                .with(user("admin").roles("ADMIN"));
+        return key == null ? request : request.header("Idempotency-Key", key);
+    }
+
+    private TransactionResponseDTO accepted(String reference) {
+        TransactionResponseDTO response = new TransactionResponseDTO();
+        response.setReference(reference);
+        response.setType(TransactionType.DEPOSIT);
+        response.setStatus(TransactionStatus.PENDING);
+        return response;
+    }
+
+    @Test
+    void replay_shouldReturnStoredResponseWithoutExecutingAgain() throws Exception {
+        String key = UUID.randomUUID().toString();
+        when(transactionService.createDeposit(any(TransactionRequestDTO.class), anyString()))
+                .thenReturn(accepted("TXN-AAAA0001"), accepted("TXN-AAAA0002"));
+
+        mockMvc.perform(deposit(key, BODY))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.reference").value("TXN-AAAA0001"));
+        mockMvc.perform(deposit(key, BODY))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.reference").value("TXN-AAAA0001"));
+
+        verify(transactionService, times(1)).createDeposit(any(TransactionRequestDTO.class), anyString());
+    }
+
+    @Test
+    void sameKeyWithDifferentBody_shouldBeRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+        when(transactionService.createDeposit(any(TransactionRequestDTO.class), anyString()))
+                .thenReturn(accepted("TXN-BBBB0001"));
+
+        mockMvc.perform(deposit(key, BODY)).andExpect(status().isAccepted());
+        mockMvc.perform(deposit(key, BODY.replace("100.00", "900.00")))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(transactionService, times(1)).createDeposit(any(TransactionRequestDTO.class), anyString());
+    }
+
+    @Test
+    void withoutKey_shouldExecuteEveryTime() throws Exception {
+        when(transactionService.createDeposit(any(TransactionRequestDTO.class), anyString()))
+                .thenReturn(accepted("TXN-CCCC0001"));
+
+        mockMvc.perform(deposit(null, BODY)).andExpect(status().isAccepted());
+        mockMvc.perform(deposit(null, BODY)).andExpect(status().isAccepted());
+
+        verify(transactionService, times(2)).createDeposit(any(TransactionRequestDTO.class), anyString());
+    }
+
+    @Test
+    void concurrentDuplicates_shouldCollapseOntoOneExecution() throws Exception {
+        String key = UUID.randomUUID().toString();
+        when(transactionService.createDeposit(any(TransactionRequestDTO.class), anyString()))
+                .thenAnswer(inv -> {
+                    Thread.sleep(200);
+                    return accepted("TXN-DDDD0001");
+                });
+
+        int callers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MvcResult>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(deposit(key, BODY)).andReturn();
+                }));
+            }
+            start.countDown();
+            for (Future<MvcResult> result : results) {
+                MvcResult mvcResult = result.get(30, TimeUnit.SECONDS);
+                assertEquals(202, mvcResult.getResponse().getStatus());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        verify(transactionService, times(1)).createDeposit(any(TransactionRequestDTO.class), anyString());
+    }
+
+    @Test
+    void renewLeases_shouldKeepSlowExecutionReservedUntilCompleted() {
+        String key = UUID.randomUUID().toString();
+        assertTrue(idempotencyStore.tryBegin(key, "request"));
+        // Bail sur le point d'expirer : la requête dure plus que idempotency.in-flight-timeout-ms
+        jdbcTemplate.update("UPDATE idempotency_keys SET expires_at = ? WHERE key_hash = ?",
+                System.currentTimeMillis() + 50, key);
+
+        idempotencyStore.renewLeases();
+
+        assertTrue(expiresAt(key) > System.currentTimeMillis() + 1000);
+        assertNotNull(idempotencyStore.find(key));
+        assertEquals(false, idempotencyStore.tryBegin(key, "request"));
+
+        idempotencyStore.release(key);
+        idempotencyStore.renewLeases();
+        assertNull(idempotencyStore.find(key));
+    }
+
+    @Test
+    void renewLeases_shouldNotExtendCompletedKeys() {
+        String key = UUID.randomUUID().toString();
+        idempotencyStore.tryBegin(key, "request");
+        idempotencyStore.complete(key, 202, MediaType.APPLICATION_JSON_VALUE, "{}");
+        long completedUntil = expiresAt(key);
+
+        idempotencyStore.renewLeases();
+
+        assertEquals(completedUntil, expiresAt(key));
+    }
+
+    private long expiresAt(String key) {
+        return jdbcTemplate.queryForObject("SELECT expires_at FROM idempotency_keys WHERE key_hash = ?", Long.class, key);
+    }
+}
@@ -1,6 +1,10 @@
 package com.khaoula.transactionsservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.khaoula.transactionsservice.domain.TransactionStatus;
+import com.khaoula.transactionsservice.domain.TransactionType;
+import com.khaoula.transactionsservice.dto.RecentTransactionDTO;
+import com.khaoula.transactionsservice.dto.TransactionCursorPageDTO;
 import com.khaoula.transactionsservice.dto.TransactionResponseDTO;
 import com.khaoula.transactionsservice.dto.TransferRequestDTO;
 import com.khaoula.transactionsservice.service.TransactionService;
@@ -19,6 +23,8 @@ import java.util.Collections;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -59,7 +65,7 @@ class TransactionUserControllerTest {
                         .content(objectMapper.writeValueAsString(request))
                         .header("Authorization", "Bearer token")
                         .with(csrf()))
-                .andExpect(status().isCreated())
+                .andExpect(status().isAccepted())
                 .andExpect(jsonPath("$.id").value(1L));
     }
 
@@ -70,13 +76,53 @@ class TransactionUserControllerTest {
         response.setId(1L);
         response.setAmount(new BigDecimal("100.00"));
 
-        when(transactionService.getUserTransactions(anyLong())).thenReturn(Collections.singletonList(response));
+        when(transactionService.getLatestUserTransactions(eq(1L), isNull(), isNull(), isNull(), eq(10)))
+                .thenReturn(new TransactionCursorPageDTO(Collections.singletonList(response), "next", true, null));
 
         mockMvc.perform(get("/user/transactions/my-transactions")
+                        .param("limit", "10")
                         .header("X-Auth-User-Id", "1")
                         .with(csrf()))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(1L));
+                .andExpect(jsonPath("$.content[0].id").value(1L))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getMyTransactions_PassesCursor() throws Exception {
+        when(transactionService.getLatestUserTransactions(eq(1L), isNull(), isNull(), eq("next"), eq(20)))
+                .thenReturn(new TransactionCursorPageDTO(Collections.emptyList(), null, false, null));
+
+        mockMvc.perform(get("/user/transactions/my-transactions")
+                        .param("cursor", "next")
+                        .header("X-Auth-User-Id", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getMyRecentTransactions_Success() throws Exception {
+        RecentTransactionDTO recent = new RecentTransactionDTO(1L, "TXN-12345678", TransactionType.DEPOSIT,
+                TransactionStatus.COMPLETED, new BigDecimal("100.00"), null);
+
+        when(transactionService.getRecentUserTransactions(1L, 5)).thenReturn(Collections.singletonList(recent));
+
+        mockMvc.perform(get("/user/transactions/recent")
+                        .header("X-Auth-User-Id", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].reference").value("TXN-12345678"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getMyTransactions_InvalidDate() throws Exception {
+        mockMvc.perform(get("/user/transactions/my-transactions")
+                        .param("from", "last-week")
+                        .header("X-Auth-User-Id", "1"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -3,10 +3,15 @@ package com.khaoula.transactionsservice.repository;
 import com.khaoula.transactionsservice.domain.Transaction;
 import com.khaoula.transactionsservice.domain.TransactionStatus;
 import com.khaoula.transactionsservice.domain.TransactionType;
+import com.khaoula.transactionsservice.dto.RecentTransactionDTO;
+import com.khaoula.transactionsservice.dto.TransactionCursor;
+import com.khaoula.transactionsservice.dto.TransactionFilterDTO;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
@@ -61,4 +66,110 @@ class TransactionRepositoryTest {
         assertFalse(found.isEmpty());
         assertEquals(1L, found.get(0).getUserId());
     }
+
+    @Test
+    void searchAfter_PagesThroughEqualDatesWithoutGapsOrDuplicates() {
+        OffsetDateTime sameDate = OffsetDateTime.parse("2024-01-15T10:00:00Z");
+        for (int i = 0; i < 5; i++) {
+            persist("TXN-0000000" + i, 1L, sameDate);
+        }
+        persist("TXN-00000099", 2L, sameDate);
+        entityManager.flush();
+
+        TransactionFilterDTO filter = new TransactionFilterDTO();
+        filter.setUserId(1L);
+        filter.setSortDirection("DESC");
+
+        List<Transaction> first = transactionRepository.searchAfter(filter, null, 2);
+        List<Transaction> second = transactionRepository.searchAfter(
+                filter, TransactionCursor.after(first.get(1)), 2);
+        List<Transaction> third = transactionRepository.searchAfter(
+                filter, TransactionCursor.after(second.get(1)), 2);
+
+        assertEquals(2, first.size());
+        assertEquals(2, second.size());
+        assertEquals(1, third.size());
+        assertTrue(first.get(0).getId() > first.get(1).getId());
+        assertTrue(first.get(1).getId() > second.get(0).getId());
+        assertTrue(second.get(1).getId() > third.get(0).getId());
+        assertEquals(5, transactionRepository.countMatching(filter));
+        // H2 : pas de planificateur Postgres, l'estimation retombe sur le compte exact
+        assertEquals(5, transactionRepository.estimateMatching(filter));
+    }
+
+    @Test
+    void where_RendersOnlyGivenFilters() {
+        TransactionFilterDTO filter = new TransactionFilterDTO();
+        assertEquals("", TransactionSpecifications.where(TransactionSpecifications.conditions(filter)));
+
+        filter.setUserId(1L);
+        filter.setStatus(TransactionStatus.PENDING);
+        filter.setStartDate(OffsetDateTime.parse("2024-01-01T00:00:00Z"));
+
+        assertEquals(" WHERE user_id = ? AND status = ? AND tx_date >= ?",
+                TransactionSpecifications.where(TransactionSpecifications.conditions(filter)));
+    }
+
+    @Test
+    void searchAfter_AppliesOnlyGivenFilters() {
+        persist("TXN-10000001", 1L, OffsetDateTime.parse("2024-01-10T10:00:00Z"));
+        persist("TXN-10000002", 1L, OffsetDateTime.parse("2024-02-10T10:00:00Z"));
+        entityManager.flush();
+
+        TransactionFilterDTO filter = new TransactionFilterDTO();
+        filter.setStatus(TransactionStatus.COMPLETED);
+        filter.setStartDate(OffsetDateTime.parse("2024-02-01T00:00:00Z"));
+        filter.setSortDirection("ASC");
+
+        List<Transaction> found = transactionRepository.searchAfter(filter, null, 10);
+
+        assertEquals(1, found.size());
+        assertEquals("TXN-10000002", found.get(0).getReference());
+    }
+
+    @Test
+    void findAllMatching_CombinesOnlyGivenFilters() {
+        persist("TXN-20000001", 1L, OffsetDateTime.parse("2024-03-01T10:00:00Z"));
+        persist("TXN-20000002", 1L, OffsetDateTime.parse("2024-03-05T10:00:00Z"));
+        persist("TXN-20000003", 2L, OffsetDateTime.parse("2024-03-05T10:00:00Z"));
+        entityManager.flush();
+
+        TransactionFilterDTO byUser = new TransactionFilterDTO();
+        byUser.setUserId(1L);
+        byUser.setEndDate(OffsetDateTime.parse("2024-03-02T00:00:00Z"));
+        Page<Transaction> found = transactionRepository.findAll(
+                TransactionSpecifications.matching(byUser), PageRequest.of(0, 10));
+
+        assertEquals(1, found.getTotalElements());
+        assertEquals("TXN-20000001", found.getContent().get(0).getReference());
+        assertEquals(3, transactionRepository.findAll(
+                TransactionSpecifications.matching(new TransactionFilterDTO()), PageRequest.of(0, 10))
+                .getTotalElements());
+    }
+
+    @Test
+    void findRecentByBankAccountId_NewestFirstAndLimited() {
+        persist("TXN-30000001", 3L, OffsetDateTime.parse("2024-04-01T10:00:00Z"));
+        persist("TXN-30000002", 3L, OffsetDateTime.parse("2024-04-03T10:00:00Z"));
+        persist("TXN-30000003", 3L, OffsetDateTime.parse("2024-04-02T10:00:00Z"));
+        entityManager.flush();
+
+        List<RecentTransactionDTO> recent = transactionRepository.findRecentByBankAccountId(3L, PageRequest.of(0, 2));
+
+        assertEquals(2, recent.size());
+        assertEquals("TXN-30000002", recent.get(0).getReference());
+        assertEquals("TXN-30000003", recent.get(1).getReference());
+    }
+
+    private void persist(String reference, Long userId, OffsetDateTime date) {
+        Transaction transaction = new Transaction();
+        transaction.setUserId(userId);
+        transaction.setBankAccountId(userId);
+        transaction.setReference(reference);
+        transaction.setType(TransactionType.DEPOSIT);
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setAmount(new BigDecimal("100.00"));
+        transaction.setDate(date);
+        entityManager.persist(transaction);
+    }
 }
@@ -0,0 +1,92 @@
+package com.khaoula.transactionsservice.service;
+
+import com.aitsaid.commoncore.cache.CaffeineAggregateCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AggregateCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CaffeineAggregateCache cache = new CaffeineAggregateCache(meterRegistry, 60000, 60000, 100);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_ConcurrentDashboardsShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get("stats", () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return 42L;
+                })));
+            }
+            release.countDown();
+            for (Future<Long> result : results) {
+                assertEquals(42L, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(42L, (long) cache.get("stats", this::load));
+        assertEquals(1, loads.get());
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", "aggregates").tag("result", "hit")
+                .functionCounter().count() >= 1);
+    }
+
+    @Test
+    void invalidate_ReloadsOnNextRead() {
+        cache.get("stats", this::load);
+
+        cache.invalidate("stats");
+
+        assertEquals(2L, (long) cache.get("stats", this::load));
+    }
+
+    @Test
+    void invalidate_InsideTransactionWaitsForCommit() {
+        cache.get("stats", this::load);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidate("stats");
+            assertEquals(1L, (long) cache.get("stats", this::load));
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(2L, (long) cache.get("stats", this::load));
+    }
+
+    private Long load() {
+        return (long) loads.incrementAndGet();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
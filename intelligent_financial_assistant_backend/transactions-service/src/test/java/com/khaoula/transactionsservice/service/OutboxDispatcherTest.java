@@ -0,0 +1,344 @@
+package com.khaoula.transactionsservice.service;
+
+import com.aitsaid.commonsecurity.servicetoken.ServiceTokenProvider;
+import com.khaoula.transactionsservice.client.AccountClient;
+import com.khaoula.transactionsservice.domain.OutboxEvent;
+import com.khaoula.transactionsservice.domain.SettlementStep;
+import com.khaoula.transactionsservice.domain.Transaction;
+import com.khaoula.transactionsservice.domain.TransactionStatus;
+import com.khaoula.transactionsservice.domain.TransactionType;
+import com.khaoula.transactionsservice.repository.OutboxEventRepository;
+import com.khaoula.transactionsservice.repository.TransactionRepository;
+import feign.FeignException;
+import feign.Request;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxDispatcherTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountClient accountClient;
+
+    @Mock
+    private ServiceTokenProvider serviceTokens;
+
+    @Mock
+    private TransactionRollupService rollupService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxDispatcher dispatcher;
+    private Transaction transaction;
+    private OutboxEvent event;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(serviceTokens.authorizationHeader()).thenReturn("Bearer service-token");
+        dispatcher = new OutboxDispatcher(outboxEventRepository, transactionRepository, accountClient, serviceTokens,
+                rollupService, transactionManager, Runnable::run, 10, 3, 60000, 1000);
+
+        transaction = new Transaction();
+        transaction.setId(1L);
+        transaction.setUserId(1L);
+        transaction.setBankAccountId(1L);
+        transaction.setReference("TXN-12345678");
+        transaction.setType(TransactionType.TRANSFER);
+        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setAmount(new BigDecimal("100.00"));
+        transaction.setRecipientIban("FR7612345678901234567890123");
+        transaction.setDate(OffsetDateTime.now());
+
+        event = new OutboxEvent(transaction);
+        event.setId(7L);
+    }
+
+    @Test
+    void settle_TransferSendsBothLegsAndCompletes() {
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(accountClient.applyBalanceOperation(any(AccountClient.BalanceOperationRequest.class), eq("Bearer service-token")))
+                .thenReturn(new AccountClient.BalanceOperationResponse());
+        when(transactionRepository.settlePending(1L, TransactionStatus.COMPLETED)).thenReturn(1);
+
+        dispatcher.settle(event);
+
+        ArgumentCaptor<AccountClient.BalanceOperationRequest> captor =
+                ArgumentCaptor.forClass(AccountClient.BalanceOperationRequest.class);
+        verify(accountClient).applyBalanceOperation(captor.capture(), eq("Bearer service-token"));
+        AccountClient.BalanceOperationRequest sent = captor.getValue();
+        assertEquals("TXN-12345678", sent.getIdempotencyKey());
+        assertEquals(2, sent.getLegs().size());
+        assertEquals("SUBTRACT", sent.getLegs().get(0).getOperation());
+        assertEquals(1L, sent.getLegs().get(0).getAccountId());
+        assertEquals("ADD", sent.getLegs().get(1).getOperation());
+        assertEquals("FR7612345678901234567890123", sent.getLegs().get(1).getRib());
+
+        verify(transactionRepository).settlePending(1L, TransactionStatus.COMPLETED);
+        verify(rollupService).recordTransition(transaction, TransactionStatus.PENDING, TransactionStatus.COMPLETED);
+        verify(outboxEventRepository).deleteById(7L);
+    }
+
+    @Test
+    void settle_DepositCreditsAccount() {
+        transaction.setType(TransactionType.DEPOSIT);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(accountClient.applyBalanceOperation(any(AccountClient.BalanceOperationRequest.class), eq("Bearer service-token")))
+                .thenReturn(new AccountClient.BalanceOperationResponse());
+        when(transactionRepository.settlePending(1L, TransactionStatus.COMPLETED)).thenReturn(1);
+
+        dispatcher.settle(event);
+
+        ArgumentCaptor<AccountClient.BalanceOperationRequest> captor =
+                ArgumentCaptor.forClass(AccountClient.BalanceOperationRequest.class);
+        verify(accountClient).applyBalanceOperation(captor.capture(), eq("Bearer service-token"));
+        assertEquals(1, captor.getValue().getLegs().size());
+        assertEquals("ADD", captor.getValue().getLegs().get(0).getOperation());
+        assertEquals(1L, captor.getValue().getLegs().get(0).getAccountId());
+    }
+
+    @Test
+    void settle_RejectedByAccountServiceFails() {
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(accountClient.applyBalanceOperation(any(AccountClient.BalanceOperationRequest.class), eq("Bearer service-token")))
+                .thenThrow(feignError(400));
+        when(transactionRepository.settlePending(1L, TransactionStatus.FAILED)).thenReturn(1);
+
+        dispatcher.settle(event);
+
+        verify(transactionRepository).settlePending(1L, TransactionStatus.FAILED);
+        verify(outboxEventRepository).deleteById(7L);
+        verify(outboxEventRepository, never()).save(any());
+    }
+
+    @Test
+    void settle_RejectedAfterUncertainAttemptStartsCompensation() {
+        event.setAttempts(1);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(accountClient.applyBalanceOperation(any(AccountClient.BalanceOperationRequest.class), eq("Bearer service-token")))
+                .thenThrow(feignError(422));
+
+        dispatcher.settle(event);
+
+        // La tentative précédente a pu débiter le compte : FAILED seulement après contre-passation
+        assertEquals(SettlementStep.COMPENSATE, event.getStep());
+        assertEquals(0, event.getAttempts());
+        verify(outboxEventRepository).save(event);
+        verify(transactionRepository, never()).settlePending(anyLong(), any());
+    }
+
+    @Test
+    void settle_NotFoundIsRetriedLater() {
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(accountClient.applyBalanceOperation(any(AccountClient.BalanceOperationRequest.class), eq("Bearer service-token")))
+                .thenThrow(feignError(404));
+
+        dispatcher.settle(event);
+
+        assertEquals(SettlementStep.SETTLE, event.getStep());
+        assertEquals(1, event.getAttempts());
+        verify(outboxEventRepository).save(event);
+        verify(transactionRepository, never()).settlePending(anyLong(), any());
+    }
+
+    @Test
+    void settle_TransientErrorIsRetriedLater() {
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(accountClient.applyBalanceOperation(any(AccountClient.BalanceOperationRequest.class), eq("Bearer service-token")))
+                .thenThrow(feignError(503));
+
+        dispatcher.settle(event);
+
+        verify(outboxEventRepository).save(event);
+        assertEquals(1, event.getAttempts());
+        assertNull(event.getClaimedUntil());
+        assertTrue(event.getAvailableAt().isAfter(OffsetDateTime.now()));
+        verify(transactionRepository, never()).settlePending(anyLong(), any());
+        verify(outboxEventRepository, never()).deleteById(anyLong());
+    }
+
+    @Test
+    void settle_UnauthorizedRenewsServiceTokenAndRetries() {
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(accountClient.applyBalanceOperation(any(AccountClient.BalanceOperationRequest.class), eq("Bearer service-token")))
+                .thenThrow(feignError(401));
+
+        dispatcher.settle(event);
+
+        verify(serviceTokens).invalidate();
+        assertEquals(SettlementStep.SETTLE, event.getStep());
+        assertEquals(1, event.getAttempts());
+        verify(outboxEventRepository).save(event);
+        verify(transactionRepository, never()).settlePending(anyLong(), any());
+    }
+
+    @Test
+    void settle_TooManyAttemptsStartsCompensation() {
+        event.setAttempts(2);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(accountClient.applyBalanceOperation(any(AccountClient.BalanceOperationRequest.class), eq("Bearer service-token")))
+                .thenThrow(new RuntimeException("Read timed out"));
+
+        dispatcher.settle(event);
+
+        // Résultat incertain : l'opération a pu être appliquée, on ne conclut pas FAILED sans compenser
+        assertEquals(SettlementStep.COMPENSATE, event.getStep());
+        assertEquals(0, event.getAttempts());
+        verify(outboxEventRepository).save(event);
+        verify(transactionRepository, never()).settlePending(anyLong(), any());
+    }
+
+    @Test
+    void settle_CompensationReversesAndFails() {
+        event.setStep(SettlementStep.COMPENSATE);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(accountClient.reverseBalanceOperation("TXN-12345678", "Bearer service-token"))
+                .thenReturn(new AccountClient.BalanceOperationResponse());
+        when(transactionRepository.settlePending(1L, TransactionStatus.FAILED)).thenReturn(1);
+
+        dispatcher.settle(event);
+
+        verify(accountClient, never()).applyBalanceOperation(any(), any());
+        verify(transactionRepository).settlePending(1L, TransactionStatus.FAILED);
+        verify(outboxEventRepository).deleteById(7L);
+    }
+
+    @Test
+    void settle_CompensationRejectedNeedsManualAction() {
+        event.setStep(SettlementStep.COMPENSATE);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(accountClient.reverseBalanceOperation("TXN-12345678", "Bearer service-token"))
+                .thenThrow(feignError(422));
+
+        dispatcher.settle(event);
+
+        assertEquals(SettlementStep.MANUAL, event.getStep());
+        verify(outboxEventRepository).save(event);
+        verify(outboxEventRepository, never()).deleteById(anyLong());
+        verify(transactionRepository, never()).settlePending(anyLong(), any());
+    }
+
+    @Test
+    void settle_CompensationTransientErrorIsRetried() {
+        event.setStep(SettlementStep.COMPENSATE);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(accountClient.reverseBalanceOperation("TXN-12345678", "Bearer service-token"))
+                .thenThrow(feignError(503));
+
+        dispatcher.settle(event);
+
+        assertEquals(SettlementStep.COMPENSATE, event.getStep());
+        assertEquals(1, event.getAttempts());
+        verify(outboxEventRepository).save(event);
+    }
+
+    @Test
+    void settle_CancelledAfterUncertainAttemptIsCompensated() {
+        transaction.setStatus(TransactionStatus.CANCELLED);
+        event.setAttempts(1);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+
+        dispatcher.settle(event);
+
+        assertEquals(SettlementStep.COMPENSATE, event.getStep());
+        verifyNoInteractions(accountClient);
+        verify(outboxEventRepository).save(event);
+    }
+
+    @Test
+    void settle_CancelledDuringSettlementIsCompensated() {
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(accountClient.applyBalanceOperation(any(AccountClient.BalanceOperationRequest.class), eq("Bearer service-token")))
+                .thenAnswer(inv -> {
+                    // Annulation validée pendant l'appel à account-service
+                    transaction.setStatus(TransactionStatus.CANCELLED);
+                    return new AccountClient.BalanceOperationResponse();
+                });
+        when(transactionRepository.settlePending(1L, TransactionStatus.COMPLETED)).thenReturn(0);
+
+        dispatcher.settle(event);
+
+        assertEquals(SettlementStep.COMPENSATE, event.getStep());
+        assertEquals(0, event.getAttempts());
+        verify(outboxEventRepository).save(event);
+        verify(outboxEventRepository, never()).deleteById(anyLong());
+        verifyNoInteractions(rollupService);
+    }
+
+    @Test
+    void settle_AlreadyCompletedElsewhereIsNotCompensated() {
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(accountClient.applyBalanceOperation(any(AccountClient.BalanceOperationRequest.class), eq("Bearer service-token")))
+                .thenAnswer(inv -> {
+                    transaction.setStatus(TransactionStatus.COMPLETED);
+                    return new AccountClient.BalanceOperationResponse();
+                });
+        when(transactionRepository.settlePending(1L, TransactionStatus.COMPLETED)).thenReturn(0);
+
+        dispatcher.settle(event);
+
+        assertEquals(SettlementStep.SETTLE, event.getStep());
+        verify(outboxEventRepository).deleteById(7L);
+        verify(outboxEventRepository, never()).save(any());
+    }
+
+    @Test
+    void settle_CancelledTransactionIsSkipped() {
+        transaction.setStatus(TransactionStatus.CANCELLED);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+
+        dispatcher.settle(event);
+
+        verifyNoInteractions(accountClient);
+        verify(outboxEventRepository).deleteById(7L);
+    }
+
+    @Test
+    void dispatchBatch_SkipsEntriesClaimedElsewhere() {
+        when(outboxEventRepository.findDispatchableIds(any(OffsetDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(7L, 8L));
+        when(outboxEventRepository.claim(eq(7L), any(), any())).thenReturn(1);
+        when(outboxEventRepository.claim(eq(8L), any(), any())).thenReturn(0);
+        when(outboxEventRepository.findById(7L)).thenReturn(Optional.of(event));
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(accountClient.applyBalanceOperation(any(AccountClient.BalanceOperationRequest.class), eq("Bearer service-token")))
+                .thenReturn(new AccountClient.BalanceOperationResponse());
+        when(transactionRepository.settlePending(1L, TransactionStatus.COMPLETED)).thenReturn(1);
+
+        assertEquals(1, dispatcher.dispatchBatch());
+        verify(outboxEventRepository, never()).findById(8L);
+    }
+
+    private FeignException feignError(int status) {
+        Request request = Request.create(Request.HttpMethod.POST, "/api/accounts/balance-operations",
+                new HashMap<>(), null, StandardCharsets.UTF_8, null);
+        return FeignException.errorStatus("applyBalanceOperation",
+                feign.Response.builder().status(status).reason("error").request(request)
+                        .headers(new HashMap<>()).build());
+    }
+}
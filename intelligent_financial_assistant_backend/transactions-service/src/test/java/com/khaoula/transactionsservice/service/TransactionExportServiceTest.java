@@ -0,0 +1,126 @@
+package com.khaoula.transactionsservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.khaoula.transactionsservice.domain.Transaction;
+import com.khaoula.transactionsservice.domain.TransactionStatus;
+import com.khaoula.transactionsservice.domain.TransactionType;
+import com.khaoula.transactionsservice.dto.TransactionFilterDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class TransactionExportServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private TransactionExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new TransactionExportService(entityManager.getEntityManager(), transactionManager, objectMapper, 2);
+
+        persist("TXN-00000002", 1L, OffsetDateTime.parse("2024-01-02T10:00:00Z"), "Loyer, janvier");
+        persist("TXN-00000001", 1L, OffsetDateTime.parse("2024-01-01T10:00:00Z"), "Salaire");
+        persist("TXN-00000003", 1L, OffsetDateTime.parse("2024-01-03T10:00:00Z"), null);
+        persist("TXN-00000004", 2L, OffsetDateTime.parse("2024-01-01T12:00:00Z"), "Autre compte");
+        entityManager.flush();
+    }
+
+    @Test
+    void export_CsvInChronologicalOrder() throws Exception {
+        TransactionFilterDTO filter = new TransactionFilterDTO();
+        filter.setBankAccountId(1L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = exportService.export(filter, TransactionExportService.Format.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, exported);
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].startsWith("id,reference,user_id,bank_account_id"));
+        assertTrue(lines[1].contains("TXN-00000001"));
+        assertTrue(lines[2].contains("\"Loyer, janvier\""));
+        assertTrue(lines[2].contains(",100.0000,"));
+        assertTrue(lines[3].contains("TXN-00000003"));
+    }
+
+    @Test
+    void export_CsvNeutralizesFormulaCells() throws Exception {
+        persist("TXN-00000005", 3L, OffsetDateTime.parse("2024-01-01T10:00:00Z"), "=HYPERLINK(\"http://x\",\"ok\")");
+        persist("TXN-00000006", 3L, OffsetDateTime.parse("2024-01-02T10:00:00Z"), "-2+3");
+        persist("TXN-00000007", 3L, OffsetDateTime.parse("2024-01-03T10:00:00Z"), "@SUM(A1)");
+        persist("TXN-00000008", 3L, OffsetDateTime.parse("2024-01-04T10:00:00Z"), "-150");
+        entityManager.flush();
+        TransactionFilterDTO filter = new TransactionFilterDTO();
+        filter.setBankAccountId(3L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(filter, TransactionExportService.Format.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertTrue(lines[1].contains(",\"'=HYPERLINK(\"\"http://x\"\",\"\"ok\"\")\""));
+        assertTrue(lines[2].contains(",'-2+3"));
+        assertTrue(lines[3].contains(",'@SUM(A1)"));
+        assertTrue(lines[4].contains(",-150"));
+        assertFalse(lines[4].contains("'-150"));
+    }
+
+    @Test
+    void export_NdjsonOneObjectPerLine() throws Exception {
+        TransactionFilterDTO filter = new TransactionFilterDTO();
+        filter.setBankAccountId(1L);
+        filter.setStartDate(OffsetDateTime.parse("2024-01-02T00:00:00Z"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = exportService.export(filter, TransactionExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, exported);
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("TXN-00000002", first.get("reference").asText());
+        assertEquals("Loyer, janvier", first.get("reason").asText());
+        assertEquals(0, new BigDecimal("100").compareTo(first.get("amount").decimalValue()));
+        assertTrue(objectMapper.readTree(lines[1]).get("reason").isNull());
+    }
+
+    @Test
+    void export_NoMatchWritesOnlyHeader() throws Exception {
+        TransactionFilterDTO filter = new TransactionFilterDTO();
+        filter.setStatus(TransactionStatus.FAILED);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, exportService.export(filter, TransactionExportService.Format.CSV, out));
+        assertEquals(1, out.toString(StandardCharsets.UTF_8).split("\r\n").length);
+    }
+
+    private void persist(String reference, Long accountId, OffsetDateTime date, String reason) {
+        Transaction transaction = new Transaction();
+        transaction.setUserId(1L);
+        transaction.setBankAccountId(accountId);
+        transaction.setReference(reference);
+        transaction.setType(TransactionType.DEPOSIT);
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setAmount(new BigDecimal("100.00"));
+        transaction.setReason(reason);
+        transaction.setDate(date);
+        entityManager.persist(transaction);
+    }
+}
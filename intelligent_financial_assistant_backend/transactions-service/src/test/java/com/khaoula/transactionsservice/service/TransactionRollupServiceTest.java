@@ -0,0 +1,198 @@
+package com.khaoula.transactionsservice.service;
+
+import com.aitsaid.commoncore.cache.AggregateCache;
+import com.khaoula.transactionsservice.config.TransactionRollupBackfill;
+import com.khaoula.transactionsservice.domain.Transaction;
+import com.khaoula.transactionsservice.domain.TransactionStatus;
+import com.khaoula.transactionsservice.domain.TransactionType;
+import com.khaoula.transactionsservice.dto.DailyTransactionStats;
+import com.khaoula.transactionsservice.repository.TransactionDailyRollupRepository;
+import com.khaoula.transactionsservice.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Sans transaction de test : la création des lignes de compteurs est validée à part (REQUIRES_NEW)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TransactionRollupServiceTest {
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionDailyRollupRepository rollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AggregateCache aggregateCache = mock(AggregateCache.class);
+    private TransactionRollupService rollupService;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        rollupService = new TransactionRollupService(rollupRepository, aggregateCache, transactionManager);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        rollupRepository.deleteAll();
+        transactionRepository.deleteAll();
+        jdbcTemplate.execute("DROP TABLE IF EXISTS transaction_migrations");
+    }
+
+    @Test
+    void recordTransition_MovesTransactionBetweenStatuses() {
+        Transaction first = transaction("TXN-00000001", "2024-01-15T23:30:00+02:00", "100.00");
+        Transaction second = transaction("TXN-00000002", "2024-01-15T10:00:00Z", "40.00");
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            rollupService.recordTransition(first, null, TransactionStatus.PENDING);
+            rollupService.recordTransition(second, null, TransactionStatus.PENDING);
+        });
+        transactionTemplate.executeWithoutResult(tx ->
+                rollupService.recordTransition(first, TransactionStatus.PENDING, TransactionStatus.COMPLETED));
+
+        Map<TransactionStatus, TransactionRollupService.Totals> totals =
+                rollupService.totalsByStatus(LocalDate.parse("2024-01-15"));
+        assertEquals(1L, totals.get(TransactionStatus.PENDING).count());
+        assertEquals(0, new BigDecimal("40.00").compareTo(totals.get(TransactionStatus.PENDING).amount()));
+        assertEquals(1L, totals.get(TransactionStatus.COMPLETED).count());
+        assertEquals(0, new BigDecimal("100.00").compareTo(totals.get(TransactionStatus.COMPLETED).amount()));
+        // 23:30 à +02:00 tombe le 15 en UTC
+        assertEquals(1L, totals.get(TransactionStatus.PENDING).todayCount());
+        assertEquals(1L, totals.get(TransactionStatus.COMPLETED).todayCount());
+        assertEquals(0L, rollupService.totalsByStatus(LocalDate.parse("2024-01-16"))
+                .get(TransactionStatus.COMPLETED).todayCount());
+        verify(aggregateCache, times(3)).invalidate(TransactionRollupService.STATS_CACHE_KEY,
+                TransactionRollupService.DAILY_STATS_CACHE_KEY);
+    }
+
+    @Test
+    void recordTransition_RolledBackWithCallerTransaction() {
+        Transaction transaction = transaction("TXN-00000001", "2024-01-15T10:00:00Z", "100.00");
+        transactionTemplate.executeWithoutResult(tx ->
+                rollupService.recordTransition(transaction, null, TransactionStatus.PENDING));
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            rollupService.recordTransition(transaction, TransactionStatus.PENDING, TransactionStatus.FAILED);
+            tx.setRollbackOnly();
+        });
+
+        Map<TransactionStatus, TransactionRollupService.Totals> totals =
+                rollupService.totalsByStatus(LocalDate.parse("2024-01-15"));
+        assertEquals(1L, totals.get(TransactionStatus.PENDING).count());
+        assertEquals(0L, totals.get(TransactionStatus.FAILED).count());
+    }
+
+    @Test
+    void backfill_AggregatesExistingTransactionsOnce() {
+        transactionRepository.save(transaction("TXN-00000001", "2024-01-14T10:00:00Z", "100.00"));
+        transactionRepository.save(transaction("TXN-00000002", "2024-01-15T10:00:00Z", "40.00"));
+        transactionRepository.save(transaction("TXN-00000003", "2024-01-15T11:00:00Z", "60.00"));
+        TransactionRollupBackfill backfill = new TransactionRollupBackfill(jdbcTemplate, transactionManager);
+
+        backfill.backfill();
+        backfill.backfill();
+
+        Map<TransactionStatus, TransactionRollupService.Totals> totals =
+                rollupService.totalsByStatus(LocalDate.parse("2024-01-15"));
+        assertEquals(3L, totals.get(TransactionStatus.PENDING).count());
+        assertEquals(0, new BigDecimal("200.00").compareTo(totals.get(TransactionStatus.PENDING).amount()));
+        List<DailyTransactionStats> daily = rollupService.dailyStats(LocalDate.parse("2024-01-15"));
+        assertEquals(1, daily.size());
+        assertEquals(2L, daily.get(0).getCount());
+    }
+
+    @Test
+    void backfill_RecomputesCountersRecordedBeforeItRan() {
+        Transaction early = transaction("TXN-00000001", "2024-01-15T10:00:00Z", "100.00");
+        transactionRepository.save(early);
+        // Transition comptée par une instance déjà démarrée, avant le remplissage
+        transactionTemplate.executeWithoutResult(tx ->
+                rollupService.recordTransition(early, null, TransactionStatus.PENDING));
+        transactionRepository.save(transaction("TXN-00000002", "2024-01-15T11:00:00Z", "40.00"));
+
+        new TransactionRollupBackfill(jdbcTemplate, transactionManager).backfill();
+
+        Map<TransactionStatus, TransactionRollupService.Totals> totals =
+                rollupService.totalsByStatus(LocalDate.parse("2024-01-15"));
+        assertEquals(2L, totals.get(TransactionStatus.PENDING).count());
+        assertEquals(0, new BigDecimal("140.00").compareTo(totals.get(TransactionStatus.PENDING).amount()));
+    }
+
+    @Test
+    void backfill_MarkerPreventsRecountAfterTransitions() {
+        Transaction first = transaction("TXN-00000001", "2024-01-15T10:00:00Z", "100.00");
+        transactionRepository.save(first);
+        TransactionRollupBackfill backfill = new TransactionRollupBackfill(jdbcTemplate, transactionManager);
+        backfill.backfill();
+
+        transactionTemplate.executeWithoutResult(tx ->
+                rollupService.recordTransition(first, TransactionStatus.PENDING, TransactionStatus.COMPLETED));
+        backfill.backfill();
+
+        Map<TransactionStatus, TransactionRollupService.Totals> totals =
+                rollupService.totalsByStatus(LocalDate.parse("2024-01-15"));
+        assertEquals(0L, totals.get(TransactionStatus.PENDING).count());
+        assertEquals(1L, totals.get(TransactionStatus.COMPLETED).count());
+    }
+
+    @Test
+    void dailyStats_BreaksDownByStatusAndType() {
+        Transaction deposit = transaction("TXN-00000001", "2024-01-14T10:00:00Z", "100.00");
+        Transaction withdrawal = transaction("TXN-00000002", "2024-01-15T10:00:00Z", "40.00");
+        withdrawal.setType(TransactionType.WITHDRAWAL);
+        Transaction failed = transaction("TXN-00000003", "2024-01-15T11:00:00Z", "60.00");
+        transactionTemplate.executeWithoutResult(tx -> {
+            rollupService.recordTransition(deposit, null, TransactionStatus.COMPLETED);
+            rollupService.recordTransition(withdrawal, null, TransactionStatus.COMPLETED);
+            rollupService.recordTransition(failed, null, TransactionStatus.FAILED);
+        });
+
+        List<DailyTransactionStats> daily = rollupService.dailyStats(LocalDate.parse("2024-01-14"));
+
+        assertEquals(2, daily.size());
+        assertEquals(LocalDate.parse("2024-01-14"), new java.sql.Date(daily.get(0).getDate().getTime()).toLocalDate());
+        DailyTransactionStats day = daily.get(1);
+        assertEquals(2L, day.getCount());
+        assertEquals(0, new BigDecimal("40.00").compareTo(day.getVolume()));
+        assertEquals(1L, day.getCountByStatus().get(TransactionStatus.COMPLETED));
+        assertEquals(1L, day.getCountByStatus().get(TransactionStatus.FAILED));
+        assertEquals(1L, day.getCountByType().get(TransactionType.WITHDRAWAL));
+        assertEquals(1L, day.getCountByType().get(TransactionType.DEPOSIT));
+    }
+
+    private Transaction transaction(String reference, String date, String amount) {
+        Transaction transaction = new Transaction();
+        transaction.setUserId(1L);
+        transaction.setBankAccountId(1L);
+        transaction.setReference(reference);
+        transaction.setType(TransactionType.DEPOSIT);
+        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setDate(OffsetDateTime.parse(date));
+        return transaction;
+    }
+}
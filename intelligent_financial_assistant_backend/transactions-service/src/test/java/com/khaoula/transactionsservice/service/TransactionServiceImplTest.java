@@ -1,13 +1,18 @@
 package com.khaoula.transactionsservice.service;
 
+import com.aitsaid.commoncore.cache.AggregateCache;
+import com.aitsaid.commonsecurity.users.UserNearCache;
 import com.khaoula.transactionsservice.client.AccountClient;
 import com.khaoula.transactionsservice.client.RecipientClient;
 import com.khaoula.transactionsservice.client.UserClient;
+import com.khaoula.transactionsservice.domain.OutboxEvent;
 import com.khaoula.transactionsservice.domain.Transaction;
 import com.khaoula.transactionsservice.domain.TransactionStatus;
 import com.khaoula.transactionsservice.domain.TransactionType;
 import com.khaoula.transactionsservice.dto.DailyTransactionStats;
 import com.khaoula.transactionsservice.dto.RecipientRequest;
+import com.khaoula.transactionsservice.dto.TransactionCursor;
+import com.khaoula.transactionsservice.dto.TransactionCursorPageDTO;
 import com.khaoula.transactionsservice.dto.TransactionFilterDTO;
 import com.khaoula.transactionsservice.dto.TransactionRequestDTO;
 import com.khaoula.transactionsservice.dto.TransactionResponseDTO;
@@ -15,25 +20,36 @@ import com.khaoula.transactionsservice.dto.TransferRequestDTO;
 import com.khaoula.transactionsservice.exception.InsufficientBalanceException;
 import com.khaoula.transactionsservice.exception.InvalidTransactionException;
 import com.khaoula.transactionsservice.exception.ResourceNotFoundException;
+import com.khaoula.transactionsservice.repository.OutboxEventRepository;
 import com.khaoula.transactionsservice.repository.TransactionRepository;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -51,6 +67,21 @@ class TransactionServiceImplTest {
     @Mock
     private UserClient userClient;
 
+    @Mock
+    private UserNearCache<UserClient.UserDetails> userProfileCache;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private TransactionRollupService rollupService;
+
+    @Mock
+    private AggregateCache aggregateCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private TransactionServiceImpl transactionService;
 
@@ -98,14 +129,19 @@ class TransactionServiceImplTest {
     @Test
     void createDeposit_Success() {
         when(accountClient.getAccountById(anyLong(), anyString())).thenReturn(accountResponse);
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
-        doNothing().when(accountClient).updateBalance(anyLong(), any(AccountClient.BalanceUpdateRequest.class), anyString());
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(inv -> inv.getArgument(0));
 
         TransactionResponseDTO result = transactionService.createDeposit(transactionRequestDTO, "Bearer token");
 
         assertNotNull(result);
-        assertEquals(TransactionStatus.COMPLETED, result.getStatus());
-        verify(accountClient, times(1)).updateBalance(anyLong(), any(AccountClient.BalanceUpdateRequest.class), anyString());
+        assertEquals(TransactionStatus.PENDING, result.getStatus());
+        assertNotNull(result.getReference());
+
+        // Le règlement est confié au dispatcher : aucun appel de solde pendant la requête
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository, times(1)).save(captor.capture());
+        assertEquals(result.getReference(), captor.getValue().getReference());
+        verify(accountClient, never()).applyBalanceOperation(any(), anyString());
     }
 
     @Test
@@ -118,15 +154,16 @@ class TransactionServiceImplTest {
 
     @Test
     void createWithdrawal_Success() {
-        transaction.setType(TransactionType.WITHDRAWAL);
         when(accountClient.getAccountById(anyLong(), anyString())).thenReturn(accountResponse);
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
-        doNothing().when(accountClient).updateBalance(anyLong(), any(AccountClient.BalanceUpdateRequest.class), anyString());
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(inv -> inv.getArgument(0));
 
         TransactionResponseDTO result = transactionService.createWithdrawal(transactionRequestDTO, "Bearer token");
 
         assertNotNull(result);
-        assertEquals(TransactionStatus.COMPLETED, result.getStatus());
+        assertEquals(TransactionStatus.PENDING, result.getStatus());
+        assertEquals(TransactionType.WITHDRAWAL, result.getType());
+        verify(outboxEventRepository, times(1)).save(any(OutboxEvent.class));
+        verify(accountClient, never()).applyBalanceOperation(any(), anyString());
     }
 
     @Test
@@ -139,30 +176,132 @@ class TransactionServiceImplTest {
 
     @Test
     void createTransfer_Success() {
-        transaction.setType(TransactionType.TRANSFER);
         RecipientClient.ApiResponse<RecipientClient.RecipientResponse> apiResponse = new RecipientClient.ApiResponse<>();
         apiResponse.setData(recipientResponse);
 
         when(accountClient.getAccountById(anyLong(), anyString())).thenReturn(accountResponse);
         when(recipientClient.getRecipientByIban(anyString(), anyString())).thenReturn(apiResponse);
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
-        doNothing().when(accountClient).updateBalance(anyLong(), any(AccountClient.BalanceUpdateRequest.class), anyString());
-        when(accountClient.getAccountByIban(anyString(), anyString())).thenReturn(accountResponse);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(inv -> inv.getArgument(0));
 
         TransactionResponseDTO result = transactionService.createTransfer(transferRequestDTO, "Bearer token");
 
         assertNotNull(result);
-        assertEquals(TransactionStatus.COMPLETED, result.getStatus());
+        assertEquals(TransactionStatus.PENDING, result.getStatus());
+        assertEquals("FR7612345678901234567890123", result.getRecipientIban());
+
+        verify(outboxEventRepository, times(1)).save(any(OutboxEvent.class));
+        verify(accountClient, never()).applyBalanceOperation(any(), anyString());
+        verify(accountClient, never()).getAccountByIban(anyString(), anyString());
+    }
+
+    @Test
+    void createTransfer_OutboxWriteFails() {
+        RecipientClient.ApiResponse<RecipientClient.RecipientResponse> apiResponse = new RecipientClient.ApiResponse<>();
+        apiResponse.setData(recipientResponse);
+
+        when(accountClient.getAccountById(anyLong(), anyString())).thenReturn(accountResponse);
+        when(recipientClient.getRecipientByIban(anyString(), anyString())).thenReturn(apiResponse);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(outboxEventRepository.save(any(OutboxEvent.class))).thenThrow(new RuntimeException("DB down"));
+
+        assertThrows(RuntimeException.class, () -> transactionService.createTransfer(transferRequestDTO, "Bearer token"));
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, never()).commit(any());
     }
 
     @Test
     void getUserTransactions_Success() {
-        when(transactionRepository.findByUserId(1L)).thenReturn(Collections.singletonList(transaction));
+        when(transactionRepository.findByUserId(eq(1L), any(Pageable.class)))
+                .thenReturn(new org.springframework.data.domain.PageImpl<>(Collections.singletonList(transaction)));
 
-        List<TransactionResponseDTO> result = transactionService.getUserTransactions(1L);
+        Page<TransactionResponseDTO> result = transactionService.getUserTransactions(1L, null, null, 0, 20);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
+        assertEquals(1, result.getContent().size());
+    }
+
+    @Test
+    void getUserTransactions_SizeIsCappedAndNewestFirst() {
+        when(transactionRepository.findByUserId(eq(1L), any(Pageable.class)))
+                .thenReturn(new org.springframework.data.domain.PageImpl<>(Collections.emptyList()));
+
+        transactionService.getUserTransactions(1L, null, null, 0, 10_000);
+
+        ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+        verify(transactionRepository).findByUserId(eq(1L), captor.capture());
+        assertEquals(100, captor.getValue().getPageSize());
+        assertEquals(Sort.Direction.DESC, captor.getValue().getSort().getOrderFor("date").getDirection());
+    }
+
+    @Test
+    void getUserTransactions_WindowUsesSpecification() {
+        when(transactionRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new org.springframework.data.domain.PageImpl<>(Collections.singletonList(transaction)));
+
+        Page<TransactionResponseDTO> result = transactionService.getUserTransactions(
+                1L, OffsetDateTime.now().minusDays(30), null, 0, 20);
+
+        assertEquals(1, result.getContent().size());
+        verify(transactionRepository, never()).findByUserId(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void getLatestUserTransactions_NoCountQuery() {
+        when(transactionRepository.searchAfter(any(TransactionFilterDTO.class), isNull(), eq(6)))
+                .thenReturn(Collections.singletonList(transaction));
+
+        TransactionCursorPageDTO result = transactionService.getLatestUserTransactions(1L, null, null, null, 5);
+
+        assertEquals(1, result.getContent().size());
+        assertFalse(result.isHasMore());
+        assertNull(result.getNextCursor());
+        assertNull(result.getEstimatedTotal());
+        verify(transactionRepository, never()).countMatching(any());
+        verify(transactionRepository, never()).estimateMatching(any());
+    }
+
+    @Test
+    void getLatestUserTransactions_NextCursorContinuesAfterLastRow() {
+        Transaction older = new Transaction();
+        older.setId(2L);
+        older.setUserId(1L);
+        older.setType(TransactionType.DEPOSIT);
+        older.setStatus(TransactionStatus.COMPLETED);
+        older.setAmount(new BigDecimal("50.00"));
+        older.setDate(transaction.getDate().minusDays(1));
+        when(transactionRepository.searchAfter(any(TransactionFilterDTO.class), isNull(), eq(2)))
+                .thenReturn(List.of(transaction, older));
+
+        TransactionCursorPageDTO first = transactionService.getLatestUserTransactions(1L, null, null, null, 1);
+
+        assertEquals(1, first.getContent().size());
+        assertTrue(first.isHasMore());
+        assertEquals(TransactionCursor.after(transaction).encode(), first.getNextCursor());
+
+        when(transactionRepository.searchAfter(any(TransactionFilterDTO.class), any(TransactionCursor.class), eq(2)))
+                .thenReturn(List.of(older));
+
+        TransactionCursorPageDTO second = transactionService.getLatestUserTransactions(
+                1L, null, null, first.getNextCursor(), 1);
+
+        assertEquals(2L, second.getContent().get(0).getId());
+        assertNull(second.getNextCursor());
+        verify(transactionRepository).searchAfter(any(TransactionFilterDTO.class),
+                eq(TransactionCursor.decode(first.getNextCursor())), eq(2));
+    }
+
+    @Test
+    void searchTransactions_IncludeTotal_UsesEstimate() {
+        TransactionFilterDTO filter = new TransactionFilterDTO();
+        filter.setSize(20);
+        when(transactionRepository.searchAfter(eq(filter), isNull(), eq(21)))
+                .thenReturn(Collections.singletonList(transaction));
+        when(transactionRepository.estimateMatching(filter)).thenReturn(1_000_000L);
+
+        TransactionCursorPageDTO result = transactionService.searchTransactions(filter, null, true);
+
+        assertEquals(1_000_000L, result.getEstimatedTotal());
+        verify(transactionRepository, never()).countMatching(any());
     }
 
     @Test
@@ -186,12 +325,23 @@ class TransactionServiceImplTest {
     void cancelTransaction_Success() {
         transaction.setStatus(TransactionStatus.PENDING);
         when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
+        when(transactionRepository.settlePending(1L, TransactionStatus.CANCELLED)).thenReturn(1);
 
         TransactionResponseDTO result = transactionService.cancelTransaction(1L, 1L);
 
         assertNotNull(result);
         assertEquals(TransactionStatus.CANCELLED, result.getStatus());
+        verify(rollupService).recordTransition(transaction, TransactionStatus.PENDING, TransactionStatus.CANCELLED);
+    }
+
+    @Test
+    void cancelTransaction_SettledConcurrently() {
+        transaction.setStatus(TransactionStatus.PENDING);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
+        when(transactionRepository.settlePending(1L, TransactionStatus.CANCELLED)).thenReturn(0);
+
+        assertThrows(InvalidTransactionException.class, () -> transactionService.cancelTransaction(1L, 1L));
+        verify(rollupService, never()).recordTransition(any(), any(), any());
     }
 
     @Test
@@ -244,47 +394,15 @@ class TransactionServiceImplTest {
         assertThrows(InvalidTransactionException.class, () -> transactionService.createTransfer(transferRequestDTO, "Bearer token"));
     }
 
-    @Test
-    void createTransfer_BalanceUpdateFails() {
-        transaction.setType(TransactionType.TRANSFER);
-        RecipientClient.ApiResponse<RecipientClient.RecipientResponse> apiResponse = new RecipientClient.ApiResponse<>();
-        apiResponse.setData(recipientResponse);
-
-        when(accountClient.getAccountById(anyLong(), anyString())).thenReturn(accountResponse);
-        when(recipientClient.getRecipientByIban(anyString(), anyString())).thenReturn(apiResponse);
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
-        doThrow(new RuntimeException("Balance update failed")).when(accountClient).updateBalance(anyLong(), any(AccountClient.BalanceUpdateRequest.class), anyString());
-
-        assertThrows(InvalidTransactionException.class, () -> transactionService.createTransfer(transferRequestDTO, "Bearer token"));
-    }
-
-    @Test
-    void createDeposit_BalanceUpdateFails() {
-        when(accountClient.getAccountById(anyLong(), anyString())).thenReturn(accountResponse);
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
-        doThrow(new RuntimeException("Balance update failed")).when(accountClient).updateBalance(anyLong(), any(AccountClient.BalanceUpdateRequest.class), anyString());
-
-        assertThrows(InvalidTransactionException.class, () -> transactionService.createDeposit(transactionRequestDTO, "Bearer token"));
-    }
-
-    @Test
-    void createWithdrawal_BalanceUpdateFails() {
-        transaction.setType(TransactionType.WITHDRAWAL);
-        when(accountClient.getAccountById(anyLong(), anyString())).thenReturn(accountResponse);
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
-        doThrow(new RuntimeException("Balance update failed")).when(accountClient).updateBalance(anyLong(), any(AccountClient.BalanceUpdateRequest.class), anyString());
-
-        assertThrows(InvalidTransactionException.class, () -> transactionService.createWithdrawal(transactionRequestDTO, "Bearer token"));
-    }
-
     @Test
     void getAccountTransactions_Success() {
-        when(transactionRepository.findByBankAccountId(1L)).thenReturn(Collections.singletonList(transaction));
+        when(transactionRepository.findByBankAccountId(eq(1L), any(Pageable.class)))
+                .thenReturn(new org.springframework.data.domain.PageImpl<>(Collections.singletonList(transaction)));
 
-        List<TransactionResponseDTO> result = transactionService.getAccountTransactions(1L);
+        Page<TransactionResponseDTO> result = transactionService.getAccountTransactions(1L, null, null, 0, 20);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
+        assertEquals(1, result.getContent().size());
     }
 
     @Test
@@ -316,7 +434,7 @@ class TransactionServiceImplTest {
         filter.setStatus(TransactionStatus.COMPLETED);
 
         Page<Transaction> page = new org.springframework.data.domain.PageImpl<>(Collections.singletonList(transaction));
-        when(transactionRepository.findByFilters(anyLong(), any(), any(), any(), any(), any(), any())).thenReturn(page);
+        when(transactionRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         Page<TransactionResponseDTO> result = transactionService.getAllTransactions(filter);
 
@@ -328,12 +446,11 @@ class TransactionServiceImplTest {
 
     @Test
     void getTransactionStats_Success() {
-        when(transactionRepository.count()).thenReturn(100L);
-        when(transactionRepository.countByStatus(TransactionStatus.PENDING)).thenReturn(10L);
-        when(transactionRepository.countByStatus(TransactionStatus.COMPLETED)).thenReturn(80L);
-        when(transactionRepository.countByStatus(TransactionStatus.FAILED)).thenReturn(10L);
-        when(transactionRepository.sumAmountByStatus(TransactionStatus.COMPLETED)).thenReturn(50000.0);
-        when(transactionRepository.countByDateBetween(any(), any())).thenReturn(15L);
+        passThroughCache();
+        when(rollupService.totalsByStatus(any())).thenReturn(Map.of(
+                TransactionStatus.PENDING, new TransactionRollupService.Totals(10L, new BigDecimal("1000"), 5L),
+                TransactionStatus.COMPLETED, new TransactionRollupService.Totals(80L, new BigDecimal("50000"), 10L),
+                TransactionStatus.FAILED, new TransactionRollupService.Totals(10L, new BigDecimal("500"), 0L)));
 
         TransactionService.TransactionStatsDTO stats = transactionService.getTransactionStats();
 
@@ -348,32 +465,43 @@ class TransactionServiceImplTest {
 
     @Test
     void getTransactionStats_NullTotalVolume() {
-        when(transactionRepository.count()).thenReturn(10L);
-        when(transactionRepository.countByStatus(TransactionStatus.PENDING)).thenReturn(5L);
-        when(transactionRepository.countByStatus(TransactionStatus.COMPLETED)).thenReturn(5L);
-        when(transactionRepository.countByStatus(TransactionStatus.FAILED)).thenReturn(0L);
-        when(transactionRepository.sumAmountByStatus(TransactionStatus.COMPLETED)).thenReturn(null);
-        when(transactionRepository.countByDateBetween(any(), any())).thenReturn(2L);
+        passThroughCache();
+        when(rollupService.totalsByStatus(any())).thenReturn(Map.of(
+                TransactionStatus.PENDING, new TransactionRollupService.Totals(5L, new BigDecimal("50"), 2L)));
 
         TransactionService.TransactionStatsDTO stats = transactionService.getTransactionStats();
 
         assertNotNull(stats);
+        assertEquals(5L, stats.getTotalTransactions());
+        assertEquals(0L, stats.getCompletedTransactions());
         assertEquals(0.0, stats.getTotalVolume());
     }
 
+    @Test
+    void getTransactionStats_ServedFromCache() {
+        TransactionService.TransactionStatsDTO cached =
+                new TransactionService.TransactionStatsDTO(1L, 0L, 1L, 0L, 10.0, 1L);
+        when(aggregateCache.get(eq(TransactionRollupService.STATS_CACHE_KEY), any())).thenReturn(cached);
+
+        assertSame(cached, transactionService.getTransactionStats());
+        verifyNoInteractions(rollupService);
+    }
+
     @Test
     void getDailyStats_Success() {
+        passThroughCache();
         DailyTransactionStats stats = new DailyTransactionStats();
-        when(transactionRepository.findDailyStats(any())).thenReturn(Collections.singletonList(stats));
+        when(rollupService.dailyStats(any())).thenReturn(Collections.singletonList(stats));
 
         List<DailyTransactionStats> result = transactionService.getDailyStats();
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(transactionRepository, times(1)).findDailyStats(any());
+        verify(rollupService, times(1)).dailyStats(any());
     }
 
     @Test
+    @SuppressWarnings("unchecked")
     void createTransfer_AutoCreateRecipient() {
         transaction.setType(TransactionType.TRANSFER);
         RecipientClient.ApiResponse<RecipientClient.RecipientResponse> createResponse = new RecipientClient.ApiResponse<>();
@@ -386,14 +514,42 @@ class TransactionServiceImplTest {
         when(accountClient.getAccountById(anyLong(), anyString())).thenReturn(accountResponse);
         when(recipientClient.getRecipientByIban(anyString(), anyString())).thenThrow(new RuntimeException("Not found"));
         when(accountClient.getAccountByIban(anyString(), anyString())).thenReturn(accountResponse);
+        when(userProfileCache.get(eq(1L), any())).thenAnswer(inv ->
+                ((Function<Long, UserClient.UserDetails>) inv.getArgument(1)).apply(inv.getArgument(0)));
         when(userClient.getUserById(anyLong(), anyString())).thenReturn(userDetails);
         when(recipientClient.addRecipient(any(RecipientRequest.class), anyString())).thenReturn(createResponse);
         when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
-        doNothing().when(accountClient).updateBalance(anyLong(), any(AccountClient.BalanceUpdateRequest.class), anyString());
 
         TransactionResponseDTO result = transactionService.createTransfer(transferRequestDTO, "Bearer token");
 
         assertNotNull(result);
         verify(recipientClient, times(1)).addRecipient(any(RecipientRequest.class), anyString());
+        verify(userClient).getUserById(1L, "Bearer token");
+    }
+
+    @Test
+    void createTransfer_AutoCreateRecipient_UsesCachedProfile() {
+        RecipientClient.ApiResponse<RecipientClient.RecipientResponse> createResponse = new RecipientClient.ApiResponse<>();
+        createResponse.setData(recipientResponse);
+        UserClient.UserDetails userDetails = new UserClient.UserDetails();
+        userDetails.setFirstName("John");
+        userDetails.setLastName("Doe");
+
+        when(accountClient.getAccountById(anyLong(), anyString())).thenReturn(accountResponse);
+        when(recipientClient.getRecipientByIban(anyString(), anyString())).thenThrow(new RuntimeException("Not found"));
+        when(accountClient.getAccountByIban(anyString(), anyString())).thenReturn(accountResponse);
+        when(userProfileCache.get(eq(1L), any())).thenReturn(userDetails);
+        when(recipientClient.addRecipient(any(RecipientRequest.class), anyString())).thenReturn(createResponse);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
+
+        transactionService.createTransfer(transferRequestDTO, "Bearer token");
+
+        verify(recipientClient).addRecipient(argThat(r -> "John Doe".equals(r.getFullName())), anyString());
+        verifyNoInteractions(userClient);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void passThroughCache() {
+        when(aggregateCache.get(anyString(), any())).thenAnswer(inv -> ((Supplier<Object>) inv.getArgument(1)).get());
     }
 }